@@ -0,0 +1,149 @@
+package de.dnb.basics.applicationComponents;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import de.dnb.basics.applicationComponents.ConcurrentCache.Policy;
+import de.dnb.basics.utils.TimeUtils;
+
+/**
+ * Vergleicht {@link LFUCachedFunction} und {@link LRUCachedFunction}
+ * (synchronized) mit {@link ConcurrentCachedFunction} (LFU und LRU) für
+ * 1, 2, 4, ... Threads bis zur doppelten Zahl der Prozessoren.
+ * <br><br>
+ * Last: {@value #ROUNDS} Aufrufe mit {@value #KEYS} verschiedenen
+ * Schlüsseln, schief verteilt (etwa wie ISILs in Mailboxen), Cache-Größe
+ * {@value #CACHE_SIZE}. Die Berechnung kostet ca. 3 µs. Ausgabe: ns je
+ * Aufruf und Anteil der Aufrufe, die berechnet werden mussten.
+ * <br><br>
+ * Auf einem Rechner mit einem Kern (Threads konkurrieren nur um die
+ * Sperre, nicht um Kerne) sind alle Varianten etwa gleich schnell
+ * (700-1000 ns), TinyLFU muss aber seltener rechnen: LFUCachedFunction
+ * 28 %, beide LRU-Varianten 25 %, ConcurrentCachedFunction(LFU) 20 %. Mit
+ * mehreren Kernen bleiben die synchronized-Varianten bei der Zeit eines
+ * Threads, während die Segmente der neuen Klasse parallel arbeiten.
+ * <br><br>
+ * Zum Schluss LFUCachedFunction mit und ohne
+ * {@link LFUCachedFunction#enableMetrics()} (1 Thread). Ohne Zähler ist
+ * die Zeit dieselbe wie vor der Instrumentierung (ca. 800 ns), mit Zählern
+ * kommen bis zu 10 % dazu, vor allem für System.nanoTime() je
+ * Berechnung.
+ *
+ * @author baumann
+ *
+ */
+public final class CacheBenchmark {
+
+  private CacheBenchmark() {
+  }
+
+  private static final int ROUNDS = 2_000_000;
+
+  private static final int KEYS = 5_000;
+
+  private static final int CACHE_SIZE = 1000;
+
+  private static final LongAdder CALCULATIONS = new LongAdder();
+
+  /**
+   * Die teure Funktion.
+   */
+  private static String calculate(final Integer x) {
+    CALCULATIONS.increment();
+    String s = Integer.toString(x);
+    for (int i = 0; i < 100; i++) {
+      s = Integer.toHexString(s.hashCode() ^ i);
+    }
+    return s;
+  }
+
+  private static void run(
+    final String name,
+    final Function<Integer, String> function,
+    final int threads,
+    final Integer[] keys) throws InterruptedException {
+    CALCULATIONS.reset();
+    final List<Thread> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      final int from = (int) ((long) ROUNDS * t / threads);
+      final int to = (int) ((long) ROUNDS * (t + 1) / threads);
+      workers.add(new Thread(() ->
+      {
+        for (int i = from; i < to; i++) {
+          function.apply(keys[i]);
+        }
+      }));
+    }
+    TimeUtils.startStopWatch();
+    workers.forEach(Thread::start);
+    for (final Thread worker : workers) {
+      worker.join();
+    }
+    final long nanos = TimeUtils.delta_t_nanos();
+    System.out.println(threads + " Threads, " + name + ": " + nanos / ROUNDS + " ns, "
+      + 100 * CALCULATIONS.sum() / ROUNDS + " % berechnet");
+  }
+
+  /**
+   * @param args  nicht benutzt
+   * @throws InterruptedException wenn unterbrochen
+   */
+  public static void main(final String[] args) throws InterruptedException {
+    // Schiefe Verteilung: kleine Schlüssel kommen viel häufiger vor.
+    final Random random = new Random(42);
+    final Integer[] keys = new Integer[ROUNDS];
+    for (int i = 0; i < ROUNDS; i++) {
+      final double d = random.nextDouble();
+      keys[i] = (int) (Math.pow(d, 8) * KEYS);
+    }
+    final int maxThreads = 2 * Runtime.getRuntime().availableProcessors();
+    System.out.println("Prozessoren: " + Runtime.getRuntime().availableProcessors());
+
+    for (int warmup = 0; warmup < 2; warmup++) {
+      for (int threads = 1; threads <= Math.max(maxThreads, 4); threads *= 2) {
+        run("LFUCachedFunction            ", new LFUCachedFunction<Integer, String>(CACHE_SIZE) {
+          @Override
+          protected String calculate(final Integer x) {
+            return CacheBenchmark.calculate(x);
+          }
+        }, threads, keys);
+        run("LRUCachedFunction            ", new LRUCachedFunction<Integer, String>(CACHE_SIZE) {
+          @Override
+          protected String calculate(final Integer x) {
+            return CacheBenchmark.calculate(x);
+          }
+        }, threads, keys);
+        run("ConcurrentCachedFunction(LFU)",
+          ConcurrentCachedFunction.create(CacheBenchmark::calculate, CACHE_SIZE, Policy.LFU),
+          threads, keys);
+        run("ConcurrentCachedFunction(LRU)",
+          ConcurrentCachedFunction.create(CacheBenchmark::calculate, CACHE_SIZE, Policy.LRU),
+          threads, keys);
+      }
+    }
+
+    for (int round = 0; round < 3; round++) {
+      run("LFUCachedFunction ohne Zähler", lfu(false), 1, keys);
+      final LFUCachedFunction<Integer, String> withMetrics = lfu(true);
+      run("LFUCachedFunction mit Zähler ", withMetrics, 1, keys);
+      System.out.println(withMetrics.stats());
+    }
+  }
+
+  private static LFUCachedFunction<Integer, String> lfu(final boolean metrics) {
+    final LFUCachedFunction<Integer, String> function =
+      new LFUCachedFunction<Integer, String>(CACHE_SIZE) {
+        @Override
+        protected String calculate(final Integer x) {
+          return CacheBenchmark.calculate(x);
+        }
+      };
+    if (metrics)
+      function.enableMetrics();
+    return function;
+  }
+
+}
@@ -0,0 +1,232 @@
+package de.dnb.basics.applicationComponents;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import de.dnb.basics.filtering.RangeCheckUtils;
+
+/**
+ * Zähler eines Caches: Treffer, Fehlschläge, Verdrängungen, Berechnungen
+ * (mit Zeit) und Höchststand der Größe. Threadsicher.
+ * <br><br>
+ * {@link LFUCache}, {@link LFUCachedFunction} und {@link LRUCachedFunction}
+ * legen die Zähler erst mit enableMetrics() an. Vorher kostet die
+ * Instrumentierung nur einen Vergleich mit null je Aufruf.
+ * {@link ConcurrentCache} zählt immer.
+ * <br><br>
+ * Auslesen als {@link CacheStats} oder über JMX, s.
+ * {@link #registerMBean(String, Supplier, Runnable)}.
+ *
+ * @author baumann
+ *
+ */
+public final class CacheMetrics {
+
+  /**
+   * Domain der MBeans.
+   */
+  public static final String JMX_DOMAIN = "de.dnb.basics.cache";
+
+  private final LongAdder hits = new LongAdder();
+
+  private final LongAdder misses = new LongAdder();
+
+  private final LongAdder evictions = new LongAdder();
+
+  private final LongAdder loads = new LongAdder();
+
+  private final LongAdder loadNanos = new LongAdder();
+
+  private final AtomicInteger peakSize = new AtomicInteger();
+
+  /**
+   * Ein Treffer.
+   */
+  public void recordHit() {
+    hits.increment();
+  }
+
+  /**
+   * Ein Fehlschlag.
+   */
+  public void recordMiss() {
+    misses.increment();
+  }
+
+  /**
+   *
+   * @param count verdrängte Einträge
+   */
+  public void recordEvictions(final int count) {
+    evictions.add(count);
+  }
+
+  /**
+   *
+   * @param nanos Dauer einer Berechnung der gecachten Funktion
+   */
+  public void recordLoad(final long nanos) {
+    loads.increment();
+    loadNanos.add(nanos);
+  }
+
+  /**
+   *
+   * @param size  aktuelle Größe, für den Höchststand
+   */
+  public void recordSize(final int size) {
+    if (size > peakSize.get())
+      peakSize.accumulateAndGet(size, Math::max);
+  }
+
+  /**
+   *
+   * @param size  aktuelle Größe des Caches
+   * @return      Momentaufnahme
+   */
+  public CacheStats snapshot(final int size) {
+    recordSize(size);
+    return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size, peakSize.get(),
+      loads.sum(), loadNanos.sum());
+  }
+
+  /**
+   * Setzt alle Zähler auf 0. Nicht atomar: gleichzeitige Zählungen können
+   * teilweise erhalten bleiben.
+   */
+  public void reset() {
+    hits.reset();
+    misses.reset();
+    evictions.reset();
+    loads.reset();
+    loadNanos.reset();
+    peakSize.set(0);
+  }
+
+  /**
+   * Sicht für JMX (jconsole, VisualVM).
+   */
+  public interface CacheMXBean {
+
+    long getHitCount();
+
+    long getMissCount();
+
+    double getHitRate();
+
+    long getEvictionCount();
+
+    long getLoadCount();
+
+    double getAverageLoadMillis();
+
+    int getSize();
+
+    int getPeakSize();
+
+    /**
+     * Setzt die Zähler zurück.
+     */
+    void resetStatistics();
+
+  }
+
+  private static final class MXBeanAdapter implements CacheMXBean {
+
+    private final Supplier<CacheStats> stats;
+
+    private final Runnable reset;
+
+    MXBeanAdapter(final Supplier<CacheStats> stats, final Runnable reset) {
+      this.stats = stats;
+      this.reset = reset;
+    }
+
+    @Override
+    public long getHitCount() {
+      return stats.get().getHitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+      return stats.get().getMissCount();
+    }
+
+    @Override
+    public double getHitRate() {
+      return stats.get().getHitRate();
+    }
+
+    @Override
+    public long getEvictionCount() {
+      return stats.get().getEvictionCount();
+    }
+
+    @Override
+    public long getLoadCount() {
+      return stats.get().getLoadCount();
+    }
+
+    @Override
+    public double getAverageLoadMillis() {
+      return stats.get().getAverageLoadNanos() / 1e6;
+    }
+
+    @Override
+    public int getSize() {
+      return stats.get().getSize();
+    }
+
+    @Override
+    public int getPeakSize() {
+      return stats.get().getPeakSize();
+    }
+
+    @Override
+    public void resetStatistics() {
+      reset.run();
+    }
+
+  }
+
+  /**
+   * Meldet einen Cache beim Platform-MBeanServer an, als
+   * {@value #JMX_DOMAIN}:type=Cache,name=<i>name</i>.
+   *
+   * @param name  nicht leer, eindeutig
+   * @param stats nicht null, liefert die aktuellen Werte
+   * @param reset nicht null, setzt die Zähler zurück
+   * @return      Name der MBean, etwa für {@link #unregisterMBean(ObjectName)}
+   * @throws JMException  wenn der Name ungültig oder schon vergeben ist
+   */
+  public static ObjectName registerMBean(
+    final String name,
+    final Supplier<CacheStats> stats,
+    final Runnable reset) throws JMException {
+    RangeCheckUtils.assertStringParamNotNullOrEmpty("name", name);
+    RangeCheckUtils.assertReferenceParamNotNull("stats", stats);
+    RangeCheckUtils.assertReferenceParamNotNull("reset", reset);
+    final ObjectName objectName =
+      new ObjectName(JMX_DOMAIN + ":type=Cache,name=" + ObjectName.quote(name));
+    ManagementFactory.getPlatformMBeanServer().registerMBean(new MXBeanAdapter(stats, reset),
+      objectName);
+    return objectName;
+  }
+
+  /**
+   *
+   * @param objectName    von {@link #registerMBean(String, Supplier, Runnable)}
+   * @throws JMException  wenn nicht angemeldet
+   */
+  public static void unregisterMBean(final ObjectName objectName) throws JMException {
+    final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    server.unregisterMBean(objectName);
+  }
+
+}
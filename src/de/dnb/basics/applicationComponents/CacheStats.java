@@ -0,0 +1,163 @@
+package de.dnb.basics.applicationComponents;
+
+import java.io.Serializable;
+
+/**
+ * Unveränderliche Momentaufnahme der Zähler eines Caches.
+ *
+ * @author baumann
+ *
+ */
+public final class CacheStats implements Serializable {
+
+  private static final long serialVersionUID = -4193016572284937013L;
+
+  private final long hitCount;
+
+  private final long missCount;
+
+  private final long evictionCount;
+
+  private final int size;
+
+  private final int peakSize;
+
+  private final long loadCount;
+
+  private final long totalLoadNanos;
+
+  /**
+   * Ohne Berechnungen; Höchststand = size.
+   *
+   * @param hitCount      Treffer
+   * @param missCount     Fehlschläge
+   * @param evictionCount verdrängte Einträge
+   * @param size          aktuelle Zahl der Einträge
+   */
+  public CacheStats(
+    final long hitCount,
+    final long missCount,
+    final long evictionCount,
+    final int size) {
+    this(hitCount, missCount, evictionCount, size, size, 0, 0);
+  }
+
+  /**
+   *
+   * @param hitCount        Treffer
+   * @param missCount       Fehlschläge
+   * @param evictionCount   verdrängte Einträge
+   * @param size            aktuelle Zahl der Einträge
+   * @param peakSize        höchste Zahl der Einträge
+   * @param loadCount       Berechnungen der gecachten Funktion
+   * @param totalLoadNanos  Dauer aller Berechnungen
+   */
+  public CacheStats(
+    final long hitCount,
+    final long missCount,
+    final long evictionCount,
+    final int size,
+    final int peakSize,
+    final long loadCount,
+    final long totalLoadNanos) {
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.evictionCount = evictionCount;
+    this.size = size;
+    this.peakSize = peakSize;
+    this.loadCount = loadCount;
+    this.totalLoadNanos = totalLoadNanos;
+  }
+
+  /**
+   *
+   * @return  Zahl der Treffer
+   */
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   *
+   * @return  Zahl der Fehlschläge
+   */
+  public long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   *
+   * @return  Treffer + Fehlschläge
+   */
+  public long getRequestCount() {
+    return hitCount + missCount;
+  }
+
+  /**
+   *
+   * @return  Anteil der Treffer, 1.0, wenn noch keine Anfragen
+   */
+  public double getHitRate() {
+    final long requests = getRequestCount();
+    return requests == 0 ? 1.0 : (double) hitCount / requests;
+  }
+
+  /**
+   *
+   * @return  Zahl der verdrängten Einträge
+   */
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   *
+   * @return  Zahl der Einträge zum Zeitpunkt der Aufnahme
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   *
+   * @return  höchste Zahl der Einträge seit dem Anlegen oder Zurücksetzen
+   *          der Zähler
+   */
+  public int getPeakSize() {
+    return peakSize;
+  }
+
+  /**
+   *
+   * @return  Zahl der Berechnungen der gecachten Funktion
+   */
+  public long getLoadCount() {
+    return loadCount;
+  }
+
+  /**
+   *
+   * @return  Dauer aller Berechnungen in Nanosekunden
+   */
+  public long getTotalLoadNanos() {
+    return totalLoadNanos;
+  }
+
+  /**
+   *
+   * @return  mittlere Dauer einer Berechnung in Nanosekunden, 0, wenn noch
+   *          keine
+   */
+  public double getAverageLoadNanos() {
+    return loadCount == 0 ? 0.0 : (double) totalLoadNanos / loadCount;
+  }
+
+  @Override
+  public String toString() {
+    return "CacheStats [hits=" + hitCount + ", misses=" + missCount + ", hitRate="
+      + String.format("%.3f", getHitRate()) + ", evictions=" + evictionCount + ", size=" + size
+      + ", peakSize=" + peakSize + ", loads=" + loadCount + ", averageLoad="
+      + String.format("%.0f", getAverageLoadNanos()) + " ns]";
+  }
+
+}
@@ -0,0 +1,571 @@
+package de.dnb.basics.applicationComponents;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import de.dnb.basics.filtering.RangeCheckUtils;
+
+/**
+ * Threadsicherer Cache mit fester Maximalgröße als Ersatz für
+ * {@link LFUCache}, wenn mehrere Threads zugreifen.
+ * <br><br>
+ * Die Schlüssel sind nach Hashwert auf Segmente verteilt, jedes mit eigener
+ * Sperre und eigener Verdrängung. Threads, die auf verschiedene Segmente
+ * zugreifen, warten also nicht aufeinander. Alle Operationen sind O(1).
+ * Die Verdrängung wählt man mit {@link Policy}:
+ * <ul>
+ * <li>{@link Policy#LRU}: der am längsten nicht benutzte Eintrag des
+ * Segments.
+ * <li>{@link Policy#LFU}: Window-TinyLFU. Neue Einträge kommen in ein
+ * kleines LRU-Fenster (1 %). Wer aus dem Fenster fällt, verdrängt den
+ * LRU-Eintrag des Hauptbereichs nur, wenn er laut {@link FrequencySketch}
+ * häufiger angefragt wurde. Anders als {@link LFUCache} wird dabei immer
+ * genau ein Eintrag entfernt.
+ * </ul>
+ * Weder Schlüssel noch Werte dürfen null sein. {@link #keySet()},
+ * {@link #values()} und {@link #entrySet()} liefern unveränderliche
+ * Kopien.
+ * <br><br>
+ * Die Zähler ({@link #stats()}) laufen immer mit. Der Höchststand der
+ * Größe ist die Summe der Höchststände der Segmente, also eine obere
+ * Schranke; eine exakte Zahl bräuchte einen gemeinsamen Zähler für alle
+ * Threads.
+ *
+ * @param <K>   Schlüssel
+ * @param <V>   Wert
+ *
+ * @author baumann
+ *
+ */
+public class ConcurrentCache<K, V> implements Map<K, V> {
+
+  /**
+   * Verdrängungsstrategie.
+   */
+  public enum Policy {
+    /**
+     * Least Recently Used.
+     */
+    LRU,
+    /**
+     * Least Frequently Used (Window-TinyLFU).
+     */
+    LFU
+  }
+
+  private final Segment<K, V>[] segments;
+
+  private final int segmentMask;
+
+  private final int maxSize;
+
+  private final Policy policy;
+
+  private final CacheMetrics metrics = new CacheMetrics();
+
+  /**
+   * Segmente: doppelte Zahl der Prozessoren.
+   *
+   * @param maxSize   &gt; 0
+   * @param policy    nicht null
+   */
+  public ConcurrentCache(final int maxSize, final Policy policy) {
+    this(maxSize, policy, 2 * Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   *
+   * @param maxSize           &gt; 0
+   * @param policy            nicht null
+   * @param concurrencyLevel  erwartete Zahl gleichzeitig zugreifender
+   *                          Threads, &gt; 0
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public ConcurrentCache(final int maxSize, final Policy policy, final int concurrencyLevel) {
+    if (maxSize <= 0)
+      throw new IllegalArgumentException("maxSize muss > 0 sein: " + maxSize);
+    if (concurrencyLevel <= 0)
+      throw new IllegalArgumentException("concurrencyLevel muss > 0 sein: " + concurrencyLevel);
+    RangeCheckUtils.assertReferenceParamNotNull("policy", policy);
+    this.maxSize = maxSize;
+    this.policy = policy;
+    // Segmente sollen mindestens 8 Einträge fassen:
+    int n = 1;
+    while (n < concurrencyLevel && n * 16 <= maxSize)
+      n <<= 1;
+    segments = new Segment[n];
+    segmentMask = n - 1;
+    for (int i = 0; i < n; i++) {
+      // Größen so verteilen, dass die Summe maxSize ergibt:
+      final int capacity = maxSize / n + (i < maxSize % n ? 1 : 0);
+      segments[i] = policy == Policy.LRU ? new LruSegment<>(capacity) : new LfuSegment<>(capacity);
+    }
+  }
+
+  private Segment<K, V> segmentFor(final Object key) {
+    if (key == null)
+      throw new NullPointerException("key");
+    final int h = key.hashCode() * 0x9E3779B9;
+    return segments[(h ^ h >>> 16) & segmentMask];
+  }
+
+  /**
+   *
+   * @return  Maximalzahl der Einträge
+   */
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   *
+   * @return  Verdrängungsstrategie
+   */
+  public Policy getPolicy() {
+    return policy;
+  }
+
+  /**
+   *
+   * @return  Momentaufnahme der Zähler
+   */
+  public CacheStats stats() {
+    int size = 0;
+    int peak = 0;
+    for (final Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        size += segment.size();
+        peak += segment.peakSize;
+      }
+    }
+    metrics.recordSize(peak);
+    return metrics.snapshot(size);
+  }
+
+  /**
+   * Setzt die Zähler zurück; der Höchststand beginnt bei der aktuellen
+   * Größe.
+   */
+  public void resetStats() {
+    metrics.reset();
+    for (final Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        segment.peakSize = segment.size();
+      }
+    }
+  }
+
+  /**
+   * Meldet den Cache bei JMX an.
+   *
+   * @param name  nicht leer, eindeutig
+   * @return      Name der MBean
+   * @throws JMException  wenn der Name ungültig oder schon vergeben ist
+   */
+  public ObjectName registerMBean(final String name) throws JMException {
+    return CacheMetrics.registerMBean(name, this::stats, this::resetStats);
+  }
+
+  /**
+   *
+   * @return  die Zähler, für {@link ConcurrentCachedFunction}
+   */
+  CacheMetrics metrics() {
+    return metrics;
+  }
+
+  /**
+   * Zählt als Treffer oder Fehlschlag und als Zugriff für die Verdrängung.
+   *
+   * @param key nicht null
+   */
+  @Override
+  public V get(final Object key) {
+    final Segment<K, V> segment = segmentFor(key);
+    final V value;
+    synchronized (segment) {
+      value = segment.get(key);
+    }
+    if (value == null)
+      metrics.recordMiss();
+    else
+      metrics.recordHit();
+    return value;
+  }
+
+  /**
+   * Wie {@link #get(Object)}, aber ohne Zähler und (bei LFU) ohne Einfluss
+   * auf die Häufigkeiten.
+   *
+   * @param key nicht null
+   * @return    Wert oder null
+   */
+  public V peek(final Object key) {
+    final Segment<K, V> segment = segmentFor(key);
+    synchronized (segment) {
+      return segment.peek(key);
+    }
+  }
+
+  /**
+   *
+   * @param key   nicht null
+   * @param value nicht null
+   */
+  @Override
+  public V put(final K key, final V value) {
+    if (value == null)
+      throw new NullPointerException("value");
+    final Segment<K, V> segment = segmentFor(key);
+    final V old;
+    final int evicted;
+    synchronized (segment) {
+      old = segment.put(key, value);
+      evicted = segment.evicted;
+      segment.evicted = 0;
+      final int size = segment.size();
+      if (size > segment.peakSize)
+        segment.peakSize = size;
+    }
+    if (evicted != 0)
+      metrics.recordEvictions(evicted);
+    return old;
+  }
+
+  @Override
+  public void putAll(final Map<? extends K, ? extends V> map) {
+    map.forEach(this::put);
+  }
+
+  @Override
+  public V remove(final Object key) {
+    final Segment<K, V> segment = segmentFor(key);
+    synchronized (segment) {
+      return segment.remove(key);
+    }
+  }
+
+  /**
+   * Zählt nicht als Zugriff.
+   */
+  @Override
+  public boolean containsKey(final Object key) {
+    final Segment<K, V> segment = segmentFor(key);
+    synchronized (segment) {
+      return segment.containsKey(key);
+    }
+  }
+
+  @Override
+  public boolean containsValue(final Object value) {
+    for (final Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        if (segment.containsValue(value))
+          return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public int size() {
+    int size = 0;
+    for (final Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        size += segment.size();
+      }
+    }
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   * Leert den Cache, die Zähler bleiben erhalten.
+   */
+  @Override
+  public void clear() {
+    for (final Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        segment.clear();
+      }
+    }
+  }
+
+  @Override
+  public Set<K> keySet() {
+    final Set<K> keys = new HashSet<>();
+    for (final Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        segment.forEach((k, v) -> keys.add(k));
+      }
+    }
+    return Collections.unmodifiableSet(keys);
+  }
+
+  @Override
+  public Collection<V> values() {
+    final List<V> values = new ArrayList<>();
+    for (final Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        segment.forEach((k, v) -> values.add(v));
+      }
+    }
+    return Collections.unmodifiableList(values);
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    final Set<Entry<K, V>> entries = new HashSet<>();
+    for (final Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        segment.forEach((k, v) -> entries.add(new SimpleImmutableEntry<>(k, v)));
+      }
+    }
+    return Collections.unmodifiableSet(entries);
+  }
+
+  @Override
+  public String toString() {
+    return "ConcurrentCache [policy=" + policy + ", maxSize=" + maxSize + ", segments="
+      + segments.length + ", " + stats() + "]";
+  }
+
+  /**
+   * Ein Segment; alle Methoden werden unter der Sperre des Segments
+   * aufgerufen. Die LinkedHashMaps stehen in Zugriffsreihenfolge, der
+   * erste Eintrag ist also der am längsten nicht benutzte.
+   */
+  private abstract static class Segment<K, V> {
+
+    /**
+     * Seit dem letzten put() verdrängte Einträge.
+     */
+    int evicted;
+
+    /**
+     * Höchste Größe des Segments.
+     */
+    int peakSize;
+
+    abstract V get(Object key);
+
+    abstract V peek(Object key);
+
+    abstract V put(K key, V value);
+
+    abstract V remove(Object key);
+
+    abstract boolean containsKey(Object key);
+
+    abstract boolean containsValue(Object value);
+
+    abstract int size();
+
+    abstract void clear();
+
+    abstract void forEach(BiConsumer<? super K, ? super V> action);
+
+    /**
+     * Entfernt den am längsten nicht benutzten Eintrag.
+     *
+     * @return  diesen Eintrag
+     */
+    static <K, V> Entry<K, V> removeEldest(final LinkedHashMap<K, V> map) {
+      final Iterator<Entry<K, V>> iterator = map.entrySet().iterator();
+      final Entry<K, V> eldest = iterator.next();
+      iterator.remove();
+      return eldest;
+    }
+
+  }
+
+  private static final class LruSegment<K, V> extends Segment<K, V> {
+
+    private final int capacity;
+
+    private final LinkedHashMap<K, V> map;
+
+    LruSegment(final int capacity) {
+      this.capacity = capacity;
+      map = new LinkedHashMap<>(capacity + 1, 0.75f, true);
+    }
+
+    @Override
+    V get(final Object key) {
+      return map.get(key);
+    }
+
+    @Override
+    V peek(final Object key) {
+      return map.get(key);
+    }
+
+    @Override
+    V put(final K key, final V value) {
+      final V old = map.put(key, value);
+      if (map.size() > capacity) {
+        removeEldest(map);
+        evicted++;
+      }
+      return old;
+    }
+
+    @Override
+    V remove(final Object key) {
+      return map.remove(key);
+    }
+
+    @Override
+    boolean containsKey(final Object key) {
+      return map.containsKey(key);
+    }
+
+    @Override
+    boolean containsValue(final Object value) {
+      return map.containsValue(value);
+    }
+
+    @Override
+    int size() {
+      return map.size();
+    }
+
+    @Override
+    void clear() {
+      map.clear();
+    }
+
+    @Override
+    void forEach(final BiConsumer<? super K, ? super V> action) {
+      map.forEach(action);
+    }
+
+  }
+
+  private static final class LfuSegment<K, V> extends Segment<K, V> {
+
+    private final int windowCapacity;
+
+    private final int mainCapacity;
+
+    /**
+     * Neue Einträge.
+     */
+    private final LinkedHashMap<K, V> window;
+
+    /**
+     * Zugelassene Einträge.
+     */
+    private final LinkedHashMap<K, V> main;
+
+    private final FrequencySketch sketch;
+
+    LfuSegment(final int capacity) {
+      windowCapacity = Math.max(1, capacity / 100);
+      mainCapacity = capacity - windowCapacity;
+      window = new LinkedHashMap<>(windowCapacity + 1, 0.75f, true);
+      main = new LinkedHashMap<>(mainCapacity + 1, 0.75f, true);
+      sketch = new FrequencySketch(capacity);
+    }
+
+    @Override
+    V get(final Object key) {
+      sketch.increment(key);
+      final V value = window.get(key);
+      return value != null ? value : main.get(key);
+    }
+
+    @Override
+    V peek(final Object key) {
+      final V value = window.get(key);
+      return value != null ? value : main.get(key);
+    }
+
+    @Override
+    V put(final K key, final V value) {
+      if (window.containsKey(key))
+        return window.put(key, value);
+      if (main.containsKey(key))
+        return main.put(key, value);
+      // Gezählt werden nur Anfragen (get), sonst zählte jeder Fehlschlag
+      // mit anschließendem put() doppelt:
+      window.put(key, value);
+      if (window.size() > windowCapacity) {
+        final Entry<K, V> candidate = removeEldest(window);
+        admit(candidate.getKey(), candidate.getValue());
+      }
+      return null;
+    }
+
+    /**
+     * Der aus dem Fenster gefallene Kandidat kommt in den Hauptbereich,
+     * wenn dort Platz ist oder er häufiger ist als der am längsten nicht
+     * benutzte Eintrag dort. Sonst wird er verworfen.
+     */
+    private void admit(final K candidate, final V value) {
+      if (main.size() < mainCapacity) {
+        main.put(candidate, value);
+        return;
+      }
+      evicted++;
+      if (mainCapacity == 0)
+        return;
+      final K victim = main.keySet().iterator().next();
+      if (sketch.frequency(candidate) > sketch.frequency(victim)) {
+        main.remove(victim);
+        main.put(candidate, value);
+      }
+    }
+
+    @Override
+    V remove(final Object key) {
+      final V value = window.remove(key);
+      return value != null ? value : main.remove(key);
+    }
+
+    @Override
+    boolean containsKey(final Object key) {
+      return window.containsKey(key) || main.containsKey(key);
+    }
+
+    @Override
+    boolean containsValue(final Object value) {
+      return window.containsValue(value) || main.containsValue(value);
+    }
+
+    @Override
+    int size() {
+      return window.size() + main.size();
+    }
+
+    @Override
+    void clear() {
+      window.clear();
+      main.clear();
+    }
+
+    @Override
+    void forEach(final BiConsumer<? super K, ? super V> action) {
+      window.forEach(action);
+      main.forEach(action);
+    }
+
+  }
+
+}
@@ -0,0 +1,231 @@
+package de.dnb.basics.applicationComponents;
+
+import java.math.BigInteger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import de.dnb.basics.applicationComponents.ConcurrentCache.Policy;
+import de.dnb.basics.filtering.RangeCheckUtils;
+
+/**
+ * Threadsichere Memory-Funktion wie {@link LFUCachedFunction} und
+ * {@link LRUCachedFunction}, aber ohne synchronized: Der Cache ist ein
+ * {@link ConcurrentCache}, und die Berechnung läuft außerhalb jeder
+ * Sperre. Die Methode {@link #calculate(Object)} muss überschrieben werden
+ * und darf (wie bei den bisherigen Klassen) {@link #apply(Object)}
+ * rekursiv aufrufen.
+ * <br><br>
+ * Mit {@link #setComputeOnce(boolean)} (Standard) wird ein Wert, den
+ * mehrere Threads gleichzeitig vermissen, nur einmal berechnet; die
+ * anderen warten auf das Ergebnis. Rufen sich Berechnungen in
+ * verschiedenen Threads gegenseitig auf, warten sie dabei aufeinander;
+ * dann ist computeOnce abzuschalten.
+ * <br><br>
+ * Ergebnisse null werden nicht gespeichert. Für x == null wird immer
+ * berechnet.
+ * <br><br>
+ * {@link #stats()} enthält auch Zahl und Dauer der Berechnungen.
+ *
+ * @param <X>   Domain
+ * @param <F>   Range
+ *
+ * @author baumann
+ *
+ */
+public abstract class ConcurrentCachedFunction<X, F> implements Function<X, F> {
+
+  public static final int DEFAULT_MAX_SIZE = 1000;
+
+  private final ConcurrentCache<X, F> cache;
+
+  /**
+   * Laufende Berechnungen, nur bei computeOnce.
+   */
+  private final ConcurrentHashMap<X, Load<F>> loads = new ConcurrentHashMap<>();
+
+  private volatile boolean computeOnce = true;
+
+  /**
+   * Eine laufende Berechnung und der Thread, der sie ausführt.
+   */
+  private static final class Load<F> extends CompletableFuture<F> {
+
+    private final Thread owner = Thread.currentThread();
+
+  }
+
+  /**
+   * Cache-Größe: 1000, {@link Policy#LFU}.
+   */
+  public ConcurrentCachedFunction() {
+    this(DEFAULT_MAX_SIZE, Policy.LFU);
+  }
+
+  /**
+   *
+   * @param maxCacheSize  &gt; 0
+   * @param policy        nicht null
+   */
+  public ConcurrentCachedFunction(final int maxCacheSize, final Policy policy) {
+    cache = new ConcurrentCache<>(maxCacheSize, policy);
+  }
+
+  /**
+   *
+   * @param computeOnce   true: gleichzeitige Fehlschläge für denselben
+   *                      Schlüssel berechnen nur einmal
+   * @return              this
+   */
+  public ConcurrentCachedFunction<X, F> setComputeOnce(final boolean computeOnce) {
+    this.computeOnce = computeOnce;
+    return this;
+  }
+
+  /**
+   *
+   * @return  Momentaufnahme der Zähler des Caches
+   */
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  /**
+   * Meldet die Funktion bei JMX an.
+   *
+   * @param name  nicht leer, eindeutig
+   * @return      Name der MBean
+   * @throws JMException  wenn der Name ungültig oder schon vergeben ist
+   */
+  public ObjectName registerMBean(final String name) throws JMException {
+    return cache.registerMBean(name);
+  }
+
+  @Override
+  public F apply(final X x) {
+    if (x == null)
+      return calculate(x);
+    final F value = cache.get(x);
+    if (value != null)
+      return value;
+    if (!computeOnce)
+      return calculateAndCache(x);
+
+    final Load<F> load = new Load<>();
+    final Load<F> running = loads.putIfAbsent(x, load);
+    if (running != null) {
+      // Rekursion mit demselben Argument würde sonst auf sich selbst warten:
+      if (running.owner == Thread.currentThread())
+        return calculate(x);
+      return await(running);
+    }
+    try {
+      // Ein anderer Thread kann zwischen get() und putIfAbsent() fertig
+      // geworden sein:
+      F result = cache.peek(x);
+      if (result == null)
+        result = calculateAndCache(x);
+      load.complete(result);
+      return result;
+    } catch (RuntimeException | Error e) {
+      load.completeExceptionally(e);
+      throw e;
+    } finally {
+      loads.remove(x, load);
+    }
+  }
+
+  private F calculateAndCache(final X x) {
+    final long start = System.nanoTime();
+    final F value = calculate(x);
+    cache.metrics().recordLoad(System.nanoTime() - start);
+    if (value != null)
+      cache.put(x, value);
+    return value;
+  }
+
+  private static <F> F await(final Load<F> load) {
+    try {
+      return load.join();
+    } catch (final CompletionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException) cause;
+      if (cause instanceof Error)
+        throw (Error) cause;
+      throw e;
+    }
+  }
+
+  /**
+   * Zu überschreibende Methode, die die eigentliche (aufwendige) Arbeit
+   * macht. Um diese berechnungsintensive Methode zu entlasten, wird
+   * der Cache verwendet. Sie kann von mehreren Threads gleichzeitig
+   * aufgerufen werden.
+   *
+   * @param x auch null
+   * @return  Ergebnis
+   */
+  protected abstract F calculate(X x);
+
+  /**
+   * Factory-Methode zum Einpacken einer Funktion.
+   *
+   * @param function      nicht null, threadsicher
+   * @param maxCacheSize  &gt; 0
+   * @param policy        nicht null
+   * @param <X>           Domain
+   * @param <F>           Range
+   * @return              neue Funktion
+   */
+  public static <
+      X, F>
+    ConcurrentCachedFunction<X, F>
+    create(final Function<X, F> function, final int maxCacheSize, final Policy policy) {
+    RangeCheckUtils.assertReferenceParamNotNull("function", function);
+    return new ConcurrentCachedFunction<X, F>(maxCacheSize, policy) {
+      @Override
+      protected F calculate(final X x) {
+        return function.apply(x);
+      }
+    };
+  }
+
+  /**
+   * Factory-Methode zum Einpacken einer Funktion; Cache-Größe: 1000,
+   * {@link Policy#LFU}.
+   *
+   * @param function  nicht null, threadsicher
+   * @param <X>       Domain
+   * @param <F>       Range
+   * @return          neue Funktion
+   */
+  public static <X, F> ConcurrentCachedFunction<X, F> create(final Function<X, F> function) {
+    return create(function, DEFAULT_MAX_SIZE, Policy.LFU);
+  }
+
+  /**
+   * @param args nicht benutzt
+   */
+  public static void main(final String[] args) {
+    final ConcurrentCachedFunction<BigInteger, BigInteger> function =
+      new ConcurrentCachedFunction<BigInteger, BigInteger>(50, Policy.LRU) {
+        @Override
+        protected BigInteger calculate(final BigInteger x) {
+          if (x.compareTo(BigInteger.ONE) < 0)
+            return BigInteger.ONE;
+          else
+            return this.apply(x.subtract(BigInteger.ONE)).multiply(x);
+        }
+      };
+    for (int i = 1; i <= 100; i++) {
+      System.out.println(function.apply(BigInteger.valueOf(i)));
+    }
+    System.out.println(function.stats());
+  }
+
+}
@@ -0,0 +1,97 @@
+package de.dnb.basics.applicationComponents;
+
+/**
+ * Schätzt die Zugriffshäufigkeit von Schlüsseln (Count-Min-Sketch mit
+ * 4-Bit-Zählern, 16 Zähler je long). Alle 10 * maximumSize Zählungen
+ * werden alle Zähler halbiert, damit früher häufige Schlüssel wieder
+ * verdrängt werden können (TinyLFU).
+ * <br><br>
+ * Speicher: etwa 8 Byte je Cache-Eintrag. Nicht threadsicher.
+ *
+ * @author baumann
+ *
+ */
+final class FrequencySketch {
+
+  private static final long[] SEEDS =
+    { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+
+  private static final long HALF_MASK = 0x7777_7777_7777_7777L;
+
+  private final long[] table;
+
+  private final int mask;
+
+  private final int sampleSize;
+
+  private int additions;
+
+  /**
+   *
+   * @param maximumSize Größe des Caches, &gt; 0
+   */
+  FrequencySketch(final int maximumSize) {
+    final int size = Integer.highestOneBit(Math.max(maximumSize, 8) - 1) << 1;
+    table = new long[size];
+    mask = size - 1;
+    sampleSize = 10 * Math.max(maximumSize, 1);
+  }
+
+  /**
+   *
+   * @return  Hashwert für Zeile i
+   */
+  private static int rehash(final int hash, final int i) {
+    long h = (hash + SEEDS[i]) * SEEDS[i];
+    h += h >>> 32;
+    return (int) h;
+  }
+
+  /**
+   *
+   * @param key nicht null
+   * @return    geschätzte Häufigkeit, 0 bis 15
+   */
+  int frequency(final Object key) {
+    final int hash = key.hashCode();
+    int min = 15;
+    for (int i = 0; i < SEEDS.length; i++) {
+      final int h = rehash(hash, i);
+      final int offset = (h >>> 28) << 2;
+      min = Math.min(min, (int) (table[h & mask] >>> offset) & 0xF);
+    }
+    return min;
+  }
+
+  /**
+   * Zählt einen Zugriff.
+   *
+   * @param key nicht null
+   */
+  void increment(final Object key) {
+    final int hash = key.hashCode();
+    boolean added = false;
+    for (int i = 0; i < SEEDS.length; i++) {
+      final int h = rehash(hash, i);
+      final int index = h & mask;
+      final int offset = (h >>> 28) << 2;
+      if ((table[index] >>> offset & 0xF) != 0xF) {
+        table[index] += 1L << offset;
+        added = true;
+      }
+    }
+    if (added && ++additions >= sampleSize)
+      reset();
+  }
+
+  /**
+   * Halbiert alle Zähler.
+   */
+  private void reset() {
+    for (int i = 0; i < table.length; i++) {
+      table[i] = table[i] >>> 1 & HALF_MASK;
+    }
+    additions >>>= 1;
+  }
+
+}
@@ -23,6 +23,9 @@ import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+
 /**
  * LFU cache implementation based on http://dhruvbird.com/lfu.pdf, with some 
  * notable differences:
@@ -48,6 +51,10 @@ import java.util.Set;
  * As a consequence, this cache runs in *amortized* O(1) time (considering the 
  * worst case of having the lowest frequency at 0 and having to evict all
  * elements).
+ * <br><br>
+ * Zähler (Treffer, Fehlschläge, Verdrängungen, Höchststand) werden erst
+ * nach {@link #enableMetrics()} geführt; vorher kostet das nur einen
+ * Vergleich mit null.
  * 
  * @param   <Key>   Schlüssel
  * @param   <Value> Wert
@@ -63,6 +70,8 @@ public class LFUCache<Key, Value> implements Map<Key, Value> {
 	//
 	private final int maxCacheSize;
 	private final float evictionFactor;
+	//
+	private CacheMetrics metrics;
 
 	public LFUCache(int maxCacheSize, float evictionFactor) {
 		if (evictionFactor <= 0 || evictionFactor >= 1) {
@@ -91,6 +100,9 @@ public class LFUCache<Key, Value> implements Map<Key, Value> {
 			nodes.add(currentNode);
 			cache.put(k, currentNode);
 			lowestFrequency = 0;
+			if (metrics != null) {
+				metrics.recordSize(cache.size());
+			}
 		} else {
 			oldValue = currentNode.v;
 			currentNode.v = v;
@@ -108,6 +120,13 @@ public class LFUCache<Key, Value> implements Map<Key, Value> {
 	@Override
 	public synchronized Value get(Object k) {
 		CacheNode<Key, Value> currentNode = cache.get(k);
+		if (metrics != null) {
+			if (currentNode != null) {
+				metrics.recordHit();
+			} else {
+				metrics.recordMiss();
+			}
+		}
 		if (currentNode != null) {
 			int currentFrequency = currentNode.frequency;
 			if (currentFrequency < maxFrequency) {
@@ -152,6 +171,40 @@ public class LFUCache<Key, Value> implements Map<Key, Value> {
 		}
 	}
 
+	/**
+	 * Schaltet die Zähler ein. Mehrfacher Aufruf liefert dieselben Zähler.
+	 * 
+	 * @return	die Zähler, nicht null
+	 */
+	public synchronized CacheMetrics enableMetrics() {
+		if (metrics == null) {
+			metrics = new CacheMetrics();
+			metrics.recordSize(cache.size());
+		}
+		return metrics;
+	}
+
+	/**
+	 * 
+	 * @return	Momentaufnahme der Zähler, null, wenn nicht mit
+	 * 			{@link #enableMetrics()} eingeschaltet
+	 */
+	public synchronized CacheStats stats() {
+		return metrics == null ? null : metrics.snapshot(cache.size());
+	}
+
+	/**
+	 * Schaltet die Zähler ein und meldet den Cache bei JMX an.
+	 * 
+	 * @param name	nicht leer, eindeutig
+	 * @return		Name der MBean
+	 * @throws JMException	wenn der Name ungültig oder schon vergeben ist
+	 */
+	public ObjectName registerMBean(String name) throws JMException {
+		final CacheMetrics m = enableMetrics();
+		return CacheMetrics.registerMBean(name, this::stats, m::reset);
+	}
+
 	public int frequencyOf(Key k) {
 		CacheNode<Key, Value> node = cache.get(k);
 		if (node != null) {
@@ -225,6 +278,7 @@ public class LFUCache<Key, Value> implements Map<Key, Value> {
 
 	private void doEviction() {
 		int currentlyDeleted = 0;
+		final int sizeBefore = cache.size();
 		float target = maxCacheSize * evictionFactor;
 		while (currentlyDeleted < target) {
 			LinkedHashSet<CacheNode<Key, Value>> nodes =
@@ -244,6 +298,9 @@ public class LFUCache<Key, Value> implements Map<Key, Value> {
 				}
 			}
 		}
+		if (metrics != null) {
+			metrics.recordEvictions(sizeBefore - cache.size());
+		}
 	}
 
 	private void moveToNextFrequency(
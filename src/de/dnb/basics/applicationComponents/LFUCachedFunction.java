@@ -3,10 +3,15 @@ package de.dnb.basics.applicationComponents;
 import java.math.BigInteger;
 import java.util.function.Function;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+
 /**
  * Eine Memory-Funktion. implements IFunction&lt;X, F>. Benutzt einen
  * LFU-Cache. Die Methode {@link LFUCachedFunction#calculate(Object)}
  * muss überschrieben werden.
+ * <br><br>
+ * Zähler und Rechenzeiten gibt es nach {@link #enableMetrics()}.
  *
  * @author Christian_2
  *
@@ -19,6 +24,8 @@ public abstract class LFUCachedFunction<X, F> implements Function<X, F> {
 
     private final LFUCache<X, F> cache;
 
+    private CacheMetrics metrics;
+
     /**
      * Cache-Größe: 1000, Prozentsatz der zu entfernenden: 80%
      */
@@ -47,12 +54,49 @@ public abstract class LFUCachedFunction<X, F> implements Function<X, F> {
     public synchronized F apply(final X x) {
         F value = cache.get(x);
         if (value == null) {
-            value = calculate(x);
+            if (metrics == null) {
+                value = calculate(x);
+            } else {
+                final long start = System.nanoTime();
+                value = calculate(x);
+                metrics.recordLoad(System.nanoTime() - start);
+            }
             cache.put(x, value);
         }
         return value;
     }
 
+    /**
+     * Schaltet die Zähler des Caches und die Messung der Rechenzeit ein.
+     *
+     * @return  die Zähler, nicht null
+     */
+    public synchronized CacheMetrics enableMetrics() {
+        metrics = cache.enableMetrics();
+        return metrics;
+    }
+
+    /**
+     *
+     * @return  Momentaufnahme der Zähler, null, wenn nicht mit
+     *          {@link #enableMetrics()} eingeschaltet
+     */
+    public synchronized CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Schaltet die Zähler ein und meldet die Funktion bei JMX an.
+     *
+     * @param name  nicht leer, eindeutig
+     * @return      Name der MBean
+     * @throws JMException  wenn der Name ungültig oder schon vergeben ist
+     */
+    public ObjectName registerMBean(final String name) throws JMException {
+        final CacheMetrics m = enableMetrics();
+        return CacheMetrics.registerMBean(name, this::stats, m::reset);
+    }
+
     /**
      * Zu überschreibende Methode, die die eigentliche (aufwendige) Arbeit
      * macht. Um diese berechnungsintensive Methode zu entlasten, wird
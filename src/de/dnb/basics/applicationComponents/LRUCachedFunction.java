@@ -6,12 +6,26 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.Function;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Eine Memory-Funktion mit LRU-Cache. Die Methode
+ * {@link #calculate(Object)} muss überschrieben werden.
+ * <br><br>
+ * Zähler und Rechenzeiten gibt es nach {@link #enableMetrics()}.
+ *
+ * @param <X>   Domain
+ * @param <F>   Range
+ */
 public abstract class LRUCachedFunction<X, F> implements Function<X, F> {
 
 	public static final int DEFAULT_MAX_SIZE = 1000;
 
 	private final Map<X, F> cache;
 
+	private CacheMetrics metrics;
+
 	public LRUCachedFunction() {
 		this(DEFAULT_MAX_SIZE);
 	}
@@ -31,7 +45,10 @@ public abstract class LRUCachedFunction<X, F> implements Function<X, F> {
 					@Override
 					protected boolean removeEldestEntry(
 						final Map.Entry<X, F> eldest) {
-						return size() > maxSize;
+						final boolean evict = size() > maxSize;
+						if (evict && metrics != null)
+							metrics.recordEvictions(1);
+						return evict;
 					}
 				});
 	}
@@ -39,13 +56,61 @@ public abstract class LRUCachedFunction<X, F> implements Function<X, F> {
 	@Override
 	public synchronized F apply(final X x) {
 		F value = cache.get(x);
+		if (metrics == null) {
+			if (value == null) {
+				value = calculate(x);
+				cache.put(x, value);
+			}
+			return value;
+		}
 		if (value == null) {
+			metrics.recordMiss();
+			final long start = System.nanoTime();
 			value = calculate(x);
+			metrics.recordLoad(System.nanoTime() - start);
 			cache.put(x, value);
+			metrics.recordSize(cache.size());
+		} else {
+			metrics.recordHit();
 		}
 		return value;
 	}
 
+	/**
+	 * Schaltet die Zähler und die Messung der Rechenzeit ein. Mehrfacher
+	 * Aufruf liefert dieselben Zähler.
+	 *
+	 * @return	die Zähler, nicht null
+	 */
+	public synchronized CacheMetrics enableMetrics() {
+		if (metrics == null) {
+			metrics = new CacheMetrics();
+			metrics.recordSize(cache.size());
+		}
+		return metrics;
+	}
+
+	/**
+	 *
+	 * @return	Momentaufnahme der Zähler, null, wenn nicht mit
+	 * 			{@link #enableMetrics()} eingeschaltet
+	 */
+	public synchronized CacheStats stats() {
+		return metrics == null ? null : metrics.snapshot(cache.size());
+	}
+
+	/**
+	 * Schaltet die Zähler ein und meldet die Funktion bei JMX an.
+	 *
+	 * @param name	nicht leer, eindeutig
+	 * @return		Name der MBean
+	 * @throws JMException	wenn der Name ungültig oder schon vergeben ist
+	 */
+	public ObjectName registerMBean(final String name) throws JMException {
+		final CacheMetrics m = enableMetrics();
+		return CacheMetrics.registerMBean(name, this::stats, m::reset);
+	}
+
 	protected abstract F calculate(X x);
 
 	/**
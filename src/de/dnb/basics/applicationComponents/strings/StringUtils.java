@@ -115,6 +115,29 @@ public class StringUtils {
   // IDN-Funktionen und Patterns
   // --------------------------------------------------------------------
 
+  /**
+   * Anfang der Kopfzeile mit den Kontrollfeldern (pica3-Download).
+   */
+  public static final String CONTROL_FIELDS_PREFIX = "Eingabe: ";
+
+  private static final Pattern patControlFields =
+    Pattern.compile("Eingabe: (\\S+) Änderung: (\\S+) (\\S*) Status: (\\S+)\\s*");
+
+  /**
+   * Schneller Vortest für {@link #getControlFields(String)}, der ohne
+   * regulären Ausdruck auskommt. Beim Parsen wird jede Zeile eines
+   * Datensatzes geprüft, aber nur eine ist die Kopfzeile.
+   *
+   * @param line nicht null
+   * @return true, wenn line die Kopfzeile mit den Kontrollfeldern sein
+   *         könnte. Ist false, so liefert getControlFields(line) null.
+   */
+  public static boolean isControlFieldsCandidate(final String line) {
+    return line.length() > CONTROL_FIELDS_PREFIX.length()
+      && line.charAt(0) == 'E'
+      && line.startsWith(CONTROL_FIELDS_PREFIX);
+  }
+
   /**
    *
    * Zerlegt die Kopfzeile beim pica3-Download in die Inhalte der Felder
@@ -125,12 +148,9 @@ public class StringUtils {
    */
   public static Quadruplett<String, String, String, String> getControlFields(final String line) {
     RangeCheckUtils.assertReferenceParamNotNull("line", line);
-    //@formatter:off
-		final Pattern controlPat =
-			Pattern.compile(
-				"Eingabe: (\\S+) Änderung: (\\S+) (\\S*) Status: (\\S+)\\s*");
-		//@formatter:on
-    final Matcher m = controlPat.matcher(line);
+    if (!isControlFieldsCandidate(line))
+      return null;
+    final Matcher m = patControlFields.matcher(line);
     if (m.matches()) {
       final String eingabe = m.group(1);
       final String aenderung = m.group(2);
@@ -0,0 +1,151 @@
+package de.dnb.basics.applicationComponents.strings;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import de.dnb.basics.applicationComponents.strings.StringMetrics.Thesaurus;
+import de.dnb.basics.utils.TimeUtils;
+
+/**
+ * Vergleicht die Suche im {@link Thesaurus} über den Trie mit dem
+ * früheren Verfahren (alle Wörter passender Länge mit
+ * {@link StringMetrics#levenshteinOrMax(String, String, double)}
+ * vergleichen).
+ * <br><br>
+ * Aufruf mit einer Datei (UTF-8, ein normierter Name je Zeile) oder ohne
+ * Argument mit {@value #SYNTHETIC} künstlichen Namen. Gesucht wird mit
+ * zufällig veränderten Namen (1 bis 2 Zeichen ersetzt, eingefügt oder
+ * gelöscht).
+ * <br><br>
+ * Ergebnisse für die künstlichen Namen (1.000.000 Namen, Zeit je Suche
+ * nach dem Aufwärmen, stark schwankend):
+ * <pre>
+ * Distanz   Trie           vorher
+ * 1         0,05-0,2 ms    100-125 ms
+ * 2         0,05-0,2 ms    200-230 ms
+ * 3         0,1-0,2 ms     310-320 ms
+ * 4         0,1-1 ms       430-450 ms
+ * </pre>
+ * Beide Verfahren finden dieselben Wörter. Die künstlichen Namen haben
+ * wenige verschiedene Präfixe; bei echten Namen verzweigt der Trie
+ * stärker, und die Suche mit Distanz 4 wird teurer als die mit kleiner
+ * Distanz. {@link de.dnb.gnd.utils.IDNFinderLeven} sucht daher mit
+ * wachsender Distanz und hört beim ersten Treffer auf.
+ *
+ * @author baumann
+ *
+ */
+public final class ThesaurusBenchmark {
+
+  private ThesaurusBenchmark() {
+  }
+
+  private static final int SYNTHETIC = 1_000_000;
+
+  private static final int QUERIES = 200;
+
+  private static final String[] NACHNAMEN = { "müller", "schmidt", "schneider", "fischer",
+    "weber", "meyer", "wagner", "becker", "schulz", "hoffmann", "schäfer", "koch", "bauer",
+    "richter", "klein", "wolf", "schröder", "neumann", "schwarz", "zimmermann", "braun",
+    "krüger", "hofmann", "hartmann", "lange", "schmitt", "werner", "schmitz", "krause" };
+
+  private static final String[] VORNAMEN = { "anna", "maria", "johann", "wolfgang", "peter",
+    "hans", "elisabeth", "karl", "friedrich", "ursula", "heinrich", "margarete", "paul",
+    "ernst", "gertrud", "walter", "helga", "otto", "klaus", "monika" };
+
+  private static List<String> syntheticNames(final Random random) {
+    final Set<String> names = new LinkedHashSet<>();
+    while (names.size() < SYNTHETIC) {
+      String name = NACHNAMEN[random.nextInt(NACHNAMEN.length)];
+      if (random.nextInt(4) == 0)
+        name += "-" + NACHNAMEN[random.nextInt(NACHNAMEN.length)];
+      name += ", " + VORNAMEN[random.nextInt(VORNAMEN.length)];
+      if (random.nextBoolean())
+        name += " " + VORNAMEN[random.nextInt(VORNAMEN.length)];
+      name += " " + (1500 + random.nextInt(500));
+      names.add(name);
+    }
+    return new ArrayList<>(names);
+  }
+
+  private static String mutate(final String name, final Random random) {
+    final StringBuilder builder = new StringBuilder(name);
+    final int edits = 1 + random.nextInt(2);
+    for (int i = 0; i < edits && builder.length() > 0; i++) {
+      final int pos = random.nextInt(builder.length());
+      final char c = (char) ('a' + random.nextInt(26));
+      switch (random.nextInt(3)) {
+      case 0:
+        builder.setCharAt(pos, c);
+        break;
+      case 1:
+        builder.insert(pos, c);
+        break;
+      default:
+        builder.deleteCharAt(pos);
+        break;
+      }
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Das frühere Verfahren.
+   */
+  private static int linear(final Thesaurus thesaurus, final int maxDistance, final String query) {
+    int found = 0;
+    for (final String word : thesaurus.getKeywords(query.length() - maxDistance,
+      query.length() + maxDistance)) {
+      if (StringMetrics.levenshteinOrMax(query, word, maxDistance) <= maxDistance)
+        found++;
+    }
+    return found;
+  }
+
+  /**
+   * @param args  leer oder Datei mit einem Namen je Zeile
+   * @throws IOException  beim Lesen der Datei
+   */
+  public static void main(final String[] args) throws IOException {
+    final Random random = new Random(42);
+    final List<String> names = args.length == 0 ? syntheticNames(random)
+      : Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8);
+    TimeUtils.startStopWatch();
+    final Thesaurus thesaurus = new Thesaurus(names);
+    System.out.println(thesaurus.size() + " Namen, Aufbau " + TimeUtils.delta_t_millis() + " ms");
+    final List<String> queries = new ArrayList<>(QUERIES);
+    for (int i = 0; i < QUERIES; i++) {
+      queries.add(mutate(names.get(random.nextInt(names.size())), random));
+    }
+    // Die Längentabelle des alten Verfahrens vorab aufbauen:
+    thesaurus.getKeywords(0);
+
+    for (int round = 0; round < 2; round++) {
+      for (int distance = 1; distance <= 4; distance++) {
+        long found = 0;
+        TimeUtils.startStopWatch();
+        for (final String query : queries) {
+          found += StringMetrics.wordsWithinDistance(thesaurus, distance, query, 10).size();
+        }
+        final long trieMicros = TimeUtils.delta_t_nanos() / QUERIES / 1000;
+        long linearFound = 0;
+        TimeUtils.startStopWatch();
+        for (final String query : queries) {
+          linearFound += Math.min(10, linear(thesaurus, distance, query));
+        }
+        final long linearMicros = TimeUtils.delta_t_nanos() / QUERIES / 1000;
+        System.out.println("Distanz " + distance + ": Trie " + trieMicros + " µs, vorher "
+          + linearMicros + " µs (" + found + "/" + linearFound + " Treffer)");
+      }
+      System.out.println();
+    }
+  }
+
+}
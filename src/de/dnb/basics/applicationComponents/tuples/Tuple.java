@@ -0,0 +1,134 @@
+package de.dnb.basics.applicationComponents.tuples;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import de.dnb.basics.filtering.RangeCheckUtils;
+
+/**
+ * Unveränderliches n-Tupel beliebiger Objekte als kompakter Schlüssel für
+ * Hash-Tabellen: Es besteht nur aus dem Array der Komponenten und dem
+ * vorab berechneten Hashwert. Dieser stimmt mit dem von
+ * {@link List#hashCode()} für dieselben Komponenten überein; gleich ist
+ * ein Tupel aber nur einem anderen Tupel.
+ *
+ * @author baumann
+ *
+ */
+public final class Tuple implements Serializable {
+
+	private static final long serialVersionUID = -2384614722590342581L;
+
+	private static final Tuple EMPTY = new Tuple(new Object[0]);
+
+	private final Object[] elements;
+
+	private final transient int hash;
+
+	private Tuple(final Object[] elements) {
+		this.elements = elements;
+		hash = Arrays.hashCode(elements);
+	}
+
+	/**
+	 *
+	 * @param elements	nicht null, Komponenten auch null. Das Array wird
+	 * 					kopiert.
+	 * @return			neues Tupel
+	 */
+	public static Tuple of(final Object... elements) {
+		RangeCheckUtils.assertReferenceParamNotNull("elements", elements);
+		return elements.length == 0 ? EMPTY : new Tuple(elements.clone());
+	}
+
+	/**
+	 * Wie {@link #of(Object...)}, aber ohne Kopie. Gedacht für
+	 * varargs-Arrays, die ohnehin neu angelegt werden.
+	 *
+	 * @param elements	nicht null, darf danach nicht mehr verändert werden
+	 * @return			neues Tupel
+	 */
+	public static Tuple wrap(final Object[] elements) {
+		RangeCheckUtils.assertReferenceParamNotNull("elements", elements);
+		return new Tuple(elements);
+	}
+
+	/**
+	 *
+	 * @param indices	Positionen in diesem Tupel, nicht null
+	 * @return			Tupel aus den Komponenten an den Positionen indices
+	 * @throws ArrayIndexOutOfBoundsException	wenn ein Index ungültig ist
+	 */
+	public Tuple project(final int... indices) {
+		RangeCheckUtils.assertReferenceParamNotNull("indices", indices);
+		final Object[] projection = new Object[indices.length];
+		for (int i = 0; i < indices.length; i++) {
+			projection[i] = elements[indices[i]];
+		}
+		return new Tuple(projection);
+	}
+
+	/**
+	 *
+	 * @return	Zahl der Komponenten
+	 */
+	public int size() {
+		return elements.length;
+	}
+
+	/**
+	 *
+	 * @param index	0 &le; index &lt; size()
+	 * @return		Komponente an der Position index
+	 */
+	public Object get(final int index) {
+		return elements[index];
+	}
+
+	/**
+	 *
+	 * @return	Kopie der Komponenten
+	 */
+	public Object[] toArray() {
+		return elements.clone();
+	}
+
+	/**
+	 *
+	 * @return	unveränderliche Sicht als Liste
+	 */
+	public List<Object> asList() {
+		return Collections.unmodifiableList(Arrays.asList(elements));
+	}
+
+	/**
+	 * Der Hashwert wird neu berechnet, da sich die hashCode()-Werte der
+	 * Komponenten (etwa von Enums) in einer anderen JVM ändern können.
+	 */
+	private Object readResolve() {
+		return new Tuple(elements);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof Tuple))
+			return false;
+		final Tuple other = (Tuple) obj;
+		return hash == other.hash && Arrays.equals(elements, other.elements);
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(elements);
+	}
+
+}
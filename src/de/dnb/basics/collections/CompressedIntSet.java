@@ -0,0 +1,1704 @@
+package de.dnb.basics.collections;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+import de.dnb.basics.filtering.RangeCheckUtils;
+
+/**
+ * Eine kompakte Menge nicht-negativer int-Werte nach dem Vorbild der
+ * Roaring-Bitmaps.
+ * <br><br>
+ * Der Wertebereich wird nach den oberen 16 Bit in Blöcke zu je 65.536 Werten
+ * geteilt. Nur Blöcke, die Werte enthalten, werden angelegt, und zwar je
+ * nach Belegung als
+ * <ul>
+ * <li>sortiertes char-Array (bis {@value #ARRAY_MAX} Werte, 2 Byte je Wert),
+ * <li>Bitmap (8 KB) oder
+ * <li>Folge von Läufen [Anfang, Länge] (nach {@link #addRange(int, int)}
+ * oder {@link #runOptimize()}).
+ * </ul>
+ * Eine Menge mit einem einzigen Wert um 1,3 Milliarden belegt daher nur
+ * einige Dutzend Byte statt der 160 MB eines {@link java.util.BitSet}.
+ * Vereinigung, Schnitt und Differenz arbeiten blockweise und kopieren nur
+ * die Blöcke, die sich ändern.
+ * <br><br>
+ * Die serialisierte Form ({@link #writeTo(DataOutput)}, {@link #save(Path)})
+ * kann auch direkt aus einer in den Speicher abgebildeten Datei gelesen
+ * werden ({@link #load(Path)}).
+ * <br><br>
+ * Nicht threadsicher.
+ *
+ * @author baumann
+ *
+ */
+public final class CompressedIntSet implements Iterable<Integer>, Serializable {
+
+  private static final long serialVersionUID = 4205418957013561183L;
+
+  /**
+   * Kennung am Anfang der serialisierten Form ("CIS1").
+   */
+  static final int COOKIE = 0x43495331;
+
+  /**
+   * Bis zu dieser Größe wird ein Block als Array gespeichert.
+   */
+  public static final int ARRAY_MAX = 4096;
+
+  static final int WORDS = 1024;
+
+  static final byte ARRAY = 0;
+
+  static final byte BITMAP = 1;
+
+  static final byte RUN = 2;
+
+  private transient char[] keys;
+
+  private transient Container[] containers;
+
+  private transient int n;
+
+  /**
+   * Leere Menge.
+   */
+  public CompressedIntSet() {
+    keys = new char[4];
+    containers = new Container[4];
+  }
+
+  /**
+   * Copy-Konstruktor.
+   *
+   * @param other nicht null
+   */
+  public CompressedIntSet(final CompressedIntSet other) {
+    RangeCheckUtils.assertReferenceParamNotNull("other", other);
+    n = other.n;
+    keys = Arrays.copyOf(other.keys, Math.max(n, 4));
+    containers = new Container[keys.length];
+    for (int i = 0; i < n; i++)
+      containers[i] = other.containers[i].copy();
+  }
+
+  // ----- Einzelne Werte -------------------------------------------------
+
+  private static int high(final int x) {
+    return x >>> 16;
+  }
+
+  private static char low(final int x) {
+    return (char) x;
+  }
+
+  private int indexOf(final int key) {
+    return Arrays.binarySearch(keys, 0, n, (char) key);
+  }
+
+  /**
+   *
+   * @param x beliebig
+   * @return  true, wenn x enthalten ist
+   */
+  public boolean contains(final int x) {
+    if (x < 0)
+      return false;
+    final int i = indexOf(high(x));
+    return i >= 0 && containers[i].contains(low(x));
+  }
+
+  /**
+   *
+   * @param x >= 0
+   * @return  true, wenn x neu ist
+   */
+  public boolean add(final int x) {
+    if (x < 0)
+      throw new IllegalArgumentException("Wert muss >= 0 sein: " + x);
+    final int i = indexOf(high(x));
+    if (i >= 0) {
+      final Container container = containers[i];
+      final int before = container.cardinality();
+      containers[i] = container.add(low(x));
+      return containers[i].cardinality() != before;
+    }
+    insertAt(-i - 1, (char) high(x), new ArrayContainer().add(low(x)));
+    return true;
+  }
+
+  /**
+   * Fügt alle Werte in [from, to) hinzu.
+   *
+   * @param from  >= 0
+   * @param to    >= from
+   */
+  public void addRange(final int from, final int to) {
+    if (from < 0 || to < from)
+      throw new IllegalArgumentException("ungültiger Bereich: [" + from + ", " + to + ")");
+    if (from == to)
+      return;
+    final int last = to - 1;
+    for (int key = high(from); key <= high(last); key++) {
+      final int lo = key == high(from) ? low(from) : 0;
+      final int hi = key == high(last) ? low(last) : 0xFFFF;
+      final RunContainer range = RunContainer.range(lo, hi);
+      final int i = indexOf(key);
+      if (i >= 0)
+        containers[i] = Container.or(containers[i], range);
+      else
+        insertAt(-i - 1, (char) key, range);
+    }
+  }
+
+  /**
+   *
+   * @param x beliebig
+   * @return  true, wenn x enthalten war
+   */
+  public boolean remove(final int x) {
+    if (x < 0)
+      return false;
+    final int i = indexOf(high(x));
+    if (i < 0)
+      return false;
+    final int before = containers[i].cardinality();
+    final Container container = containers[i].remove(low(x));
+    if (container.cardinality() == before)
+      return false;
+    if (container.cardinality() == 0)
+      removeAt(i);
+    else
+      containers[i] = container;
+    return true;
+  }
+
+  private void insertAt(final int i, final char key, final Container container) {
+    if (n == keys.length) {
+      keys = Arrays.copyOf(keys, 2 * n);
+      containers = Arrays.copyOf(containers, 2 * n);
+    }
+    System.arraycopy(keys, i, keys, i + 1, n - i);
+    System.arraycopy(containers, i, containers, i + 1, n - i);
+    keys[i] = key;
+    containers[i] = container;
+    n++;
+  }
+
+  private void removeAt(final int i) {
+    System.arraycopy(keys, i + 1, keys, i, n - i - 1);
+    System.arraycopy(containers, i + 1, containers, i, n - i - 1);
+    n--;
+    containers[n] = null;
+  }
+
+  /**
+   *
+   * @return  Anzahl der Werte
+   */
+  public long cardinality() {
+    long cardinality = 0;
+    for (int i = 0; i < n; i++)
+      cardinality += containers[i].cardinality();
+    return cardinality;
+  }
+
+  /**
+   *
+   * @return  true, wenn leer
+   */
+  public boolean isEmpty() {
+    return n == 0;
+  }
+
+  /**
+   * Leert die Menge.
+   */
+  public void clear() {
+    Arrays.fill(containers, 0, n, null);
+    n = 0;
+  }
+
+  /**
+   *
+   * @return  kleinster Wert oder -1, wenn leer
+   */
+  public int first() {
+    return n == 0 ? -1 : keys[0] << 16 | containers[0].first();
+  }
+
+  /**
+   *
+   * @return  größter Wert oder -1, wenn leer
+   */
+  public int last() {
+    return n == 0 ? -1 : keys[n - 1] << 16 | containers[n - 1].last();
+  }
+
+  /**
+   *
+   * @param from  beliebig
+   * @return      kleinster Wert >= from oder -1
+   */
+  public int nextValue(final int from) {
+    if (from < 0)
+      return first();
+    int i = indexOf(high(from));
+    if (i >= 0) {
+      final int next = containers[i].next(low(from));
+      if (next >= 0)
+        return keys[i] << 16 | next;
+      i++;
+    } else {
+      i = -i - 1;
+    }
+    return i < n ? keys[i] << 16 | containers[i].first() : -1;
+  }
+
+  /**
+   *
+   * @param from  beliebig
+   * @return      größter Wert <= from oder -1
+   */
+  public int previousValue(final int from) {
+    if (from < 0)
+      return -1;
+    int i = indexOf(high(from));
+    if (i >= 0) {
+      final int previous = containers[i].previous(low(from));
+      if (previous >= 0)
+        return keys[i] << 16 | previous;
+    } else {
+      i = -i - 1;
+    }
+    i--;
+    return i >= 0 ? keys[i] << 16 | containers[i].last() : -1;
+  }
+
+  // ----- Durchlaufen ----------------------------------------------------
+
+  /**
+   * Aufsteigend, unterstützt remove().
+   *
+   * @return  Iterator über die Werte
+   */
+  @Override
+  public PrimitiveIterator.OfInt iterator() {
+    return new PrimitiveIterator.OfInt() {
+
+      /**
+       * Werte des aktuellen Blocks.
+       */
+      private char[] buffer = new char[0];
+
+      private int pos;
+
+      private int count;
+
+      /**
+       * Schlüssel des aktuellen Blocks, -1 am Anfang. Über den Schlüssel
+       * (nicht den Index) wird weitergezählt, damit remove() möglich ist.
+       */
+      private int key = -1;
+
+      private int lastReturned = -1;
+
+      @Override
+      public boolean hasNext() {
+        if (pos < count)
+          return true;
+        if (key + 1 > Character.MAX_VALUE)
+          return false;
+        int i = indexOf(key + 1);
+        if (i < 0)
+          i = -i - 1;
+        if (i >= n)
+          return false;
+        final Container container = containers[i];
+        if (buffer.length < container.cardinality())
+          buffer = new char[Math.max(container.cardinality(), 2 * buffer.length)];
+        count = container.toChars(buffer);
+        pos = 0;
+        key = keys[i];
+        return true;
+      }
+
+      @Override
+      public int nextInt() {
+        if (!hasNext())
+          throw new NoSuchElementException();
+        lastReturned = key << 16 | buffer[pos++];
+        return lastReturned;
+      }
+
+      @Override
+      public void remove() {
+        if (lastReturned < 0)
+          throw new IllegalStateException();
+        CompressedIntSet.this.remove(lastReturned);
+        lastReturned = -1;
+      }
+    };
+  }
+
+  /**
+   * Schneller als {@link #iterator()}.
+   *
+   * @param action  nicht null, erhält die Werte aufsteigend
+   */
+  public void forEachInt(final IntConsumer action) {
+    RangeCheckUtils.assertReferenceParamNotNull("action", action);
+    char[] buffer = new char[0];
+    for (int i = 0; i < n; i++) {
+      final Container container = containers[i];
+      if (buffer.length < container.cardinality())
+        buffer = new char[Math.max(container.cardinality(), 2 * buffer.length)];
+      final int count = container.toChars(buffer);
+      final int high = keys[i] << 16;
+      for (int j = 0; j < count; j++)
+        action.accept(high | buffer[j]);
+    }
+  }
+
+  /**
+   *
+   * @return  die Werte aufsteigend
+   */
+  public int[] toArray() {
+    final int[] array = new int[Math.toIntExact(cardinality())];
+    final int[] pos = { 0 };
+    forEachInt(x -> array[pos[0]++] = x);
+    return array;
+  }
+
+  // ----- Mengenoperationen ----------------------------------------------
+
+  /**
+   * Vereinigung, this wird verändert.
+   *
+   * @param other nicht null
+   * @return      true, wenn this verändert wurde
+   */
+  public boolean or(final CompressedIntSet other) {
+    RangeCheckUtils.assertReferenceParamNotNull("other", other);
+    if (other == this || other.n == 0)
+      return false;
+    final char[] newKeys = new char[n + other.n];
+    final Container[] newContainers = new Container[n + other.n];
+    boolean changed = false;
+    int i = 0;
+    int j = 0;
+    int k = 0;
+    while (i < n || j < other.n) {
+      final int ki = i < n ? keys[i] : Integer.MAX_VALUE;
+      final int kj = j < other.n ? other.keys[j] : Integer.MAX_VALUE;
+      if (ki < kj) {
+        newKeys[k] = keys[i];
+        newContainers[k++] = containers[i++];
+      } else if (ki > kj) {
+        newKeys[k] = other.keys[j];
+        newContainers[k++] = other.containers[j++].copy();
+        changed = true;
+      } else {
+        final Container mine = containers[i++];
+        final Container union = Container.or(mine, other.containers[j++]);
+        newKeys[k] = (char) ki;
+        if (union.cardinality() != mine.cardinality()) {
+          newContainers[k++] = union;
+          changed = true;
+        } else {
+          newContainers[k++] = mine;
+        }
+      }
+    }
+    keys = newKeys;
+    containers = newContainers;
+    n = k;
+    return changed;
+  }
+
+  /**
+   * Schnitt, this wird verändert.
+   *
+   * @param other nicht null
+   * @return      true, wenn this verändert wurde
+   */
+  public boolean and(final CompressedIntSet other) {
+    RangeCheckUtils.assertReferenceParamNotNull("other", other);
+    if (other == this)
+      return false;
+    boolean changed = false;
+    int j = 0;
+    int k = 0;
+    for (int i = 0; i < n; i++) {
+      while (j < other.n && other.keys[j] < keys[i])
+        j++;
+      if (j == other.n || other.keys[j] != keys[i]) {
+        changed = true;
+        continue;
+      }
+      final Container mine = containers[i];
+      final Container intersection = Container.and(mine, other.containers[j]);
+      if (intersection.cardinality() == 0) {
+        changed = true;
+        continue;
+      }
+      keys[k] = keys[i];
+      if (intersection.cardinality() != mine.cardinality()) {
+        containers[k++] = intersection;
+        changed = true;
+      } else {
+        containers[k++] = mine;
+      }
+    }
+    Arrays.fill(containers, k, n, null);
+    n = k;
+    return changed;
+  }
+
+  /**
+   * Differenz this \ other, this wird verändert.
+   *
+   * @param other nicht null
+   * @return      true, wenn this verändert wurde
+   */
+  public boolean andNot(final CompressedIntSet other) {
+    RangeCheckUtils.assertReferenceParamNotNull("other", other);
+    if (other == this) {
+      final boolean changed = n > 0;
+      clear();
+      return changed;
+    }
+    boolean changed = false;
+    int j = 0;
+    int k = 0;
+    for (int i = 0; i < n; i++) {
+      while (j < other.n && other.keys[j] < keys[i])
+        j++;
+      final Container mine = containers[i];
+      Container difference = mine;
+      if (j < other.n && other.keys[j] == keys[i]) {
+        difference = Container.andNot(mine, other.containers[j]);
+        if (difference.cardinality() == mine.cardinality())
+          difference = mine;
+        else
+          changed = true;
+      }
+      if (difference.cardinality() > 0) {
+        keys[k] = keys[i];
+        containers[k++] = difference;
+      }
+    }
+    Arrays.fill(containers, k, n, null);
+    n = k;
+    return changed;
+  }
+
+  /**
+   * Größe des Schnitts, ohne ihn zu bilden.
+   *
+   * @param other nicht null
+   * @return      |this ∩ other|
+   */
+  public long andCardinality(final CompressedIntSet other) {
+    RangeCheckUtils.assertReferenceParamNotNull("other", other);
+    long cardinality = 0;
+    int i = 0;
+    int j = 0;
+    while (i < n && j < other.n) {
+      if (keys[i] < other.keys[j])
+        i++;
+      else if (keys[i] > other.keys[j])
+        j++;
+      else
+        cardinality += Container.andCardinality(containers[i++], other.containers[j++]);
+    }
+    return cardinality;
+  }
+
+  /**
+   *
+   * @param other nicht null
+   * @return      |this ∪ other|
+   */
+  public long orCardinality(final CompressedIntSet other) {
+    return cardinality() + other.cardinality() - andCardinality(other);
+  }
+
+  /**
+   *
+   * @param other nicht null
+   * @return      |this \ other|
+   */
+  public long andNotCardinality(final CompressedIntSet other) {
+    return cardinality() - andCardinality(other);
+  }
+
+  /**
+   *
+   * @param other nicht null
+   * @return      true, wenn this und other gemeinsame Werte haben
+   */
+  public boolean intersects(final CompressedIntSet other) {
+    RangeCheckUtils.assertReferenceParamNotNull("other", other);
+    int i = 0;
+    int j = 0;
+    while (i < n && j < other.n) {
+      if (keys[i] < other.keys[j])
+        i++;
+      else if (keys[i] > other.keys[j])
+        j++;
+      else if (Container.intersects(containers[i++], other.containers[j++]))
+        return true;
+    }
+    return false;
+  }
+
+  /**
+   * Vereinigung beliebig vieler Mengen in einem Durchgang. Je Block wird
+   * höchstens eine Bitmap angelegt, die Operanden bleiben unverändert.
+   *
+   * @param sets  nicht null
+   * @return      neue Menge
+   */
+  public static CompressedIntSet union(final CompressedIntSet... sets) {
+    RangeCheckUtils.assertReferenceParamNotNull("sets", sets);
+    final int[] cursors = new int[sets.length];
+    final Container[] found = new Container[sets.length];
+    final CompressedIntSet result = new CompressedIntSet();
+    while (true) {
+      final int key = nextKey(sets, cursors);
+      if (key < 0)
+        return result;
+      int count = 0;
+      for (int s = 0; s < sets.length; s++) {
+        final CompressedIntSet set = sets[s];
+        if (cursors[s] < set.n && set.keys[cursors[s]] == key)
+          found[count++] = set.containers[cursors[s]++];
+      }
+      Container union;
+      if (count == 1) {
+        union = found[0].copy();
+      } else {
+        final long[] words = found[0].toWords();
+        for (int i = 1; i < count; i++)
+          found[i].orInto(words);
+        union = Container.fromWords(words);
+      }
+      result.append((char) key, union);
+    }
+  }
+
+  /**
+   * Schnitt beliebig vieler Mengen in einem Durchgang. Durchlaufen werden
+   * nur die Blöcke der Menge mit den wenigsten Blöcken.
+   *
+   * @param sets  nicht null, nicht leer
+   * @return      neue Menge
+   */
+  public static CompressedIntSet intersection(final CompressedIntSet... sets) {
+    RangeCheckUtils.assertArrayParamNotNullOrEmpty("sets", sets);
+    CompressedIntSet smallest = sets[0];
+    for (final CompressedIntSet set : sets) {
+      if (set.n < smallest.n)
+        smallest = set;
+    }
+    final Container[] found = new Container[sets.length];
+    final CompressedIntSet result = new CompressedIntSet();
+    keys: for (int i = 0; i < smallest.n; i++) {
+      final char key = smallest.keys[i];
+      // der kleinste Block zuerst, dann ist ein Array als Ergebnis möglich:
+      int minIndex = 0;
+      for (int s = 0; s < sets.length; s++) {
+        final int index = sets[s].indexOf(key);
+        if (index < 0)
+          continue keys;
+        found[s] = sets[s].containers[index];
+        if (found[s].cardinality() < found[minIndex].cardinality())
+          minIndex = s;
+      }
+      Container intersection;
+      if (found[minIndex] instanceof ArrayContainer) {
+        final ArrayContainer array = (ArrayContainer) found[minIndex];
+        final char[] values = new char[array.cardinality];
+        int k = 0;
+        values: for (int j = 0; j < array.cardinality; j++) {
+          for (final Container container : found) {
+            if (!container.contains(array.values[j]))
+              continue values;
+          }
+          values[k++] = array.values[j];
+        }
+        intersection = new ArrayContainer(values, k);
+      } else {
+        final long[] words = found[minIndex].toWords();
+        for (final Container container : found) {
+          final long[] other = container.words();
+          for (int w = 0; w < WORDS; w++)
+            words[w] &= other[w];
+        }
+        intersection = Container.fromWords(words);
+      }
+      if (intersection.cardinality() > 0)
+        result.append(key, intersection);
+    }
+    return result;
+  }
+
+  /**
+   * Differenz base \ (others[0] ∪ others[1] ∪ ...) in einem Durchgang, ohne
+   * die Vereinigung zu bilden.
+   *
+   * @param base    nicht null
+   * @param others  nicht null
+   * @return        neue Menge
+   */
+  public static CompressedIntSet difference(final CompressedIntSet base,
+    final CompressedIntSet... others) {
+    RangeCheckUtils.assertReferenceParamNotNull("base", base);
+    RangeCheckUtils.assertReferenceParamNotNull("others", others);
+    final int[] cursors = new int[others.length];
+    final CompressedIntSet result = new CompressedIntSet();
+    for (int i = 0; i < base.n; i++) {
+      final char key = base.keys[i];
+      final Container mine = base.containers[i];
+      long[] words = null;
+      ArrayContainer array = mine instanceof ArrayContainer ? (ArrayContainer) mine : null;
+      for (int s = 0; s < others.length; s++) {
+        final CompressedIntSet other = others[s];
+        while (cursors[s] < other.n && other.keys[cursors[s]] < key)
+          cursors[s]++;
+        if (cursors[s] == other.n || other.keys[cursors[s]] != key)
+          continue;
+        final Container container = other.containers[cursors[s]];
+        if (array != null) {
+          array = array.filter(container, false);
+        } else {
+          if (words == null)
+            words = mine.toWords();
+          container.clearFrom(words);
+        }
+      }
+      final Container difference;
+      if (array != null)
+        difference = array == mine ? mine.copy() : array;
+      else
+        difference = words == null ? mine.copy() : Container.fromWords(words);
+      if (difference.cardinality() > 0)
+        result.append(key, difference);
+    }
+    return result;
+  }
+
+  /**
+   * @return  kleinsten Schlüssel an den Cursorpositionen oder -1
+   */
+  private static int nextKey(final CompressedIntSet[] sets, final int[] cursors) {
+    int key = Integer.MAX_VALUE;
+    for (int s = 0; s < sets.length; s++) {
+      if (cursors[s] < sets[s].n)
+        key = Math.min(key, sets[s].keys[cursors[s]]);
+    }
+    return key == Integer.MAX_VALUE ? -1 : key;
+  }
+
+  /**
+   * Hängt einen Block mit einem größeren Schlüssel als alle bisherigen an.
+   */
+  private void append(final char key, final Container container) {
+    insertAt(n, key, container);
+  }
+
+  /**
+   * Speichert jeden Block in der kleinsten Form (Array, Bitmap oder Läufe).
+   * Lohnt sich vor allem für Mengen mit langen zusammenhängenden Bereichen,
+   * bevor sie langfristig aufgehoben oder gespeichert werden.
+   */
+  public void runOptimize() {
+    for (int i = 0; i < n; i++)
+      containers[i] = containers[i].optimize();
+  }
+
+  /**
+   *
+   * @return  ungefährer Speicherbedarf in Byte
+   */
+  public long getSizeInBytes() {
+    long size = 32 + 2L * keys.length + 4L * containers.length;
+    for (int i = 0; i < n; i++)
+      size += containers[i].sizeInBytes();
+    return size;
+  }
+
+  // ----- Serialisierung -------------------------------------------------
+
+  /**
+   * Aufbau: int Kennung, int Anzahl der Blöcke, je Block ein Kopf
+   * (char Schlüssel, byte Typ, int Anzahl der Werte, int Länge der Nutzdaten
+   * in chars bzw. longs), danach die Nutzdaten aller Blöcke in derselben
+   * Reihenfolge. Big Endian.
+   *
+   * @return  Größe der serialisierten Form in Byte
+   */
+  public long serializedSizeInBytes() {
+    long size = 8 + 11L * n;
+    for (int i = 0; i < n; i++)
+      size += containers[i].payloadBytes();
+    return size;
+  }
+
+  /**
+   *
+   * @param out nicht null
+   * @throws IOException  beim Schreiben
+   */
+  public void writeTo(final DataOutput out) throws IOException {
+    out.writeInt(COOKIE);
+    out.writeInt(n);
+    for (int i = 0; i < n; i++) {
+      final Container container = containers[i];
+      out.writeChar(keys[i]);
+      out.writeByte(container.type());
+      out.writeInt(container.cardinality());
+      out.writeInt(container.payloadSize());
+    }
+    for (int i = 0; i < n; i++)
+      containers[i].writePayload(out);
+  }
+
+  /**
+   *
+   * @param target  nicht null, mit ausreichend Platz
+   *                ({@link #serializedSizeInBytes()}), wird ab der
+   *                aktuellen Position beschrieben
+   */
+  public void serialize(final ByteBuffer target) {
+    final ByteBuffer buffer = target.duplicate().order(ByteOrder.BIG_ENDIAN);
+    buffer.putInt(COOKIE);
+    buffer.putInt(n);
+    for (int i = 0; i < n; i++) {
+      final Container container = containers[i];
+      buffer.putChar(keys[i]);
+      buffer.put(container.type());
+      buffer.putInt(container.cardinality());
+      buffer.putInt(container.payloadSize());
+    }
+    for (int i = 0; i < n; i++)
+      containers[i].writePayload(buffer);
+    target.position(buffer.position());
+  }
+
+  /**
+   *
+   * @param in  nicht null
+   * @return    die gelesene Menge
+   * @throws IOException  beim Lesen oder wenn keine passenden Daten
+   */
+  public static CompressedIntSet readFrom(final DataInput in) throws IOException {
+    if (in.readInt() != COOKIE)
+      throw new IOException("keine Daten von CompressedIntSet");
+    final int count = in.readInt();
+    final CompressedIntSet set = new CompressedIntSet(count);
+    final byte[] types = new byte[count];
+    final int[] cardinalities = new int[count];
+    final int[] sizes = new int[count];
+    for (int i = 0; i < count; i++) {
+      set.keys[i] = in.readChar();
+      types[i] = in.readByte();
+      cardinalities[i] = in.readInt();
+      sizes[i] = in.readInt();
+    }
+    for (int i = 0; i < count; i++) {
+      if (types[i] == BITMAP) {
+        final long[] words = new long[WORDS];
+        for (int j = 0; j < WORDS; j++)
+          words[j] = in.readLong();
+        set.containers[i] = new BitmapContainer(words, cardinalities[i]);
+      } else {
+        final char[] chars = new char[sizes[i]];
+        for (int j = 0; j < chars.length; j++)
+          chars[j] = in.readChar();
+        set.containers[i] = Container.of(types[i], chars, cardinalities[i]);
+      }
+    }
+    set.n = count;
+    return set;
+  }
+
+  /**
+   * Liest ab der aktuellen Position von source, auch aus einem
+   * {@link MappedByteBuffer}.
+   *
+   * @param source  nicht null
+   * @return        die gelesene Menge
+   * @throws IllegalArgumentException wenn keine passenden Daten
+   */
+  public static CompressedIntSet deserialize(final ByteBuffer source) {
+    final ByteBuffer buffer = source.duplicate().order(ByteOrder.BIG_ENDIAN);
+    if (buffer.getInt() != COOKIE)
+      throw new IllegalArgumentException("keine Daten von CompressedIntSet");
+    final int count = buffer.getInt();
+    final CompressedIntSet set = new CompressedIntSet(count);
+    final byte[] types = new byte[count];
+    final int[] cardinalities = new int[count];
+    final int[] sizes = new int[count];
+    for (int i = 0; i < count; i++) {
+      set.keys[i] = buffer.getChar();
+      types[i] = buffer.get();
+      cardinalities[i] = buffer.getInt();
+      sizes[i] = buffer.getInt();
+    }
+    for (int i = 0; i < count; i++) {
+      if (types[i] == BITMAP) {
+        final long[] words = new long[WORDS];
+        buffer.asLongBuffer().get(words);
+        buffer.position(buffer.position() + 8 * WORDS);
+        set.containers[i] = new BitmapContainer(words, cardinalities[i]);
+      } else {
+        final char[] chars = new char[sizes[i]];
+        buffer.asCharBuffer().get(chars);
+        buffer.position(buffer.position() + 2 * chars.length);
+        set.containers[i] = Container.of(types[i], chars, cardinalities[i]);
+      }
+    }
+    set.n = count;
+    source.position(buffer.position());
+    return set;
+  }
+
+  /**
+   *
+   * @param path  nicht null, wird überschrieben
+   * @throws IOException  beim Schreiben
+   */
+  public void save(final Path path) throws IOException {
+    try (DataOutputStream out =
+      new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+      writeTo(out);
+    }
+  }
+
+  /**
+   * Liest eine mit {@link #save(Path)} gespeicherte Menge über eine in den
+   * Speicher abgebildete Datei.
+   *
+   * @param path  nicht null
+   * @return      die gelesene Menge
+   * @throws IOException  beim Lesen
+   */
+  public static CompressedIntSet load(final Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      final MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+      return deserialize(buffer);
+    } catch (final IllegalArgumentException e) {
+      throw new IOException(path + ": " + e.getMessage(), e);
+    }
+  }
+
+  private CompressedIntSet(final int capacity) {
+    keys = new char[Math.max(capacity, 4)];
+    containers = new Container[keys.length];
+  }
+
+  private void writeObject(final ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    writeTo(out);
+  }
+
+  private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    final CompressedIntSet set = readFrom(in);
+    keys = set.keys;
+    containers = set.containers;
+    n = set.n;
+  }
+
+  // ----- Object ---------------------------------------------------------
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj)
+      return true;
+    if (!(obj instanceof CompressedIntSet))
+      return false;
+    final CompressedIntSet other = (CompressedIntSet) obj;
+    if (n != other.n)
+      return false;
+    for (int i = 0; i < n; i++) {
+      if (keys[i] != other.keys[i])
+        return false;
+      final int cardinality = containers[i].cardinality();
+      if (cardinality != other.containers[i].cardinality()
+        || Container.andCardinality(containers[i], other.containers[i]) != cardinality)
+        return false;
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    final int[] hash = { 1 };
+    forEachInt(x -> hash[0] = 31 * hash[0] + x);
+    return hash[0];
+  }
+
+  @Override
+  public String toString() {
+    return "CompressedIntSet [cardinality=" + cardinality() + ", blocks=" + n + "]";
+  }
+
+  // ----- Blöcke ---------------------------------------------------------
+
+  /**
+   * Block mit den unteren 16 Bit der Werte. Ist nie leer, außer
+   * vorübergehend als Ergebnis einer Operation.
+   */
+  abstract static class Container {
+
+    abstract int cardinality();
+
+    abstract boolean contains(char x);
+
+    /**
+     * @return  this oder einen neuen Block anderen Typs
+     */
+    abstract Container add(char x);
+
+    /**
+     * @return  this oder einen neuen Block anderen Typs
+     */
+    abstract Container remove(char x);
+
+    abstract Container copy();
+
+    /**
+     * @param buffer  Länge >= cardinality()
+     * @return        Anzahl der Werte, die aufsteigend in buffer stehen
+     */
+    abstract int toChars(char[] buffer);
+
+    /**
+     * @return  kleinster Wert >= from oder -1
+     */
+    abstract int next(int from);
+
+    /**
+     * @return  größter Wert <= from oder -1
+     */
+    abstract int previous(int from);
+
+    abstract int first();
+
+    abstract int last();
+
+    /**
+     * @return  neue Bitmap mit den Werten
+     */
+    abstract long[] toWords();
+
+    /**
+     * @return  Bitmap mit den Werten, nur lesen! Kann die interne sein.
+     */
+    long[] words() {
+      return toWords();
+    }
+
+    /**
+     * Setzt die Bits der eigenen Werte in words.
+     */
+    void orInto(final long[] words) {
+      final long[] own = words();
+      for (int i = 0; i < WORDS; i++)
+        words[i] |= own[i];
+    }
+
+    /**
+     * Löscht die Bits der eigenen Werte in words.
+     */
+    void clearFrom(final long[] words) {
+      final long[] own = words();
+      for (int i = 0; i < WORDS; i++)
+        words[i] &= ~own[i];
+    }
+
+    abstract int sizeInBytes();
+
+    abstract byte type();
+
+    /**
+     * @return  Länge der Nutzdaten in chars (Array, Läufe) oder longs
+     *          (Bitmap)
+     */
+    abstract int payloadSize();
+
+    final long payloadBytes() {
+      return type() == BITMAP ? 8L * payloadSize() : 2L * payloadSize();
+    }
+
+    abstract void writePayload(DataOutput out) throws IOException;
+
+    abstract void writePayload(ByteBuffer buffer);
+
+    /**
+     * @return  die kleinste Darstellung der Werte
+     */
+    final Container optimize() {
+      final long[] words = words();
+      int runs = 0;
+      long previousTop = 0;
+      for (final long word : words) {
+        // Anfänge von Läufen: gesetzte Bits, deren Vorgänger nicht gesetzt ist
+        runs += Long.bitCount(word & ~(word << 1 | previousTop));
+        previousTop = word >>> 63;
+      }
+      final int cardinality = cardinality();
+      final int arrayBytes = 2 * cardinality;
+      final int bitmapBytes = 8 * WORDS;
+      final int runBytes = 4 * runs;
+      if (runBytes < Math.min(arrayBytes, bitmapBytes))
+        return type() == RUN ? this : RunContainer.fromWords(words, runs, cardinality);
+      if (cardinality <= ARRAY_MAX)
+        return type() == ARRAY ? this : ArrayContainer.fromWords(words, cardinality);
+      return type() == BITMAP ? this : new BitmapContainer(toWords(), cardinality);
+    }
+
+    static Container of(final byte type, final char[] chars, final int cardinality) {
+      if (type == ARRAY)
+        return new ArrayContainer(chars, cardinality);
+      if (type == RUN)
+        return new RunContainer(chars, chars.length / 2, cardinality);
+      throw new IllegalArgumentException("unbekannter Blocktyp: " + type);
+    }
+
+    static Container fromWords(final long[] words) {
+      int cardinality = 0;
+      for (final long word : words)
+        cardinality += Long.bitCount(word);
+      if (cardinality <= ARRAY_MAX)
+        return ArrayContainer.fromWords(words, cardinality);
+      return new BitmapContainer(words, cardinality);
+    }
+
+    static Container or(final Container a, final Container b) {
+      if (a instanceof ArrayContainer && b instanceof ArrayContainer)
+        return ((ArrayContainer) a).or((ArrayContainer) b);
+      final long[] words = a.toWords();
+      b.orInto(words);
+      return fromWords(words);
+    }
+
+    static Container and(final Container a, final Container b) {
+      if (a instanceof ArrayContainer)
+        return ((ArrayContainer) a).filter(b, true);
+      if (b instanceof ArrayContainer)
+        return ((ArrayContainer) b).filter(a, true);
+      final long[] words = a.toWords();
+      final long[] other = b.words();
+      for (int i = 0; i < WORDS; i++)
+        words[i] &= other[i];
+      return fromWords(words);
+    }
+
+    static Container andNot(final Container a, final Container b) {
+      if (a instanceof ArrayContainer)
+        return ((ArrayContainer) a).filter(b, false);
+      final long[] words = a.toWords();
+      b.clearFrom(words);
+      return fromWords(words);
+    }
+
+    static int andCardinality(final Container a, final Container b) {
+      if (a instanceof ArrayContainer)
+        return ((ArrayContainer) a).count(b);
+      if (b instanceof ArrayContainer)
+        return ((ArrayContainer) b).count(a);
+      final long[] words = a.words();
+      final long[] other = b.words();
+      int cardinality = 0;
+      for (int i = 0; i < WORDS; i++)
+        cardinality += Long.bitCount(words[i] & other[i]);
+      return cardinality;
+    }
+
+    static boolean intersects(final Container a, final Container b) {
+      if (a instanceof ArrayContainer)
+        return ((ArrayContainer) a).intersects(b);
+      if (b instanceof ArrayContainer)
+        return ((ArrayContainer) b).intersects(a);
+      final long[] words = a.words();
+      final long[] other = b.words();
+      for (int i = 0; i < WORDS; i++) {
+        if ((words[i] & other[i]) != 0)
+          return true;
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Sortiertes Array, höchstens {@link CompressedIntSet#ARRAY_MAX} Werte.
+   */
+  static final class ArrayContainer extends Container {
+
+    char[] values;
+
+    int cardinality;
+
+    ArrayContainer() {
+      values = new char[4];
+    }
+
+    ArrayContainer(final char[] values, final int cardinality) {
+      this.values = values;
+      this.cardinality = cardinality;
+    }
+
+    static ArrayContainer fromWords(final long[] words, final int cardinality) {
+      final char[] values = new char[Math.max(cardinality, 1)];
+      int k = 0;
+      for (int i = 0; i < WORDS; i++) {
+        long word = words[i];
+        while (word != 0) {
+          values[k++] = (char) (i << 6 | Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+      return new ArrayContainer(values, k);
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    boolean contains(final char x) {
+      return Arrays.binarySearch(values, 0, cardinality, x) >= 0;
+    }
+
+    @Override
+    Container add(final char x) {
+      int i = Arrays.binarySearch(values, 0, cardinality, x);
+      if (i >= 0)
+        return this;
+      if (cardinality == ARRAY_MAX) {
+        final long[] words = toWords();
+        words[x >>> 6] |= 1L << x;
+        return new BitmapContainer(words, cardinality + 1);
+      }
+      i = -i - 1;
+      if (cardinality == values.length)
+        values = Arrays.copyOf(values, Math.min(2 * cardinality, ARRAY_MAX));
+      System.arraycopy(values, i, values, i + 1, cardinality - i);
+      values[i] = x;
+      cardinality++;
+      return this;
+    }
+
+    @Override
+    Container remove(final char x) {
+      final int i = Arrays.binarySearch(values, 0, cardinality, x);
+      if (i < 0)
+        return this;
+      System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+      cardinality--;
+      return this;
+    }
+
+    @Override
+    Container copy() {
+      return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality);
+    }
+
+    @Override
+    int toChars(final char[] buffer) {
+      System.arraycopy(values, 0, buffer, 0, cardinality);
+      return cardinality;
+    }
+
+    @Override
+    int next(final int from) {
+      int i = Arrays.binarySearch(values, 0, cardinality, (char) from);
+      if (i < 0)
+        i = -i - 1;
+      return i < cardinality ? values[i] : -1;
+    }
+
+    @Override
+    int previous(final int from) {
+      int i = Arrays.binarySearch(values, 0, cardinality, (char) from);
+      if (i < 0)
+        i = -i - 2;
+      return i >= 0 ? values[i] : -1;
+    }
+
+    @Override
+    int first() {
+      return values[0];
+    }
+
+    @Override
+    int last() {
+      return values[cardinality - 1];
+    }
+
+    @Override
+    long[] toWords() {
+      final long[] words = new long[WORDS];
+      for (int i = 0; i < cardinality; i++)
+        words[values[i] >>> 6] |= 1L << values[i];
+      return words;
+    }
+
+    @Override
+    void orInto(final long[] words) {
+      for (int i = 0; i < cardinality; i++)
+        words[values[i] >>> 6] |= 1L << values[i];
+    }
+
+    @Override
+    void clearFrom(final long[] words) {
+      for (int i = 0; i < cardinality; i++)
+        words[values[i] >>> 6] &= ~(1L << values[i]);
+    }
+
+    Container or(final ArrayContainer other) {
+      final char[] merged = new char[cardinality + other.cardinality];
+      int i = 0;
+      int j = 0;
+      int k = 0;
+      while (i < cardinality && j < other.cardinality) {
+        final char a = values[i];
+        final char b = other.values[j];
+        if (a < b) {
+          merged[k++] = a;
+          i++;
+        } else if (a > b) {
+          merged[k++] = b;
+          j++;
+        } else {
+          merged[k++] = a;
+          i++;
+          j++;
+        }
+      }
+      while (i < cardinality)
+        merged[k++] = values[i++];
+      while (j < other.cardinality)
+        merged[k++] = other.values[j++];
+      if (k <= ARRAY_MAX)
+        return new ArrayContainer(merged, k);
+      final long[] words = new long[WORDS];
+      for (int m = 0; m < k; m++)
+        words[merged[m] >>> 6] |= 1L << merged[m];
+      return new BitmapContainer(words, k);
+    }
+
+    /**
+     * @param keep  true: die Werte, die in other sind, false: die, die
+     *              nicht in other sind
+     */
+    ArrayContainer filter(final Container other, final boolean keep) {
+      final char[] filtered = new char[Math.max(cardinality, 1)];
+      int k = 0;
+      for (int i = 0; i < cardinality; i++) {
+        if (other.contains(values[i]) == keep)
+          filtered[k++] = values[i];
+      }
+      return new ArrayContainer(filtered, k);
+    }
+
+    int count(final Container other) {
+      int count = 0;
+      for (int i = 0; i < cardinality; i++) {
+        if (other.contains(values[i]))
+          count++;
+      }
+      return count;
+    }
+
+    boolean intersects(final Container other) {
+      for (int i = 0; i < cardinality; i++) {
+        if (other.contains(values[i]))
+          return true;
+      }
+      return false;
+    }
+
+    @Override
+    int sizeInBytes() {
+      return 24 + 2 * values.length;
+    }
+
+    @Override
+    byte type() {
+      return ARRAY;
+    }
+
+    @Override
+    int payloadSize() {
+      return cardinality;
+    }
+
+    @Override
+    void writePayload(final DataOutput out) throws IOException {
+      for (int i = 0; i < cardinality; i++)
+        out.writeChar(values[i]);
+    }
+
+    @Override
+    void writePayload(final ByteBuffer buffer) {
+      buffer.asCharBuffer().put(values, 0, cardinality);
+      buffer.position(buffer.position() + 2 * cardinality);
+    }
+  }
+
+  /**
+   * Bitmap über alle 65.536 Werte.
+   */
+  static final class BitmapContainer extends Container {
+
+    final long[] words;
+
+    int cardinality;
+
+    BitmapContainer(final long[] words, final int cardinality) {
+      this.words = words;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    boolean contains(final char x) {
+      return (words[x >>> 6] & 1L << x) != 0;
+    }
+
+    @Override
+    Container add(final char x) {
+      final long word = words[x >>> 6];
+      final long bit = 1L << x;
+      if ((word & bit) == 0) {
+        words[x >>> 6] = word | bit;
+        cardinality++;
+      }
+      return this;
+    }
+
+    @Override
+    Container remove(final char x) {
+      final long word = words[x >>> 6];
+      final long bit = 1L << x;
+      if ((word & bit) == 0)
+        return this;
+      words[x >>> 6] = word & ~bit;
+      cardinality--;
+      return cardinality <= ARRAY_MAX ? ArrayContainer.fromWords(words, cardinality) : this;
+    }
+
+    @Override
+    Container copy() {
+      return new BitmapContainer(words.clone(), cardinality);
+    }
+
+    @Override
+    int toChars(final char[] buffer) {
+      int k = 0;
+      for (int i = 0; i < WORDS; i++) {
+        long word = words[i];
+        while (word != 0) {
+          buffer[k++] = (char) (i << 6 | Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+      return k;
+    }
+
+    @Override
+    int next(final int from) {
+      int i = from >>> 6;
+      long word = words[i] & -1L << from;
+      while (true) {
+        if (word != 0)
+          return i << 6 | Long.numberOfTrailingZeros(word);
+        if (++i == WORDS)
+          return -1;
+        word = words[i];
+      }
+    }
+
+    @Override
+    int previous(final int from) {
+      int i = from >>> 6;
+      long word = words[i] & -1L >>> 63 - (from & 63);
+      while (true) {
+        if (word != 0)
+          return i << 6 | 63 - Long.numberOfLeadingZeros(word);
+        if (--i < 0)
+          return -1;
+        word = words[i];
+      }
+    }
+
+    @Override
+    int first() {
+      return next(0);
+    }
+
+    @Override
+    int last() {
+      return previous(WORDS * 64 - 1);
+    }
+
+    @Override
+    long[] toWords() {
+      return words.clone();
+    }
+
+    @Override
+    long[] words() {
+      return words;
+    }
+
+    @Override
+    int sizeInBytes() {
+      return 24 + 8 * WORDS;
+    }
+
+    @Override
+    byte type() {
+      return BITMAP;
+    }
+
+    @Override
+    int payloadSize() {
+      return WORDS;
+    }
+
+    @Override
+    void writePayload(final DataOutput out) throws IOException {
+      for (final long word : words)
+        out.writeLong(word);
+    }
+
+    @Override
+    void writePayload(final ByteBuffer buffer) {
+      buffer.asLongBuffer().put(words);
+      buffer.position(buffer.position() + 8 * WORDS);
+    }
+  }
+
+  /**
+   * Läufe [Anfang, Länge - 1], aufsteigend und nicht benachbart. Wird beim
+   * Verändern in Array oder Bitmap umgewandelt.
+   */
+  static final class RunContainer extends Container {
+
+    final char[] runs;
+
+    final int nRuns;
+
+    final int cardinality;
+
+    RunContainer(final char[] runs, final int nRuns, final int cardinality) {
+      this.runs = runs;
+      this.nRuns = nRuns;
+      this.cardinality = cardinality;
+    }
+
+    /**
+     * @param from  erster Wert
+     * @param to    letzter Wert (einschließlich)
+     */
+    static RunContainer range(final int from, final int to) {
+      return new RunContainer(new char[] { (char) from, (char) (to - from) }, 1, to - from + 1);
+    }
+
+    static RunContainer fromWords(final long[] words, final int nRuns, final int cardinality) {
+      final char[] runs = new char[2 * nRuns];
+      int k = 0;
+      int start = -1;
+      for (int x = 0; x < WORDS * 64; x++) {
+        final boolean set = (words[x >>> 6] & 1L << x) != 0;
+        if (set && start < 0) {
+          start = x;
+        } else if (!set && start >= 0) {
+          runs[k++] = (char) start;
+          runs[k++] = (char) (x - 1 - start);
+          start = -1;
+        }
+      }
+      if (start >= 0) {
+        runs[k++] = (char) start;
+        runs[k++] = (char) (WORDS * 64 - 1 - start);
+      }
+      return new RunContainer(runs, nRuns, cardinality);
+    }
+
+    /**
+     * @param words Bitmap
+     * @param from  erster Wert
+     * @param to    letzter Wert (einschließlich)
+     */
+    static void setRange(final long[] words, final int from, final int to) {
+      final int first = from >>> 6;
+      final int last = to >>> 6;
+      final long firstMask = -1L << from;
+      final long lastMask = -1L >>> 63 - (to & 63);
+      if (first == last) {
+        words[first] |= firstMask & lastMask;
+        return;
+      }
+      words[first] |= firstMask;
+      for (int i = first + 1; i < last; i++)
+        words[i] = -1L;
+      words[last] |= lastMask;
+    }
+
+    @Override
+    void orInto(final long[] words) {
+      for (int i = 0; i < nRuns; i++)
+        setRange(words, runs[2 * i], runs[2 * i] + runs[2 * i + 1]);
+    }
+
+    Container toEfficientContainer() {
+      return fromWords(toWords());
+    }
+
+    /**
+     * @return  Index des letzten Laufs mit Anfang <= x oder -1
+     */
+    private int runIndex(final int x) {
+      int lo = 0;
+      int hi = nRuns - 1;
+      while (lo <= hi) {
+        final int mid = lo + hi >>> 1;
+        if (runs[2 * mid] <= x)
+          lo = mid + 1;
+        else
+          hi = mid - 1;
+      }
+      return hi;
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    boolean contains(final char x) {
+      final int i = runIndex(x);
+      return i >= 0 && x <= runs[2 * i] + runs[2 * i + 1];
+    }
+
+    @Override
+    Container add(final char x) {
+      return contains(x) ? this : toEfficientContainer().add(x);
+    }
+
+    @Override
+    Container remove(final char x) {
+      return contains(x) ? toEfficientContainer().remove(x) : this;
+    }
+
+    @Override
+    Container copy() {
+      return new RunContainer(runs.clone(), nRuns, cardinality);
+    }
+
+    @Override
+    int toChars(final char[] buffer) {
+      int k = 0;
+      for (int i = 0; i < nRuns; i++) {
+        final int start = runs[2 * i];
+        final int end = start + runs[2 * i + 1];
+        for (int x = start; x <= end; x++)
+          buffer[k++] = (char) x;
+      }
+      return k;
+    }
+
+    @Override
+    int next(final int from) {
+      int i = runIndex(from);
+      if (i >= 0 && from <= runs[2 * i] + runs[2 * i + 1])
+        return from;
+      i++;
+      return i < nRuns ? runs[2 * i] : -1;
+    }
+
+    @Override
+    int previous(final int from) {
+      final int i = runIndex(from);
+      return i < 0 ? -1 : Math.min(from, runs[2 * i] + runs[2 * i + 1]);
+    }
+
+    @Override
+    int first() {
+      return runs[0];
+    }
+
+    @Override
+    int last() {
+      return runs[2 * nRuns - 2] + runs[2 * nRuns - 1];
+    }
+
+    @Override
+    long[] toWords() {
+      final long[] words = new long[WORDS];
+      for (int i = 0; i < nRuns; i++)
+        setRange(words, runs[2 * i], runs[2 * i] + runs[2 * i + 1]);
+      return words;
+    }
+
+    @Override
+    int sizeInBytes() {
+      return 24 + 2 * runs.length;
+    }
+
+    @Override
+    byte type() {
+      return RUN;
+    }
+
+    @Override
+    int payloadSize() {
+      return 2 * nRuns;
+    }
+
+    @Override
+    void writePayload(final DataOutput out) throws IOException {
+      for (int i = 0; i < 2 * nRuns; i++)
+        out.writeChar(runs[i]);
+    }
+
+    @Override
+    void writePayload(final ByteBuffer buffer) {
+      buffer.asCharBuffer().put(runs, 0, 2 * nRuns);
+      buffer.position(buffer.position() + 4 * nRuns);
+    }
+  }
+
+}
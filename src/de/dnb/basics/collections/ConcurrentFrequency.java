@@ -0,0 +1,283 @@
+package de.dnb.basics.collections;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ObjLongConsumer;
+import java.util.stream.Collector;
+
+import de.dnb.basics.applicationComponents.tuples.Pair;
+import de.dnb.basics.filtering.RangeCheckUtils;
+
+/**
+ * Threadsichere Häufigkeitsverteilung: Jeder Wert hat einen
+ * {@link LongAdder} in einer {@link ConcurrentHashMap}. Zählen mehrere
+ * Threads denselben Wert, verteilt der LongAdder die Zugriffe auf mehrere
+ * Zellen, statt sie an einer Sperre oder einem CAS-Wert warten zu lassen.
+ * <br><br>
+ * Für Streams ist {@link LongFrequency#collector(Function)} meist
+ * günstiger (eine Teilverteilung je Thread, zum Schluss zusammengeführt).
+ * Diese Klasse lohnt sich, wenn mehrere Threads über längere Zeit in
+ * eine gemeinsame Verteilung zählen, die zwischendurch gelesen wird.
+ * <br><br>
+ * Lesende Methoden wie {@link #get(Object)} oder {@link #snapshot()} sind
+ * während des Zählens nur näherungsweise aktuell.
+ *
+ * @param <V>   Typ der Objekte, die gezählt werden, auch null
+ *
+ * @author baumann
+ *
+ */
+public class ConcurrentFrequency<V> implements Iterable<V> {
+
+  /**
+   * Steht für null, das ConcurrentHashMap nicht erlaubt.
+   */
+  private static final Object NULL_KEY = new Object();
+
+  private final ConcurrentHashMap<Object, LongAdder> counters;
+
+  /**
+   * Leere Verteilung.
+   */
+  public ConcurrentFrequency() {
+    counters = new ConcurrentHashMap<>();
+  }
+
+  /**
+   *
+   * @param expectedSize  erwartete Zahl verschiedener Werte, &ge; 0
+   */
+  public ConcurrentFrequency(final int expectedSize) {
+    counters = new ConcurrentHashMap<>(expectedSize);
+  }
+
+  private static Object mask(final Object value) {
+    return value == null ? NULL_KEY : value;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <V> V unmask(final Object key) {
+    return key == NULL_KEY ? null : (V) key;
+  }
+
+  private LongAdder counter(final V value) {
+    final Object key = mask(value);
+    // get() sperrt nie, computeIfAbsent() nur für neue Werte:
+    final LongAdder adder = counters.get(key);
+    return adder != null ? adder : counters.computeIfAbsent(key, k -> new LongAdder());
+  }
+
+  /**
+   * Erhöht den Zähler für value um 1, legt diesen an,
+   * wenn noch nicht vorhanden.
+   *
+   * @param value auch null
+   */
+  public void add(final V value) {
+    counter(value).increment();
+  }
+
+  /**
+   * Legt einen neuen Schlüssel an,
+   * wenn noch nicht vorhanden. Der Wert
+   * eines neuen Schlüssels ist 0.
+   *
+   * @param value auch null
+   */
+  public void addKey(final V value) {
+    counter(value);
+  }
+
+  /**
+   *
+   * Fügt increment Einträge für value hinzu.
+   *
+   * @param value     auch null
+   * @param increment Differenz, kann auch 0 oder negativ(!) sein
+   */
+  public void increment(final V value, final long increment) {
+    counter(value).add(increment);
+  }
+
+  /**
+   * Inkrementiert für jeden Wert von other um den Betrag in other.
+   *
+   * @param other  nicht null
+   */
+  public void addAll(final LongFrequency<? extends V> other) {
+    RangeCheckUtils.assertReferenceParamNotNull("other", other);
+    other.forEach(this::increment);
+  }
+
+  /**
+   * Inkrementiert für jeden Wert von other um den Betrag in other (sofern
+   * dieser ungleich null).
+   *
+   * @param other  nicht null, etwa eine {@link Frequency}
+   */
+  public void addAll(final Map<? extends V, ? extends Long> other) {
+    RangeCheckUtils.assertReferenceParamNotNull("other", other);
+    other.forEach((v, l) ->
+    {
+      if (l != null)
+        increment(v, l);
+    });
+  }
+
+  /**
+   *
+   * @param value auch null
+   * @return      Anzahl der Einträge von value,
+   *              insbesondere 0, wenn kein Eintrag vorhanden
+   */
+  public long get(final Object value) {
+    final LongAdder adder = counters.get(mask(value));
+    return adder == null ? 0L : adder.sum();
+  }
+
+  /**
+   *
+   * @param value Schlüssel
+   * @return      Schlüssel enthalten (auch mit Häufigkeit 0)
+   */
+  public boolean containsKey(final Object value) {
+    return counters.containsKey(mask(value));
+  }
+
+  /**
+   *
+   * @return  Zahl der Einträge
+   */
+  public int size() {
+    return counters.size();
+  }
+
+  /**
+   *
+   * @return  true, wenn noch nichts gezählt
+   */
+  public boolean isEmpty() {
+    return counters.isEmpty();
+  }
+
+  /**
+   * Setzt zurück. Gleichzeitige Zählungen können verloren gehen.
+   */
+  public void clear() {
+    counters.clear();
+  }
+
+  /**
+   *
+   * @return Summe aller Häufigkeiten
+   */
+  public long getSum() {
+    long sum = 0;
+    for (final LongAdder adder : counters.values()) {
+      sum += adder.sum();
+    }
+    return sum;
+  }
+
+  /**
+   *
+   * @param action    nicht null, erhält alle Paare (Wert, Häufigkeit) in
+   *                  unbestimmter Reihenfolge
+   */
+  public void forEach(final ObjLongConsumer<? super V> action) {
+    RangeCheckUtils.assertReferenceParamNotNull("action", action);
+    counters.forEach((k, adder) -> action.accept(unmask(k), adder.sum()));
+  }
+
+  /**
+   *
+   * @return  schwach konsistenter Iterator über die gezählten Werte
+   */
+  @Override
+  public Iterator<V> iterator() {
+    final Iterator<Object> keys = counters.keySet().iterator();
+    return new Iterator<V>() {
+
+      @Override
+      public boolean hasNext() {
+        return keys.hasNext();
+      }
+
+      @Override
+      public V next() {
+        return unmask(keys.next());
+      }
+    };
+  }
+
+  /**
+   *
+   * @return  Momentaufnahme als (nicht threadsichere) Verteilung
+   */
+  public LongFrequency<V> snapshot() {
+    final LongFrequency<V> frequency = new LongFrequency<>(size());
+    forEach(frequency::increment);
+    return frequency;
+  }
+
+  /**
+   *
+   * @return  Momentaufnahme als {@link Frequency}
+   */
+  public Frequency<V> toFrequency() {
+    return snapshot().toFrequency();
+  }
+
+  /**
+   *
+   * @return Häufigkeitverteilung als Menge von {@link Pair}, beginnend mit
+   *         dem häufigsten Eintrag.
+   */
+  public Collection<Pair<V, Long>> getOrderedDistribution() {
+    return snapshot().getOrderedDistribution();
+  }
+
+  /**
+   * Gibt die max häufigsten Einträge als Liste, beginnend mit dem häufigsten.
+   *
+   * @param max Maximalzahl der betrachteten "Rekorde"
+   * @return  "Rekorde"
+   */
+  public List<Pair<V, Long>> getRecords(final int max) {
+    return snapshot().getRecords(max);
+  }
+
+  /**
+   * Zählt alle Elemente eines Streams in eine gemeinsame Verteilung, auch
+   * bei parallelen Streams ohne Zusammenführen.
+   *
+   * @param classifier  nicht null, liefert den zu zählenden Wert
+   * @return            Collector
+   * @param <T>         Typ der Stream-Elemente
+   * @param <V>         Typ der gezählten Werte
+   */
+  public static <
+      T, V>
+    Collector<T, ?, ConcurrentFrequency<V>>
+    collector(final Function<? super T, ? extends V> classifier) {
+    RangeCheckUtils.assertReferenceParamNotNull("classifier", classifier);
+    return Collector.of(ConcurrentFrequency::new, (f, t) -> f.add(classifier.apply(t)),
+      (f1, f2) ->
+      {
+        f2.forEach(f1::increment);
+        return f1;
+      }, Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED,
+      Collector.Characteristics.IDENTITY_FINISH);
+  }
+
+  @Override
+  public String toString() {
+    return snapshot().toString();
+  }
+
+}
@@ -11,6 +11,9 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
 
 import de.dnb.basics.applicationComponents.strings.StringUtils;
 
@@ -152,6 +155,22 @@ public class CrossProductFrequency extends Frequency<Collection<? extends Object
     return super.get(v);
   }
 
+  /**
+   * Zählt die Merkmalskombinationen aller Elemente eines Streams, wie
+   * {@link Frequency#collector(Function)} mit einer Teilverteilung je
+   * Thread.
+   *
+   * @param features    nicht null, liefert die Merkmalskombination eines
+   *                    Elements als neues Array
+   * @return            Collector
+   * @param <T>         Typ der Stream-Elemente
+   */
+  public static <T> Collector<T, ?, CrossProductFrequency> crossProductCollector(
+    final Function<? super T, Object[]> features) {
+    return Collectors.collectingAndThen(LongCrossProductFrequency.crossProductCollector(features),
+      LongCrossProductFrequency::toCrossProductFrequency);
+  }
+
   @Override
   public String toString() {
     final Set<Entry<Collection<? extends Object>, Long>> set = getEntries();
@@ -23,7 +23,9 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Collector;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -324,6 +326,26 @@ public class Frequency<V> implements Iterable<V>, Serializable, Map<V, Long> {
     return s;
   }
 
+  /**
+   * Zählt alle Elemente eines Streams, etwa
+   * <code>reader.stream().parallel().collect(Frequency.collector(...))</code>.
+   * Gezählt wird mit {@link LongFrequency#collector(Function)}, also mit
+   * einer Teilverteilung je Thread, und erst zum Schluss in eine Frequency
+   * übertragen.
+   *
+   * @param classifier  nicht null, liefert den zu zählenden Wert
+   * @return            Collector
+   * @param <T>         Typ der Stream-Elemente
+   * @param <V>         Typ der gezählten Werte
+   */
+  public static <
+      T, V>
+    Collector<T, ?, Frequency<V>>
+    collector(final Function<? super T, ? extends V> classifier) {
+    return Collectors.collectingAndThen(LongFrequency.<T, V> collector(classifier),
+      LongFrequency::toFrequency);
+  }
+
   /**
    * @param args
    * @throws IOException
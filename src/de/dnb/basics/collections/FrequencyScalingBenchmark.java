@@ -0,0 +1,120 @@
+package de.dnb.basics.collections;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import de.dnb.basics.utils.TimeUtils;
+
+/**
+ * Misst, wie das Zählen von {@value #ROUNDS} Tags (einige hundert
+ * verschiedene, schief verteilt) mit der Zahl der Threads skaliert:
+ * <ul>
+ * <li>eine gemeinsame {@link Frequency} unter synchronized (bisher einzige
+ * Möglichkeit),
+ * <li>eine gemeinsame {@link ConcurrentFrequency},
+ * <li>ein paralleler Stream mit {@link Frequency#collector(Function)},
+ * also einer Teilverteilung je Thread und Zusammenführen am Ende.
+ * </ul>
+ * Ausgabe: ns je gezähltem Element für 1, 2, 4, ... Threads bis zur
+ * doppelten Zahl der Prozessoren. synchronized lässt immer nur einen
+ * Thread zählen, ConcurrentFrequency und der Collector sollten mit jedem
+ * Kern schneller werden. Auf einem Rechner mit nur einem Kern bleiben alle
+ * Zeiten ungefähr konstant (Frequency/synchronized ca. 50 ns,
+ * ConcurrentFrequency ca. 30 ns, Collector ca. 20 ns).
+ *
+ * @author baumann
+ *
+ */
+public final class FrequencyScalingBenchmark {
+
+  private FrequencyScalingBenchmark() {
+  }
+
+  private static final int ROUNDS = 5_000_000;
+
+  private static final int TAGS = 400;
+
+  /**
+   * Lässt threads Threads jeweils einen Teil der Indizes 0..ROUNDS-1
+   * bearbeiten.
+   *
+   * @return  Nanosekunden
+   */
+  private static long runThreads(final int threads, final IntConsumer action)
+    throws InterruptedException {
+    final List<Thread> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      final int from = (int) ((long) ROUNDS * t / threads);
+      final int to = (int) ((long) ROUNDS * (t + 1) / threads);
+      workers.add(new Thread(() ->
+      {
+        for (int i = from; i < to; i++) {
+          action.accept(i);
+        }
+      }));
+    }
+    TimeUtils.startStopWatch();
+    workers.forEach(Thread::start);
+    for (final Thread worker : workers) {
+      worker.join();
+    }
+    return TimeUtils.delta_t_nanos();
+  }
+
+  /**
+   * @param args  nicht benutzt
+   * @throws InterruptedException   wenn unterbrochen
+   * @throws ExecutionException     wenn der Stream scheitert
+   */
+  public static void main(final String[] args) throws InterruptedException, ExecutionException {
+    final String[] tags = new String[TAGS];
+    for (int i = 0; i < TAGS; i++) {
+      tags[i] = String.format("%03d%c", i / 4, (char) ('A' + i % 4));
+    }
+    // Schiefe Verteilung: kleine Indizes kommen viel häufiger vor.
+    final Random random = new Random(42);
+    final String[] sequence = new String[ROUNDS];
+    for (int i = 0; i < ROUNDS; i++) {
+      final double d = random.nextDouble();
+      sequence[i] = tags[(int) (d * d * TAGS)];
+    }
+    final int maxThreads = 2 * Runtime.getRuntime().availableProcessors();
+    System.out.println("Prozessoren: " + Runtime.getRuntime().availableProcessors());
+
+    for (int warmup = 0; warmup < 2; warmup++) {
+      for (int threads = 1; threads <= maxThreads; threads *= 2) {
+        final Frequency<String> frequency = new Frequency<>();
+        final long tSync = runThreads(threads, i ->
+        {
+          synchronized (frequency) {
+            frequency.add(sequence[i]);
+          }
+        });
+
+        final ConcurrentFrequency<String> concurrent = new ConcurrentFrequency<>();
+        final long tConcurrent = runThreads(threads, i -> concurrent.add(sequence[i]));
+
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+        TimeUtils.startStopWatch();
+        final Frequency<String> collected = pool.submit(() -> IntStream.range(0, ROUNDS)
+          .parallel().mapToObj(i -> sequence[i]).collect(Frequency.collector(Function.identity())))
+          .get();
+        final long tCollector = TimeUtils.delta_t_nanos();
+        pool.shutdown();
+
+        if (!collected.equals(frequency) || !concurrent.toFrequency().equals(frequency))
+          System.out.println("Verteilungen verschieden!");
+        System.out.println(threads + " Threads: Frequency/synchronized " + tSync / ROUNDS
+          + " ns, ConcurrentFrequency " + tConcurrent / ROUNDS + " ns, Collector "
+          + tCollector / ROUNDS + " ns je Element");
+      }
+    }
+  }
+
+}
@@ -0,0 +1,210 @@
+package de.dnb.basics.collections;
+
+import java.util.Collection;
+import java.util.function.Function;
+import java.util.stream.Collector;
+
+import de.dnb.basics.applicationComponents.strings.StringUtils;
+import de.dnb.basics.applicationComponents.tuples.Tuple;
+import de.dnb.basics.filtering.RangeCheckUtils;
+
+/**
+ * Zählt wie {@link CrossProductFrequency} die Häufigkeit einer Kombination
+ * mehrerer Merkmale, aber mit primitiven Zählern ({@link LongFrequency}).
+ * Schlüssel ist ein {@link Tuple}, das das varargs-Array ohne Kopie und
+ * ohne umhüllende Liste übernimmt und seinen Hashwert nur einmal
+ * berechnet. Wird statt einzelner Merkmale ein Array übergeben, darf es
+ * danach nicht mehr verändert werden.
+ * <br><br>
+ * Nicht threadsicher.
+ *
+ * @author baumann
+ *
+ */
+public class LongCrossProductFrequency extends LongFrequency<Tuple> implements CrossProduct<Long> {
+
+  private static final long serialVersionUID = 2751906360348172417L;
+
+  /**
+   * Leere Verteilung.
+   */
+  public LongCrossProductFrequency() {
+    super();
+  }
+
+  /**
+   *
+   * @param expectedSize  erwartete Zahl verschiedener Kombinationen, &ge; 0
+   */
+  public LongCrossProductFrequency(final int expectedSize) {
+    super(expectedSize);
+  }
+
+  /**
+   * Wandelt einen Schlüssel, der kein Tupel ist, in eines um: Collections
+   * werden zu Tupeln ihrer Elemente, alles andere zum 1-Tupel.
+   */
+  private static Tuple toTuple(final Object key) {
+    if (key instanceof Tuple)
+      return (Tuple) key;
+    if (key instanceof Collection)
+      return Tuple.wrap(((Collection<?>) key).toArray());
+    return Tuple.wrap(new Object[] { key });
+  }
+
+  /**
+   * Erhöht den Zähler für die Merkmalskombination values um 1.
+   *
+   * @param values  beliebig
+   */
+  public final void addValues(final Object... values) {
+    counts.addTo(Tuple.wrap(values), 1L);
+  }
+
+  /**
+   * Erhöht den Zähler für die Merkmalskombination objects um increment.
+   *
+   * @param increment beliebig
+   * @param objects   beliebig
+   * @return          neuer Zählerstand
+   */
+  public final long incrementValues(final long increment, final Object... objects) {
+    return counts.addTo(Tuple.wrap(objects), increment);
+  }
+
+  /**
+   * Legt einen neuen Schlüssel an,
+   * wenn noch nicht vorhanden. Der Wert
+   * eines neuen Schlüssels ist 0.
+   *
+   * @param objects auch null
+   */
+  public void addKeys(final Object... objects) {
+    counts.addTo(Tuple.wrap(objects), 0L);
+  }
+
+  /**
+   *
+   * @param values  beliebig
+   * @return        Die Häufigkeit der Merkmalskombination values; 0, wenn
+   *                nicht vorhanden.
+   */
+  public final long getCount(final Object... values) {
+    return counts.get(Tuple.wrap(values));
+  }
+
+  /**
+   * Liefert eine reduzierte Verteilungsfunktion mit weniger Merkmalen.
+   * Über die nicht interessierenden Merkmale wird summiert. Kombinationen,
+   * die zu wenige Merkmale haben, werden übergangen.
+   *
+   * @param remainingIndices  Indices der beibehaltene Merkmale, &ge; 0
+   * @return                  neue Verteilungsfunktion
+   */
+  public final LongCrossProductFrequency getPartialSum(final int... remainingIndices) {
+    int max = Integer.MIN_VALUE;
+    for (final int i : remainingIndices) {
+      if (i < 0)
+        throw new IllegalArgumentException("beizubehaltender Index " + i + " ist negativ");
+      max = Math.max(max, i);
+    }
+    final int minSize = max;
+    final LongCrossProductFrequency newFrequency = new LongCrossProductFrequency();
+    counts.forEach((tuple, l) ->
+    {
+      if (tuple.size() > minSize)
+        newFrequency.counts.addTo(tuple.project(remainingIndices), l);
+    });
+    return newFrequency;
+  }
+
+  /**
+   * Wie {@link #getCount(Object...)}, akzeptiert aber neben {@link Tuple}
+   * auch Collections und einzelne Merkmale.
+   */
+  @Override
+  public long get(final Object value) {
+    return counts.get(toTuple(value));
+  }
+
+  @Override
+  public boolean containsKey(final Object value) {
+    return counts.containsKey(toTuple(value));
+  }
+
+  @Override
+  public long remove(final Object value) {
+    return counts.remove(toTuple(value));
+  }
+
+  @Override
+  public Long get(final Object... indices) {
+    return getCount(indices);
+  }
+
+  @Override
+  public Long get(final Collection<? extends Object> indices) {
+    return counts.get(toTuple(indices));
+  }
+
+  /**
+   *
+   * @return  neue {@link CrossProductFrequency} mit denselben Häufigkeiten
+   */
+  public CrossProductFrequency toCrossProductFrequency() {
+    final CrossProductFrequency frequency = new CrossProductFrequency();
+    counts.forEach((tuple, l) -> frequency.increment(tuple.asList(), l));
+    return frequency;
+  }
+
+  /**
+   * Zählt die Merkmalskombinationen aller Elemente eines Streams, wie
+   * {@link LongFrequency#collector(Function)} mit einer Teilverteilung je
+   * Thread.
+   *
+   * @param features    nicht null, liefert die Merkmalskombination eines
+   *                    Elements als neues Array
+   * @return            Collector
+   * @param <T>         Typ der Stream-Elemente
+   */
+  public static <T> Collector<T, ?, LongCrossProductFrequency> crossProductCollector(
+    final Function<? super T, Object[]> features) {
+    RangeCheckUtils.assertReferenceParamNotNull("features", features);
+    return Collector.of(LongCrossProductFrequency::new,
+      (f, t) -> f.addValues(features.apply(t)), LongFrequency::merge,
+      Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder();
+    counts.forEach((tuple, l) ->
+    {
+      if (builder.length() > 0)
+        builder.append('\n');
+      builder.append(StringUtils.concatenateTab(tuple.asList())).append('\t').append(l);
+    });
+    return builder.toString();
+  }
+
+  /**
+   * @param args nicht benutzt
+   */
+  public static void main(final String[] args) {
+    final LongCrossProductFrequency frequency = new LongCrossProductFrequency();
+    frequency.incrementValues(1, "1", "a");
+    frequency.incrementValues(2, "2", "a");
+    frequency.incrementValues(3, "1", "b");
+    frequency.incrementValues(4, "2", "b");
+    System.out.println("freq1\n" + frequency);
+    System.out.println("-----------");
+    System.out.println("partial(0)\n" + frequency.getPartialSum(0));
+    System.out.println("-----------");
+    System.out.println("partial(1,0)\n" + frequency.getPartialSum(1, 0));
+    System.out.println("-----------");
+    System.out.println("Count(\"1\", \"a\")\t" + frequency.getCount("1", "a"));
+    System.out.println("Count(\"1\", \"x\")\t" + frequency.getCount("1", "x"));
+    System.out.println(frequency.getRecords(2));
+  }
+
+}
@@ -0,0 +1,418 @@
+package de.dnb.basics.collections;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.function.ObjLongConsumer;
+import java.util.stream.Collector;
+
+import de.dnb.basics.applicationComponents.tuples.Pair;
+import de.dnb.basics.filtering.RangeCheckUtils;
+
+/**
+ * Häufigkeitsverteilung wie {@link Frequency}, aber mit primitiven
+ * long-Zählern in einer {@link ObjectLongMap}: {@link #add(Object)} sucht
+ * den Wert nur einmal in der Tabelle und erzeugt (außer für neue Werte)
+ * keine Objekte. Gedacht für Statistiken, die sehr oft zählen.
+ * <br><br>
+ * Anders als {@link Frequency} ist die Klasse keine {@link Map}, da
+ * deren Methoden boxen müssten; {@link #toFrequency()} liefert bei
+ * Bedarf eine.
+ * <br><br>
+ * Nicht threadsicher.
+ *
+ * @param <V>   Typ der Objekte, die gezählt werden, auch null
+ *
+ * @author baumann
+ *
+ */
+public class LongFrequency<V> implements Iterable<V>, Serializable {
+
+  private static final long serialVersionUID = -3870527416352813925L;
+
+  protected ObjectLongMap<V> counts;
+
+  /**
+   * Leere Verteilung.
+   */
+  public LongFrequency() {
+    counts = new ObjectLongMap<>();
+  }
+
+  /**
+   *
+   * @param expectedSize  erwartete Zahl verschiedener Werte, &ge; 0
+   */
+  public LongFrequency(final int expectedSize) {
+    counts = new ObjectLongMap<>(expectedSize);
+  }
+
+  /**
+   * Erhöht den Zähler für value um 1, legt diesen an,
+   * wenn noch nicht vorhanden.
+   *
+   * @param value auch null
+   */
+  public void add(final V value) {
+    counts.addTo(value, 1L);
+  }
+
+  /**
+   * Legt einen neuen Schlüssel an,
+   * wenn noch nicht vorhanden. Der Wert
+   * eines neuen Schlüssels ist 0.
+   *
+   * @param value auch null
+   */
+  public void addKey(final V value) {
+    counts.addTo(value, 0L);
+  }
+
+  /**
+   *
+   * Fügt increment Einträge für value hinzu.
+   *
+   * @param value     auch null
+   * @param increment Differenz, kann auch 0 oder negativ(!) sein
+   * @return          neuer Zählerstand
+   */
+  public long increment(final V value, final long increment) {
+    return counts.addTo(value, increment);
+  }
+
+  /**
+   * Inkrementiert für jeden Wert von other um den Betrag in other.
+   *
+   * @param other  nicht null
+   */
+  public final void addAll(final LongFrequency<? extends V> other) {
+    RangeCheckUtils.assertReferenceParamNotNull("other", other);
+    other.counts.forEach(counts::addTo);
+  }
+
+  /**
+   * Inkrementiert für jeden Wert von other um den Betrag in other (sofern
+   * dieser ungleich null).
+   *
+   * @param other  nicht null, etwa eine {@link Frequency}
+   */
+  public final void addAll(final Map<? extends V, ? extends Long> other) {
+    RangeCheckUtils.assertReferenceParamNotNull("other", other);
+    other.forEach((v, l) ->
+    {
+      if (l != null)
+        counts.addTo(v, l);
+    });
+  }
+
+  /**
+   * Inkrementiert für jeden Wert von c um 1.
+   *
+   * @param c  nicht null
+   */
+  public final void addCollection(final Collection<? extends V> c) {
+    RangeCheckUtils.assertReferenceParamNotNull("c", c);
+    c.forEach(this::add);
+  }
+
+  /**
+   *
+   * @param value auch null
+   * @return      Anzahl der Einträge von value,
+   *              insbesondere 0, wenn kein Eintrag vorhanden
+   */
+  public long get(final Object value) {
+    return counts.get(value);
+  }
+
+  /**
+   *
+   * @param value auch null
+   * @return      value enthalten und ungleich 0
+   */
+  public final boolean contains(final Object value) {
+    return get(value) != 0L;
+  }
+
+  /**
+   *
+   * @param value Schlüssel
+   * @return      Schlüssel enthalten (auch mit Häufigkeit 0)
+   */
+  public boolean containsKey(final Object value) {
+    return counts.containsKey(value);
+  }
+
+  /**
+   *
+   * @param value auch null
+   * @return      bisherige Häufigkeit, 0, wenn nicht vorhanden
+   */
+  public long remove(final Object value) {
+    return counts.remove(value);
+  }
+
+  /**
+   *
+   * @return  Zahl der Einträge
+   */
+  public final int size() {
+    return counts.size();
+  }
+
+  /**
+   *
+   * @return  true, wenn noch nichts gezählt
+   */
+  public final boolean isEmpty() {
+    return counts.isEmpty();
+  }
+
+  /**
+   * Setzt zurück.
+   */
+  public final void clear() {
+    counts.clear();
+  }
+
+  /**
+   *
+   * @return Summe aller Häufigkeiten
+   */
+  public final long getSum() {
+    return counts.sum();
+  }
+
+  /**
+   *
+   * @return  Durchschnitt oder NaN, wenn noch keine Einträge
+   */
+  public final double getAverage() {
+    return (double) getSum() / (double) size();
+  }
+
+  /**
+   *
+   * @param action    nicht null, erhält alle Paare (Wert, Häufigkeit) in
+   *                  unbestimmter Reihenfolge
+   */
+  public final void forEach(final ObjLongConsumer<? super V> action) {
+    counts.forEach(action);
+  }
+
+  /**
+   *
+   * @return  Iterator über die gezählten Werte
+   */
+  @Override
+  public final Iterator<V> iterator() {
+    return counts.iterator();
+  }
+
+  /**
+   *
+   * @return Häufigkeitverteilung als Menge von {@link Pair}.
+   */
+  public final Collection<Pair<V, Long>> getDistribution() {
+    return pairs();
+  }
+
+  private List<Pair<V, Long>> pairs() {
+    final List<Pair<V, Long>> pairs = new ArrayList<>(size());
+    counts.forEach((v, l) -> pairs.add(new Pair<>(v, l)));
+    return pairs;
+  }
+
+  /**
+   *
+   * @return Häufigkeitverteilung als Menge von {@link Pair}, beginnend mit
+   *         dem häufigsten Eintrag.
+   */
+  public final Collection<Pair<V, Long>> getOrderedDistribution() {
+    final List<Pair<V, Long>> dist = pairs();
+    final Comparator<Pair<V, Long>> myComp = Comparator.comparing(Pair::getSecond);
+    dist.sort(myComp.reversed());
+    return dist;
+  }
+
+  /**
+   * Gibt die max häufigsten Einträge als Liste, beginnend mit dem häufigsten.
+   *
+   * @param max Maximalzahl der betrachteten "Rekorde"
+   * @return  "Rekorde", leer, wenn max &le; 0
+   *
+   */
+  public final List<Pair<V, Long>> getRecords(final int max) {
+    if (max <= 0)
+      return new ArrayList<>();
+    final Comparator<Pair<V, Long>> freqComparator = Comparator.comparing(Pair::getSecond);
+    final BoundedPriorityQueue<Pair<V, Long>> priorityQueue =
+      new BoundedPriorityQueue<>(max, freqComparator);
+    counts.forEach((v, l) ->
+    {
+      // Paare nur für Kandidaten anlegen:
+      if (priorityQueue.size() < max || l > priorityQueue.peek().getSecond())
+        priorityQueue.add(new Pair<>(v, l));
+    });
+    return priorityQueue.ordered();
+  }
+
+  /**
+   *
+   * @param frequencyPredicate    Ein Filterkriterium für die Häufigkeiten
+   * @return                      Liste der Werte, deren Häufigkeiten
+   *                              das Kriterium erfüllen.
+   */
+  public final List<V> filterKeysByFrequency(final LongPredicate frequencyPredicate) {
+    RangeCheckUtils.assertReferenceParamNotNull("frequencyPredicate", frequencyPredicate);
+    final List<V> list = new ArrayList<>();
+    counts.forEach((v, l) ->
+    {
+      if (frequencyPredicate.test(l))
+        list.add(v);
+    });
+    return list;
+  }
+
+  /**
+   *
+   * @param count   Wert
+   * @return      alle, für die Häufigkeit gleich count ist
+   */
+  public final List<V> getEquals(final long count) {
+    return filterKeysByFrequency(l -> l == count);
+  }
+
+  /**
+   *
+   * @param min   kleinster Wert
+   * @return      alle, für die Häufigkeit größer als min ist
+   */
+  public final List<V> getGreater(final long min) {
+    return filterKeysByFrequency(l -> l > min);
+  }
+
+  /**
+   *
+   * @param min   kleinster Wert
+   * @return      alle, für die Häufigkeit größer oder gleich min ist
+   */
+  public final List<V> getGreaterOrEqual(final long min) {
+    return filterKeysByFrequency(l -> l >= min);
+  }
+
+  /**
+   *
+   * @param max   größter Wert
+   * @return      alle, für die Häufigkeit kleiner als max ist
+   */
+  public final List<V> getLower(final long max) {
+    return filterKeysByFrequency(l -> l < max);
+  }
+
+  /**
+   *
+   * @param max   größter Wert
+   * @return      alle, für die Häufigkeit kleiner oder gleich max ist
+   */
+  public final List<V> getLowerOrEqual(final long max) {
+    return filterKeysByFrequency(l -> l <= max);
+  }
+
+  /**
+   *
+   * @return  neue {@link Frequency} mit denselben Häufigkeiten
+   */
+  public Frequency<V> toFrequency() {
+    final Frequency<V> frequency = new Frequency<>();
+    counts.forEach(frequency::increment);
+    return frequency;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder();
+    counts.forEach((v, l) ->
+    {
+      if (builder.length() > 0)
+        builder.append('\n');
+      builder.append(v).append('\t').append(l);
+    });
+    return builder.toString();
+  }
+
+  @Override
+  public int hashCode() {
+    return counts.hashCode();
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj)
+      return true;
+    if (obj == null)
+      return false;
+    if (getClass() != obj.getClass())
+      return false;
+    final LongFrequency<?> other = (LongFrequency<?>) obj;
+    return counts.equals(other.counts);
+  }
+
+  /**
+   * Führt zwei Teilverteilungen zusammen. Die kleinere wird in die größere
+   * übertragen.
+   *
+   * @param f1  nicht null
+   * @param f2  nicht null
+   * @return    f1 oder f2 mit der Summe beider
+   * @param <F> Typ der Verteilungen
+   */
+  static <F extends LongFrequency<?>> F merge(final F f1, final F f2) {
+    final F larger = f1.size() >= f2.size() ? f1 : f2;
+    final F smaller = larger == f1 ? f2 : f1;
+    @SuppressWarnings("unchecked")
+    final ObjectLongMap<Object> counts = (ObjectLongMap<Object>) larger.counts;
+    smaller.counts.forEach(counts::addTo);
+    return larger;
+  }
+
+  /**
+   * Zählt alle Elemente eines Streams. Bei parallelen Streams zählt jeder
+   * Thread in eine eigene Teilverteilung, die zum Schluss mit
+   * {@link #addAll(LongFrequency)} zusammengeführt werden. Es gibt also
+   * keine gemeinsamen Zähler, um die die Threads konkurrieren.
+   *
+   * @param classifier  nicht null, liefert den zu zählenden Wert
+   * @return            Collector
+   * @param <T>         Typ der Stream-Elemente
+   * @param <V>         Typ der gezählten Werte
+   */
+  public static <
+      T, V>
+    Collector<T, ?, LongFrequency<V>>
+    collector(final Function<? super T, ? extends V> classifier) {
+    RangeCheckUtils.assertReferenceParamNotNull("classifier", classifier);
+    return Collector.of(LongFrequency<V>::new, (f, t) -> f.add(classifier.apply(t)),
+      LongFrequency::merge, Collector.Characteristics.UNORDERED,
+      Collector.Characteristics.IDENTITY_FINISH);
+  }
+
+  /**
+   * @param args nicht benutzt
+   */
+  public static void main(final String[] args) {
+    final LongFrequency<Character> frequency = new LongFrequency<>();
+    for (int i = 1; i <= 69; i++) {
+      frequency.increment((char) (i + 50), i);
+    }
+    System.out.println(frequency.getOrderedDistribution());
+    System.out.println(frequency.getRecords(3));
+  }
+
+}
@@ -0,0 +1,223 @@
+package de.dnb.basics.collections;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+import de.dnb.basics.filtering.RangeCheckUtils;
+
+/**
+ * Unveränderliche Sicht auf eine mit {@link CompressedIntSet#save(Path)}
+ * (oder {@link CompressedIntSet#writeTo(java.io.DataOutput)}) gespeicherte
+ * Menge.
+ * <br><br>
+ * Beim Öffnen werden nur die Köpfe der Blöcke gelesen (11 Byte je 65.536
+ * Werte). {@link #contains(int)} sucht danach direkt in den Nutzdaten der
+ * in den Speicher abgebildeten Datei, ohne die Menge aufzubauen. Das lohnt
+ * sich für große Mengen, die nur abgefragt werden; für Mengenoperationen
+ * s. {@link #toCompressedIntSet()}.
+ * <br><br>
+ * Threadsicher.
+ *
+ * @author baumann
+ *
+ */
+public final class MappedIntSet {
+
+  private final ByteBuffer buffer;
+
+  private final char[] keys;
+
+  private final byte[] types;
+
+  private final int[] cardinalities;
+
+  /**
+   * Beginn der Nutzdaten je Block in buffer.
+   */
+  private final int[] offsets;
+
+  private final long cardinality;
+
+  /**
+   *
+   * @param source  ab der aktuellen Position, wird nicht verändert
+   */
+  private MappedIntSet(final ByteBuffer source) {
+    buffer = source.slice().order(ByteOrder.BIG_ENDIAN);
+    if (buffer.getInt(0) != CompressedIntSet.COOKIE)
+      throw new IllegalArgumentException("keine Daten von CompressedIntSet");
+    final int n = buffer.getInt(4);
+    keys = new char[n];
+    types = new byte[n];
+    cardinalities = new int[n];
+    offsets = new int[n];
+    int header = 8;
+    int offset = 8 + 11 * n;
+    long sum = 0;
+    for (int i = 0; i < n; i++) {
+      keys[i] = buffer.getChar(header);
+      types[i] = buffer.get(header + 2);
+      cardinalities[i] = buffer.getInt(header + 3);
+      final int size = buffer.getInt(header + 7);
+      offsets[i] = offset;
+      offset += types[i] == CompressedIntSet.BITMAP ? 8 * size : 2 * size;
+      sum += cardinalities[i];
+      header += 11;
+    }
+    if (offset > buffer.limit())
+      throw new IllegalArgumentException("Daten von CompressedIntSet unvollständig");
+    cardinality = sum;
+  }
+
+  /**
+   *
+   * @param source  nicht null, ab der aktuellen Position. Der Inhalt darf
+   *                danach nicht mehr verändert werden.
+   * @return        Sicht auf die Menge in source
+   * @throws IllegalArgumentException wenn keine passenden Daten
+   */
+  public static MappedIntSet wrap(final ByteBuffer source) {
+    RangeCheckUtils.assertReferenceParamNotNull("source", source);
+    return new MappedIntSet(source);
+  }
+
+  /**
+   * Bildet die Datei in den Speicher ab. Die Abbildung bleibt gültig, bis
+   * die Sicht nicht mehr erreichbar ist.
+   *
+   * @param path  nicht null
+   * @return      Sicht auf die Menge in der Datei
+   * @throws IOException  beim Lesen oder wenn keine passenden Daten
+   */
+  public static MappedIntSet open(final Path path) throws IOException {
+    RangeCheckUtils.assertReferenceParamNotNull("path", path);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return new MappedIntSet(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+    } catch (final IllegalArgumentException e) {
+      throw new IOException(path + ": " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   *
+   * @param x beliebig
+   * @return  true, wenn x enthalten ist
+   */
+  public boolean contains(final int x) {
+    if (x < 0)
+      return false;
+    final int i = Arrays.binarySearch(keys, (char) (x >>> 16));
+    if (i < 0)
+      return false;
+    final char low = (char) x;
+    final int offset = offsets[i];
+    switch (types[i]) {
+    case CompressedIntSet.BITMAP:
+      return (buffer.getLong(offset + 8 * (low >>> 6)) & 1L << low) != 0;
+    case CompressedIntSet.ARRAY: {
+      int lo = 0;
+      int hi = cardinalities[i] - 1;
+      while (lo <= hi) {
+        final int mid = lo + hi >>> 1;
+        final char value = buffer.getChar(offset + 2 * mid);
+        if (value < low)
+          lo = mid + 1;
+        else if (value > low)
+          hi = mid - 1;
+        else
+          return true;
+      }
+      return false;
+    }
+    default: {
+      // Läufe [Anfang, Länge - 1], letzten Lauf mit Anfang <= low suchen:
+      int lo = 0;
+      int hi = runs(i) - 1;
+      while (lo <= hi) {
+        final int mid = lo + hi >>> 1;
+        if (buffer.getChar(offset + 4 * mid) <= low)
+          lo = mid + 1;
+        else
+          hi = mid - 1;
+      }
+      return hi >= 0
+        && low <= buffer.getChar(offset + 4 * hi) + buffer.getChar(offset + 4 * hi + 2);
+    }
+    }
+  }
+
+  private int runs(final int i) {
+    return buffer.getInt(8 + 11 * i + 7) / 2;
+  }
+
+  /**
+   *
+   * @return  Anzahl der Werte
+   */
+  public long cardinality() {
+    return cardinality;
+  }
+
+  /**
+   *
+   * @return  true, wenn leer
+   */
+  public boolean isEmpty() {
+    return keys.length == 0;
+  }
+
+  /**
+   *
+   * @param action  nicht null, erhält die Werte aufsteigend
+   */
+  public void forEachInt(final IntConsumer action) {
+    RangeCheckUtils.assertReferenceParamNotNull("action", action);
+    for (int i = 0; i < keys.length; i++) {
+      final int high = keys[i] << 16;
+      final int offset = offsets[i];
+      switch (types[i]) {
+      case CompressedIntSet.BITMAP:
+        for (int w = 0; w < CompressedIntSet.WORDS; w++) {
+          long word = buffer.getLong(offset + 8 * w);
+          while (word != 0) {
+            action.accept(high | w << 6 | Long.numberOfTrailingZeros(word));
+            word &= word - 1;
+          }
+        }
+        break;
+      case CompressedIntSet.ARRAY:
+        for (int j = 0; j < cardinalities[i]; j++)
+          action.accept(high | buffer.getChar(offset + 2 * j));
+        break;
+      default:
+        for (int r = 0; r < runs(i); r++) {
+          final int start = buffer.getChar(offset + 4 * r);
+          final int end = start + buffer.getChar(offset + 4 * r + 2);
+          for (int x = start; x <= end; x++)
+            action.accept(high | x);
+        }
+      }
+    }
+  }
+
+  /**
+   *
+   * @return  veränderbare Kopie der Menge
+   */
+  public CompressedIntSet toCompressedIntSet() {
+    return CompressedIntSet.deserialize(buffer.duplicate());
+  }
+
+  @Override
+  public String toString() {
+    return "MappedIntSet [cardinality=" + cardinality + ", blocks=" + keys.length + "]";
+  }
+
+}
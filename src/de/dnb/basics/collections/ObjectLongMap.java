@@ -0,0 +1,464 @@
+package de.dnb.basics.collections;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.ObjLongConsumer;
+
+import de.dnb.basics.filtering.RangeCheckUtils;
+
+/**
+ * Abbildung Objekt &rarr; long ohne Boxing. Offene Adressierung mit
+ * linearem Sondieren, Schlüssel und Werte liegen in zwei parallelen
+ * Arrays. Ein Schlüssel belegt damit (bei Füllgrad 1/2) etwa 24 Byte statt
+ * der rund 56 Byte von {@link java.util.HashMap} mit {@link Long}-Werten.
+ * <br><br>
+ * {@link #addTo(Object, long)} braucht nur eine Suche in der Tabelle, wo
+ * ein get/put-Paar zwei braucht. Auch null ist als Schlüssel erlaubt.
+ * <br><br>
+ * Nicht threadsicher.
+ *
+ * @param <K>   Typ der Schlüssel
+ *
+ * @author baumann
+ *
+ */
+public class ObjectLongMap<K> implements Iterable<K>, Serializable {
+
+  private static final long serialVersionUID = 5183958125631262461L;
+
+  private static final int MIN_CAPACITY = 8;
+
+  /**
+   * Leere Plätze sind null. Die Tabelle wird nicht serialisiert, da sich
+   * die hashCode()-Werte (etwa von Enums) in einer anderen JVM ändern
+   * können.
+   */
+  private transient Object[] keys;
+
+  private transient long[] values;
+
+  /**
+   * Zahl der Schlüssel ungleich null.
+   */
+  private transient int size;
+
+  private transient boolean hasNullKey;
+
+  private transient long nullValue;
+
+  /**
+   * Vergrößern, wenn size diese Grenze erreicht (Füllgrad 1/2).
+   */
+  private transient int threshold;
+
+  private transient int modCount;
+
+  /**
+   * Leere Abbildung.
+   */
+  public ObjectLongMap() {
+    this(MIN_CAPACITY);
+  }
+
+  /**
+   *
+   * @param expectedSize  erwartete Zahl der Schlüssel, &ge; 0
+   */
+  public ObjectLongMap(final int expectedSize) {
+    if (expectedSize < 0)
+      throw new IllegalArgumentException("expectedSize ist negativ: " + expectedSize);
+    int capacity = MIN_CAPACITY;
+    while (capacity / 2 <= expectedSize && capacity < 1 << 30)
+      capacity <<= 1;
+    allocate(capacity);
+  }
+
+  /**
+   * Kopierkonstruktor.
+   *
+   * @param other nicht null
+   */
+  public ObjectLongMap(final ObjectLongMap<? extends K> other) {
+    RangeCheckUtils.assertReferenceParamNotNull("other", other);
+    keys = other.keys.clone();
+    values = other.values.clone();
+    size = other.size;
+    hasNullKey = other.hasNullKey;
+    nullValue = other.nullValue;
+    threshold = other.threshold;
+  }
+
+  private void allocate(final int capacity) {
+    keys = new Object[capacity];
+    values = new long[capacity];
+    threshold = capacity / 2;
+  }
+
+  /**
+   * Streut auch schlechte hashCode()-Werte (etwa von Integer) über die
+   * ganze Tabelle.
+   */
+  private static int mix(final Object key) {
+    final int h = key.hashCode() * 0x9E3779B9;
+    return h ^ h >>> 16;
+  }
+
+  /**
+   *
+   * @param key   nicht null
+   * @return      Platz von key oder der freie Platz, an den key gehört
+   */
+  private int slot(final Object key) {
+    final Object[] tab = keys;
+    final int mask = tab.length - 1;
+    int i = mix(key) & mask;
+    Object k;
+    while ((k = tab[i]) != null) {
+      if (k == key || k.equals(key))
+        return i;
+      i = i + 1 & mask;
+    }
+    return i;
+  }
+
+  /**
+   * Addiert delta zum Wert von key. Ist key noch nicht vorhanden, wird er
+   * mit dem Wert delta angelegt.
+   *
+   * @param key   auch null
+   * @param delta beliebig, auch 0 oder negativ
+   * @return      der neue Wert
+   */
+  public long addTo(final K key, final long delta) {
+    if (key == null) {
+      if (!hasNullKey) {
+        hasNullKey = true;
+        modCount++;
+      }
+      return nullValue += delta;
+    }
+    final int i = slot(key);
+    if (keys[i] != null)
+      return values[i] += delta;
+    keys[i] = key;
+    values[i] = delta;
+    modCount++;
+    if (++size >= threshold)
+      rehash(keys.length << 1);
+    return delta;
+  }
+
+  /**
+   *
+   * @param key   auch null
+   * @param value beliebig
+   * @return      der bisherige Wert oder 0, wenn key nicht vorhanden war
+   */
+  public long put(final K key, final long value) {
+    if (key == null) {
+      final long old = hasNullKey ? nullValue : 0L;
+      if (!hasNullKey) {
+        hasNullKey = true;
+        modCount++;
+      }
+      nullValue = value;
+      return old;
+    }
+    final int i = slot(key);
+    if (keys[i] != null) {
+      final long old = values[i];
+      values[i] = value;
+      return old;
+    }
+    keys[i] = key;
+    values[i] = value;
+    modCount++;
+    if (++size >= threshold)
+      rehash(keys.length << 1);
+    return 0L;
+  }
+
+  /**
+   *
+   * @param key   auch null
+   * @return      Wert von key, 0, wenn nicht vorhanden
+   */
+  public long get(final Object key) {
+    return getOrDefault(key, 0L);
+  }
+
+  /**
+   *
+   * @param key           auch null
+   * @param defaultValue  beliebig
+   * @return              Wert von key, defaultValue, wenn nicht vorhanden
+   */
+  public long getOrDefault(final Object key, final long defaultValue) {
+    if (key == null)
+      return hasNullKey ? nullValue : defaultValue;
+    final int i = slot(key);
+    return keys[i] != null ? values[i] : defaultValue;
+  }
+
+  /**
+   *
+   * @param key   auch null
+   * @return      ob key enthalten ist (auch mit Wert 0)
+   */
+  public boolean containsKey(final Object key) {
+    if (key == null)
+      return hasNullKey;
+    return keys[slot(key)] != null;
+  }
+
+  /**
+   *
+   * @param key   auch null
+   * @return      der bisherige Wert oder 0, wenn key nicht vorhanden war
+   */
+  public long remove(final Object key) {
+    if (key == null) {
+      if (!hasNullKey)
+        return 0L;
+      final long old = nullValue;
+      hasNullKey = false;
+      nullValue = 0L;
+      modCount++;
+      return old;
+    }
+    final int i = slot(key);
+    if (keys[i] == null)
+      return 0L;
+    final long old = values[i];
+    removeAt(i);
+    return old;
+  }
+
+  /**
+   * Entfernt den Eintrag an Platz i und rückt nachfolgende Einträge
+   * derselben Kette nach, damit keine Grabsteine nötig sind.
+   */
+  private void removeAt(int i) {
+    final Object[] tab = keys;
+    final int mask = tab.length - 1;
+    int j = i;
+    while (true) {
+      j = j + 1 & mask;
+      final Object k = tab[j];
+      if (k == null)
+        break;
+      final int home = mix(k) & mask;
+      // k darf nach i, wenn home nicht zyklisch in (i, j] liegt:
+      if (i <= j ? i < home && home <= j : i < home || home <= j)
+        continue;
+      tab[i] = k;
+      values[i] = values[j];
+      i = j;
+    }
+    tab[i] = null;
+    values[i] = 0L;
+    size--;
+    modCount++;
+  }
+
+  private void rehash(final int capacity) {
+    final Object[] oldKeys = keys;
+    final long[] oldValues = values;
+    allocate(capacity);
+    final int mask = capacity - 1;
+    for (int j = 0; j < oldKeys.length; j++) {
+      final Object k = oldKeys[j];
+      if (k != null) {
+        int i = mix(k) & mask;
+        while (keys[i] != null)
+          i = i + 1 & mask;
+        keys[i] = k;
+        values[i] = oldValues[j];
+      }
+    }
+  }
+
+  /**
+   *
+   * @return  Zahl der Schlüssel
+   */
+  public int size() {
+    return hasNullKey ? size + 1 : size;
+  }
+
+  /**
+   *
+   * @return  true, wenn kein Schlüssel vorhanden
+   */
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   * Entfernt alle Schlüssel, die Tabelle behält ihre Größe.
+   */
+  public void clear() {
+    Arrays.fill(keys, null);
+    Arrays.fill(values, 0L);
+    size = 0;
+    hasNullKey = false;
+    nullValue = 0L;
+    modCount++;
+  }
+
+  /**
+   *
+   * @return  Summe aller Werte
+   */
+  public long sum() {
+    long sum = nullValue;
+    for (int i = 0; i < keys.length; i++)
+      sum += values[i];
+    return sum;
+  }
+
+  /**
+   *
+   * @param action    nicht null, erhält alle Paare (Schlüssel, Wert) in
+   *                  unbestimmter Reihenfolge
+   */
+  @SuppressWarnings("unchecked")
+  public void forEach(final ObjLongConsumer<? super K> action) {
+    RangeCheckUtils.assertReferenceParamNotNull("action", action);
+    final int expected = modCount;
+    if (hasNullKey)
+      action.accept(null, nullValue);
+    final Object[] tab = keys;
+    for (int i = 0; i < tab.length; i++) {
+      if (tab[i] != null)
+        action.accept((K) tab[i], values[i]);
+    }
+    if (modCount != expected)
+      throw new ConcurrentModificationException();
+  }
+
+  /**
+   * Iterator über die Schlüssel in unbestimmter Reihenfolge. Unterstützt
+   * kein remove().
+   */
+  @Override
+  public Iterator<K> iterator() {
+    return new Iterator<K>() {
+
+      private final int expected = modCount;
+
+      /**
+       * -1 steht für den null-Schlüssel.
+       */
+      private int next = hasNullKey ? -1 : advance(0);
+
+      private int advance(int i) {
+        while (i < keys.length && keys[i] == null)
+          i++;
+        return i;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return next < keys.length;
+      }
+
+      @SuppressWarnings("unchecked")
+      @Override
+      public K next() {
+        if (modCount != expected)
+          throw new ConcurrentModificationException();
+        if (!hasNext())
+          throw new NoSuchElementException();
+        final int i = next;
+        next = advance(i + 1);
+        return i < 0 ? null : (K) keys[i];
+      }
+    };
+  }
+
+  private void writeObject(final ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    out.writeInt(size());
+    final int expected = modCount;
+    forEach((k, v) ->
+    {
+      try {
+        out.writeObject(k);
+        out.writeLong(v);
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    if (modCount != expected)
+      throw new ConcurrentModificationException();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    final int n = in.readInt();
+    if (n < 0)
+      throw new InvalidObjectException("negative Größe: " + n);
+    int capacity = MIN_CAPACITY;
+    while (capacity / 2 <= n && capacity < 1 << 30)
+      capacity <<= 1;
+    allocate(capacity);
+    for (int i = 0; i < n; i++) {
+      final K key = (K) in.readObject();
+      put(key, in.readLong());
+    }
+  }
+
+  @Override
+  public int hashCode() {
+    int h = hasNullKey ? Long.hashCode(nullValue) : 0;
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != null)
+        h += keys[i].hashCode() ^ Long.hashCode(values[i]);
+    }
+    return h;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj)
+      return true;
+    if (!(obj instanceof ObjectLongMap))
+      return false;
+    final ObjectLongMap<?> other = (ObjectLongMap<?>) obj;
+    if (size() != other.size() || hasNullKey != other.hasNullKey || nullValue != other.nullValue)
+      return false;
+    for (int i = 0; i < keys.length; i++) {
+      final Object k = keys[i];
+      if (k != null) {
+        final int j = other.slot(k);
+        if (other.keys[j] == null || other.values[j] != values[i])
+          return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder("{");
+    forEach((k, v) ->
+    {
+      if (builder.length() > 1)
+        builder.append(", ");
+      builder.append(Objects.toString(k)).append('=').append(v);
+    });
+    return builder.append('}').toString();
+  }
+
+}
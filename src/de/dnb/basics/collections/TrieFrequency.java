@@ -7,11 +7,18 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collector;
 
 import de.dnb.basics.applicationComponents.MyFileUtils;
+import de.dnb.basics.filtering.RangeCheckUtils;
 import de.dnb.basics.tries.TST;
 import de.dnb.basics.tries.Trie;
 
@@ -119,6 +126,66 @@ public class TrieFrequency extends Frequency<String> {
     increment(value, 1L);
   }
 
+  /**
+   * Zählt alle Elemente eines Streams nach dem längsten Präfix, wie
+   * {@link #increment(String, long)}. Wie bei
+   * {@link LongFrequency#collector(Function)} zählt jeder Thread in eine
+   * eigene TrieFrequency mit den Schlüsseln keys; die Teilverteilungen
+   * werden zum Schluss mit {@link #addAll(Map)} zusammengeführt. Werte ohne
+   * passendes Präfix werden übergangen.
+   *
+   * @param keys        nicht null, die Schlüssel (Präfixe)
+   * @param classifier  nicht null, liefert den zu zählenden Wert
+   * @return            Collector
+   * @param <T>         Typ der Stream-Elemente
+   */
+  public static <T> Collector<T, ?, TrieFrequency> collector(
+    final Collection<String> keys,
+    final Function<? super T, String> classifier) {
+    return collector(keys, classifier, null);
+  }
+
+  /**
+   * Wie {@link #collector(Collection, Function)}, meldet aber Werte ohne
+   * passendes Präfix wie {@link #setErrorFN(Consumer)}.
+   *
+   * @param keys        nicht null, die Schlüssel (Präfixe)
+   * @param classifier  nicht null, liefert den zu zählenden Wert
+   * @param errorFN     Fehlerfunktion oder null; wird bei parallelen
+   *                    Streams von mehreren Threads aufgerufen
+   * @return            Collector
+   * @param <T>         Typ der Stream-Elemente
+   */
+  public static <T> Collector<T, ?, TrieFrequency> collector(
+    final Collection<String> keys,
+    final Function<? super T, String> classifier,
+    final Consumer<String> errorFN) {
+    RangeCheckUtils.assertReferenceParamNotNull("keys", keys);
+    RangeCheckUtils.assertReferenceParamNotNull("classifier", classifier);
+    final List<String> keyList = new ArrayList<>(keys);
+    return Collector.of(() ->
+    {
+      final TrieFrequency frequency = new TrieFrequency();
+      frequency.addKeys(keyList);
+      frequency.setErrorFN(errorFN);
+      return frequency;
+    }, (f, t) -> f.add(classifier.apply(t)), TrieFrequency::merge,
+      Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+  }
+
+  /**
+   * Beide haben dieselben Schlüssel, daher trifft jeder Schlüssel von f2
+   * in f1 genau sich selbst.
+   *
+   * @param f1  nicht null
+   * @param f2  nicht null
+   * @return    f1 mit der Summe beider
+   */
+  private static TrieFrequency merge(final TrieFrequency f1, final TrieFrequency f2) {
+    f1.addAll(f2);
+    return f1;
+  }
+
   /**
    * @param fileName
    * @throws IOException
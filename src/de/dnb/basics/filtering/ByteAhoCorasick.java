@@ -0,0 +1,204 @@
+package de.dnb.basics.filtering;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.function.LongPredicate;
+
+/**
+ * Sucht mehrere Byte-Muster gleichzeitig in einem Durchlauf (Aho-Corasick,
+ * als vollständiger Automat mit 256 Übergängen je Zustand). Jedes Muster
+ * gehört zu einer von höchstens 64 Gruppen; das Ergebnis einer Suche ist
+ * die Bitmaske der Gruppen, von denen mindestens ein Muster vorkommt.
+ * <br><br>
+ * Die Laufzeit ist linear in der Länge der Eingabe und unabhängig von der
+ * Zahl der Muster. Unveränderlich und daher threadsicher.
+ *
+ * @author baumann
+ *
+ */
+public final class ByteAhoCorasick {
+
+  /**
+   * Maximale Zahl der Gruppen.
+   */
+  public static final int MAX_GROUPS = Long.SIZE;
+
+  /**
+   * Zustand * 256 + Byte -> Folgezustand.
+   */
+  private final int[] delta;
+
+  /**
+   * Zustand -> Gruppen der Muster, die hier enden (auch über
+   * Fehlerübergänge).
+   */
+  private final long[] output;
+
+  /**
+   * Alle Gruppen, die mindestens ein Muster haben.
+   */
+  private final long allGroups;
+
+  /**
+   * Bytes, mit denen ein Muster beginnt. Im Startzustand werden alle
+   * anderen Bytes ohne Automat übersprungen.
+   */
+  private final boolean[] firstBytes = new boolean[256];
+
+  /**
+   * Das einzige Anfangsbyte (häufig RS), sonst -1.
+   */
+  private final int singleFirstByte;
+
+  /**
+   *
+   * @param patterns  nicht null, keines leer
+   * @param groups    gleich lang wie patterns, jeweils 0 bis 63
+   */
+  public ByteAhoCorasick(final byte[][] patterns, final int[] groups) {
+    RangeCheckUtils.assertReferenceParamNotNull("patterns", patterns);
+    RangeCheckUtils.assertReferenceParamNotNull("groups", groups);
+    if (patterns.length != groups.length)
+      throw new IllegalArgumentException("patterns und groups verschieden lang");
+    int maxStates = 1;
+    for (final byte[] pattern : patterns) {
+      if (pattern == null || pattern.length == 0)
+        throw new IllegalArgumentException("leeres Muster");
+      maxStates += pattern.length;
+    }
+
+    // Trie aufbauen, -1 = kein Übergang:
+    int[] trie = new int[maxStates * 256];
+    Arrays.fill(trie, -1);
+    final long[] out = new long[maxStates];
+    int states = 1;
+    long all = 0;
+    for (int p = 0; p < patterns.length; p++) {
+      final int group = groups[p];
+      if (group < 0 || group >= MAX_GROUPS)
+        throw new IllegalArgumentException("Gruppe nicht zwischen 0 und 63: " + group);
+      int state = 0;
+      for (final byte b : patterns[p]) {
+        final int index = state * 256 + (b & 0xFF);
+        if (trie[index] < 0)
+          trie[index] = states++;
+        state = trie[index];
+      }
+      out[state] |= 1L << group;
+      all |= 1L << group;
+    }
+    trie = Arrays.copyOf(trie, states * 256);
+
+    // Fehlerübergänge in Breitensuche, dabei den Automaten vervollständigen:
+    final int[] fail = new int[states];
+    final Queue<Integer> queue = new ArrayDeque<>();
+    int first = -1;
+    int firstCount = 0;
+    for (int b = 0; b < 256; b++) {
+      final int next = trie[b];
+      if (next < 0) {
+        trie[b] = 0;
+      } else {
+        fail[next] = 0;
+        queue.add(next);
+        firstBytes[b] = true;
+        first = b;
+        firstCount++;
+      }
+    }
+    singleFirstByte = firstCount == 1 ? first : -1;
+    while (!queue.isEmpty()) {
+      final int state = queue.remove();
+      out[state] |= out[fail[state]];
+      for (int b = 0; b < 256; b++) {
+        final int index = state * 256 + b;
+        final int next = trie[index];
+        if (next < 0) {
+          trie[index] = trie[fail[state] * 256 + b];
+        } else {
+          fail[next] = trie[fail[state] * 256 + b];
+          queue.add(next);
+        }
+      }
+    }
+    delta = trie;
+    output = Arrays.copyOf(out, states);
+    allGroups = all;
+  }
+
+  /**
+   *
+   * @return  Bitmaske aller Gruppen mit mindestens einem Muster
+   */
+  public long getAllGroups() {
+    return allGroups;
+  }
+
+  /**
+   *
+   * @return  Zahl der Zustände des Automaten
+   */
+  public int size() {
+    return output.length;
+  }
+
+  /**
+   * Durchsucht buffer[offset, offset + length).
+   *
+   * @param buffer  nicht null
+   * @param offset  Beginn
+   * @param length  Länge
+   * @return        Gruppen, von denen ein Muster vorkommt
+   */
+  public long search(final byte[] buffer, final int offset, final int length) {
+    return search(buffer, offset, length, null);
+  }
+
+  /**
+   * Durchsucht buffer[offset, offset + length) und bricht ab, sobald alle
+   * Gruppen gefunden sind oder done für die bisher gefundenen Gruppen
+   * zutrifft. done wird nur aufgerufen, wenn eine neue Gruppe hinzukommt.
+   *
+   * @param buffer  nicht null
+   * @param offset  Beginn
+   * @param length  Länge
+   * @param done    auch null
+   * @return        Gruppen, von denen (bis zum Abbruch) ein Muster
+   *                gefunden wurde
+   */
+  public long search(
+    final byte[] buffer,
+    final int offset,
+    final int length,
+    final LongPredicate done) {
+    final int[] delta = this.delta;
+    final long[] output = this.output;
+    final boolean[] firstBytes = this.firstBytes;
+    final int single = singleFirstByte;
+    final int end = offset + length;
+    long found = 0;
+    for (int i = offset; i < end; i++) {
+      // Im Startzustand bis zum möglichen Beginn eines Musters vorlaufen:
+      final int first = buffer[i] & 0xFF;
+      if (single >= 0 ? first != single : !firstBytes[first])
+        continue;
+      int state = delta[first];
+      while (true) {
+        final long out = output[state];
+        if ((out & ~found) != 0) {
+          found |= out;
+          if (found == allGroups || done != null && done.test(found))
+            return found;
+        }
+        if (++i == end)
+          return found;
+        state = delta[(state << 8) | (buffer[i] & 0xFF)];
+        if (state == 0)
+          break;
+      }
+    }
+    return found;
+  }
+
+}
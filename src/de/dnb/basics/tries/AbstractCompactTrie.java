@@ -0,0 +1,471 @@
+package de.dnb.basics.tries;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Die Suchverfahren von {@link CompactTrie} und {@link MappedTrie}: ein
+ * Radix-Baum, dessen Knoten in Breitensuche durchnummeriert sind. Die
+ * Kinder eines Knotens liegen nebeneinander und sind nach dem ersten
+ * Zeichen ihrer Beschriftung sortiert. Wurzel ist Knoten 0 (ohne
+ * Beschriftung).
+ * <br><br>
+ * Die Unterklassen liefern nur den Zugriff auf die Daten (Arrays oder
+ * Puffer). Alle Operationen arbeiten iterativ. Unveränderlich.
+ *
+ * @author baumann
+ *
+ * @param <V>   Typ der Werte
+ */
+abstract class AbstractCompactTrie<V> extends AbstractTrie<V> {
+
+  private static final long serialVersionUID = -2470613806285574325L;
+
+  /**
+   *
+   * @param node  Knoten oder Zahl der Knoten
+   * @return      Beginn der Beschriftung von node; die Beschriftung endet
+   *              vor labelStart(node + 1)
+   */
+  abstract int labelStart(int node);
+
+  /**
+   *
+   * @param node  Knoten oder Zahl der Knoten
+   * @return      erstes Kind von node; die Kinder enden vor
+   *              firstChild(node + 1)
+   */
+  abstract int firstChild(int node);
+
+  /**
+   *
+   * @param node  Knoten außer der Wurzel
+   * @return      erstes Zeichen der Beschriftung
+   */
+  abstract char firstChar(int node);
+
+  /**
+   *
+   * @param index Position in allen Beschriftungen
+   * @return      Zeichen
+   */
+  abstract char label(int index);
+
+  /**
+   *
+   * @param node  Knoten
+   * @return      hat node einen Wert (ist node das Ende eines Schlüssels)?
+   */
+  abstract boolean hasValue(int node);
+
+  /**
+   *
+   * @param node  Knoten
+   * @return      Wert oder null
+   */
+  abstract V value(int node);
+
+  /**
+   *
+   * @param node  Knoten
+   * @param c     Zeichen
+   * @return      Kind von node, dessen Beschriftung mit c beginnt, oder -1
+   */
+  final int child(final int node, final char c) {
+    int lo = firstChild(node);
+    int hi = firstChild(node + 1) - 1;
+    while (lo <= hi) {
+      final int mid = (lo + hi) >>> 1;
+      final char midChar = firstChar(mid);
+      if (midChar < c)
+        lo = mid + 1;
+      else if (midChar > c)
+        hi = mid - 1;
+      else
+        return mid;
+    }
+    return -1;
+  }
+
+  final int labelLength(final int node) {
+    return labelStart(node + 1) - labelStart(node);
+  }
+
+  /**
+   *
+   * @param node    Knoten
+   * @param s       String
+   * @param offset  Position in s
+   * @param length  Zahl der zu vergleichenden Zeichen, höchstens
+   *                Beschriftungslänge
+   * @return        stimmen die ersten length Zeichen der Beschriftung mit
+   *                s ab offset überein?
+   */
+  private boolean labelMatches(final int node, final String s, final int offset, final int length) {
+    final int start = labelStart(node);
+    for (int k = 0; k < length; k++) {
+      if (label(start + k) != s.charAt(offset + k))
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Hängt die Beschriftung von node ab Position from an path an.
+   */
+  private void appendLabel(final StringBuilder path, final int node, final int from) {
+    final int end = labelStart(node + 1);
+    for (int i = labelStart(node) + from; i < end; i++) {
+      path.append(label(i));
+    }
+  }
+
+  /**
+   *
+   * @param key nicht null
+   * @return    Knoten, der genau key entspricht, oder -1
+   */
+  final int find(final String key) {
+    final int length = key.length();
+    int node = 0;
+    int pos = 0;
+    while (pos < length) {
+      node = child(node, key.charAt(pos));
+      if (node < 0)
+        return -1;
+      final int labelLength = labelLength(node);
+      if (pos + labelLength > length || !labelMatches(node, key, pos, labelLength))
+        return -1;
+      pos += labelLength;
+    }
+    return node;
+  }
+
+  @Override
+  public V getValue(final String key) {
+    Objects.requireNonNull(key, "key darf nicht null sein");
+    final int node = find(key);
+    return node < 0 ? null : value(node);
+  }
+
+  @Override
+  public boolean contains(final String key) {
+    Objects.requireNonNull(key, "key darf nicht null sein");
+    final int node = find(key);
+    return node >= 0 && hasValue(node);
+  }
+
+  @Override
+  public Set<String> keySet() {
+    return keysWithPrefix("");
+  }
+
+  @Override
+  public Set<String> keysWithPrefix(final String prefix) {
+    Objects.requireNonNull(prefix, "prefix darf nicht null sein");
+    final Set<String> results = new LinkedHashSet<>();
+    final StringBuilder path = new StringBuilder(prefix);
+    final int node = findPrefix(prefix, path);
+    if (node >= 0)
+      collect(node, path, (n, p) -> results.add(p.toString()));
+    return results;
+  }
+
+  @Override
+  public Collection<V> valuesWithPrefix(final String prefix) {
+    Objects.requireNonNull(prefix, "prefix darf nicht null sein");
+    final List<V> results = new ArrayList<>();
+    final StringBuilder path = new StringBuilder(prefix);
+    final int node = findPrefix(prefix, path);
+    if (node >= 0)
+      collect(node, path, (n, p) -> results.add(value(n)));
+    return results;
+  }
+
+  /**
+   * Sucht den obersten Knoten, unter dem alle Schlüssel mit prefix liegen.
+   * Endet prefix innerhalb einer Beschriftung, wird deren Rest an path
+   * angehängt.
+   *
+   * @param prefix  nicht null
+   * @param path    enthält prefix
+   * @return        Knoten oder -1
+   */
+  private int findPrefix(final String prefix, final StringBuilder path) {
+    final int length = prefix.length();
+    int node = 0;
+    int pos = 0;
+    while (pos < length) {
+      node = child(node, prefix.charAt(pos));
+      if (node < 0)
+        return -1;
+      final int labelLength = labelLength(node);
+      final int compare = Math.min(labelLength, length - pos);
+      if (!labelMatches(node, prefix, pos, compare))
+        return -1;
+      if (compare < labelLength)
+        appendLabel(path, node, compare);
+      pos += compare;
+    }
+    return node;
+  }
+
+  /**
+   * Besucher der Knoten mit Wert.
+   */
+  private interface Visitor {
+
+    void visit(int node, StringBuilder path);
+
+  }
+
+  /**
+   * Durchläuft den Teilbaum ab start in lexikographischer Reihenfolge,
+   * ohne Rekursion.
+   *
+   * @param start   Knoten, dessen Pfad schon in path steht
+   * @param path    Schlüssel bis einschließlich start
+   * @param visitor wird für jeden Knoten mit Wert aufgerufen
+   */
+  private void collect(final int start, final StringBuilder path, final Visitor visitor) {
+    if (hasValue(start))
+      visitor.visit(start, path);
+    final IntStack stack = new IntStack();
+    pushChildren(start, path.length(), stack);
+    while (!stack.isEmpty()) {
+      final int parentLength = stack.pop();
+      final int node = stack.pop();
+      path.setLength(parentLength);
+      appendLabel(path, node, 0);
+      if (hasValue(node))
+        visitor.visit(node, path);
+      pushChildren(node, path.length(), stack);
+    }
+  }
+
+  /**
+   * Legt die Kinder rückwärts auf den Stapel, damit das kleinste zuerst
+   * bearbeitet wird.
+   */
+  private void pushChildren(final int node, final int pathLength, final IntStack stack) {
+    for (int child = firstChild(node + 1) - 1; child >= firstChild(node); child--) {
+      stack.push(child, pathLength);
+    }
+  }
+
+  /**
+   * Stapel aus Paaren (Knoten, Pfadlänge des Elternknotens).
+   */
+  private static final class IntStack {
+
+    private int[] elements = new int[32];
+
+    private int top;
+
+    void push(final int node, final int pathLength) {
+      if (top + 2 > elements.length)
+        elements = Arrays.copyOf(elements, 2 * elements.length);
+      elements[top++] = node;
+      elements[top++] = pathLength;
+    }
+
+    int pop() {
+      return elements[--top];
+    }
+
+    boolean isEmpty() {
+      return top == 0;
+    }
+
+  }
+
+  @Override
+  public Collection<String> keysThatMatch(final String pattern) {
+    Objects.requireNonNull(pattern, "pattern darf nicht null sein");
+    final List<String> results = new ArrayList<>();
+    final int length = pattern.length();
+    final StringBuilder path = new StringBuilder();
+    final IntStack stack = new IntStack();
+    if (length == 0 && hasValue(0))
+      results.add("");
+    pushChildren(0, 0, stack);
+    while (!stack.isEmpty()) {
+      final int parentLength = stack.pop();
+      final int node = stack.pop();
+      final int labelLength = labelLength(node);
+      if (parentLength + labelLength > length)
+        continue;
+      path.setLength(parentLength);
+      final int start = labelStart(node);
+      boolean matches = true;
+      for (int k = 0; k < labelLength; k++) {
+        final char c = label(start + k);
+        final char p = pattern.charAt(parentLength + k);
+        if (p != '.' && p != c) {
+          matches = false;
+          break;
+        }
+        path.append(c);
+      }
+      if (!matches)
+        continue;
+      if (path.length() == length) {
+        if (hasValue(node))
+          results.add(path.toString());
+        continue;
+      }
+      pushChildren(node, path.length(), stack);
+    }
+    return results;
+  }
+
+  /**
+   * Findet alle Schlüssel, deren Levenshtein-Distanz zu query höchstens
+   * maxDistance ist.
+   * <br><br>
+   * Der Baum wird in Tiefensuche durchlaufen; für jedes Zeichen des Pfades
+   * wird eine Zeile der Distanzmatrix berechnet, und zwar nur das Band
+   * der Breite 2 * maxDistance + 1 um die Diagonale. Ist das Minimum
+   * einer Zeile größer als maxDistance, kann kein Schlüssel darunter mehr
+   * passen, und der ganze Teilbaum wird übergangen. Gemeinsame Präfixe
+   * werden dadurch nur einmal gerechnet, und die meisten Schlüssel werden
+   * gar nicht erst besucht.
+   *
+   * @param query       nicht null
+   * @param maxDistance höchstens erlaubte Distanz, bei negativen Werten
+   *                    wird nichts gefunden
+   * @param consumer    nicht null, erhält Schlüssel und Distanz in
+   *                    lexikographischer Reihenfolge
+   */
+  public void keysWithinDistance(
+    final String query,
+    final int maxDistance,
+    final ObjIntConsumer<String> consumer) {
+    Objects.requireNonNull(query, "query darf nicht null sein");
+    Objects.requireNonNull(consumer, "consumer darf nicht null sein");
+    if (maxDistance < 0)
+      return;
+    final int length = query.length();
+    final int maxDepth = length + maxDistance;
+    // rows[d]: Distanzen von query[0, j) zum Pfad der Länge d
+    final int[][] rows = new int[maxDepth + 1][length + 1];
+    for (int j = 0; j <= length; j++) {
+      rows[0][j] = j;
+    }
+    if (hasValue(0) && length <= maxDistance)
+      consumer.accept("", length);
+    final StringBuilder path = new StringBuilder();
+    final IntStack stack = new IntStack();
+    pushChildren(0, 0, stack);
+    nextNode: while (!stack.isEmpty()) {
+      final int parentLength = stack.pop();
+      final int node = stack.pop();
+      path.setLength(parentLength);
+      int depth = parentLength;
+      final int end = labelStart(node + 1);
+      for (int i = labelStart(node); i < end; i++) {
+        if (depth == maxDepth)
+          continue nextNode;
+        final char c = label(i);
+        path.append(c);
+        depth++;
+        if (!nextRow(query, c, depth, maxDistance, rows[depth - 1], rows[depth]))
+          continue nextNode;
+      }
+      if (hasValue(node) && Math.abs(length - depth) <= maxDistance) {
+        final int distance = rows[depth][length];
+        if (distance <= maxDistance)
+          consumer.accept(path.toString(), distance);
+      }
+      pushChildren(node, depth, stack);
+    }
+  }
+
+  /**
+   * Berechnet das Band der Zeile depth. Die Zellen unmittelbar außerhalb
+   * des Bandes werden auf maxDistance + 1 gesetzt, damit die nächste Zeile
+   * sie lesen kann.
+   *
+   * @return  liegt eine Zelle der Zeile innerhalb von maxDistance?
+   */
+  private static boolean nextRow(
+    final String query,
+    final char c,
+    final int depth,
+    final int maxDistance,
+    final int[] previous,
+    final int[] current) {
+    final int length = query.length();
+    final int lo = Math.max(1, depth - maxDistance);
+    final int hi = Math.min(length, depth + maxDistance);
+    final int outside = maxDistance + 1;
+    current[0] = depth;
+    int min = depth;
+    if (lo > 1)
+      current[lo - 1] = outside;
+    for (int j = lo; j <= hi; j++) {
+      final int substitution = previous[j - 1] + (query.charAt(j - 1) == c ? 0 : 1);
+      final int cell = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+      current[j] = cell;
+      if (cell < min)
+        min = cell;
+    }
+    if (hi < length)
+      current[hi + 1] = outside;
+    return min <= maxDistance;
+  }
+
+  @Override
+  public String longestPrefixOf(final String query) {
+    Objects.requireNonNull(query, "query darf nicht null sein");
+    final int length = longestPrefixLength(query);
+    return length < 0 ? null : query.substring(0, length);
+  }
+
+  /**
+   *
+   * @param query nicht null
+   * @return      Länge des längsten Schlüssels, der Präfix von query ist,
+   *              oder -1
+   */
+  private int longestPrefixLength(final String query) {
+    final int length = query.length();
+    int best = hasValue(0) ? 0 : -1;
+    int node = 0;
+    int pos = 0;
+    while (pos < length) {
+      node = child(node, query.charAt(pos));
+      if (node < 0)
+        break;
+      final int labelLength = labelLength(node);
+      if (pos + labelLength > length || !labelMatches(node, query, pos, labelLength))
+        break;
+      pos += labelLength;
+      if (hasValue(node))
+        best = pos;
+    }
+    return best;
+  }
+
+  @Override
+  public void putValue(final String key, final V val) {
+    throw new UnsupportedOperationException(getClass().getSimpleName() + " ist unveränderlich");
+  }
+
+  @Override
+  public void removeKey(final String key) {
+    throw new UnsupportedOperationException(getClass().getSimpleName() + " ist unveränderlich");
+  }
+
+  @Override
+  public void clear() {
+    throw new UnsupportedOperationException(getClass().getSimpleName() + " ist unveränderlich");
+  }
+
+}
@@ -0,0 +1,313 @@
+/**
+ *
+ */
+package de.dnb.basics.tries;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Unveränderlicher, speichersparender Trie für große Schlüsselmengen
+ * (etwa alle Namen und Verweisungen der GND), der einmal aus einer
+ * {@link Map} aufgebaut wird.
+ * <br><br>
+ * Aufbau: Ein Radix-Baum (Pfadkompression, jede Kante trägt einen
+ * ganzen Teilstring), dessen Knoten in Breitensuche durchnummeriert und in
+ * wenigen flachen Arrays abgelegt sind:
+ * <ul>
+ * <li>die Kantenbeschriftungen aller Knoten hintereinander in einem
+ * char[],
+ * <li>Beginn der Beschriftung und erstes Kind je Knoten in je einem int[];
+ * die Kinder eines Knotens liegen nebeneinander und sind nach ihrem ersten
+ * Zeichen sortiert (binäre Suche),
+ * <li>die Werte in einem Object[].
+ * </ul>
+ * Ein Knoten kostet damit ca. 14 Byte plus seine Beschriftung, gegenüber
+ * einem Objekt mit drei Zeigern je Zeichen beim {@link TST} oder einem
+ * Array mit 256 Zeigern je Zeichen beim {@link ArrayTrie}. Alle
+ * Operationen arbeiten iterativ, lange Schlüssel sind daher unkritisch.
+ * <br><br>
+ * Die verändernden Methoden ({@link #putValue(String, Object)},
+ * {@link #removeKey(String)}, {@link #clear()}, ...) werfen eine
+ * {@link UnsupportedOperationException}. Die Schlüssel werden in
+ * lexikographischer Reihenfolge geliefert. Threadsicher.
+ * <br><br>
+ * Mit {@link #save(Path, TrieValueCodec)} gespeichert, kann der Trie über
+ * {@link MappedTrie} direkt aus der in den Speicher abgebildeten Datei
+ * benutzt werden.
+ *
+ * @author baumann
+ *
+ * @param <V>   Typ der Werte
+ */
+public final class CompactTrie<V> extends AbstractCompactTrie<V> {
+
+  private static final long serialVersionUID = 3174522914283306412L;
+
+  /**
+   * Kennung am Anfang der gespeicherten Form ("CTR1").
+   */
+  static final int COOKIE = 0x43545231;
+
+  /**
+   * Beschriftungen der Knoten: labels[labelStart[n], labelStart[n + 1]).
+   */
+  private final char[] labels;
+
+  /**
+   * Länge: Zahl der Knoten + 1.
+   */
+  private final int[] labelStart;
+
+  /**
+   * Kinder von n: firstChild[n] bis firstChild[n + 1] - 1. Länge: Zahl der
+   * Knoten + 1.
+   */
+  private final int[] firstChild;
+
+  /**
+   * Erstes Zeichen der Beschriftung, für die Suche unter den Kindern.
+   */
+  private final char[] firstChar;
+
+  /**
+   * Wert des Knotens oder null.
+   */
+  private final Object[] values;
+
+  private final int size;
+
+  /**
+   *
+   * @param map   nicht null; Schlüssel mit Wert null werden übergangen
+   *              (wie bei {@link Trie#putValue(String, Object)})
+   */
+  public CompactTrie(final Map<String, ? extends V> map) {
+    Objects.requireNonNull(map, "map darf nicht null sein");
+    final List<String> keyList = new ArrayList<>(map.size());
+    map.forEach((key, value) ->
+    {
+      Objects.requireNonNull(key, "key darf nicht null sein");
+      if (value != null)
+        keyList.add(key);
+    });
+    final String[] keys = keyList.toArray(new String[0]);
+    Arrays.sort(keys);
+    size = keys.length;
+
+    // Höchstens 2 Knoten je Schlüssel (Radix-Baum) plus Wurzel:
+    final int maxNodes = 2 * size + 1;
+    long maxLabels = 0;
+    for (final String key : keys) {
+      maxLabels += key.length();
+    }
+    if (maxLabels > Integer.MAX_VALUE - 8)
+      throw new IllegalArgumentException("Schlüssel zu lang");
+    final char[] labelBuffer = new char[(int) maxLabels];
+    final int[] starts = new int[maxNodes + 1];
+    final int[] children = new int[maxNodes + 1];
+    final char[] firsts = new char[maxNodes];
+    final Object[] vals = new Object[maxNodes];
+    // Aufgaben der Breitensuche: Schlüssel keys[low, high), gemeinsames
+    // Präfix der Länge depth
+    final int[] low = new int[maxNodes];
+    final int[] high = new int[maxNodes];
+    final int[] depth = new int[maxNodes];
+
+    high[0] = keys.length;
+    int nodes = 1;
+    int labelLength = 0;
+    for (int node = 0; node < nodes; node++) {
+      int lo = low[node];
+      final int hi = high[node];
+      final int d = depth[node];
+      if (lo < hi && keys[lo].length() == d) {
+        vals[node] = map.get(keys[lo]);
+        lo++;
+      }
+      children[node] = nodes;
+      int i = lo;
+      while (i < hi) {
+        final char c = keys[i].charAt(d);
+        int j = i + 1;
+        while (j < hi && keys[j].charAt(d) == c) {
+          j++;
+        }
+        // Sortiert: das gemeinsame Präfix der Gruppe ist das von erstem und
+        // letztem Schlüssel.
+        final String first = keys[i];
+        final String last = keys[j - 1];
+        final int max = Math.min(first.length(), last.length());
+        int end = d + 1;
+        while (end < max && first.charAt(end) == last.charAt(end)) {
+          end++;
+        }
+        final int child = nodes++;
+        starts[child] = labelLength;
+        first.getChars(d, end, labelBuffer, labelLength);
+        labelLength += end - d;
+        firsts[child] = c;
+        low[child] = i;
+        high[child] = j;
+        depth[child] = end;
+        i = j;
+      }
+    }
+    starts[nodes] = labelLength;
+    children[nodes] = nodes;
+
+    labels = Arrays.copyOf(labelBuffer, labelLength);
+    labelStart = Arrays.copyOf(starts, nodes + 1);
+    firstChild = Arrays.copyOf(children, nodes + 1);
+    firstChar = Arrays.copyOf(firsts, nodes);
+    values = Arrays.copyOf(vals, nodes);
+  }
+
+  /**
+   *
+   * @return  Zahl der Knoten des Radix-Baums
+   */
+  public int getNodeCount() {
+    return values.length;
+  }
+
+  /**
+   *
+   * @return  ungefährer Speicherbedarf der Struktur in Byte, ohne die Werte
+   *          selbst (4 Byte je Referenz)
+   */
+  public long getSizeInBytes() {
+    return 2L * labels.length + 4L * labelStart.length + 4L * firstChild.length
+      + 2L * firstChar.length + 4L * values.length + 5 * 16;
+  }
+
+  @Override
+  int labelStart(final int node) {
+    return labelStart[node];
+  }
+
+  @Override
+  int firstChild(final int node) {
+    return firstChild[node];
+  }
+
+  @Override
+  char firstChar(final int node) {
+    return firstChar[node];
+  }
+
+  @Override
+  char label(final int index) {
+    return labels[index];
+  }
+
+  @Override
+  boolean hasValue(final int node) {
+    return values[node] != null;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  V value(final int node) {
+    return (V) values[node];
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Schreibt den Trie in der Form, die {@link MappedTrie} direkt liest
+   * (Big Endian):
+   * <pre>
+   * int     Kennung "CTR1"
+   * int     Zahl der Schlüssel
+   * int     Zahl der Knoten n
+   * int     Zahl der Zeichen aller Beschriftungen m
+   * int     Länge des Wertebereichs in Byte
+   * int[n+1]  Beginn der Beschriftungen
+   * int[n+1]  erstes Kind
+   * int[n]    Beginn des Wertes im Wertebereich oder -1
+   * char[n]   erstes Zeichen der Beschriftung
+   * char[m]   Beschriftungen
+   * Wertebereich: je Wert die Daten von codec
+   * </pre>
+   *
+   * @param out   nicht null
+   * @param codec nicht null, für die Werte
+   * @throws IOException  beim Schreiben
+   */
+  public void writeTo(final DataOutput out, final TrieValueCodec<? super V> codec)
+    throws IOException {
+    Objects.requireNonNull(out, "out darf nicht null sein");
+    Objects.requireNonNull(codec, "codec darf nicht null sein");
+    final int nodes = values.length;
+    final ByteArrayOutputStream valueBytes = new ByteArrayOutputStream();
+    final DataOutputStream valueOut = new DataOutputStream(valueBytes);
+    final int[] valueOffsets = new int[nodes];
+    for (int node = 0; node < nodes; node++) {
+      if (values[node] == null) {
+        valueOffsets[node] = -1;
+      } else {
+        valueOffsets[node] = valueOut.size();
+        codec.write(value(node), valueOut);
+      }
+    }
+    valueOut.flush();
+
+    out.writeInt(COOKIE);
+    out.writeInt(size);
+    out.writeInt(nodes);
+    out.writeInt(labels.length);
+    out.writeInt(valueBytes.size());
+    for (final int start : labelStart) {
+      out.writeInt(start);
+    }
+    for (final int child : firstChild) {
+      out.writeInt(child);
+    }
+    for (final int offset : valueOffsets) {
+      out.writeInt(offset);
+    }
+    for (final char c : firstChar) {
+      out.writeChar(c);
+    }
+    for (final char c : labels) {
+      out.writeChar(c);
+    }
+    out.write(valueBytes.toByteArray());
+  }
+
+  /**
+   * Speichert den Trie, s. {@link #writeTo(DataOutput, TrieValueCodec)}.
+   * Geöffnet wird die Datei mit {@link MappedTrie#open(Path, TrieValueCodec)}.
+   *
+   * @param path  nicht null, wird überschrieben
+   * @param codec nicht null, für die Werte
+   * @throws IOException  beim Schreiben
+   */
+  public void save(final Path path, final TrieValueCodec<? super V> codec) throws IOException {
+    Objects.requireNonNull(path, "path darf nicht null sein");
+    try (DataOutputStream out =
+      new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+      writeTo(out, codec);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "CompactTrie [size=" + size + ", nodes=" + getNodeCount() + "]";
+  }
+
+}
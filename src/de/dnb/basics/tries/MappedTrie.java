@@ -0,0 +1,191 @@
+package de.dnb.basics.tries;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import de.dnb.basics.filtering.RangeCheckUtils;
+
+/**
+ * Unveränderliche Sicht auf einen mit
+ * {@link CompactTrie#save(Path, TrieValueCodec)} gespeicherten Trie.
+ * <br><br>
+ * Beim Öffnen wird nur der Kopf (20 Byte) gelesen; alle Suchen laufen
+ * direkt auf den Bytes der in den Speicher abgebildeten Datei, Werte
+ * werden erst beim Zugriff mit dem {@link TrieValueCodec} gelesen. Der
+ * Heap wird daher kaum belastet, und mehrere Prozesse, die dieselbe Datei
+ * öffnen, teilen sich die Seiten im Cache des Betriebssystems. Das lohnt
+ * sich für kurzlebige Werkzeuge und parallele Arbeitsprozesse, die
+ * sonst jedes Mal denselben Trie aufbauen müssten.
+ * <br><br>
+ * Jeder Zugriff auf einen Wert erzeugt ein neues Objekt. Die verändernden
+ * Methoden werfen eine {@link UnsupportedOperationException}.
+ * Threadsicher.
+ *
+ * @author baumann
+ *
+ * @param <V>   Typ der Werte
+ */
+public final class MappedTrie<V> extends AbstractCompactTrie<V> {
+
+  private static final long serialVersionUID = -1391858081813474734L;
+
+  private static final int HEADER = 20;
+
+  private final transient ByteBuffer buffer;
+
+  private final transient TrieValueCodec<V> codec;
+
+  private final int size;
+
+  private final int nodes;
+
+  // Positionen der Abschnitte in buffer:
+
+  private final int labelStarts;
+
+  private final int firstChildren;
+
+  private final int valueOffsets;
+
+  private final int firstChars;
+
+  private final int labels;
+
+  private final int values;
+
+  /**
+   *
+   * @param source  ab der aktuellen Position, wird nicht verändert
+   */
+  private MappedTrie(final ByteBuffer source, final TrieValueCodec<V> codec) {
+    buffer = source.slice().order(ByteOrder.BIG_ENDIAN);
+    this.codec = codec;
+    if (buffer.limit() < HEADER || buffer.getInt(0) != CompactTrie.COOKIE)
+      throw new IllegalArgumentException("keine Daten von CompactTrie");
+    size = buffer.getInt(4);
+    nodes = buffer.getInt(8);
+    final int labelCount = buffer.getInt(12);
+    final int valueBytes = buffer.getInt(16);
+    labelStarts = HEADER;
+    firstChildren = labelStarts + 4 * (nodes + 1);
+    valueOffsets = firstChildren + 4 * (nodes + 1);
+    firstChars = valueOffsets + 4 * nodes;
+    labels = firstChars + 2 * nodes;
+    values = labels + 2 * labelCount;
+    if ((long) values + valueBytes > buffer.limit())
+      throw new IllegalArgumentException("Daten von CompactTrie unvollständig");
+  }
+
+  /**
+   *
+   * @param source  nicht null, ab der aktuellen Position. Der Inhalt darf
+   *                danach nicht mehr verändert werden.
+   * @param codec   nicht null, derselbe wie beim Speichern
+   * @return        Sicht auf den Trie in source
+   * @param <V>     Typ der Werte
+   * @throws IllegalArgumentException wenn keine passenden Daten
+   */
+  public static <V> MappedTrie<V> wrap(final ByteBuffer source, final TrieValueCodec<V> codec) {
+    RangeCheckUtils.assertReferenceParamNotNull("source", source);
+    RangeCheckUtils.assertReferenceParamNotNull("codec", codec);
+    return new MappedTrie<>(source, codec);
+  }
+
+  /**
+   * Bildet die Datei in den Speicher ab. Die Abbildung bleibt gültig, bis
+   * die Sicht nicht mehr erreichbar ist.
+   *
+   * @param path  nicht null
+   * @param codec nicht null, derselbe wie beim Speichern
+   * @return      Sicht auf den Trie in der Datei
+   * @param <V>   Typ der Werte
+   * @throws IOException  beim Lesen oder wenn keine passenden Daten
+   */
+  public static <V> MappedTrie<V> open(final Path path, final TrieValueCodec<V> codec)
+    throws IOException {
+    RangeCheckUtils.assertReferenceParamNotNull("path", path);
+    RangeCheckUtils.assertReferenceParamNotNull("codec", codec);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return new MappedTrie<>(channel.map(MapMode.READ_ONLY, 0, channel.size()), codec);
+    } catch (final IllegalArgumentException e) {
+      throw new IOException(path + ": " + e.getMessage(), e);
+    }
+  }
+
+  @Override
+  int labelStart(final int node) {
+    return buffer.getInt(labelStarts + 4 * node);
+  }
+
+  @Override
+  int firstChild(final int node) {
+    return buffer.getInt(firstChildren + 4 * node);
+  }
+
+  @Override
+  char firstChar(final int node) {
+    return buffer.getChar(firstChars + 2 * node);
+  }
+
+  @Override
+  char label(final int index) {
+    return buffer.getChar(labels + 2 * index);
+  }
+
+  @Override
+  boolean hasValue(final int node) {
+    return buffer.getInt(valueOffsets + 4 * node) >= 0;
+  }
+
+  @Override
+  V value(final int node) {
+    final int offset = buffer.getInt(valueOffsets + 4 * node);
+    if (offset < 0)
+      return null;
+    final ByteBuffer value = buffer.duplicate();
+    value.position(values + offset);
+    return codec.read(value);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   *
+   * @return  Zahl der Knoten des Radix-Baums
+   */
+  public int getNodeCount() {
+    return nodes;
+  }
+
+  /**
+   *
+   * @return  Größe der gespeicherten Form in Byte
+   */
+  public long getSizeInBytes() {
+    return buffer.limit();
+  }
+
+  /**
+   * Serialisiert wird eine Kopie als {@link CompactTrie}, die Abbildung
+   * der Datei selbst ist nicht serialisierbar.
+   *
+   * @return  Kopie im Heap
+   */
+  private Object writeReplace() {
+    return new CompactTrie<>(this);
+  }
+
+  @Override
+  public String toString() {
+    return "MappedTrie [size=" + size + ", nodes=" + nodes + "]";
+  }
+
+}
@@ -0,0 +1,141 @@
+package de.dnb.basics.tries;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Schreibt und liest die Werte eines Tries für die gespeicherte Form
+ * ({@link CompactTrie#save(java.nio.file.Path, TrieValueCodec)},
+ * {@link MappedTrie}).
+ *
+ * @author baumann
+ *
+ * @param <V>   Typ der Werte
+ */
+public interface TrieValueCodec<V> {
+
+  /**
+   *
+   * @param value nicht null
+   * @param out   nicht null
+   * @throws IOException  beim Schreiben
+   */
+  void write(V value, DataOutput out) throws IOException;
+
+  /**
+   *
+   * @param buffer  steht am Anfang des Wertes, Big Endian. Darf
+   *                verändert werden.
+   * @return        den Wert, nicht null
+   */
+  V read(ByteBuffer buffer);
+
+  /**
+   * Schreibt s als Länge und UTF-16-Zeichen.
+   *
+   * @param s   nicht null
+   * @param out nicht null
+   * @throws IOException  beim Schreiben
+   */
+  static void writeString(final String s, final DataOutput out) throws IOException {
+    out.writeInt(s.length());
+    out.writeChars(s);
+  }
+
+  /**
+   * Liest einen mit {@link #writeString(String, DataOutput)} geschriebenen
+   * String.
+   *
+   * @param buffer  nicht null, wird weitergesetzt
+   * @return        den String
+   */
+  static String readString(final ByteBuffer buffer) {
+    final char[] chars = new char[buffer.getInt()];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = buffer.getChar();
+    }
+    return new String(chars);
+  }
+
+  /**
+   *
+   * @return  Codec für Strings
+   */
+  static TrieValueCodec<String> strings() {
+    return new TrieValueCodec<String>() {
+
+      @Override
+      public void write(final String value, final DataOutput out) throws IOException {
+        writeString(value, out);
+      }
+
+      @Override
+      public String read(final ByteBuffer buffer) {
+        return readString(buffer);
+      }
+    };
+  }
+
+  /**
+   *
+   * @return  Codec für Sammlungen von Integern (etwa Idns); gelesen wird
+   *          eine unveränderliche Liste
+   */
+  static TrieValueCodec<Collection<Integer>> integerCollections() {
+    return new TrieValueCodec<Collection<Integer>>() {
+
+      @Override
+      public void write(final Collection<Integer> value, final DataOutput out)
+        throws IOException {
+        out.writeInt(value.size());
+        for (final Integer i : value) {
+          out.writeInt(i);
+        }
+      }
+
+      @Override
+      public Collection<Integer> read(final ByteBuffer buffer) {
+        final int size = buffer.getInt();
+        final List<Integer> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          list.add(buffer.getInt());
+        }
+        return Collections.unmodifiableList(list);
+      }
+    };
+  }
+
+  /**
+   *
+   * @return  Codec für Sammlungen von Strings; gelesen wird eine
+   *          unveränderliche Liste
+   */
+  static TrieValueCodec<Collection<String>> stringCollections() {
+    return new TrieValueCodec<Collection<String>>() {
+
+      @Override
+      public void write(final Collection<String> value, final DataOutput out) throws IOException {
+        out.writeInt(value.size());
+        for (final String s : value) {
+          writeString(s, out);
+        }
+      }
+
+      @Override
+      public Collection<String> read(final ByteBuffer buffer) {
+        final int size = buffer.getInt();
+        final List<String> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          list.add(readString(buffer));
+        }
+        return Collections.unmodifiableList(list);
+      }
+    };
+  }
+
+}
@@ -0,0 +1,489 @@
+package de.dnb.gnd.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import de.dnb.basics.Constants;
+import de.dnb.basics.filtering.RangeCheckUtils;
+import de.dnb.gnd.exceptions.IllFormattedLineException;
+import de.dnb.gnd.parser.line.Line;
+import de.dnb.gnd.parser.line.LineParser;
+import de.dnb.gnd.parser.tag.Tag;
+import de.dnb.gnd.parser.tag.TagDB;
+
+/**
+ * Speichersparende, unveränderliche Form eines {@link Record}, gedacht für
+ * das Halten sehr vieler Datensätze im Speicher (etwa der ganzen GND zum
+ * Abgleich).
+ * <br><br>
+ * Statt Feldern, Zeilen und Unterfeldern als eigene Objekte werden nur
+ * einige Felder primitiver Typen gehalten:
+ * <ul>
+ * <li>je Zeile die Nummer des Tags in der {@link TagDB}
+ * ({@link TagDB#getTagNumber(Tag)}),
+ * <li>je Unterfeld die Nummer des Indikators im Tag und das Ende seines
+ * Inhalts,
+ * <li>alle Inhalte hintereinander in einem String, der bei Latin-1-Text
+ * nur ein Byte je Zeichen belegt.
+ * </ul>
+ * Die Lesemethoden entsprechen denen aus {@link de.dnb.gnd.utils.RecordUtils},
+ * die Inhalte direkt liefern; sie erzeugen keine Zeilen. {@link #iterator()},
+ * {@link #getLines()} und {@link #toRecord()} erzeugen die Zeilen bei jedem
+ * Aufruf neu. Die Originaldaten ({@link Record#getRawData()}) werden nicht
+ * übernommen.
+ *
+ * @author baumann
+ *
+ */
+public final class CompactRecord implements Iterable<Line>, Serializable {
+
+  private static final long serialVersionUID = 3409135427150271883L;
+
+  /**
+   * Die Indikatoren eines Tags in fester Reihenfolge
+   * ({@link Tag#getAllIndicators()}). Tags verschiedener Datenbanken können
+   * gleich sein (Tag.equals() vergleicht nur pica3), daher Identität. Wird
+   * nie verändert, sondern ersetzt, kann also ohne Sperre gelesen werden.
+   */
+  private static volatile Map<Tag, Indicator[]> indicatorArrays = new IdentityHashMap<>();
+
+  private final String id;
+
+  public final TagDB tagDB;
+
+  /**
+   * Je Zeile die Nummer des Tags.
+   */
+  private final short[] lineTags;
+
+  /**
+   * Je Zeile das Ende (exklusiv) ihrer Unterfelder in {@link #indicators}.
+   */
+  private final int[] lineEnds;
+
+  /**
+   * Je Unterfeld die Position des Indikators in
+   * {@link #indicatorsOf(Tag)}. Negativ (-1 - i), wenn der Indikator nicht
+   * zum Tag gehört, dann Position in {@link #foreignIndicators}.
+   */
+  private final byte[] indicators;
+
+  /**
+   * Je Unterfeld das Ende (exklusiv) des Inhalts in {@link #data}.
+   */
+  private final int[] contentEnds;
+
+  /**
+   * Alle Inhalte hintereinander.
+   */
+  private final String data;
+
+  /**
+   * Indikatoren, die nicht zu ihrem Tag gehören, meist null.
+   */
+  private final Indicator[] foreignIndicators;
+
+  /**
+   * Erzeugt die kompakte Form eines Datensatzes.
+   *
+   * @param record  nicht null, mit TagDB
+   * @return        nicht null
+   */
+  public static CompactRecord of(final Record record) {
+    RangeCheckUtils.assertReferenceParamNotNull("record", record);
+    return new CompactRecord(record);
+  }
+
+  private CompactRecord(final Record record) {
+    RangeCheckUtils.assertReferenceParamNotNull("record.tagDB", record.tagDB);
+    tagDB = record.tagDB;
+    id = record.getId();
+
+    final List<Line> lines = new ArrayList<>();
+    final List<List<Subfield>> subfieldLists = new ArrayList<>();
+    int subfieldCount = 0;
+    for (final Line line : record) {
+      final List<Subfield> subfields = line.getSubfields();
+      subfields.removeIf(subfield -> subfield == null);
+      lines.add(line);
+      subfieldLists.add(subfields);
+      subfieldCount += subfields.size();
+    }
+
+    lineTags = new short[lines.size()];
+    lineEnds = new int[lines.size()];
+    indicators = new byte[subfieldCount];
+    contentEnds = new int[subfieldCount];
+    final StringBuilder builder = new StringBuilder();
+    List<Indicator> foreign = null;
+    int sub = 0;
+    for (int i = 0; i < lines.size(); i++) {
+      final Tag tag = lines.get(i).getTag();
+      final int tagNumber = tagDB.getTagNumber(tag);
+      if (tagNumber > Short.MAX_VALUE)
+        throw new IllegalStateException("Zu viele Tags in " + tagDB);
+      lineTags[i] = (short) tagNumber;
+      final Indicator[] tagIndicators = indicatorsOf(tag);
+      for (final Subfield subfield : subfieldLists.get(i)) {
+        final Indicator indicator = subfield.getIndicator();
+        int pos = indexOf(tagIndicators, indicator);
+        if (pos < 0) {
+          if (foreign == null)
+            foreign = new ArrayList<>();
+          pos = foreign.indexOf(indicator);
+          if (pos < 0) {
+            pos = foreign.size();
+            if (pos > Byte.MAX_VALUE)
+              throw new IllegalStateException("Zu viele fremde Indikatoren in " + id);
+            foreign.add(indicator);
+          }
+          pos = -1 - pos;
+        }
+        indicators[sub] = (byte) pos;
+        builder.append(subfield.getContent());
+        contentEnds[sub] = builder.length();
+        sub++;
+      }
+      lineEnds[i] = sub;
+    }
+    data = builder.toString();
+    foreignIndicators = foreign == null ? null : foreign.toArray(new Indicator[0]);
+  }
+
+  private static Indicator[] indicatorsOf(final Tag tag) {
+    final Indicator[] indicators = indicatorArrays.get(tag);
+    return indicators != null ? indicators : addIndicators(tag);
+  }
+
+  private static synchronized Indicator[] addIndicators(final Tag tag) {
+    Indicator[] indicators = indicatorArrays.get(tag);
+    if (indicators == null) {
+      indicators = tag.getAllIndicators().toArray(new Indicator[0]);
+      if (indicators.length > Byte.MAX_VALUE)
+        throw new IllegalStateException("Zu viele Indikatoren in " + tag);
+      final Map<Tag, Indicator[]> newArrays = new IdentityHashMap<>(indicatorArrays);
+      newArrays.put(tag, indicators);
+      indicatorArrays = newArrays;
+    }
+    return indicators;
+  }
+
+  private static int indexOf(final Indicator[] array, final Indicator indicator) {
+    for (int i = 0; i < array.length; i++) {
+      if (array[i] == indicator)
+        return i;
+    }
+    return -1;
+  }
+
+  // ----- Zugriff auf die Rohdaten: ---------------------------
+
+  /**
+   *
+   * @return  Anzahl der Zeilen
+   */
+  public int size() {
+    return lineTags.length;
+  }
+
+  private Tag tagOf(final int line) {
+    return tagDB.getTagByNumber(lineTags[line]);
+  }
+
+  private int firstSubfield(final int line) {
+    return line == 0 ? 0 : lineEnds[line - 1];
+  }
+
+  /**
+   *
+   * @param tagIndicators {@link #indicatorsOf(Tag)} des Tags der Zeile
+   * @param sub           Nummer des Unterfeldes
+   * @return              Indikator des Unterfeldes
+   */
+  private Indicator indicatorOf(final Indicator[] tagIndicators, final int sub) {
+    final byte pos = indicators[sub];
+    return pos >= 0 ? tagIndicators[pos] : foreignIndicators[-1 - pos];
+  }
+
+  private String contentOf(final int sub) {
+    final int start = sub == 0 ? 0 : contentEnds[sub - 1];
+    return data.substring(start, contentEnds[sub]);
+  }
+
+  /**
+   *
+   * @param line    Nummer der Zeile
+   * @param ind     Indikator
+   * @return        Inhalt des ersten Unterfeldes mit ind oder null
+   */
+  private String firstContent(final int line, final char ind) {
+    final Indicator[] tagIndicators = indicatorsOf(tagOf(line));
+    for (int sub = firstSubfield(line); sub < lineEnds[line]; sub++) {
+      if (indicatorOf(tagIndicators, sub).indicatorChar == ind)
+        return contentOf(sub);
+    }
+    return null;
+  }
+
+  /**
+   *
+   * @param tag beliebig
+   * @return    Nummern der Zeilen mit diesem Tag, aufsteigend
+   */
+  private int[] linesOf(final Tag tag) {
+    if (tag == null)
+      return new int[0];
+    final int number = tagDB.getTagNumber(tag);
+    int count = 0;
+    for (final short lineTag : lineTags) {
+      if (lineTag == number)
+        count++;
+    }
+    final int[] result = new int[count];
+    count = 0;
+    for (int i = 0; i < lineTags.length; i++) {
+      if (lineTags[i] == number)
+        result[count++] = i;
+    }
+    return result;
+  }
+
+  private Tag findTag(final String tagStr) {
+    RangeCheckUtils.assertStringParamNotNullOrEmpty("tagStr", tagStr);
+    return tagDB.findTag(tagStr);
+  }
+
+  // ----- Lesemethoden wie in RecordUtils: ---------------------------
+
+  /**
+   * Wie {@link Record#getId()}.
+   *
+   * @return  ID oder null, wenn nicht ermittelbar.
+   */
+  public String getId() {
+    return id;
+  }
+
+  /**
+   *
+   * @return  die vergebenen Tags in der Reihenfolge der Zeilen, neue Menge
+   */
+  public LinkedHashSet<Tag> getTags() {
+    final LinkedHashSet<Tag> tags = new LinkedHashSet<>();
+    for (int i = 0; i < lineTags.length; i++) {
+      tags.add(tagOf(i));
+    }
+    return tags;
+  }
+
+  /**
+   *
+   * @param tagStr  Pica3 oder Pica+, nicht leer
+   * @return        true, wenn eine Zeile mit diesem Tag existiert
+   */
+  public boolean containsField(final String tagStr) {
+    return linesOf(findTag(tagStr)).length > 0;
+  }
+
+  /**
+   * Wie {@link de.dnb.gnd.utils.RecordUtils#getContentOfSubfield(Record, String, char)}:
+   * Zum Tag muss exakt eine Zeile gehören.
+   *
+   * @param tagStr    Pica3 oder Pica+, nicht leer
+   * @param indicator beliebig
+   * @return          Inhalt des ersten passenden Unterfeldes oder null
+   */
+  public String getContentOfSubfield(final String tagStr, final char indicator) {
+    final int[] lines = linesOf(findTag(tagStr));
+    if (lines.length != 1)
+      return null;
+    return firstContent(lines[0], indicator);
+  }
+
+  /**
+   * Wie
+   * {@link de.dnb.gnd.utils.RecordUtils#getContentsOfFirstSubfields(Record, String, char)}.
+   *
+   * @param tagStr    Pica3 oder Pica+, nicht leer
+   * @param indicator beliebig
+   * @return          je Zeile des Tags den Inhalt des ersten passenden
+   *                  Unterfeldes, nicht null, modifizierbar
+   */
+  public List<String> getContentsOfFirstSubfields(final String tagStr, final char indicator) {
+    final List<String> contents = new ArrayList<>();
+    for (final int line : linesOf(findTag(tagStr))) {
+      final String content = firstContent(line, indicator);
+      if (content != null)
+        contents.add(content);
+    }
+    return contents;
+  }
+
+  /**
+   *
+   * @param tagStr    Pica3 oder Pica+, nicht leer
+   * @param indicator beliebig
+   * @return          die Inhalte aller passenden Unterfelder aller Zeilen
+   *                  des Tags, nicht null, modifizierbar
+   */
+  public List<String> getContentsOfSubfields(final String tagStr, final char indicator) {
+    final List<String> contents = new ArrayList<>();
+    for (final int line : linesOf(findTag(tagStr))) {
+      final Indicator[] tagIndicators = indicatorsOf(tagOf(line));
+      for (int sub = firstSubfield(line); sub < lineEnds[line]; sub++) {
+        if (indicatorOf(tagIndicators, sub).indicatorChar == indicator)
+          contents.add(contentOf(sub));
+      }
+    }
+    return contents;
+  }
+
+  // ----- Zeilen und Datensatz erzeugen: ---------------------------
+
+  /**
+   *
+   * @param line  Nummer der Zeile
+   * @return      neu erzeugte Zeile
+   */
+  private Line createLine(final int line) {
+    final Tag tag = tagOf(line);
+    final Indicator[] tagIndicators = indicatorsOf(tag);
+    final List<Subfield> subfields = new ArrayList<>(lineEnds[line] - firstSubfield(line));
+    try {
+      for (int sub = firstSubfield(line); sub < lineEnds[line]; sub++) {
+        subfields.add(new Subfield(indicatorOf(tagIndicators, sub), contentOf(sub)));
+      }
+      return LineParser.parse(tag, subfields);
+    } catch (final IllFormattedLineException e) {
+      // Die Zeile war vorher schon gültig:
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   *
+   * @param tagStr  Pica3 oder Pica+, nicht leer
+   * @return        neu erzeugte Zeilen des Tags, nicht null, modifizierbar
+   */
+  public List<Line> getLines(final String tagStr) {
+    final List<Line> lines = new ArrayList<>();
+    for (final int line : linesOf(findTag(tagStr))) {
+      lines.add(createLine(line));
+    }
+    return lines;
+  }
+
+  /**
+   *
+   * @return  alle Zeilen, neu erzeugt, nicht null, modifizierbar
+   */
+  public List<Line> getLines() {
+    final List<Line> lines = new ArrayList<>(size());
+    forEach(lines::add);
+    return lines;
+  }
+
+  /**
+   * Erzeugt die Zeilen erst beim Durchlaufen.
+   */
+  @Override
+  public Iterator<Line> iterator() {
+    return new Iterator<Line>() {
+
+      private int next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return next < lineTags.length;
+      }
+
+      @Override
+      public Line next() {
+        if (!hasNext())
+          throw new NoSuchElementException();
+        return createLine(next++);
+      }
+    };
+  }
+
+  /**
+   *
+   * @return  einen neuen, veränderbaren Datensatz mit denselben Zeilen
+   *          (ohne Originaldaten)
+   */
+  public Record toRecord() {
+    final Record record = new Record(id, tagDB);
+    Field field = null;
+    for (final Line line : this) {
+      // Die Zeilen eines Feldes folgen aufeinander und waren schon gültig:
+      if (field != null && field.tag == line.getTag()) {
+        field.lines.add(line);
+      } else {
+        field = new Field(line);
+        record.fieldMap.put(field.tag, field);
+      }
+    }
+    return record;
+  }
+
+  /**
+   *
+   * @return  Anzahl der Zeichen aller Inhalte
+   */
+  public int contentLength() {
+    return data.length();
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder("IDN: " + id);
+    for (final Line line : this) {
+      builder.append(Constants.LINE_SEPARATOR).append(line);
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Zeigt den Speicherbedarf für die Beispieldaten. Für
+   * documents/GNDBeispiel.txt ca. 10 KB je Record gegenüber 1,2 KB je
+   * CompactRecord.
+   *
+   * @param args  nicht benutzt
+   * @throws IOException  beim Lesen
+   */
+  public static void main(final String[] args) throws IOException {
+    final RecordReader reader = new RecordReader(new File("documents/GNDBeispiel.txt"));
+    reader.setKeepRawData(false);
+    List<Record> records = new ArrayList<>();
+    reader.forEachRemaining(records::add);
+    reader.close();
+    final int n = records.size();
+    final long withRecords = usedMemory();
+    final List<CompactRecord> compacts = new ArrayList<>();
+    records.forEach(record -> compacts.add(of(record)));
+    records = null;
+    final long withCompacts = usedMemory();
+    compacts.clear();
+    final long without = usedMemory();
+    System.out.println("Datensätze: " + n);
+    System.out.println("Record:        ca. " + (withRecords - without) / n + " Byte/Datensatz");
+    System.out.println("CompactRecord: ca. " + (withCompacts - without) / n + " Byte/Datensatz");
+  }
+
+  private static long usedMemory() {
+    final Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+}
@@ -6,6 +6,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import javax.naming.OperationNotSupportedException;
 
 import de.dnb.basics.filtering.FilterUtils;
@@ -39,6 +40,11 @@ public final class Field implements Iterable<Line>, Cloneable, Serializable {
    */
   /*private*/ArrayList<Line> lines = new ArrayList<>();
 
+  /**
+   * Unveränderliche Sicht auf {@link #lines}, wird bei Bedarf gebildet.
+   */
+  private transient List<Line> linesView;
+
   @SuppressWarnings("unchecked")
   @Override
   public Field clone() {
@@ -49,6 +55,7 @@ public final class Field implements Iterable<Line>, Cloneable, Serializable {
       throw new InternalError(e.getMessage());
     }
     cloned.lines = (ArrayList<Line>) lines.clone();
+    cloned.linesView = null;
     return cloned;
   }
 
@@ -178,7 +185,22 @@ public final class Field implements Iterable<Line>, Cloneable, Serializable {
    * @return	eine nicht leere Liste von Zeilen.
    */
   public Collection<Line> getLines() {
-    return Collections.unmodifiableCollection(lines);
+    return getLinesView();
+  }
+
+  /**
+   * Liefert die Zeilen ohne Kopie. Änderungen am Feld sind sofort
+   * sichtbar.
+   *
+   * @return	eine nicht leere, unveränderliche Liste von Zeilen.
+   */
+  public List<Line> getLinesView() {
+    List<Line> view = linesView;
+    if (view == null) {
+      view = Collections.unmodifiableList(lines);
+      linesView = view;
+    }
+    return view;
   }
 
   /**
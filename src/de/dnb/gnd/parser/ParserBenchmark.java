@@ -0,0 +1,121 @@
+package de.dnb.gnd.parser;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import de.dnb.basics.applicationComponents.strings.StringUtils;
+import de.dnb.basics.utils.TimeUtils;
+
+/**
+ * Zeitmessungen für den {@link RecordParser}. Gemessen werden die
+ * Beispieldaten aus documents/GNDBeispiel.txt, jeweils nach einer
+ * Aufwärmrunde.
+ * <br><br>
+ * Kontrollfelder (Kopfzeile "Eingabe: ..."), Werte auf einem Kern:
+ * <ul>
+ * <li>Pattern.compile() je Zeile (alt): ca. 1,2 µs/Zeile
+ * <li>Vortest + vorkompiliertes Muster: ca. 30 ns/Zeile
+ * <li>zum Vergleich das ganze Parsen: ca. 3,5 µs/Zeile
+ * </ul>
+ * Die Beispieldaten liegen schon in NFC vor, mit
+ * {@link RecordParser#setInputNormalized(boolean)} entfällt auch die
+ * Prüfung darauf: ca. 2,8 µs/Zeile.
+ *
+ * @author baumann
+ *
+ */
+public final class ParserBenchmark {
+
+  private ParserBenchmark() {
+  }
+
+  private static final int ROUNDS = 200;
+
+  /**
+   * So hat es {@link StringUtils#getControlFields(String)} früher gemacht.
+   *
+   * @param line  nicht null
+   * @return      Kopfzeile
+   */
+  private static boolean oldControlCheck(final String line) {
+    final Pattern controlPat =
+      Pattern.compile("Eingabe: (\\S+) Änderung: (\\S+) (\\S*) Status: (\\S+)\\s*");
+    return controlPat.matcher(line).matches();
+  }
+
+  /**
+   *
+   * @param args  optional: Datei im pica3-Format (UTF-8)
+   * @throws IOException  beim Lesen
+   */
+  public static void main(final String[] args) throws IOException {
+    final String fileName = args.length > 0 ? args[0] : "documents/GNDBeispiel.txt";
+    final String content =
+      new String(Files.readAllBytes(Paths.get(fileName)), StandardCharsets.UTF_8);
+    final List<String> lines = new ArrayList<>();
+    for (final String line : content.split("\n")) {
+      if (!line.trim().isEmpty())
+        lines.add(line);
+    }
+    final long calls = (long) ROUNDS * lines.size();
+    int found = 0;
+
+    for (int warmup = 0; warmup < 2; warmup++) {
+      System.out.println("Zeilen: " + lines.size());
+
+      TimeUtils.startStopWatch();
+      for (int i = 0; i < ROUNDS; i++) {
+        for (final String line : lines) {
+          if (oldControlCheck(line))
+            found++;
+        }
+      }
+      long t = TimeUtils.delta_t_nanos();
+      System.out.println("Kontrollfelder alt:  " + t / calls + " ns/Zeile");
+
+      TimeUtils.startStopWatch();
+      for (int i = 0; i < ROUNDS; i++) {
+        for (final String line : lines) {
+          if (StringUtils.getControlFields(line) != null)
+            found++;
+        }
+      }
+      t = TimeUtils.delta_t_nanos();
+      System.out.println("Kontrollfelder neu:  " + t / calls + " ns/Zeile");
+
+      final RecordParser parser = new RecordParser();
+      final RecordReader reader = new RecordReader(new StringReader(content));
+      final List<String> records = new ArrayList<>();
+      reader.forEachRemaining(record -> records.add(record.getRawData()));
+      TimeUtils.startStopWatch();
+      for (int i = 0; i < ROUNDS; i++) {
+        for (final String record : records) {
+          found += parser.parse(record).getLines().size();
+        }
+      }
+      t = TimeUtils.delta_t_nanos();
+      System.out.println("ganzer Parser:       " + t / calls + " ns/Zeile");
+      System.out.println("davon komponiert:    " + Subfield.getComposedCount() + " Unterfelder");
+
+      parser.setInputNormalized(true);
+      TimeUtils.startStopWatch();
+      for (int i = 0; i < ROUNDS; i++) {
+        for (final String record : records) {
+          found += parser.parse(record).getLines().size();
+        }
+      }
+      t = TimeUtils.delta_t_nanos();
+      System.out.println("Parser, NFC-Eingabe: " + t / calls + " ns/Zeile");
+      Subfield.resetComposedCount();
+      System.out.println();
+    }
+    System.out.println(found);
+  }
+
+}
@@ -0,0 +1,29 @@
+package de.dnb.gnd.parser;
+
+import java.nio.charset.Charset;
+
+/**
+ * Filter, der auf den noch nicht dekodierten Bytes eines Datensatzes
+ * arbeitet. Wird ein solcher Filter dem {@link RecordReader} als
+ * Stream-Filter übergeben ({@link RecordReader#setStreamFilter}),
+ * so werden abgelehnte Datensätze nie in einen String umgewandelt.
+ * <br><br>
+ * Implementierungen müssen zusätzlich {@link java.util.function.Predicate}
+ * für Strings implementieren, da nicht jede Quelle Bytes liefert.
+ *
+ * @author baumann
+ *
+ */
+public interface RawRecordFilter {
+
+  /**
+   *
+   * @param buffer  nicht null, nur lesen!
+   * @param offset  Beginn des Datensatzes in buffer
+   * @param length  Länge des Datensatzes in Bytes
+   * @param charset Zeichensatz, in dem die Bytes vorliegen, nicht null
+   * @return        true, wenn der Datensatz benötigt wird
+   */
+  boolean test(byte[] buffer, int offset, int length, Charset charset);
+
+}
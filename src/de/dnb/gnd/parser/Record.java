@@ -1,7 +1,9 @@
 package de.dnb.gnd.parser;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -38,8 +40,18 @@ public final class Record implements Iterable<Line>, Cloneable, Serializable {
 
   /*private*/Map<Tag, Field> fieldMap = new TreeMap<>();
 
+  /**
+   * Die Originaldaten. Ist null, solange sie noch nicht aus
+   * {@link #rawLines} gebildet wurden.
+   */
   String rawData = "";
 
+  /**
+   * Die Zeilen des Originals, aus denen {@link #rawData} erst bei Bedarf
+   * gebildet wird. Danach null.
+   */
+  private List<String> rawLines = null;
+
   private final String id;
 
   public final TagDB tagDB;
@@ -92,11 +104,82 @@ public final class Record implements Iterable<Line>, Cloneable, Serializable {
    * @return  Ein Clone der Zeilen.
    */
   public List<Line> getLines() {
-    final List<Line> newFields = new LinkedList<>();
-    for (final Line line : this) {
-      newFields.add(line);
+    final List<Line> newLines = new ArrayList<>();
+    for (final Field field : fieldMap.values()) {
+      newLines.addAll(field.lines);
     }
-    return newFields;
+    return newLines;
+  }
+
+  // ----- Sichten ohne Kopie, nur zum Lesen: -----------------------------
+
+  /**
+   * Liefert die Zeilen zu tag ohne Kopie. Zum Verändern des Datensatzes
+   * {@link #getField(Tag)} verwenden.
+   *
+   * @param tag  beliebig
+   * @return     unveränderliche Liste, leer, wenn tag == null oder nicht
+   *             vorhanden.
+   */
+  public List<Line> getLinesView(final Tag tag) {
+    if (tag == null)
+      return Collections.emptyList();
+    final Field field = fieldMap.get(tag);
+    return field == null ? Collections.emptyList() : field.getLinesView();
+  }
+
+  /**
+   *
+   * @param tag  beliebig
+   * @return     true, wenn der Datensatz Zeilen zu tag enthält
+   */
+  public boolean containsTag(final Tag tag) {
+    return tag != null && fieldMap.containsKey(tag);
+  }
+
+  /**
+   *
+   * @return  true, wenn der Datensatz keine Zeilen enthält
+   */
+  public boolean isEmpty() {
+    return fieldMap.isEmpty();
+  }
+
+  /**
+   *
+   * @return  die Tags ohne Kopie, in Pica3-Reihenfolge, unveränderlich
+   */
+  public Set<Tag> getTagsView() {
+    return Collections.unmodifiableSet(fieldMap.keySet());
+  }
+
+  /**
+   * Durchläuft die Zeilen (Pica3-Reihenfolge) ohne Kopie. Anders als bei
+   * {@link #iterator()} darf der Datensatz währenddessen nicht verändert
+   * werden.
+   *
+   * @return  Iterator, der remove() nicht unterstützt
+   */
+  public Iterator<Line> lineIterator() {
+    return new Iterator<Line>() {
+
+      private final Iterator<Field> fieldsIterator = fieldMap.values().iterator();
+
+      private Iterator<Line> lineIterator = Collections.emptyIterator();
+
+      @Override
+      public boolean hasNext() {
+        // Felder sind nie leer:
+        return lineIterator.hasNext() || fieldsIterator.hasNext();
+      }
+
+      @Override
+      public Line next() {
+        if (!lineIterator.hasNext())
+          lineIterator = fieldsIterator.next().getLinesView().iterator();
+        return lineIterator.next();
+      }
+    };
   }
 
   /**
@@ -220,7 +303,35 @@ public final class Record implements Iterable<Line>, Cloneable, Serializable {
     return removed;
   }
 
-  public String getRawData() {
+  /**
+   * Übernimmt die Originalzeilen. Die Originaldaten werden erst beim
+   * ersten Aufruf von {@link #getRawData()} daraus gebildet.
+   *
+   * @param lines nicht null, darf danach nicht verändert werden
+   */
+  void setRawLines(final List<String> lines) {
+    RangeCheckUtils.assertReferenceParamNotNull("lines", lines);
+    rawLines = lines;
+    rawData = null;
+  }
+
+  /**
+   *
+   * @return  die Originaldaten, Zeilen durch
+   *          {@link Constants#LINE_SEPARATOR} getrennt. Leer, wenn
+   *          der Parser keine Originaldaten behalten sollte
+   *          ({@link RecordParser#setKeepRawData(boolean)}).
+   */
+  public synchronized String getRawData() {
+    if (rawData == null) {
+      final StringBuilder builder = new StringBuilder();
+      for (final String line : rawLines) {
+        if (line != null)
+          builder.append(line).append(Constants.LINE_SEPARATOR);
+      }
+      rawData = builder.toString();
+      rawLines = null;
+    }
     return rawData;
   }
 
@@ -264,8 +375,14 @@ public final class Record implements Iterable<Line>, Cloneable, Serializable {
         set.addAll(theFields);
         final Iterator<Field> iteratorF = set.iterator();
         fieldsIterator = iteratorF;
-      } else
-        fieldsIterator = getFields().iterator();
+      } else {
+        // Schnappschuss der Zeilen, damit der Datensatz beim Durchlaufen
+        // verändert werden kann. Lines sind unveränderlich, die Felder
+        // müssen also nicht geklont werden:
+        fieldsIterator = new NullIterator<>();
+        lineIterator = getLines().iterator();
+        return;
+      }
       lineIterator = new NullIterator<>();
     }
 
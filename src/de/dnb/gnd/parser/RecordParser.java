@@ -61,6 +61,22 @@ public final class RecordParser {
     this(GNDTagDB.getDB(), new IgnoringHandler(), "(\r)?\n");
   }
 
+  /**
+   * Übernimmt die Einstellungen von parser (Default-DB, Handler,
+   * Zeilentrenner, MARC, Erzwingen der Default-DB). Der Handler wird
+   * gemeinsam benutzt. Gedacht für nebenläufiges Parsen, da ein
+   * RecordParser nicht threadsicher ist.
+   *
+   * @param parser  nicht null
+   */
+  public RecordParser(final RecordParser parser) {
+    this(parser.defaultTagDB, parser.handler, parser.lineDelimiter);
+    ignoreMARC = parser.ignoreMARC;
+    useDefaultDB = parser.useDefaultDB;
+    keepRawData = parser.keepRawData;
+    inputNormalized = parser.inputNormalized;
+  }
+
   public static final TagDB BIB_TAG_DB = BibTagDB.getDB();
 
   public static final TagDB AUTH_TAG_DB = GNDTagDB.getDB();
@@ -94,6 +110,43 @@ public final class RecordParser {
 
   private boolean useDefaultDB = false;
 
+  /**
+   * Sollen die Originaldaten im Datensatz gehalten werden? Standard ist
+   * true.
+   */
+  private boolean keepRawData = true;
+
+  /**
+   * Sollen die Originaldaten im Datensatz gehalten werden
+   * ({@link Record#getRawData()})? Standard ist true. Für Massenverarbeitung,
+   * die die Originaldaten nicht benötigt, spart false Speicher. Dann
+   * liefern allerdings auch {@link Record#getRawData()} und
+   * {@link ItemParser#parseItems(Record)} nichts mehr.
+   *
+   * @param keep  beliebig
+   */
+  public void setKeepRawData(final boolean keep) {
+    keepRawData = keep;
+  }
+
+  /**
+   * Liegen die Eingabedaten schon in Unicode-NFC vor? Standard ist false.
+   */
+  private boolean inputNormalized = false;
+
+  /**
+   * Erklärt die Eingabedaten als schon in Unicode-NFC normalisiert (so
+   * bei Datashop- und gzip-Abzügen). Dann entfällt beim Erzeugen der
+   * Unterfelder die Unicode-Komposition. Stimmt die Annahme nicht,
+   * enthalten die Unterfelder unkomponierte Zeichen. Wie oft
+   * komponiert werden musste, liefert {@link Subfield#getComposedCount()}.
+   *
+   * @param normalized  Standard ist false
+   */
+  public void setInputNormalized(final boolean normalized) {
+    inputNormalized = normalized;
+  }
+
   /**
    * Erzwinge Nutzung der Datenbank, die durch
    * {@link #setDefaultTagDB(TagDB)} gesetzt
@@ -158,21 +211,40 @@ public final class RecordParser {
    *
    */
   public Record parse(final String idn, final Iterable<String> lines) {
-
     RangeCheckUtils.assertReferenceParamNotNull("lines", lines);
+    final StringBuilder raw = keepRawData ? new StringBuilder() : null;
+    parseLines(idn, lines, raw);
+    if (raw != null)
+      record.rawData = raw.toString();
+    return record;
+  }
+
+  /**
+   * Erzeugt {@link #record} und fügt die Zeilen hinzu.
+   *
+   * @param idn   idn oder null.
+   * @param lines nicht null
+   * @param raw   wenn nicht null, werden die Originaldaten angehängt
+   */
+  private void parseLines(final String idn, final Iterable<String> lines, final StringBuilder raw) {
     // Initialisieren der Variablen
     record = new Record(idn, theTagDB);
 
-    // reader Zeile für Zeile lesen und analysieren:
-    for (final String lineStr : lines) {
-      if (lineStr != null) {
-        if (lineStr.length() != 0) {
-          processLine(lineStr, idn);
+    final boolean previous = Subfield.setAssumeNormalized(inputNormalized);
+    try {
+      // reader Zeile für Zeile lesen und analysieren:
+      for (final String lineStr : lines) {
+        if (lineStr != null) {
+          if (lineStr.length() != 0) {
+            processLine(lineStr, idn);
+          }
+          if (raw != null)
+            raw.append(lineStr).append(Constants.LINE_SEPARATOR);
         }
-        record.rawData += lineStr + Constants.LINE_SEPARATOR;
       }
+    } finally {
+      Subfield.setAssumeNormalized(previous);
     }
-    return record;
   }
 
   /**
@@ -212,7 +284,23 @@ public final class RecordParser {
     final String[] lineArr = delimiterPattern.split(aRecord);
     final List<String> lines = Arrays.asList(lineArr);
 
-    return parse(idn, lines);
+    // Originaldaten erst bei Bedarf bilden:
+    parseLines(idn, lines, null);
+    if (keepRawData)
+      record.setRawLines(lines);
+    return record;
+  }
+
+  /**
+   * Wie {@link #parse(String)}, liefert aber die speichersparende,
+   * unveränderliche Form des Datensatzes. Gedacht für das Halten sehr
+   * vieler Datensätze im Speicher.
+   *
+   * @param aRecord nicht null
+   * @return        nicht null
+   */
+  public CompactRecord parseCompact(final String aRecord) {
+    return CompactRecord.of(parse(aRecord));
   }
 
   // ----- Hilfsfunktionen: -----------------------------
@@ -267,6 +355,9 @@ public final class RecordParser {
   private boolean controlFieldsFoundAndProcessed(final String lineStr) {
 
     RangeCheckUtils.assertReferenceParamNotNull("lineStr", lineStr);
+    // Wird für jede Zeile aufgerufen, daher erst der billige Vortest:
+    if (!StringUtils.isControlFieldsCandidate(lineStr))
+      return false;
     //@formatter:off
 		final Quadruplett<String, String, String, String>
 			controlFields = StringUtils.getControlFields(lineStr);
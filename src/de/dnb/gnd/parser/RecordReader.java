@@ -2,18 +2,23 @@ package de.dnb.gnd.parser;
 
 import java.io.Closeable;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
 import java.util.InputMismatchException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import java.util.zip.GZIPInputStream;
 
 import de.dnb.basics.Constants;
@@ -37,6 +42,12 @@ import de.dnb.gnd.utils.RecordUtils;
  * Die Klasse hat reguläre Ausdrücke, um den Beginn eines
  * Datensatzes zu erkennen.
  * <br><br>
+ * Liegt die Quelle als Byte-Strom vor (Datei, InputStream) und ist der
+ * Datensatztrenner ein Literal (wie bei allen Voreinstellungen), so wird
+ * statt des {@link Scanner} der schnellere {@link RecordSplitter}
+ * verwendet. Dekodiert werden dann nur die Datensätze, die den
+ * Stream-Filter passieren, sofern dieser ein {@link RawRecordFilter} ist.
+ * <br><br>
  * Als Handler wird der ignorierende, als Datenbank die GND,
  * als Datensatztrenner "SET: " angesehen.
  * <br><br>
@@ -53,8 +64,17 @@ public class RecordReader implements Iterable<Record>, Iterator<Record>, Closeab
 
   private Pattern recordDelimiterPat;
 
+  /**
+   * Für Quellen, die nur Zeichen liefern, und für Trenner, die reguläre
+   * Ausdrücke sind. Sonst null.
+   */
   private Scanner scanner;
 
+  /**
+   * Für Byte-Quellen mit literalem Trenner. Sonst null.
+   */
+  private RecordSplitter splitter;
+
   private String nextChunk = null;
 
   private final RecordParser parser = new RecordParser();
@@ -108,8 +128,8 @@ public class RecordReader implements Iterable<Record>, Iterator<Record>, Closeab
    */
   public RecordReader(final File source) throws FileNotFoundException {
     RangeCheckUtils.assertReferenceParamNotNull("source", source);
-    scanner = new Scanner(source);
     createRecordDelimPat(recordDelimiter);
+    setSource(source);
   }
 
   /**
@@ -123,8 +143,8 @@ public class RecordReader implements Iterable<Record>, Iterator<Record>, Closeab
   public RecordReader(final File source, final String charsetName) throws FileNotFoundException {
     RangeCheckUtils.assertReferenceParamNotNull("source", source);
     RangeCheckUtils.assertStringParamNotNullOrWhitespace("charsetName", charsetName);
-    scanner = new Scanner(source, charsetName);
     createRecordDelimPat(recordDelimiter);
+    setSource(source, charsetName);
   }
 
   /**
@@ -134,8 +154,8 @@ public class RecordReader implements Iterable<Record>, Iterator<Record>, Closeab
    *
    */
   public RecordReader() {
-    scanner = new Scanner(System.in);
     createRecordDelimPat(recordDelimiter);
+    setSource(System.in);
   }
 
   public static RecordReader getConsoleReader() {
@@ -150,8 +170,8 @@ public class RecordReader implements Iterable<Record>, Iterator<Record>, Closeab
    */
   public RecordReader(final InputStream source) {
     RangeCheckUtils.assertReferenceParamNotNull("source", source);
-    scanner = new Scanner(source);
     createRecordDelimPat(recordDelimiter);
+    setSource(source);
   }
 
   /**
@@ -163,8 +183,8 @@ public class RecordReader implements Iterable<Record>, Iterator<Record>, Closeab
   public RecordReader(final InputStream source, final String charsetName) {
     RangeCheckUtils.assertReferenceParamNotNull("source", source);
     RangeCheckUtils.assertStringParamNotNullOrWhitespace("charsetName", charsetName);
-    scanner = new Scanner(source, charsetName);
     createRecordDelimPat(recordDelimiter);
+    setSource(source, charsetName);
   }
 
   /**
@@ -174,8 +194,9 @@ public class RecordReader implements Iterable<Record>, Iterator<Record>, Closeab
    */
   public RecordReader(final Readable source) {
     RangeCheckUtils.assertReferenceParamNotNull("source", source);
-    scanner = new Scanner(source);
     createRecordDelimPat(recordDelimiter);
+    scanner = new Scanner(source);
+    scanner.useDelimiter(recordDelimiterPat);
   }
 
   /**
@@ -187,8 +208,8 @@ public class RecordReader implements Iterable<Record>, Iterator<Record>, Closeab
   public RecordReader(final String sourceFile) throws FileNotFoundException {
     RangeCheckUtils.assertReferenceParamNotNull("source", sourceFile);
     final File file = new File(sourceFile);
-    scanner = new Scanner(file);
     createRecordDelimPat(recordDelimiter);
+    setSource(file);
   }
 
   /**
@@ -216,7 +237,9 @@ public class RecordReader implements Iterable<Record>, Iterator<Record>, Closeab
 
   /**
    * Erzeugt die Patterns recordDelPat, scannerDelimiterPat
-   * für Record,  und Chunk .
+   * für Record,  und Chunk . Ist ein {@link RecordSplitter} aktiv
+   * und ist der neue Trenner kein Literal, so wird mit den restlichen
+   * Daten auf einen {@link Scanner} umgestellt.
    *
    * @param aRecordDelimiter	nicht null.
    */
@@ -231,7 +254,37 @@ public class RecordReader implements Iterable<Record>, Iterator<Record>, Closeab
      * als zum Datensatz gehörig angesehen wird.
      */
     recordDelimiterPat = Pattern.compile("(?=(" + aRecordDelimiter + "))");
-    scanner.useDelimiter(recordDelimiterPat);
+    if (splitter != null) {
+      if (RecordSplitter.isLiteral(aRecordDelimiter)) {
+        splitter.setDelimiter(aRecordDelimiter);
+      } else {
+        final Charset charset = splitter.getCharset();
+        scanner = new Scanner(splitter.remainder(), charset.name());
+        splitter = null;
+      }
+    }
+    if (scanner != null)
+      scanner.useDelimiter(recordDelimiterPat);
+  }
+
+  /**
+   * Setzt die Byte-Quelle. Wenn möglich, wird ein {@link RecordSplitter}
+   * verwendet, sonst ein {@link Scanner}.
+   *
+   * @param stream  nicht null
+   * @param charset nicht null
+   */
+  private void setByteSource(final InputStream stream, final Charset charset) {
+    RangeCheckUtils.assertReferenceParamNotNull("stream", stream);
+    nextChunk = null;
+    if (RecordSplitter.isLiteral(recordDelimiter) && RecordSplitter.supports(charset)) {
+      splitter = new RecordSplitter(stream, recordDelimiter, charset);
+      scanner = null;
+    } else {
+      scanner = new Scanner(stream, charset.name());
+      scanner.useDelimiter(recordDelimiterPat);
+      splitter = null;
+    }
   }
 
   /**
@@ -290,19 +343,36 @@ public class RecordReader implements Iterable<Record>, Iterator<Record>, Closeab
     parser.setIgnoreMARC(ignoreMARC);
   }
 
+  /**
+   * Sollen die Originaldaten im Datensatz gehalten werden? Wird an den
+   * Parser durchgereicht, s. {@link RecordParser#setKeepRawData(boolean)}.
+   *
+   * @param keep  Standard ist true
+   */
+  public void setKeepRawData(final boolean keep) {
+    parser.setKeepRawData(keep);
+  }
+
+  /**
+   * Liegen die Daten schon in Unicode-NFC vor? Wird an den Parser
+   * durchgereicht, s. {@link RecordParser#setInputNormalized(boolean)}.
+   *
+   * @param normalized  Standard ist false
+   */
+  public void setInputNormalized(final boolean normalized) {
+    parser.setInputNormalized(normalized);
+  }
+
   /**
    *
    * @param stream
    */
   public void setSource(final InputStream stream) {
-    scanner = new Scanner(stream);
-    scanner.useDelimiter(recordDelimiterPat);
+    setByteSource(stream, Charset.defaultCharset());
   }
 
   public void setSource(final InputStream inputStream, final String charset) {
-    scanner = new Scanner(inputStream, charset);
-    scanner.useDelimiter(recordDelimiterPat);
-
+    setByteSource(inputStream, Charset.forName(charset));
   }
 
   /**
@@ -320,8 +390,7 @@ public class RecordReader implements Iterable<Record>, Iterator<Record>, Closeab
    * @throws FileNotFoundException
    */
   public void setSource(final File file) throws FileNotFoundException {
-    scanner = new Scanner(file);
-    scanner.useDelimiter(recordDelimiterPat);
+    setByteSource(new FileInputStream(file), Charset.defaultCharset());
   }
 
   /**
@@ -386,8 +455,7 @@ public class RecordReader implements Iterable<Record>, Iterator<Record>, Closeab
    * @throws FileNotFoundException
    */
   public void setSource(final File file, final String charset) throws FileNotFoundException {
-    scanner = new Scanner(file, charset);
-    scanner.useDelimiter(recordDelimiterPat);
+    setByteSource(new FileInputStream(file), Charset.forName(charset));
   }
 
   /**
@@ -398,6 +466,9 @@ public class RecordReader implements Iterable<Record>, Iterator<Record>, Closeab
    *
    * Standard ist: keine leeren Strings.
    *
+   * Implementiert streamFilter auch {@link RawRecordFilter}, so wird
+   * bei Byte-Quellen schon vor dem Dekodieren gefiltert.
+   *
    * @param streamFilter	Prädikat, das Strings akzeptiert, nicht null.
    */
   public final void setStreamFilter(final Predicate<String> streamFilter) {
@@ -413,6 +484,10 @@ public class RecordReader implements Iterable<Record>, Iterator<Record>, Closeab
    */
   @Override
   public final boolean hasNext() {
+    if (nextChunk == null && splitter != null) {
+      nextChunk = nextFromSplitter();
+      return nextChunk != null;
+    }
     if (nextChunk == null) {
       // solange nachladen, bis der nächste Record dem Muster entspricht:
       while (scanner.hasNext()) {
@@ -439,6 +514,36 @@ public class RecordReader implements Iterable<Record>, Iterator<Record>, Closeab
     return nextChunk != null;
   }
 
+  /**
+   * Filtert möglichst auf Byte-Ebene, dekodiert wird nur, was nötig ist.
+   *
+   * @return  nächsten akzeptierten Datensatz oder null
+   */
+  private String nextFromSplitter() {
+    final boolean rejectBlank = streamFilter.getClass() == RejectEmptyStrings.class;
+    final RawRecordFilter rawFilter =
+      streamFilter instanceof RawRecordFilter ? (RawRecordFilter) streamFilter : null;
+    final Charset charset = splitter.getCharset();
+    while (splitter.advance()) {
+      if (logBytes) {
+        bytesRead += splitter.length();
+      }
+      if (rejectBlank) {
+        if (splitter.isBlank())
+          continue;
+        return splitter.decode();
+      }
+      if (rawFilter != null) {
+        if (!rawFilter.test(splitter.buffer(), splitter.offset(), splitter.length(), charset))
+          continue;
+      }
+      final String next = splitter.decode();
+      if (streamFilter.test(next))
+        return next;
+    }
+    return null;
+  }
+
   /**
    *
    * @return nächsten Datensatz. Wenn keiner vorhanden, wird eine
@@ -454,9 +559,35 @@ public class RecordReader implements Iterable<Record>, Iterator<Record>, Closeab
       throw new NoSuchElementException("Kein Record mehr da");
   }
 
+  /**
+   * Liefert den nächsten Datensatz, der den Stream-Filter passiert hat,
+   * ungeparst. Zum Parsen in anderen Threads, s. {@link #createParser()}.
+   *
+   * @return  nächsten Datensatz als String. Wenn keiner vorhanden, wird
+   *          eine {@link NoSuchElementException} geworfen.
+   */
+  public final String nextRecordString() {
+    if (hasNext()) {
+      final String s = nextChunk;
+      nextChunk = null;
+      return s;
+    } else
+      throw new NoSuchElementException("Kein Record mehr da");
+  }
+
+  /**
+   *
+   * @return  neuen Parser mit den aktuellen Einstellungen dieses Readers.
+   *          Der Handler wird geteilt.
+   */
+  public RecordParser createParser() {
+    return new RecordParser(parser);
+  }
+
   @Override
   protected void finalize() throws Throwable {
     MyFileUtils.safeClose(scanner);
+    MyFileUtils.safeClose(splitter);
     super.finalize();
   }
 
@@ -464,6 +595,56 @@ public class RecordReader implements Iterable<Record>, Iterator<Record>, Closeab
     return Streams.getStreamFromIterable(this);
   }
 
+  /**
+   * Paralleler, ungeordneter Stream, s. {@link #parallelStream(boolean)}.
+   *
+   * @return  parallelen Stream der Datensätze
+   */
+  public Stream<Record> parallelStream() {
+    return parallelStream(false);
+  }
+
+  /**
+   * Paralleler Stream. Das Zerlegen in Datensätze und der Stream-Filter
+   * laufen immer nur in einem Thread (der gerade den Stream aufteilt),
+   * das Parsen übernehmen die Threads des Fork-Join-Pools. Jeder Thread
+   * erhält einen eigenen {@link RecordParser} mit den Einstellungen
+   * dieses Readers zum Zeitpunkt des Aufrufs. Der Handler wird von allen
+   * geteilt und muss daher threadsicher sein.
+   * <br><br>
+   * Die Datensätze werden in Paketen verteilt, für kleine Dateien (unter
+   * etwa 1000 Datensätzen) lohnt sich das nicht.
+   * <br><br>
+   * Soll ein eigener Pool verwendet werden, so ist die terminale
+   * Operation in einer Aufgabe dieses Pools aufzurufen.
+   *
+   * @param ordered   true: die Reihenfolge der Datei bleibt erhalten
+   *                  (langsamer, etwa bei forEachOrdered oder collect)
+   * @return          parallelen Stream der Datensätze
+   */
+  public Stream<Record> parallelStream(final boolean ordered) {
+    final RecordParser prototype = createParser();
+    final ThreadLocal<RecordParser> parsers =
+      ThreadLocal.withInitial(() -> new RecordParser(prototype));
+    final Iterator<String> chunks = new Iterator<String>() {
+      @Override
+      public boolean hasNext() {
+        return RecordReader.this.hasNext();
+      }
+
+      @Override
+      public String next() {
+        return nextRecordString();
+      }
+    };
+    final Spliterator<String> spliterator =
+      Spliterators.spliteratorUnknownSize(chunks, Spliterator.ORDERED | Spliterator.NONNULL);
+    Stream<String> stream = StreamSupport.stream(spliterator, true);
+    if (!ordered)
+      stream = stream.unordered();
+    return stream.map(chunk -> parsers.get().parse(chunk));
+  }
+
   public static void main2(final String[] args) throws IOException {
     final RecordReader reader = getMatchingReader("D:/Normdaten/DNBtitel_Stichprobe.dat.gz");
 
@@ -551,6 +732,7 @@ public class RecordReader implements Iterable<Record>, Iterator<Record>, Closeab
   @Override
   public void close() throws IOException {
     MyFileUtils.safeClose(scanner);
+    MyFileUtils.safeClose(splitter);
 
   }
 
@@ -0,0 +1,318 @@
+package de.dnb.gnd.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import de.dnb.basics.filtering.RangeCheckUtils;
+
+/**
+ * Zerlegt einen Byte-Strom in Datensätze, indem direkt in einem großen,
+ * wiederverwendeten Puffer nach den Bytes des Datensatztrenners (GS, \n,
+ * "SET: " ...) gesucht wird. Erst danach wird, falls nötig, dekodiert.
+ * <br><br>
+ * Wie beim {@link java.util.Scanner} mit Lookahead-Trenner gehört der
+ * Trenner zum folgenden Datensatz. Ein eventueller Vorspann vor dem
+ * ersten Trenner wird ebenfalls als Datensatz geliefert.
+ * <br><br>
+ * Der Trenner muss ein Literal sein (kein regulärer Ausdruck) und der
+ * Zeichensatz muss ASCII-kompatibel sein, s. {@link #supports(Charset)}.
+ *
+ * @author baumann
+ *
+ */
+public class RecordSplitter implements Closeable {
+
+  /**
+   * Anfangsgröße des Puffers. Wächst, wenn ein Datensatz nicht hineinpasst.
+   */
+  public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+  private final int bufferSize;
+
+  private InputStream in;
+
+  private final Charset charset;
+
+  private byte[] delimiter;
+
+  /**
+   * Wird erst beim ersten {@link #advance()} angelegt, damit ein Splitter,
+   * aus dem nie gelesen wird (etwa auf System.in), nichts kostet.
+   */
+  private byte[] buffer;
+
+  /**
+   * Gültige Daten in buffer.
+   */
+  private int limit = 0;
+
+  /**
+   * Beginn des aktuellen Datensatzes in buffer.
+   */
+  private int start = 0;
+
+  /**
+   * Länge des aktuellen Datensatzes.
+   */
+  private int length = 0;
+
+  private boolean eof = false;
+
+  /**
+   *
+   * @param in          nicht null
+   * @param delimiter   Datensatztrenner, nicht leer, kein regulärer Ausdruck
+   * @param charset     nicht null, ASCII-kompatibel
+   */
+  public RecordSplitter(final InputStream in, final String delimiter, final Charset charset) {
+    this(in, delimiter, charset, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   *
+   * @param in          nicht null
+   * @param delimiter   Datensatztrenner, nicht leer, kein regulärer Ausdruck
+   * @param charset     nicht null, ASCII-kompatibel
+   * @param bufferSize  Anfangsgröße des Puffers, > 0
+   */
+  public RecordSplitter(
+    final InputStream in,
+    final String delimiter,
+    final Charset charset,
+    final int bufferSize) {
+    RangeCheckUtils.assertReferenceParamNotNull("in", in);
+    RangeCheckUtils.assertReferenceParamNotNull("charset", charset);
+    if (!supports(charset))
+      throw new IllegalArgumentException("Zeichensatz nicht ASCII-kompatibel: " + charset);
+    if (bufferSize <= 0)
+      throw new IllegalArgumentException("bufferSize muss > 0 sein");
+    this.in = in;
+    this.charset = charset;
+    this.bufferSize = bufferSize;
+    setDelimiter(delimiter);
+  }
+
+  /**
+   *
+   * @param charset nicht null
+   * @return        true, wenn ASCII-Zeichen (und damit die Trenner) in
+   *                charset immer als einzelnes, eindeutiges Byte kodiert
+   *                werden. Das gilt für UTF-8 und die Ein-Byte-Zeichensätze.
+   */
+  public static boolean supports(final Charset charset) {
+    RangeCheckUtils.assertReferenceParamNotNull("charset", charset);
+    if (charset.equals(StandardCharsets.UTF_8))
+      return true;
+    if (!charset.canEncode())
+      return false;
+    return charset.newEncoder().maxBytesPerChar() == 1.0f
+      && Arrays.equals("SET: \n".getBytes(charset), "SET: \n".getBytes(StandardCharsets.US_ASCII));
+  }
+
+  /**
+   *
+   * @param delimiter   Zeichenkette
+   * @return            true, wenn delimiter keine Sonderzeichen regulärer
+   *                    Ausdrücke enthält, also wörtlich gesucht werden kann.
+   */
+  public static boolean isLiteral(final String delimiter) {
+    if (delimiter == null || delimiter.isEmpty())
+      return false;
+    for (int i = 0; i < delimiter.length(); i++) {
+      if ("\\^$.|?*+()[]{}".indexOf(delimiter.charAt(i)) >= 0)
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Ändert den Trenner. Auch während des Lesens möglich, gilt dann ab dem
+   * nächsten Datensatz.
+   *
+   * @param aDelimiter  nicht leer, kein regulärer Ausdruck
+   */
+  public final void setDelimiter(final String aDelimiter) {
+    RangeCheckUtils.assertStringParamNotNullOrEmpty("aDelimiter", aDelimiter);
+    if (!isLiteral(aDelimiter))
+      throw new IllegalArgumentException("Trenner ist kein Literal: " + aDelimiter);
+    delimiter = aDelimiter.getBytes(charset);
+  }
+
+  /**
+   *
+   * @return  Zeichensatz der Daten
+   */
+  public Charset getCharset() {
+    return charset;
+  }
+
+  /**
+   * Rückt zum nächsten Datensatz vor. Danach ist dieser über
+   * {@link #buffer()}, {@link #offset()} und {@link #length()}
+   * zugänglich, bis zum nächsten Aufruf.
+   *
+   * @return  true, wenn noch ein Datensatz gefunden wurde
+   * @throws UncheckedIOException bei Lesefehlern
+   */
+  public boolean advance() {
+    if (buffer == null)
+      buffer = new byte[bufferSize];
+    start += length;
+    length = 0;
+    // Suche ab start + 1, da der Trenner am Anfang zum Datensatz gehört:
+    int searchFrom = start + 1;
+    while (true) {
+      final int pos = indexOfDelimiter(searchFrom);
+      if (pos >= 0) {
+        length = pos - start;
+        return true;
+      }
+      if (eof) {
+        length = limit - start;
+        return length > 0;
+      }
+      // Die letzten delimiter.length - 1 Bytes könnten Anfang eines Trenners
+      // sein, daher dort weitersuchen:
+      final int keep = Math.max(start + 1, limit - delimiter.length + 1) - start;
+      compact();
+      fill();
+      searchFrom = start + keep;
+    }
+  }
+
+  /**
+   * Nur lesen!
+   *
+   * @return  den Puffer, in dem der aktuelle Datensatz steht
+   */
+  public byte[] buffer() {
+    return buffer;
+  }
+
+  /**
+   *
+   * @return  Beginn des aktuellen Datensatzes im Puffer
+   */
+  public int offset() {
+    return start;
+  }
+
+  /**
+   *
+   * @return  Länge des aktuellen Datensatzes in Bytes
+   */
+  public int length() {
+    return length;
+  }
+
+  /**
+   *
+   * @return  den aktuellen Datensatz als String
+   */
+  public String decode() {
+    return new String(buffer, start, length, charset);
+  }
+
+  /**
+   *
+   * @return  true, wenn der aktuelle Datensatz nur aus Leerraum besteht
+   *          (entspricht {@link String#trim()}.isEmpty())
+   */
+  public boolean isBlank() {
+    final int end = start + length;
+    for (int i = start; i < end; i++) {
+      // vorzeichenlos, Bytes >= 0x80 gehören zu Nicht-ASCII-Zeichen:
+      if ((buffer[i] & 0xff) > ' ')
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   *
+   * @return  Strom mit den noch nicht gelieferten Daten (ab dem nächsten
+   *          Datensatz). Danach ist der Splitter nicht mehr zu verwenden.
+   */
+  public InputStream remainder() {
+    if (buffer == null) {
+      final InputStream remainder = in;
+      in = null;
+      return remainder;
+    }
+    final int from = start + length;
+    final ByteArrayInputStream rest =
+      new ByteArrayInputStream(Arrays.copyOfRange(buffer, from, limit));
+    final InputStream remainder = new SequenceInputStream(rest, in);
+    in = null;
+    buffer = null;
+    return remainder;
+  }
+
+  /**
+   * Sucht den Trenner in [from, limit - delimiter.length].
+   *
+   * @param from  Startposition
+   * @return      Position oder -1
+   */
+  private int indexOfDelimiter(final int from) {
+    final byte first = delimiter[0];
+    final int last = limit - delimiter.length;
+    outer: for (int i = from; i <= last; i++) {
+      if (buffer[i] != first)
+        continue;
+      for (int j = 1; j < delimiter.length; j++) {
+        if (buffer[i + j] != delimiter[j])
+          continue outer;
+      }
+      return i;
+    }
+    return -1;
+  }
+
+  /**
+   * Verschiebt den aktuellen Datensatz an den Pufferanfang oder vergrößert
+   * den Puffer, wenn der Datensatz ihn schon ganz ausfüllt.
+   */
+  private void compact() {
+    final int used = limit - start;
+    if (start == 0 && used == buffer.length) {
+      buffer = Arrays.copyOf(buffer, buffer.length * 2);
+    } else if (start > 0) {
+      System.arraycopy(buffer, start, buffer, 0, used);
+      start = 0;
+      limit = used;
+    }
+  }
+
+  /**
+   * Füllt den Puffer so weit wie möglich auf.
+   */
+  private void fill() {
+    try {
+      while (limit < buffer.length) {
+        final int n = in.read(buffer, limit, buffer.length - limit);
+        if (n < 0) {
+          eof = true;
+          return;
+        }
+        limit += n;
+      }
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (in != null)
+      in.close();
+  }
+
+}
@@ -1,6 +1,9 @@
 package de.dnb.gnd.parser;
 
 import java.io.Serializable;
+import java.text.Normalizer;
+import java.text.Normalizer.Form;
+import java.util.concurrent.atomic.LongAdder;
 
 import de.dnb.basics.applicationComponents.strings.StringUtils;
 import de.dnb.basics.filtering.RangeCheckUtils;
@@ -40,15 +43,93 @@ public class Subfield implements Serializable {
 		} catch (final IllegalArgumentException e) {
 			throw new IllFormattedLineException("Übergebenes Unterfeld falsch: " + anIndicator + aContent);
 		}
-		// $$ wird im "k p"-Modus zur Eingabe eines einzelnen $ verwendet:
-		String cont = aContent.replace("$$", "$");
-		cont = cont.replace("\n", "");
-		cont = cont.replace("\r", "");
-		cont = StringUtils.unicodeComposition(cont);
-		content = cont;
+		content = prepare(aContent);
 		indicator = anIndicator;
 	}
 
+	/**
+	 * Unterhalb dieses Zeichens (U+0300, Beginn der kombinierenden
+	 * diakritischen Zeichen) ist jeder String schon in NFC.
+	 */
+	private static final char FIRST_NON_NFC_SAFE = '\u0300';
+
+	/**
+	 * Anzahl der Unterfelder, deren Inhalt tatsächlich komponiert werden
+	 * musste.
+	 */
+	private static final LongAdder COMPOSED = new LongAdder();
+
+	/**
+	 * Wird vom {@link RecordParser} gesetzt, wenn die Eingabe schon in NFC
+	 * vorliegt.
+	 */
+	private static final ThreadLocal<Boolean> ASSUME_NORMALIZED =
+		ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+	/**
+	 * Legt für den aktuellen Thread fest, ob die Inhalte neuer Unterfelder
+	 * schon in NFC vorliegen. Dann entfällt die Unicode-Komposition.
+	 *
+	 * @param normalized	beliebig
+	 * @return				den bisherigen Wert, damit er wiederhergestellt
+	 *						werden kann
+	 */
+	static boolean setAssumeNormalized(final boolean normalized) {
+		final boolean previous = ASSUME_NORMALIZED.get();
+		ASSUME_NORMALIZED.set(normalized);
+		return previous;
+	}
+
+	/**
+	 *
+	 * @return	Anzahl der Unterfelder (seit Programmstart oder
+	 *			{@link #resetComposedCount()}), deren Inhalt nicht in NFC
+	 *			vorlag und daher komponiert werden musste
+	 */
+	public static long getComposedCount() {
+		return COMPOSED.sum();
+	}
+
+	/**
+	 * Setzt {@link #getComposedCount()} auf 0.
+	 */
+	public static void resetComposedCount() {
+		COMPOSED.reset();
+	}
+
+	/**
+	 * Entfernt Zeilenumbrüche, ersetzt $$ durch $ und komponiert Unicode
+	 * (NFC). Im Normalfall (kein $$, keine Umbrüche, nur Zeichen unter
+	 * U+0300) wird dabei nichts kopiert.
+	 *
+	 * @param aContent	nicht null
+	 * @return			bereinigten Inhalt
+	 */
+	private static String prepare(final String aContent) {
+		boolean replace = false;
+		boolean compose = false;
+		final int length = aContent.length();
+		for (int i = 0; i < length; i++) {
+			final char c = aContent.charAt(i);
+			if (c == '\n' || c == '\r' || (c == '$' && i + 1 < length && aContent.charAt(i + 1) == '$'))
+				replace = true;
+			else if (c >= FIRST_NON_NFC_SAFE)
+				compose = true;
+		}
+		String cont = aContent;
+		if (replace) {
+			// $$ wird im "k p"-Modus zur Eingabe eines einzelnen $ verwendet:
+			cont = cont.replace("$$", "$");
+			cont = cont.replace("\n", "");
+			cont = cont.replace("\r", "");
+		}
+		if (compose && !ASSUME_NORMALIZED.get() && !Normalizer.isNormalized(cont, Form.NFC)) {
+			COMPOSED.increment();
+			cont = StringUtils.unicodeComposition(cont);
+		}
+		return cont;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 *
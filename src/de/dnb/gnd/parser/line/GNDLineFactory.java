@@ -26,6 +26,12 @@ public abstract class GNDLineFactory extends LineFactory {
    */
   protected boolean related;
 
+  @Override
+  protected void reset() {
+    super.reset();
+    related = false;
+  }
+
   @Override
   protected void preprocessContentString() throws IllFormattedLineException {
     createDollar9();
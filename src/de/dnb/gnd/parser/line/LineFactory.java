@@ -183,10 +183,10 @@ public abstract class LineFactory {
     throws IllFormattedLineException {
     RangeCheckUtils.assertReferenceParamNotNull("aFormat", aFormat);
     RangeCheckUtils.assertStringParamNotNullOrWhitespace("aContent", aContentStr);
+    reset();
     format = aFormat;
     contentStr = aContentStr;
     this.ignoreMARC = ignoreMARC;
-    subfieldList.clear();
     try {
       processContent();
     } catch (final IllFormattedLineException e) {
@@ -197,6 +197,17 @@ public abstract class LineFactory {
     }
   }
 
+  /**
+   * Vergisst alles, was von der zuletzt geladenen Zeile stammt. Wird zu
+   * Beginn von {@link #load(Format, String, boolean)} aufgerufen, da
+   * {@link LineParser} die Fabriken (je Thread) wiederverwendet.
+   * Unterklassen mit weiterem zeilenbezogenen Zustand müssen überschreiben
+   * und super.reset() aufrufen.
+   */
+  protected void reset() {
+    subfieldList.clear();
+  }
+
   /**
    * Über diese Methode kann die Fabrik mit einer neuen Zeile
    * geladen werden. Es wird angenommen, dass die Zeile im
@@ -1,8 +1,9 @@
 package de.dnb.gnd.parser.line;
 
 import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
-import de.dnb.basics.applicationComponents.tuples.Triplett;
 import de.dnb.basics.filtering.RangeCheckUtils;
 import de.dnb.gnd.exceptions.IllFormattedLineException;
 import de.dnb.gnd.parser.Format;
@@ -11,6 +12,7 @@ import de.dnb.gnd.parser.tag.GNDTagDB;
 import de.dnb.gnd.parser.tag.SWDTagDB;
 import de.dnb.gnd.parser.tag.Tag;
 import de.dnb.gnd.parser.tag.TagDB;
+import de.dnb.gnd.parser.tag.TagResolver;
 
 /**
  * Hilfsklasse, die das Parsen von Zeilen erleichtert.
@@ -24,6 +26,34 @@ public final class LineParser {
     super();
   }
 
+  /**
+   * Die Fabriken je Thread und Tag. Eine Fabrik ist zustandsbehaftet und
+   * darf daher nicht von mehreren Threads geteilt werden. Innerhalb eines
+   * Threads kann sie aber beliebig oft neu geladen werden, da die erzeugten
+   * Zeilen die Unterfelder kopieren. So wird pro Zeile keine Fabrik
+   * erzeugt, und die parse()-Methoden sind threadsicher.
+   */
+  private static final ThreadLocal<Map<Tag, LineFactory>> FACTORIES =
+    ThreadLocal.withInitial(IdentityHashMap::new);
+
+  /**
+   *
+   * @param tag nicht null
+   * @return    die Fabrik des aktuellen Threads für tag. Nur innerhalb
+   *            dieses Threads und nicht über einen weiteren Aufruf von
+   *            parse() hinweg verwenden!
+   */
+  static LineFactory threadLocalFactory(final Tag tag) {
+    RangeCheckUtils.assertReferenceParamNotNull("tag", tag);
+    final Map<Tag, LineFactory> factories = FACTORIES.get();
+    LineFactory factory = factories.get(tag);
+    if (factory == null) {
+      factory = tag.getLineFactory();
+      factories.put(tag, factory);
+    }
+    return factory;
+  }
+
   /**
    * Parst eine durch tag und contentStr gegebene Zeile.
    *
@@ -43,7 +73,7 @@ public final class LineParser {
     parse(final Tag tag, final Format format, final String contentStr, final boolean ignoreMARC)
       throws IllFormattedLineException,
       IllegalArgumentException {
-    final LineFactory factory = tag.getLineFactory();
+    final LineFactory factory = threadLocalFactory(tag);
     factory.load(format, contentStr, ignoreMARC);
     return factory.createLine();
   }
@@ -61,7 +91,7 @@ public final class LineParser {
    */
   public static Line parse(final Tag tag, final Collection<Subfield> subfields)
     throws IllFormattedLineException {
-    final LineFactory factory = tag.getLineFactory();
+    final LineFactory factory = threadLocalFactory(tag);
     factory.load(subfields);
     return factory.createLine();
   }
@@ -86,20 +116,12 @@ public final class LineParser {
     IllegalArgumentException {
     RangeCheckUtils.assertStringParamNotNullOrEmpty("lineStr", lineStr);
     RangeCheckUtils.assertReferenceParamNotNull("tagDB", tagDB);
-    final Triplett<Tag, String, String> triplett = tagDB.parseTag(lineStr);
-
-    if (triplett != null) {
-      final Tag tag = triplett.first;
-      final String content = triplett.third;
-      Format format;
-      if (triplett.second.equals(tag.pica3)) {
-        format = Format.PICA3;
-      } else {
-        format = Format.PICA_PLUS;
-      }
-      return parse(tag, format, content, ignoreMARC);
-    }
-    return null;
+    final TagResolver resolver = tagDB.getTagResolver();
+    final int entry = resolver.find(lineStr);
+    if (entry < 0)
+      return null;
+    final String content = lineStr.substring(resolver.getContentOffset(entry));
+    return parse(resolver.getTag(entry), resolver.getFormat(entry), content, ignoreMARC);
   }
 
   /**
@@ -128,6 +150,12 @@ public final class LineParser {
 
   }
 
+  /**
+   *
+   * @param tagStr  nicht leer
+   * @param tagDB   nicht null
+   * @return        eine neue Fabrik, die dem Aufrufer allein gehört
+   */
   public static LineFactory getFactory(final String tagStr, final TagDB tagDB) {
     RangeCheckUtils.assertStringParamNotNullOrEmpty("tagStr", tagStr);
     RangeCheckUtils.assertReferenceParamNotNull("tagDB", tagDB);
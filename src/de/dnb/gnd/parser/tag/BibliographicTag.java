@@ -75,11 +75,14 @@ public class BibliographicTag extends Tag implements Serializable{
 
   @Override
   public Set<Indicator> getOwnIndicators() {
-    if (ownIndicators == null) {
-      ownIndicators = new LinkedHashSet<Indicator>(get1stIndicators());
-      ownIndicators.addAll(get2ndIndicators());
+    Set<Indicator> indicators = ownIndicators;
+    if (indicators == null) {
+      final LinkedHashSet<Indicator> newIndicators = new LinkedHashSet<Indicator>(get1stIndicators());
+      newIndicators.addAll(get2ndIndicators());
+      indicators = Collections.unmodifiableSet(newIndicators);
+      ownIndicators = indicators;
     }
-    return Collections.unmodifiableSet(ownIndicators);
+    return indicators;
   }
 
   /**
@@ -114,7 +114,7 @@ public final class GNDTagDB extends TagDB {
 	 */
 	public static final Indicator DOLLAR_X = new Indicator('x', "Allgemeine Unterteilung", R, "General subdivision");
 
-	static GNDTagDB gndTagDB;
+	static volatile GNDTagDB gndTagDB;
 
 	/**
 	 * Nachname.
@@ -277,11 +277,24 @@ public final class GNDTagDB extends TagDB {
 		"060R", "Zeit – Beziehung", R, "548",
 		"See Also From Tracing - Chronological Term");
 
+	/**
+	 * Threadsicher. Der Konstruktor verknüpft die statischen Tags
+	 * miteinander, darf also nur einmal laufen.
+	 *
+	 * @return die einzige Instanz
+	 */
 	public static GNDTagDB getDB() {
-		if(gndTagDB == null) {
-			gndTagDB = new GNDTagDB();
+		GNDTagDB db = gndTagDB;
+		if (db == null) {
+			synchronized (GNDTagDB.class) {
+				db = gndTagDB;
+				if (db == null) {
+					db = new GNDTagDB();
+					gndTagDB = db;
+				}
+			}
 		}
-		return gndTagDB;
+		return db;
 	}
 
 	/**
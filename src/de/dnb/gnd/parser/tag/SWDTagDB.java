@@ -39,7 +39,7 @@ public final class SWDTagDB extends TagDB {
 	public static final Indicator DOLLAR_U = new Indicator(" / ", "", 'u',
 			"Unterschlagwort oder weiteres Schlagwort in einer Schlagwortkette", R, "");
 
-	static SWDTagDB swdTagDB;
+	static volatile SWDTagDB swdTagDB;
 
 	public static final BibliographicTag TAG_800 = new BibliographicTag("800", "041A", "Hauptschlagwort", NR, "",
 			"Heading - Topical Term");
@@ -95,10 +95,23 @@ public final class SWDTagDB extends TagDB {
 	public static final BibliographicTag TAG_880 = new BibliographicTag("880", "039F",
 			"Schlagwort für eine spätere Benennung", R, "", "Heading - Topical Term");
 
+	/**
+	 * Threadsicher, s. {@link GNDTagDB#getDB()}.
+	 *
+	 * @return die einzige Instanz
+	 */
 	public static SWDTagDB getDB() {
-		if (swdTagDB == null)
-			swdTagDB = new SWDTagDB();
-		return swdTagDB;
+		SWDTagDB db = swdTagDB;
+		if (db == null) {
+			synchronized (SWDTagDB.class) {
+				db = swdTagDB;
+				if (db == null) {
+					db = new SWDTagDB();
+					swdTagDB = db;
+				}
+			}
+		}
+		return db;
 	}
 
 	/**
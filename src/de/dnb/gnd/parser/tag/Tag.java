@@ -114,8 +114,10 @@ public abstract class Tag implements Comparable<Tag>, Serializable {
     add(indicator);
   }
 
-  // ------- Hilfsstruktur zur Speicherung von Zwischenergebnissen:
-  protected LinkedHashSet<Indicator> allIndicators;
+  // ------- Hilfsstruktur zur Speicherung von Zwischenergebnissen.
+  // volatile und erst vollständig aufgebaut zugewiesen, da die Tags
+  // der Datenbanken von mehreren Threads gleichzeitig benutzt werden:
+  protected volatile Set<Indicator> allIndicators;
 
   /**
    * Liefert alle Unterfelder, auch die relationierten.
@@ -123,13 +125,16 @@ public abstract class Tag implements Comparable<Tag>, Serializable {
    * @return Set != null, eventuell leer.
    */
   public final Set<Indicator> getAllIndicators() {
-    if (allIndicators == null) {
-      allIndicators = new LinkedHashSet<>(getOwnIndicators());
+    Set<Indicator> indicators = allIndicators;
+    if (indicators == null) {
+      final LinkedHashSet<Indicator> newIndicators = new LinkedHashSet<>(getOwnIndicators());
       if (related != null) {
-        allIndicators.addAll(related.getOwnIndicators());
+        newIndicators.addAll(related.getOwnIndicators());
       }
+      indicators = Collections.unmodifiableSet(newIndicators);
+      allIndicators = indicators;
     }
-    return Collections.unmodifiableSet(allIndicators);
+    return indicators;
   }
 
   /**
@@ -325,7 +330,7 @@ public abstract class Tag implements Comparable<Tag>, Serializable {
    */
   Tag related = null;
 
-  protected LinkedHashSet<Indicator> ownIndicators;
+  protected volatile Set<Indicator> ownIndicators;
 
   /**
    * Liefert die eigenen Unterfelder, also genau die, die zusätzlich zu $8
@@ -339,13 +344,16 @@ public abstract class Tag implements Comparable<Tag>, Serializable {
    * @return Set != null, eventuell leer.
    */
   public Set<Indicator> getOwnIndicators() {
-    if (ownIndicators == null) {
-      ownIndicators = new LinkedHashSet<>(indicatorMap.values());
+    Set<Indicator> indicators = ownIndicators;
+    if (indicators == null) {
+      final LinkedHashSet<Indicator> newIndicators = new LinkedHashSet<>(indicatorMap.values());
       for (final Tag tag : inherited) {
-        ownIndicators.addAll(tag.getOwnIndicators());
+        newIndicators.addAll(tag.getOwnIndicators());
       }
+      indicators = Collections.unmodifiableSet(newIndicators);
+      ownIndicators = indicators;
     }
-    return Collections.unmodifiableSet(ownIndicators);
+    return indicators;
   }
 
   /**
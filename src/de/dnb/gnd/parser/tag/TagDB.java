@@ -5,17 +5,17 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.TreeSet;
-import java.util.function.Predicate;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import de.dnb.basics.applicationComponents.ConcurrentCache;
+import de.dnb.basics.applicationComponents.ConcurrentCache.Policy;
 import de.dnb.basics.applicationComponents.tuples.Triplett;
 import de.dnb.basics.filtering.RangeCheckUtils;
 import de.dnb.gnd.parser.Indicator;
@@ -82,23 +82,59 @@ public abstract class TagDB implements Serializable {
 
 	/**
 	 * Findet einen Tag zu einem Muster einer Pica- oder Pica+ Feldkennzeichnung.
+	 * Das Muster wird nur beim ersten Aufruf übersetzt, s.
+	 * {@link #getTagSelector(String)}.
 	 *
 	 * @param regExp Muster einer Pica3- oder Pica+-Feldkennzeichnung nicht null,
 	 *               nicht leer. Kann Leerzeichen vorne oder hinten enthalten.
-	 * @return Tags, eventuell leer.
+	 * @return Tags, eventuell leer, modifizierbar.
 	 */
 	public final Set<Tag> findTagPattern(final String regExp) {
 		RangeCheckUtils.assertStringParamNotNullOrEmpty("tag", regExp);
-		final Pattern searchPattern = Pattern.compile(regExp.trim());
-		final Predicate<String> myPred = s -> searchPattern.matcher(s).matches();
-		final Set<Tag> tags = new LinkedHashSet<>();
-		final Set<String> keys = new TreeSet<>(database.keySet());
-		keys.forEach(key -> {
-			if (myPred.test(key)) {
-				tags.add(database.get(key));
+		return new LinkedHashSet<>(getTagSelector(regExp).getTags());
+	}
+
+	/**
+	 * Höchstzahl der gespeicherten {@link TagSelector}en.
+	 */
+	private static final int MAX_SELECTORS = 256;
+
+	/**
+	 * Muster -> übersetzter Selektor, wird bei neuen Tags verworfen.
+	 */
+	private transient volatile ConcurrentCache<String, TagSelector> tagSelectors;
+
+	/**
+	 * Liefert zu einem Muster einer Pica- oder Pica+ Feldkennzeichnung die
+	 * passenden Tags als {@link TagSelector}. Die Selektoren werden
+	 * zwischengespeichert (die {@value #MAX_SELECTORS} zuletzt benutzten),
+	 * sodass das Muster in Schleifen über viele Datensätze nur einmal
+	 * übersetzt wird. Threadsicher.
+	 *
+	 * @param regExp Muster einer Pica3- oder Pica+-Feldkennzeichnung nicht null,
+	 *               nicht leer. Kann Leerzeichen vorne oder hinten enthalten.
+	 * @return nicht null
+	 * @throws java.util.regex.PatternSyntaxException wenn kein gültiger
+	 *                                                regulärer Ausdruck
+	 */
+	public final TagSelector getTagSelector(final String regExp) {
+		RangeCheckUtils.assertStringParamNotNullOrEmpty("regExp", regExp);
+		ConcurrentCache<String, TagSelector> selectors = tagSelectors;
+		if (selectors == null) {
+			synchronized (this) {
+				selectors = tagSelectors;
+				if (selectors == null) {
+					selectors = new ConcurrentCache<>(MAX_SELECTORS, Policy.LRU);
+					tagSelectors = selectors;
+				}
 			}
-		});
-		return tags;
+		}
+		TagSelector selector = selectors.get(regExp);
+		if (selector == null) {
+			selector = new TagSelector(this, regExp);
+			selectors.put(regExp, selector);
+		}
+		return selector;
 	}
 
 	/**
@@ -122,13 +158,26 @@ public abstract class TagDB implements Serializable {
 	}
 
 	/**
-	 * Enthalten?
+	 * Enthalten? Konstante Laufzeit: Ein Tag ist entweder über
+	 * {@link #addTag(Tag)} unter seiner Pica3- und Pica+-Bezeichnung
+	 * eingetragen oder, wie die Exemplar-Tags der {@link BibTagDB} (etwa
+	 * 7100), nur unter Pica+-Bezeichnungen, zu denen seine eigene gehört
+	 * (209A/01). Daher genügt es, unter beiden nachzusehen. Gleichwertig zu
+	 * database.containsValue(tag).
 	 *
 	 * @param tag beliebig
 	 * @return true, wenn enthalten.
 	 */
 	public final boolean contains(final Tag tag) {
-		return database.containsValue(tag);
+		if (tag == null) {
+			return false;
+		}
+		final Tag registered = database.get(tag.pica3);
+		if (registered == tag || tag.equals(registered)) {
+			return true;
+		}
+		final Tag registeredPlus = database.get(tag.picaPlus);
+		return registeredPlus == tag || tag.equals(registeredPlus);
 	}
 
 	/**
@@ -166,6 +215,111 @@ public abstract class TagDB implements Serializable {
 		return new LinkedList<>(pica3Map.values());
 	}
 
+	// ------- Laufende Nummern der Tags für kompakte Darstellungen:
+
+	/**
+	 * Tag -> Nummer. Wird nie verändert, sondern bei neuen Tags ersetzt,
+	 * kann also ohne Sperre gelesen werden.
+	 */
+	private transient volatile Map<Tag, Integer> tagNumbers;
+
+	/**
+	 * Nummer -> Tag. Wie {@link #tagNumbers}.
+	 */
+	private transient volatile Tag[] numberedTags;
+
+	/**
+	 * Vergibt die Nummern. Zunächst bekommen die Tags von
+	 * {@link #getAllTags()} der Reihe nach ihre Nummer, unabhängig von der
+	 * Reihenfolge der Aufrufe. Weitere Tags (ohne Pica3-Bezeichnung oder aus
+	 * anderen Datenbanken) werden hinten angefügt.
+	 *
+	 * @param tag neuer Tag oder null
+	 */
+	private synchronized void numberTags(final Tag tag) {
+		if (numberedTags == null) {
+			final Tag[] tags = pica3Map.values().toArray(new Tag[0]);
+			final Map<Tag, Integer> numbers = new IdentityHashMap<>(tags.length);
+			for (int i = 0; i < tags.length; i++) {
+				numbers.put(tags[i], i);
+			}
+			numberedTags = tags;
+			tagNumbers = numbers;
+		}
+		if (tag == null || tagNumbers.containsKey(tag))
+			return;
+		final int number = numberedTags.length;
+		final Tag[] tags = Arrays.copyOf(numberedTags, number + 1);
+		tags[number] = tag;
+		final Map<Tag, Integer> numbers = new IdentityHashMap<>(tagNumbers);
+		numbers.put(tag, number);
+		// Erst das Feld, dann die Nummer veröffentlichen:
+		numberedTags = tags;
+		tagNumbers = numbers;
+	}
+
+	/**
+	 * Liefert eine kleine, innerhalb dieser Datenbank eindeutige Nummer des
+	 * Tags (für {@link de.dnb.gnd.parser.CompactRecord}). Die Nummer ändert
+	 * sich bis zum Programmende nicht. Threadsicher.
+	 *
+	 * @param tag nicht null
+	 * @return Nummer >= 0, s. {@link #getTagByNumber(int)}
+	 */
+	public final int getTagNumber(final Tag tag) {
+		RangeCheckUtils.assertReferenceParamNotNull("tag", tag);
+		final Map<Tag, Integer> numbers = tagNumbers;
+		if (numbers != null) {
+			final Integer number = numbers.get(tag);
+			if (number != null)
+				return number;
+		}
+		numberTags(tag);
+		return tagNumbers.get(tag);
+	}
+
+	/**
+	 * Umkehrung von {@link #getTagNumber(Tag)}. Threadsicher.
+	 *
+	 * @param number eine von {@link #getTagNumber(Tag)} gelieferte Nummer
+	 * @return den Tag, nicht null
+	 * @throws IndexOutOfBoundsException wenn die Nummer nicht vergeben ist
+	 */
+	public final Tag getTagByNumber(final int number) {
+		Tag[] tags = numberedTags;
+		if (tags == null) {
+			numberTags(null);
+			tags = numberedTags;
+		}
+		return tags[number];
+	}
+
+	/**
+	 * Tabelle für {@link #parseTag(String)}, wird bei neuen Tags verworfen.
+	 */
+	private transient volatile TagResolver tagResolver;
+
+	/**
+	 * Liefert die Tabelle, mit der sich der Tag am Anfang einer Zeile ohne
+	 * regulären Ausdruck und ohne Anlegen von Objekten finden lässt.
+	 * Threadsicher.
+	 *
+	 * @return nicht null
+	 */
+	public final TagResolver getTagResolver() {
+		TagResolver resolver = tagResolver;
+		if (resolver == null) {
+			synchronized (this) {
+				resolver = tagResolver;
+				if (resolver == null) {
+					resolver = new TagResolver(database);
+					tagResolver = resolver;
+				}
+			}
+		}
+		return resolver;
+	}
+
 	/**
 	 * Liefert die Tags, die nicht vom Benutzer an der IBW geändert werden dürfen.
 	 *
@@ -212,6 +366,8 @@ public abstract class TagDB implements Serializable {
 
 		database.put(tag.pica3, tag);
 		database.put(tag.picaPlus, tag);
+		tagResolver = null;
+		tagSelectors = null;
 		pica3Map.put(tag.pica3, tag);
 		picaPlusMap.put(tag.picaPlus, tag);
 		if (tag.marcIndicator1 == 0) {
@@ -226,29 +382,21 @@ public abstract class TagDB implements Serializable {
 	 * dem Rest. Der Rest kann mit einem Blank beginnen. Das ist gefährlich, da die
 	 * WinIBW überzählige Blanks zwischen Tag und Inhalt in der Vollanzeige ("s d")
 	 * verschluckt. Im Korrekturmodus sind sie dagegen wieder sichtbar.
-	 *
+	 * <br><br>
+	 * Ohne Tripel und ohne Teilstrings geht es mit {@link #getTagResolver()}.
 	 *
 	 * @param line != null.
 	 * @return gefundenes Tripel oder null sonst.
 	 */
 	public final Triplett<Tag, String, String> parseTag(final String line) {
 		RangeCheckUtils.assertReferenceParamNotNull("line", line);
-		final Matcher m = TAG_PATTERN.matcher(line);
-
-		if (m.find()) {
-			final String match = m.group().trim();
-			final Tag tag = findTag(match);
-			if (tag == null) {
-				return null;
-			}
-			// also was gefunden:
-			final int posRest = m.end();
-			final String rest = line.substring(posRest);
-
-			return new Triplett<>(tag, match, rest);
+		final TagResolver resolver = getTagResolver();
+		final int entry = resolver.find(line);
+		if (entry < 0) {
+			return null;
 		}
-		return null;
-
+		final String rest = line.substring(resolver.getContentOffset(entry));
+		return new Triplett<>(resolver.getTag(entry), resolver.getKey(entry), rest);
 	}
 
 	/**
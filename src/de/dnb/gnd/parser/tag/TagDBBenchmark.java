@@ -0,0 +1,56 @@
+package de.dnb.gnd.parser.tag;
+
+import java.util.List;
+
+import de.dnb.basics.utils.TimeUtils;
+
+/**
+ * Vergleicht {@link TagDB#contains(Tag)} mit der früheren Implementierung
+ * database.containsValue(tag) über alle Tags der {@link BibTagDB}. Ein
+ * Titeldatensatz hat typischerweise 30 - 60 Felder, für jedes wird beim
+ * Parsen einmal contains() aufgerufen.
+ *
+ * @author baumann
+ *
+ */
+public final class TagDBBenchmark {
+
+	private TagDBBenchmark() {
+	}
+
+	/**
+	 * @param args nix
+	 */
+	public static void main(final String[] args) {
+		final TagDB db = BibTagDB.getDB();
+		final List<Tag> tags = db.getAllTags();
+		final int rounds = 200;
+		int found = 0;
+		for (int warmup = 0; warmup < 2; warmup++) {
+			TimeUtils.startStopWatch();
+			for (int i = 0; i < rounds; i++) {
+				for (final Tag tag : tags) {
+					if (db.database.containsValue(tag))
+						found++;
+				}
+			}
+			final long old = TimeUtils.delta_t_nanos();
+			TimeUtils.startStopWatch();
+			for (int i = 0; i < rounds; i++) {
+				for (final Tag tag : tags) {
+					if (db.contains(tag))
+						found++;
+				}
+			}
+			final long neu = TimeUtils.delta_t_nanos();
+			final long calls = (long) rounds * tags.size();
+			System.out.println("Tags: " + tags.size() + ", Einträge: " + db.database.size());
+			System.out.println("containsValue: " + old / calls + " ns/Aufruf, " + 50 * old / calls
+					+ " ns pro Datensatz mit 50 Feldern");
+			System.out.println("contains:      " + neu / calls + " ns/Aufruf, " + 50 * neu / calls
+					+ " ns pro Datensatz mit 50 Feldern");
+		}
+		System.out.println(found);
+	}
+
+}
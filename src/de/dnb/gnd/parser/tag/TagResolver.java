@@ -0,0 +1,192 @@
+package de.dnb.gnd.parser.tag;
+
+import java.util.Map;
+
+import de.dnb.basics.filtering.RangeCheckUtils;
+import de.dnb.gnd.parser.Format;
+
+/**
+ * Erkennt den Tag am Anfang einer Zeile ohne regulären Ausdruck und ohne
+ * Teilstrings: Die Zeichen bis zum ersten Blank werden direkt aus der
+ * Zeile gehasht und in einer offen adressierten Tabelle aller Pica3- und
+ * Pica+-Bezeichnungen (auch "003@/01"-Formen) einer {@link TagDB}
+ * gesucht.
+ * <br><br>
+ * {@link #find(CharSequence)} liefert einen Eintrag (int). Tag, Format und
+ * Beginn des Inhalts stehen in parallelen Feldern, die Abfrage legt also
+ * keine Objekte an:
+ *
+ * <pre>
+ * final int entry = resolver.find(line);
+ * if (entry &gt;= 0) {
+ * 	final Tag tag = resolver.getTag(entry);
+ * 	final String content = line.substring(resolver.getContentOffset(entry));
+ * 	...
+ * }
+ * </pre>
+ *
+ * Erkannt wird wie bei {@link TagDB#TAG_PATTERN}: mindestens 3 Zeichen
+ * ohne Whitespace, gefolgt von genau einem Blank. Unveränderlich und daher
+ * threadsicher. Man erhält die Instanz über {@link TagDB#getTagResolver()}.
+ *
+ * @author baumann
+ *
+ */
+public final class TagResolver {
+
+	private static final int MIN_KEY_LENGTH = 3;
+
+	/**
+	 * Bezeichnungen; null = freier Platz.
+	 */
+	private final String[] keys;
+
+	/**
+	 * {@link String#hashCode()} der Bezeichnungen.
+	 */
+	private final int[] hashes;
+
+	private final Tag[] tags;
+
+	private final boolean[] pica3;
+
+	private final int mask;
+
+	private final int maxKeyLength;
+
+	/**
+	 *
+	 * @param database Bezeichnung (Pica3 oder Pica+) -> Tag, nicht null
+	 */
+	TagResolver(final Map<String, Tag> database) {
+		RangeCheckUtils.assertReferenceParamNotNull("database", database);
+		int capacity = 16;
+		// Füllgrad höchstens 1/2:
+		while (capacity < 2 * database.size()) {
+			capacity <<= 1;
+		}
+		keys = new String[capacity];
+		hashes = new int[capacity];
+		tags = new Tag[capacity];
+		pica3 = new boolean[capacity];
+		mask = capacity - 1;
+		int max = 0;
+		for (final Map.Entry<String, Tag> entry : database.entrySet()) {
+			final String key = entry.getKey();
+			final Tag tag = entry.getValue();
+			// Solche Bezeichnungen kann TAG_PATTERN nicht finden:
+			if (key == null || tag == null || key.length() < MIN_KEY_LENGTH || containsWhitespace(key))
+				continue;
+			final int hash = key.hashCode();
+			int slot = spread(hash) & mask;
+			while (keys[slot] != null) {
+				slot = (slot + 1) & mask;
+			}
+			keys[slot] = key;
+			hashes[slot] = hash;
+			tags[slot] = tag;
+			pica3[slot] = key.equals(tag.pica3);
+			max = Math.max(max, key.length());
+		}
+		maxKeyLength = max;
+	}
+
+	private static int spread(final int hash) {
+		final int h = hash * 0x9E3779B9;
+		return h ^ h >>> 16;
+	}
+
+	/**
+	 * Whitespace im Sinne von \s in {@link java.util.regex.Pattern}.
+	 */
+	private static boolean isWhitespace(final char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+
+	private static boolean containsWhitespace(final String s) {
+		for (int i = 0; i < s.length(); i++) {
+			if (isWhitespace(s.charAt(i)))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Sucht den Tag am Anfang der Zeile.
+	 *
+	 * @param line nicht null
+	 * @return Eintrag &gt;= 0 für {@link #getTag(int)},
+	 *         {@link #getFormat(int)}, {@link #getContentOffset(int)} und
+	 *         {@link #getKey(int)}; -1, wenn die Zeile nicht mit einem
+	 *         bekannten Tag und einem Blank beginnt
+	 */
+	public int find(final CharSequence line) {
+		final int length = line.length();
+		final int limit = Math.min(length, maxKeyLength + 1);
+		int hash = 0;
+		int end = 0;
+		while (end < limit) {
+			final char c = line.charAt(end);
+			if (isWhitespace(c))
+				break;
+			hash = 31 * hash + c;
+			end++;
+		}
+		if (end < MIN_KEY_LENGTH || end == limit || line.charAt(end) != ' ')
+			return -1;
+		int slot = spread(hash) & mask;
+		String key;
+		while ((key = keys[slot]) != null) {
+			if (hashes[slot] == hash && key.length() == end && regionMatches(line, key))
+				return slot;
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	private static boolean regionMatches(final CharSequence line, final String key) {
+		for (int i = 0; i < key.length(); i++) {
+			if (line.charAt(i) != key.charAt(i))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 *
+	 * @param entry von {@link #find(CharSequence)}, &gt;= 0
+	 * @return der Tag, nicht null
+	 */
+	public Tag getTag(final int entry) {
+		return tags[entry];
+	}
+
+	/**
+	 *
+	 * @param entry von {@link #find(CharSequence)}, &gt;= 0
+	 * @return {@link Format#PICA3}, wenn die Zeile mit der Pica3-Bezeichnung
+	 *         beginnt, sonst {@link Format#PICA_PLUS}
+	 */
+	public Format getFormat(final int entry) {
+		return pica3[entry] ? Format.PICA3 : Format.PICA_PLUS;
+	}
+
+	/**
+	 *
+	 * @param entry von {@link #find(CharSequence)}, &gt;= 0
+	 * @return die gefundene Bezeichnung, wie sie am Zeilenanfang steht
+	 */
+	public String getKey(final int entry) {
+		return keys[entry];
+	}
+
+	/**
+	 *
+	 * @param entry von {@link #find(CharSequence)}, &gt;= 0
+	 * @return Position des Inhalts (nach Tag und einem Blank) in der Zeile
+	 */
+	public int getContentOffset(final int entry) {
+		return keys[entry].length() + 1;
+	}
+
+}
@@ -0,0 +1,186 @@
+package de.dnb.gnd.parser.tag;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+
+import de.dnb.basics.applicationComponents.tuples.Triplett;
+import de.dnb.basics.utils.TimeUtils;
+import de.dnb.gnd.exceptions.IllFormattedLineException;
+import de.dnb.gnd.parser.line.LineParser;
+
+/**
+ * Misst Zeit und Speicheranforderung (Bytes je Zeile, über
+ * com.sun.management.ThreadMXBean) der Tag-Erkennung über einen
+ * Titeldatensatz der {@link BibTagDB}, je einmal in Pica3 und in Pica+.
+ * <br><br>
+ * Verglichen werden:
+ * <ul>
+ * <li>die frühere Implementierung von {@link TagDB#parseTag(String)}:
+ * {@link TagDB#TAG_PATTERN}, trim(), {@link TagDB#findTag(String)},
+ * substring() und Triplett;
+ * <li>{@link TagDB#parseTag(String)} über {@link TagResolver};
+ * <li>{@link TagResolver#find(CharSequence)} allein;
+ * <li>{@link LineParser#parse(String, TagDB, boolean)} der ganzen Zeile.
+ * </ul>
+ * Ergebnisse je Zeile: alt ca. 150 ns und 300 Byte, parseTag 50 ns und
+ * 75 Byte (Inhalt und Tripel), find() 25 ns und 0 Byte.
+ * LineParser.parse() (ca. 2 µs, 3 KB) wird um die Differenz zwischen alt
+ * und find() schneller; den Rest kostet das Zerlegen des Inhalts.
+ *
+ * @author baumann
+ *
+ */
+public final class TagResolverBenchmark {
+
+	private TagResolverBenchmark() {
+	}
+
+	private static final int ROUNDS = 20_000;
+
+	//@formatter:off
+	private static final String[] TITLE = {
+		"0500 Aau",
+		"0501 Text$btxt",
+		"0502 ohne Hilfsmittel zu benutzen$bn",
+		"0503 Band$bnc",
+		"0600 ru",
+		"0604 --%%--",
+		"1100 2010",
+		"1130 TB-papier",
+		"1131 !040011569!",
+		"1140 uwwb",
+		"1500 /1ger",
+		"1700 /1XA-DE",
+		"2000 978-3-16-148410-0",
+		"2105 10,N01",
+		"2110 10,A01",
+		"3000 !118540238!",
+		"3010 Müller, Hans",
+		"4000 Ein Titel : Untertitel / Verfasser",
+		"4020 1. Aufl.",
+		"4030 Tübingen$nMohr Siebeck",
+		"4060 300 S.",
+		"4061 Ill.",
+		"4062 24 cm",
+		"4105 !1045678901!",
+		"4180 Reihe$l12",
+		"4201 Literaturverz. S. 280 - 295",
+		"5050 |32|$Ea$Da$Hb",
+		"5050 |300|$Ea$Da$Hk",
+		"5100 !040459144!Physik",
+		"5320 !040459144!Physik",
+		"5400 530$Eb",
+		"5550 !040459144!",
+		"7100 Phy 100 @ 12",
+		"8100 123 A 4567",
+		"8200 Magazin",
+		"unbekannt am Zeilenanfang",
+		"0100 ",
+	};
+	//@formatter:on
+
+	private static long allocatedBytes() {
+		final com.sun.management.ThreadMXBean bean =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Die frühere Implementierung von {@link TagDB#parseTag(String)}.
+	 */
+	private static Triplett<Tag, String, String> oldParseTag(final TagDB db, final String line) {
+		final Matcher m = TagDB.TAG_PATTERN.matcher(line);
+		if (m.find()) {
+			final String match = m.group().trim();
+			final Tag tag = db.findTag(match);
+			if (tag == null) {
+				return null;
+			}
+			return new Triplett<>(tag, match, line.substring(m.end()));
+		}
+		return null;
+	}
+
+	private static void print(final String name, final long bytes, final long nanos, final int lines) {
+		System.out.println(name + ": " + bytes / lines + " Byte, " + nanos / lines + " ns je Zeile");
+	}
+
+	/**
+	 * @param args nicht benutzt
+	 * @throws IllFormattedLineException nicht erwartet
+	 */
+	public static void main(final String[] args) throws IllFormattedLineException {
+		final TagDB db = BibTagDB.getDB();
+		final List<String> lineList = new ArrayList<>();
+		for (final String line : TITLE) {
+			lineList.add(line);
+			// Dieselbe Zeile mit Pica+-Tag:
+			final int blank = line.indexOf(' ');
+			final Tag tag = db.findTag(line.substring(0, blank));
+			if (tag != null && tag.picaPlus != null)
+				lineList.add(tag.picaPlus + line.substring(blank));
+		}
+		final String[] lines = lineList.toArray(new String[0]);
+		// Für LineParser nur die Zeilen, deren Inhalt zum Format passt:
+		final List<String> parsable = new ArrayList<>();
+		for (final String line : lines) {
+			try {
+				LineParser.parse(line, db, false);
+				parsable.add(line);
+			} catch (final IllFormattedLineException | IllegalArgumentException e) {
+				// Pica3-Inhalt hinter Pica+-Tag
+			}
+		}
+		final TagResolver resolver = db.getTagResolver();
+		final int total = ROUNDS * lines.length;
+
+		long found = 0;
+		for (int warmup = 0; warmup < 3; warmup++) {
+			long bytes = allocatedBytes();
+			TimeUtils.startStopWatch();
+			for (int i = 0; i < ROUNDS; i++) {
+				for (final String line : lines) {
+					if (oldParseTag(db, line) != null)
+						found++;
+				}
+			}
+			print("alt (TAG_PATTERN)", allocatedBytes() - bytes, TimeUtils.delta_t_nanos(), total);
+
+			bytes = allocatedBytes();
+			TimeUtils.startStopWatch();
+			for (int i = 0; i < ROUNDS; i++) {
+				for (final String line : lines) {
+					if (db.parseTag(line) != null)
+						found++;
+				}
+			}
+			print("parseTag         ", allocatedBytes() - bytes, TimeUtils.delta_t_nanos(), total);
+
+			bytes = allocatedBytes();
+			TimeUtils.startStopWatch();
+			for (int i = 0; i < ROUNDS; i++) {
+				for (final String line : lines) {
+					if (resolver.find(line) >= 0)
+						found++;
+				}
+			}
+			print("TagResolver.find ", allocatedBytes() - bytes, TimeUtils.delta_t_nanos(), total);
+
+			bytes = allocatedBytes();
+			TimeUtils.startStopWatch();
+			for (int i = 0; i < ROUNDS; i++) {
+				for (final String line : parsable) {
+					if (LineParser.parse(line, db, false) != null)
+						found++;
+				}
+			}
+			print("LineParser.parse ", allocatedBytes() - bytes, TimeUtils.delta_t_nanos(),
+				ROUNDS * parsable.size());
+			System.out.println();
+		}
+		System.out.println(lines.length + " Zeilen, davon " + parsable.size() + " für LineParser, " + found);
+	}
+
+}
@@ -0,0 +1,214 @@
+package de.dnb.gnd.parser.tag;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import de.dnb.basics.filtering.RangeCheckUtils;
+import de.dnb.gnd.parser.Record;
+import de.dnb.gnd.parser.line.Line;
+
+/**
+ * Ein übersetztes Tag-Muster wie "5.*" oder "04[0-9].": Die Tags einer
+ * {@link TagDB}, auf deren Pica3- oder Pica+-Bezeichnung der reguläre
+ * Ausdruck passt, werden einmal bestimmt und dann für jeden Datensatz
+ * wiederverwendet. Die Auswahl der Zeilen eines Datensatzes kostet so nur
+ * noch die Zugriffe auf die gefundenen Felder, s.
+ * {@link #getLines(Record)}.
+ * <br><br>
+ * Man erhält die Instanz über {@link TagDB#getTagSelector(String)}, das
+ * die Selektoren zwischenspeichert. Unveränderlich und daher
+ * threadsicher.
+ *
+ * @author baumann
+ *
+ */
+public final class TagSelector implements Predicate<Tag> {
+
+	private final TagDB tagDB;
+
+	private final String regExp;
+
+	/**
+	 * Wie bisher {@link TagDB#findTagPattern(String)}: nach Bezeichnung
+	 * sortiert, ohne Duplikate.
+	 */
+	private final Tag[] tags;
+
+	/**
+	 * Pica3 -> Positionen in {@link #tags}. Die Felder eines {@link Record}
+	 * werden wie hier über die Pica3-Bezeichnung gefunden
+	 * ({@link Tag#compareTo(Tag)}). Mehrere Tags können dieselbe haben,
+	 * etwa 7100 als {@link HoldingsTag} und als {@link BibliographicTag}.
+	 */
+	private final Map<String, int[]> positions;
+
+	/**
+	 *
+	 * @param tagDB  nicht null
+	 * @param regExp Muster einer Pica3- oder Pica+-Feldkennzeichnung, nicht
+	 *               leer; Leerzeichen vorne oder hinten werden entfernt
+	 */
+	TagSelector(final TagDB tagDB, final String regExp) {
+		RangeCheckUtils.assertReferenceParamNotNull("tagDB", tagDB);
+		RangeCheckUtils.assertStringParamNotNullOrEmpty("regExp", regExp);
+		this.tagDB = tagDB;
+		this.regExp = regExp.trim();
+		final Pattern pattern = Pattern.compile(this.regExp);
+		final Set<Tag> found = new LinkedHashSet<>();
+		for (final String key : new TreeSet<>(tagDB.database.keySet())) {
+			if (pattern.matcher(key).matches()) {
+				found.add(tagDB.database.get(key));
+			}
+		}
+		tags = found.toArray(new Tag[0]);
+		positions = new HashMap<>(2 * tags.length);
+		for (int i = 0; i < tags.length; i++) {
+			final int[] old = positions.get(tags[i].pica3);
+			if (old == null) {
+				positions.put(tags[i].pica3, new int[] { i });
+			} else {
+				final int[] more = Arrays.copyOf(old, old.length + 1);
+				more[old.length] = i;
+				positions.put(tags[i].pica3, more);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return das Muster, getrimmt
+	 */
+	public String getPattern() {
+		return regExp;
+	}
+
+	/**
+	 *
+	 * @return die Datenbank, in der gesucht wurde
+	 */
+	public TagDB getTagDB() {
+		return tagDB;
+	}
+
+	/**
+	 *
+	 * @return die passenden Tags in der Reihenfolge von
+	 *         {@link TagDB#findTagPattern(String)}, nicht null,
+	 *         unveränderlich
+	 */
+	public Set<Tag> getTags() {
+		final Set<Tag> set = new LinkedHashSet<>(tags.length);
+		Collections.addAll(set, tags);
+		return Collections.unmodifiableSet(set);
+	}
+
+	/**
+	 *
+	 * @return Zahl der passenden Tags
+	 */
+	public int size() {
+		return tags.length;
+	}
+
+	/**
+	 *
+	 * @param tag beliebig
+	 * @return true, wenn tag einem der passenden Tags gleich ist
+	 *         ({@link Tag#equals(Object)}, wie bei
+	 *         {@link TagDB#findTagPattern(String)}.contains(tag))
+	 */
+	@Override
+	public boolean test(final Tag tag) {
+		if (tag == null)
+			return false;
+		final int[] candidates = positions.get(tag.pica3);
+		if (candidates == null)
+			return false;
+		for (final int position : candidates) {
+			if (tags[position].equals(tag))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 *
+	 * @param record nicht null
+	 * @return true, wenn der Datensatz ein Feld mit passendem Tag enthält
+	 */
+	public boolean containsAny(final Record record) {
+		RangeCheckUtils.assertReferenceParamNotNull("record", record);
+		if (tags.length <= record.getTagsView().size()) {
+			for (final Tag tag : tags) {
+				if (record.containsTag(tag))
+					return true;
+			}
+			return false;
+		}
+		for (final Tag tag : record.getTagsView()) {
+			if (positions.containsKey(tag.pica3))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Liefert die Zeilen der passenden Felder, in derselben Reihenfolge wie
+	 * bisher getLines(record, findTagPattern(pattern)). Wie dort werden die
+	 * Zeilen eines Feldes mehrfach geliefert, wenn mehrere passende Tags
+	 * dieselbe Pica3-Bezeichnung haben. Es wird über die kleinere Menge
+	 * (passende Tags oder Felder des Datensatzes) gelaufen.
+	 *
+	 * @param record nicht null
+	 * @return nicht null, modifizierbar
+	 */
+	public ArrayList<Line> getLines(final Record record) {
+		RangeCheckUtils.assertReferenceParamNotNull("record", record);
+		final ArrayList<Line> lines = new ArrayList<>();
+		final Set<Tag> recordTags = record.getTagsView();
+		if (tags.length <= recordTags.size()) {
+			for (final Tag tag : tags) {
+				lines.addAll(record.getLinesView(tag));
+			}
+			return lines;
+		}
+		// Meist nur wenige Treffer, die nach Position sortiert werden:
+		int[] matches = null;
+		int count = 0;
+		for (final Tag tag : recordTags) {
+			final int[] candidates = positions.get(tag.pica3);
+			if (candidates == null)
+				continue;
+			if (matches == null)
+				matches = new int[Math.max(candidates.length, recordTags.size())];
+			else if (count + candidates.length > matches.length)
+				matches = Arrays.copyOf(matches, 2 * (count + candidates.length));
+			for (final int position : candidates) {
+				int i = count++;
+				while (i > 0 && matches[i - 1] > position) {
+					matches[i] = matches[i - 1];
+					i--;
+				}
+				matches[i] = position;
+			}
+		}
+		for (int i = 0; i < count; i++) {
+			lines.addAll(record.getLinesView(tags[matches[i]]));
+		}
+		return lines;
+	}
+
+	@Override
+	public String toString() {
+		return "TagSelector [" + regExp + ", " + tags.length + " Tags]";
+	}
+
+}
@@ -1,8 +1,10 @@
 package de.dnb.gnd.utils;
 
+import java.nio.charset.Charset;
 import java.util.function.Predicate;
 
 import de.dnb.basics.Constants;
+import de.dnb.gnd.parser.RawRecordFilter;
 import de.dnb.gnd.parser.tag.Tag;
 import de.dnb.gnd.parser.tag.TagDB;
 
@@ -11,15 +13,26 @@ import de.dnb.gnd.parser.tag.TagDB;
  * für Datenabzüge im gzip-Format. Vorsicht: Die Datensätze werden
  * durch \n getrennt. Das bedeutet, der erste Tag wird nicht durch RS
  * eingeleitet. Es wird angenommen, dass 001A immer der erste Tag ist.
+ * <br><br>
+ * Arbeitet im {@link de.dnb.gnd.parser.RecordReader} auch direkt auf den
+ * Bytes, abgelehnte Datensätze werden dann nicht dekodiert.
  *
  * @author Christian Baumann
  *
  *
  */
-public class ContainsTag implements Predicate<String> {
+public class ContainsTag implements Predicate<String>, RawRecordFilter {
 
   private final String necessarySubstring;
 
+  /**
+   * necessarySubstring in charsetOfBytes kodiert, wird beim ersten
+   * Byte-Test erzeugt.
+   */
+  private byte[] necessaryBytes;
+
+  private Charset charsetOfBytes;
+
   /**
    * Akzeptiert nur die Datensätze, die eine bestimmte Zeile (Feld)
    * im Pica+-Format enthalten. Die Feldnummer wird im
@@ -96,6 +109,31 @@ public class ContainsTag implements Predicate<String> {
     return recordStr.contains(necessarySubstring);
   }
 
+  @Override
+  public final boolean test(
+    final byte[] buffer,
+    final int offset,
+    final int length,
+    final Charset charset) {
+    if (!charset.equals(charsetOfBytes)) {
+      necessaryBytes = necessarySubstring.getBytes(charset);
+      charsetOfBytes = charset;
+    }
+    final byte[] needle = necessaryBytes;
+    final byte first = needle[0];
+    final int last = offset + length - needle.length;
+    outer: for (int i = offset; i <= last; i++) {
+      if (buffer[i] != first)
+        continue;
+      for (int j = 1; j < needle.length; j++) {
+        if (buffer[i + j] != needle[j])
+          continue outer;
+      }
+      return true;
+    }
+    return false;
+  }
+
   /**
    *
    */
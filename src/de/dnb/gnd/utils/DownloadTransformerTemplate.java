@@ -26,6 +26,22 @@ public abstract class DownloadTransformerTemplate extends DownloadWorker {
 
 	protected Tag TAG_797 = defaultTagDB.findTag("797");
 
+	/**
+	 * Je Thread ein Puffer, in dem der Datensatz aufgebaut wird. Er wird über
+	 * {@link #print(String)} ausgegeben, damit er auch bei mehreren Threads
+	 * an seinem Platz landet.
+	 */
+	private final ThreadLocal<StringBuilder> buffers =
+		ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+	/**
+	 * Schreibt in den Puffer des Threads.
+	 */
+	private final ThreadLocal<PicaWriter> picaWriters =
+		ThreadLocal.withInitial(() -> new PicaWriter(buffers.get())
+			// \n ist von IT verlangt:
+			.setLineSeparator("\n"));
+
 	@Override
 	protected void processRecord(final Record oldRecord) {
 		RangeCheckUtils
@@ -112,11 +128,11 @@ public abstract class DownloadTransformerTemplate extends DownloadWorker {
 		final boolean expanded) {
 		RangeCheckUtils.assertReferenceParamNotNull("record", record);
 		RangeCheckUtils.assertReferenceParamNotNull("format", format);
-		this.outputStream.append(recordSeparator);
-		// \n ist von IT verlangt:
-		String recString =
-			RecordUtils.toPica(record, format, expanded, "\n", '$');
-		this.outputStream.append(recString);
+		final StringBuilder buffer = buffers.get();
+		buffer.setLength(0);
+		buffer.append(recordSeparator);
+		picaWriters.get().setFormat(format).setExpanded(expanded).write(record);
+		print(buffer.toString());
 
 	}
 
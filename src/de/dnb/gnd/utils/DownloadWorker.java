@@ -4,7 +4,19 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
 
 import de.dnb.basics.Constants;
@@ -15,6 +27,7 @@ import de.dnb.gnd.exceptions.ExceptionHandler;
 import de.dnb.gnd.exceptions.IgnoringHandler;
 import de.dnb.gnd.exceptions.WrappingHandler;
 import de.dnb.gnd.parser.Record;
+import de.dnb.gnd.parser.RecordParser;
 import de.dnb.gnd.parser.RecordReader;
 import de.dnb.gnd.parser.tag.BibTagDB;
 import de.dnb.gnd.parser.tag.GNDTagDB;
@@ -28,6 +41,13 @@ import de.dnb.gnd.parser.tag.TagDB;
  * <br>In der Unterklasse muss mindestens
  * {@link DownloadWorker#processRecord(Record)} überschrieben werden.
  *
+ * <br><br>Mit {@link #setThreads(int)} und {@link #setParallelFiles(int)}
+ * kann nebenläufig gearbeitet werden. Dann muss processRecord()
+ * threadsicher sein und die Ausgabe über {@link #print(String)},
+ * {@link #println(String)} usw. erfolgen: Diese wird pro Datensatz
+ * gepuffert und in der Reihenfolge der Datensätze einer Datei
+ * geschrieben.
+ *
  *
  * @author Christian_2
  *
@@ -83,6 +103,30 @@ public abstract class DownloadWorker {
    */
   protected PrintStream outputStream = System.out;
 
+  /**
+   * Anzahl der Threads, die parsen und {@link #processRecord(Record)}
+   * aufrufen. Bei 1 (Standard) erledigt das der aufrufende Thread.
+   */
+  private int threads = 1;
+
+  /**
+   * Anzahl der Dateien, die in {@link #processAllFiles()} gleichzeitig
+   * gelesen werden.
+   */
+  private int parallelFiles = 1;
+
+  /**
+   * Pro Thread und Datei höchstens so viele Datensätze, die gelesen, aber
+   * noch nicht ausgegeben sind. Hält den Speicherbedarf konstant.
+   */
+  private static final int IN_FLIGHT_PER_THREAD = 64;
+
+  /**
+   * Im nebenläufigen Modus der Ausgabepuffer des Datensatzes, den der
+   * aktuelle Thread gerade bearbeitet. Sonst null.
+   */
+  private final ThreadLocal<StringBuilder> recordOutput = new ThreadLocal<>();
+
   /**
    * Ordner, in dem nach zu verarbeitenden Files gesucht wird. Ist zu Anfang
    * null, um dumme Fehler zu vermeiden.
@@ -193,6 +237,34 @@ public abstract class DownloadWorker {
     charset = aCharset;
   }
 
+  /**
+   * Anzahl der Threads, die parsen und {@link #processRecord(Record)}
+   * aufrufen. Bei mehr als einem Thread muss processRecord() threadsicher
+   * sein, s. Klassenkommentar. Standard ist 1.
+   * Muss vor der Verarbeitung gesetzt werden.
+   *
+   * @param threads   > 0
+   */
+  public final void setThreads(final int threads) {
+    if (threads < 1)
+      throw new IllegalArgumentException("threads muss > 0 sein");
+    this.threads = threads;
+  }
+
+  /**
+   * Anzahl der Dateien, die in {@link #processAllFiles()} gleichzeitig
+   * gelesen werden. Die Ausgaben der Datensätze verschiedener Dateien
+   * wechseln sich dann ab. Standard ist 1.
+   * Muss vor der Verarbeitung gesetzt werden.
+   *
+   * @param files   > 0
+   */
+  public final void setParallelFiles(final int files) {
+    if (files < 1)
+      throw new IllegalArgumentException("files muss > 0 sein");
+    parallelFiles = files;
+  }
+
   /**
    * Filter, der VOR dem Parsen entscheidet, ob der Datensatz überhaupt
    * benötigt wird. Für große Datenmengen sinnvoll, da das Parsen
@@ -223,6 +295,15 @@ public abstract class DownloadWorker {
    */
   public final void processAllFiles() throws IOException {
     final File[] files = inputFolder.listFiles();
+    if (threads > 1 || parallelFiles > 1) {
+      final List<File> matching = new ArrayList<>();
+      for (final File file : files) {
+        if (file.getName().startsWith(prefix))
+          matching.add(file);
+      }
+      processConcurrently(matching);
+      return;
+    }
     for (final File file : files) {
       if (file.getName().startsWith(prefix)) {
         System.err.println(file);
@@ -246,6 +327,10 @@ public abstract class DownloadWorker {
    */
   public final void processFile(final File file) throws IOException {
     RangeCheckUtils.assertReferenceParamNotNull("file", file);
+    if (threads > 1) {
+      processConcurrently(Collections.singletonList(file));
+      return;
+    }
     System.err.println("Bearbeite Datei: " + file.getName());
     processInputStream(MyFileUtils.getMatchingInputStream(file));
   }
@@ -298,14 +383,18 @@ public abstract class DownloadWorker {
   public final void processInputStream(final InputStream inputStream) throws IOException {
     RangeCheckUtils.assertReferenceParamNotNull("inputStream", inputStream);
 
+    if (threads > 1) {
+      final ExecutorService workers = Executors.newFixedThreadPool(threads);
+      try {
+        processConcurrently(inputStream, workers);
+      } finally {
+        workers.shutdown();
+      }
+      return;
+    }
+
     reader.setSource(inputStream, charset);
-    reader.setHandler(handler);
-    reader.setDefaultTagDB(defaultTagDB);
-    reader.setIgnoreMARC(ignoreMARC);
-    reader.setLineDelimiter(lineDelimiter);
-    reader.setRecordDelimiter(recordDelimiter);
-    reader.setStreamFilter(streamFilter);
-    reader.useDefaultDB(useDefaultDB);
+    configure(reader);
 
     while (reader.hasNext()) {
       final Record record = reader.next();
@@ -319,6 +408,158 @@ public abstract class DownloadWorker {
     }
   }
 
+  /**
+   * Überträgt die Einstellungen auf aReader.
+   *
+   * @param aReader     nicht null
+   */
+  private void configure(final RecordReader aReader) {
+    aReader.setHandler(handler);
+    aReader.setDefaultTagDB(defaultTagDB);
+    aReader.setIgnoreMARC(ignoreMARC);
+    aReader.setLineDelimiter(lineDelimiter);
+    aReader.setRecordDelimiter(recordDelimiter);
+    aReader.setStreamFilter(streamFilter);
+    aReader.useDefaultDB(useDefaultDB);
+  }
+
+  /**
+   * Bearbeitet die Dateien mit {@link #threads} Arbeitern, davon
+   * {@link #parallelFiles} gleichzeitig.
+   *
+   * @param files         nicht null
+   * @throws IOException  beim ersten Fehler einer Datei
+   */
+  private void processConcurrently(final List<File> files) throws IOException {
+    if (files.isEmpty())
+      return;
+    final ExecutorService workers = Executors.newFixedThreadPool(threads);
+    final ExecutorService fileReaders =
+      Executors.newFixedThreadPool(Math.min(parallelFiles, files.size()));
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (final File file : files) {
+        futures.add(fileReaders.submit(() ->
+        {
+          System.err.println("Bearbeite Datei: " + file.getName());
+          try (InputStream in = MyFileUtils.getMatchingInputStream(file)) {
+            processConcurrently(in, workers);
+          }
+          return null;
+        }));
+      }
+      for (final Future<?> future : futures) {
+        future.get();
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Verarbeitung unterbrochen");
+    } catch (final ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof IOException)
+        throw (IOException) cause;
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException) cause;
+      if (cause instanceof Error)
+        throw (Error) cause;
+      throw new IOException(cause);
+    } finally {
+      fileReaders.shutdownNow();
+      workers.shutdown();
+    }
+  }
+
+  /**
+   * Der aufrufende Thread zerlegt den Strom in Datensätze und filtert,
+   * die workers parsen (jeder mit eigenem Parser) und bearbeiten.
+   * Ausgaben werden pro Datensatz gepuffert und in der Reihenfolge der
+   * Datensätze geschrieben. Höchstens threads * IN_FLIGHT_PER_THREAD
+   * Datensätze sind gleichzeitig unterwegs.
+   *
+   * @param inputStream   nicht null
+   * @param workers       nicht null
+   * @throws IOException  wenn unterbrochen
+   */
+  private void processConcurrently(final InputStream inputStream, final ExecutorService workers)
+    throws IOException {
+    final RecordReader aReader = new RecordReader(inputStream, charset);
+    configure(aReader);
+    final RecordParser prototype = aReader.createParser();
+    final ThreadLocal<RecordParser> parsers =
+      ThreadLocal.withInitial(() -> new RecordParser(prototype));
+
+    final int maxInFlight = threads * IN_FLIGHT_PER_THREAD;
+    final Semaphore inFlight = new Semaphore(maxInFlight);
+    final OrderedOutput output = new OrderedOutput(inFlight);
+    final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    try {
+      long seq = 0;
+      while (failure.get() == null && aReader.hasNext()) {
+        final String chunk = aReader.nextRecordString();
+        inFlight.acquire();
+        final long number = seq++;
+        workers.execute(() ->
+        {
+          final StringBuilder buffer = new StringBuilder();
+          recordOutput.set(buffer);
+          try {
+            if (failure.get() == null) {
+              final Record record = parsers.get().parse(chunk);
+              try {
+                processRecord(record);
+              } catch (final Exception e) {
+                handler.handle(e, "Bei der Verabeitung von Datensatz mit idn "
+                  + record.getId() + "ist ein Fehler aufgetreten");
+              }
+            }
+          } catch (final RuntimeException e) {
+            failure.compareAndSet(null, e);
+          } finally {
+            recordOutput.remove();
+            output.commit(number, buffer.toString());
+          }
+        });
+      }
+      // warten, bis alle Datensätze ausgegeben sind:
+      inFlight.acquire(maxInFlight);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Verarbeitung unterbrochen");
+    }
+    if (failure.get() != null)
+      throw failure.get();
+  }
+
+  /**
+   * Schreibt die gepufferten Ausgaben der Datensätze einer Datei in deren
+   * Reihenfolge nach {@link DownloadWorker#outputStream} und gibt danach
+   * die Plätze in inFlight wieder frei.
+   */
+  private final class OrderedOutput {
+
+    private final Map<Long, String> pending = new HashMap<>();
+
+    private long nextToWrite = 0;
+
+    private final Semaphore inFlight;
+
+    OrderedOutput(final Semaphore inFlight) {
+      this.inFlight = inFlight;
+    }
+
+    synchronized void commit(final long number, final String text) {
+      pending.put(number, text);
+      String next;
+      while ((next = pending.remove(nextToWrite)) != null) {
+        if (!next.isEmpty())
+          outputStream.print(next);
+        nextToWrite++;
+        inFlight.release();
+      }
+    }
+  }
+
   /**
    * Leitet die Ausgabe in eine Datei um. Die Datei wird überschrieben,
    * wenn schon vorhanden.
@@ -339,7 +580,11 @@ public abstract class DownloadWorker {
    * @param s	beliebig
    */
   public final void print(final String s) {
-    outputStream.print(s);
+    final StringBuilder buffer = recordOutput.get();
+    if (buffer != null)
+      buffer.append(s);
+    else
+      outputStream.print(s);
   }
 
   /**
@@ -347,7 +592,7 @@ public abstract class DownloadWorker {
    * @param it  nicht null
    */
   public final void printIterable(final Iterable<?> it) {
-    it.forEach(el -> outputStream.println("\t" + el));
+    it.forEach(el -> println("\t" + el));
   }
 
   /**
@@ -359,7 +604,7 @@ public abstract class DownloadWorker {
    * @param s	beliebig
    */
   public final void tab(final String s) {
-    outputStream.print("\t" + s);
+    print("\t" + s);
   }
 
   /**
@@ -368,7 +613,7 @@ public abstract class DownloadWorker {
    *
    */
   public final void tab() {
-    outputStream.print("\t");
+    print("\t");
   }
 
   /**
@@ -378,7 +623,11 @@ public abstract class DownloadWorker {
    * @param s	beliebig
    */
   public final void println() {
-    outputStream.println();
+    final StringBuilder buffer = recordOutput.get();
+    if (buffer != null)
+      buffer.append(Constants.LINE_SEPARATOR);
+    else
+      outputStream.println();
   }
 
   /**
@@ -390,7 +639,11 @@ public abstract class DownloadWorker {
    * @param s	beliebig
    */
   public final void println(final String s) {
-    outputStream.println(s);
+    final StringBuilder buffer = recordOutput.get();
+    if (buffer != null)
+      buffer.append(s).append(Constants.LINE_SEPARATOR);
+    else
+      outputStream.println(s);
   }
 
   /**
@@ -496,6 +749,10 @@ public abstract class DownloadWorker {
   }
 
   /**
+   * Bei mehr als einem Thread ({@link #setThreads(int)}) wird diese
+   * Methode nebenläufig aufgerufen, muss also threadsicher sein. Ausgaben
+   * dann nur über {@link #print(String)}, {@link #println(String)} ...,
+   * nicht direkt über outputStream.
    *
    * @param record	Der zu bearbeitende Datensatz, nicht null.
    */
@@ -339,16 +339,11 @@ public final class GNDUtils {
 	 * @return Liste, eventuell leer. Leer auch bei Titeldaten.
 	 */
 	public static ArrayList<Line> getMXLines(final Record record) {
-		final Field field901 = RecordUtils.getFieldGivenAsString(record, "901");
-		if (field901 != null) {
-			return new ArrayList<Line>(field901.getLines());
-		} else {
-			return new ArrayList<Line>();
-		}
+		return new ArrayList<Line>(RecordUtils.getLinesView(record, "901"));
 	}
 
 	public static boolean containsMX(final Record record) {
-		return !getMXLines(record).isEmpty();
+		return !RecordUtils.getLinesView(record, "901").isEmpty();
 	}
 
 	/**
@@ -358,12 +353,7 @@ public final class GNDUtils {
 	 * @return Liste, eventuell leer. Leer auch bei Titeldaten.
 	 */
 	public static ArrayList<Line> getOriginalHeadingLines(final Record record) {
-		final Field field913 = RecordUtils.getFieldGivenAsString(record, "913");
-		if (field913 != null) {
-			return new ArrayList<Line>(field913.getLines());
-		} else {
-			return new ArrayList<Line>();
-		}
+		return new ArrayList<Line>(RecordUtils.getLinesView(record, "913"));
 	}
 
 	/**
@@ -373,12 +363,7 @@ public final class GNDUtils {
 	 * @return Liste, eventuell leer. Leer auch bei Titeldaten.
 	 */
 	public static ArrayList<Line> getValidDDCLines(final Record record) {
-		final Field field083 = RecordUtils.getFieldGivenAsString(record, "083");
-		if (field083 != null) {
-			return new ArrayList<Line>(field083.getLines());
-		} else {
-			return new ArrayList<Line>();
-		}
+		return new ArrayList<Line>(RecordUtils.getLinesView(record, "083"));
 	}
 
 	/**
@@ -388,12 +373,7 @@ public final class GNDUtils {
 	 * @return Liste, eventuell leer. Leer auch bei Titeldaten.
 	 */
 	public static ArrayList<Line> getDeprecatedDDCLines(final Record record) {
-		final Field field089 = RecordUtils.getFieldGivenAsString(record, "089");
-		if (field089 != null) {
-			return new ArrayList<Line>(field089.getLines());
-		} else {
-			return new ArrayList<Line>();
-		}
+		return new ArrayList<Line>(RecordUtils.getLinesView(record, "089"));
 	}
 
 	/**
@@ -0,0 +1,210 @@
+package de.dnb.gnd.utils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import de.dnb.basics.applicationComponents.strings.StringUtils;
+import de.dnb.basics.filtering.RangeCheckUtils;
+import de.dnb.basics.utils.TimeUtils;
+
+/**
+ * Sucht die Idns für eine große Zahl von Namen (etwa eine Namensliste
+ * eines Lieferanten) mit {@link IDNFinder#match(String)} oder
+ * {@link IDNFinderLeven#match(String)} auf allen Prozessoren.
+ * <br><br>
+ * Der aufrufende Thread liest die Namen und teilt sie in Pakete zu
+ * {@value #CHUNK} Namen; die Arbeiter suchen die Pakete mit demselben
+ * Finder (die Tabellen werden nur gelesen). Die Ergebnisse werden im
+ * aufrufenden Thread in der Reihenfolge der Eingabe weitergegeben, sobald
+ * sie vorliegen. Höchstens {@value #CHUNKS_PER_THREAD} Pakete je Arbeiter
+ * sind gleichzeitig unterwegs, der Speicherbedarf hängt daher nicht von
+ * der Länge der Eingabe ab.
+ *
+ * @author baumann
+ *
+ */
+public class IDNBatchFinder {
+
+  /**
+   * Namen je Aufgabe. Eine einzelne Suche im {@link IDNFinder} dauert nur
+   * etwa eine Mikrosekunde, einzelne Aufgaben würden sich nicht lohnen.
+   */
+  private static final int CHUNK = 256;
+
+  private static final int CHUNKS_PER_THREAD = 4;
+
+  private final Function<String, NameMatch> finder;
+
+  private final int threads;
+
+  /**
+   * Mit einem Arbeiter je Prozessor.
+   *
+   * @param finder  nicht null, threadsicher, etwa idnFinder::match
+   */
+  public IDNBatchFinder(final Function<String, NameMatch> finder) {
+    this(finder, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   *
+   * @param finder  nicht null, threadsicher, etwa idnFinder::match
+   * @param threads > 0; bei 1 wird im aufrufenden Thread gesucht
+   */
+  public IDNBatchFinder(final Function<String, NameMatch> finder, final int threads) {
+    RangeCheckUtils.assertReferenceParamNotNull("finder", finder);
+    if (threads < 1)
+      throw new IllegalArgumentException("threads muss > 0 sein");
+    this.finder = finder;
+    this.threads = threads;
+  }
+
+  /**
+   * Sucht alle Namen.
+   *
+   * @param names     nicht null, wird vom aufrufenden Thread gelesen
+   * @param consumer  nicht null, erhält die Ergebnisse in der Reihenfolge
+   *                  von names im aufrufenden Thread
+   * @throws InterruptedIOException wenn unterbrochen
+   */
+  public void findAll(final Stream<String> names, final Consumer<? super NameMatch> consumer)
+    throws InterruptedIOException {
+    RangeCheckUtils.assertReferenceParamNotNull("names", names);
+    RangeCheckUtils.assertReferenceParamNotNull("consumer", consumer);
+    final Iterator<String> iterator = names.iterator();
+    if (threads == 1) {
+      iterator.forEachRemaining(name -> consumer.accept(finder.apply(name)));
+      return;
+    }
+
+    final ExecutorService workers = Executors.newFixedThreadPool(threads);
+    final int maxPending = threads * CHUNKS_PER_THREAD;
+    final Deque<Future<NameMatch[]>> pending = new ArrayDeque<>(maxPending);
+    try {
+      while (iterator.hasNext()) {
+        final String[] chunk = nextChunk(iterator);
+        pending.add(workers.submit(() -> findChunk(chunk)));
+        if (pending.size() >= maxPending)
+          deliver(pending.remove(), consumer);
+      }
+      while (!pending.isEmpty()) {
+        deliver(pending.remove(), consumer);
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Verarbeitung unterbrochen");
+    } catch (final ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException) cause;
+      if (cause instanceof Error)
+        throw (Error) cause;
+      throw new IllegalStateException(cause);
+    } finally {
+      workers.shutdownNow();
+    }
+  }
+
+  private static String[] nextChunk(final Iterator<String> iterator) {
+    final String[] chunk = new String[CHUNK];
+    int size = 0;
+    while (size < CHUNK && iterator.hasNext()) {
+      chunk[size++] = iterator.next();
+    }
+    return size == CHUNK ? chunk : Arrays.copyOf(chunk, size);
+  }
+
+  private NameMatch[] findChunk(final String[] chunk) {
+    final NameMatch[] matches = new NameMatch[chunk.length];
+    for (int i = 0; i < chunk.length; i++) {
+      matches[i] = finder.apply(chunk[i]);
+    }
+    return matches;
+  }
+
+  private static void deliver(
+    final Future<NameMatch[]> future,
+    final Consumer<? super NameMatch> consumer)
+    throws InterruptedException, ExecutionException {
+    for (final NameMatch match : future.get()) {
+      consumer.accept(match);
+    }
+  }
+
+  /**
+   * Sucht alle Namen einer Datei und schreibt die Ergebnisse Zeile für
+   * Zeile, s. {@link #format(NameMatch)}.
+   *
+   * @param source  nicht null, UTF-8, ein Name je Zeile
+   * @param target  nicht null, UTF-8, wird überschrieben
+   * @throws IOException  beim Lesen oder Schreiben
+   */
+  public void findAll(final Path source, final Path target) throws IOException {
+    RangeCheckUtils.assertReferenceParamNotNull("source", source);
+    RangeCheckUtils.assertReferenceParamNotNull("target", target);
+    try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8);
+      BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+      findAll(reader.lines(), match ->
+      {
+        try {
+          writer.write(format(match));
+          writer.newLine();
+        } catch (final IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (final UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   *
+   * @param match nicht null
+   * @return      Name, Level, Distanz, Idns und Namen der Treffer, durch
+   *              Tabulatoren getrennt; mehrere Idns und Namen durch " ; "
+   */
+  public static String format(final NameMatch match) {
+    Objects.requireNonNull(match);
+    return StringUtils.concatenateTab(match.getName(), match.getLevel(), match.getDistance(),
+      String.join(" ; ", match.getIdns()), String.join(" ; ", match.getNames()));
+  }
+
+  /**
+   * Sucht die Namen einer Datei in den mit {@link IDNFinder#save(Path)}
+   * gespeicherten Tabellen.
+   *
+   * @param args  Verzeichnis der Tabellen, Eingabedatei, Ausgabedatei
+   * @throws IOException  beim Lesen oder Schreiben
+   */
+  public static void main(final String[] args) throws IOException {
+    if (args.length != 3) {
+      System.err.println("Aufruf: IDNBatchFinder <Tabellen> <Namen> <Ergebnis>");
+      return;
+    }
+    final IDNFinder finder = IDNFinder.open(Paths.get(args[0]));
+    TimeUtils.startStopWatch();
+    new IDNBatchFinder(finder::match).findAll(Paths.get(args[1]), Paths.get(args[2]));
+    System.err.println("fertig nach " + TimeUtils.delta_t_millis() + " ms");
+  }
+
+}
@@ -3,9 +3,13 @@
  */
 package de.dnb.gnd.utils;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -13,28 +17,43 @@ import de.dnb.basics.applicationComponents.strings.StringUtils;
 import de.dnb.basics.applicationComponents.tuples.Triplett;
 import de.dnb.basics.collections.BiMultimap;
 import de.dnb.basics.collections.IBiMap;
-import de.dnb.basics.tries.TST;
+import de.dnb.basics.filtering.RangeCheckUtils;
+import de.dnb.basics.tries.CompactTrie;
+import de.dnb.basics.tries.MappedTrie;
 import de.dnb.basics.tries.Trie;
+import de.dnb.basics.tries.TrieValueCodec;
 
 /**
+ * Findet zu einem Namen die passenden Idns über die normierten 1XX- und
+ * 4XX-Felder, s. {@link #find(String)}.
+ * <br><br>
+ * Die Tabellen werden als {@link CompactTrie} gehalten. Mit
+ * {@link #save(Path)} lassen sie sich in ein Verzeichnis schreiben; mit
+ * {@link #open(Path)} arbeitet ein IDNFinder dann direkt auf den in den
+ * Speicher abgebildeten Dateien ({@link MappedTrie}), ohne die Tabellen
+ * neu aufzubauen.
+ *
  * @author baumann
  *
  */
 public class IDNFinder {
 
-  private final IBiMap<Integer, String> idn2nameNorm;
+  /**
+   * Dateien in dem Verzeichnis von {@link #save(Path)}.
+   */
+  static final String NAMES_FILE = "namen.trie";
 
-  // Namen in der ursprünglichen Form für lesbare Ausgabe:
-  private final IBiMap<Integer, String> idn2name;
+  static final String VERWEISUNGEN_FILE = "verweisungen.trie";
 
-  private final IBiMap<Integer, String> idns2verweisungenNorm;
+  static final String IDNS_FILE = "idns.trie";
 
-  // für die Präfix-Suche:
-  private final Trie<Collection<Integer>> trieName2idns = new TST<>();
+  // normierte Namen -> Idns, auch für die Präfix-Suche:
+  private final Trie<Collection<Integer>> trieName2idns;
 
-  private final Trie<Collection<Integer>> trieVerweisung2idns = new TST<>();
+  private final Trie<Collection<Integer>> trieVerweisung2idns;
 
-  final Triplett<Collection<String>, Collection<String>, Integer> keinTreffer;
+  // Idn (als String) -> Namen in der ursprünglichen Form für lesbare Ausgabe:
+  private final Trie<Collection<String>> trieIdn2names;
 
   /**
    * Die Parameter werden normiert, d.h. getrimmt, kleingeschrieben und
@@ -49,29 +68,83 @@ public class IDNFinder {
   public IDNFinder(
     final IBiMap<Integer, String> idn2name,
     final IBiMap<Integer, String> idns2verweisungen) {
-    super();
-    Objects.requireNonNull(idn2name);
-    Objects.requireNonNull(idns2verweisungen);
-    this.idn2name = idn2name;
-    idn2nameNorm = transform(idn2name);
-    idns2verweisungenNorm = transform(idns2verweisungen);
+    this(
+      makeTrie(transform(idn2name)),
+      makeTrie(transform(idns2verweisungen)),
+      makeIdnTrie(idn2name));
+  }
 
-    final Set<String> normNames = idn2nameNorm.getValueSet();
-    final Set<String> normVerweisungen = idns2verweisungenNorm.getValueSet();
+  private IDNFinder(
+    final Trie<Collection<Integer>> trieName2idns,
+    final Trie<Collection<Integer>> trieVerweisung2idns,
+    final Trie<Collection<String>> trieIdn2names) {
+    this.trieName2idns = trieName2idns;
+    this.trieVerweisung2idns = trieVerweisung2idns;
+    this.trieIdn2names = trieIdn2names;
+  }
 
+  /**
+   * Leere normierte Namen (etwa "?" ohne Satzzeichen) werden übergangen:
+   * Als Präfix passten sie auf jede Anfrage.
+   *
+   * @param idn2nameNorm  nicht null
+   * @return              normierter Name -> Idns
+   */
+  private static Trie<Collection<Integer>> makeTrie(final IBiMap<Integer, String> idn2nameNorm) {
+    final Set<String> normNames = idn2nameNorm.getValueSet();
+    final Map<String, Collection<Integer>> name2idns = new HashMap<>(normNames.size());
     normNames.forEach(name ->
     {
+      if (name.isEmpty())
+        return;
       final Set<Integer> ints = idn2nameNorm.getKeySet(name);
-      trieName2idns.put(name, ints);
+      name2idns.put(name, ints);
     });
+    return new CompactTrie<>(name2idns);
+  }
 
-    normVerweisungen.forEach(vw ->
-    {
-      final Set<Integer> ints = idns2verweisungenNorm.getKeySet(vw);
-      trieVerweisung2idns.put(vw, ints);
-    });
-    keinTreffer = makeTriplett(Collections.emptyList(), 9);
+  private static Trie<Collection<String>> makeIdnTrie(final IBiMap<Integer, String> idn2name) {
+    final Map<String, Collection<String>> idn2names = new HashMap<>();
+    idn2name.getKeySet().forEach(idn -> idn2names.put(idn.toString(), idn2name.getValueSet(idn)));
+    return new CompactTrie<>(idn2names);
+  }
 
+  /**
+   * Schreibt die Tabellen in das Verzeichnis, s. {@link #open(Path)}.
+   *
+   * @param directory nicht null, muss existieren; vorhandene Dateien
+   *                  werden überschrieben
+   * @throws IOException  beim Schreiben
+   */
+  public void save(final Path directory) throws IOException {
+    RangeCheckUtils.assertReferenceParamNotNull("directory", directory);
+    toCompact(trieName2idns).save(directory.resolve(NAMES_FILE),
+      TrieValueCodec.integerCollections());
+    toCompact(trieVerweisung2idns).save(directory.resolve(VERWEISUNGEN_FILE),
+      TrieValueCodec.integerCollections());
+    toCompact(trieIdn2names).save(directory.resolve(IDNS_FILE),
+      TrieValueCodec.stringCollections());
+  }
+
+  private static <V> CompactTrie<V> toCompact(final Trie<V> trie) {
+    return trie instanceof CompactTrie ? (CompactTrie<V>) trie : new CompactTrie<>(trie);
+  }
+
+  /**
+   * Öffnet die mit {@link #save(Path)} geschriebenen Tabellen über in den
+   * Speicher abgebildete Dateien. Die Suche liefert dieselben Ergebnisse
+   * wie beim ursprünglichen IDNFinder.
+   *
+   * @param directory nicht null
+   * @return          neuen IDNFinder
+   * @throws IOException  beim Lesen oder wenn keine passenden Daten
+   */
+  public static IDNFinder open(final Path directory) throws IOException {
+    RangeCheckUtils.assertReferenceParamNotNull("directory", directory);
+    return new IDNFinder(
+      MappedTrie.open(directory.resolve(NAMES_FILE), TrieValueCodec.integerCollections()),
+      MappedTrie.open(directory.resolve(VERWEISUNGEN_FILE), TrieValueCodec.integerCollections()),
+      MappedTrie.open(directory.resolve(IDNS_FILE), TrieValueCodec.stringCollections()));
   }
 
   /**
@@ -96,41 +169,48 @@ public class IDNFinder {
    *            Unicode-Composition umgewandelt
    * @return Tripel oder NullTripel {@link Triplett#getNullTriplett()}
    */
-  public Triplett<Collection<String>, Collection<String>, Integer> find(String name) {
+  public Triplett<Collection<String>, Collection<String>, Integer> find(final String name) {
     if (StringUtils.isNullOrWhitespace(name))
       return Triplett.getNullTriplett();
-    // normieren:
-    name = normiere(name);
+    return match(name).toTriplett();
+  }
+
+  /**
+   * Wie {@link #find(String)}, liefert aber zusätzlich den Abstand zum
+   * gefundenen Namen (bei Level 5 bis 8 die Zahl der übergangenen
+   * Zeichen). Threadsicher.
+   *
+   * @param name  beliebig
+   * @return      nicht null, Level {@link NameMatch#KEIN_TREFFER}, wenn
+   *              name leer ist oder nichts gefunden wurde
+   */
+  public NameMatch match(final String name) {
+    if (StringUtils.isNullOrWhitespace(name))
+      return NameMatch.keinTreffer(name);
+    final String norm = normiere(name);
     // Level 1 und 2:
-    Collection<Integer> idns = idn2nameNorm.searchKeys(name);
-    if (idns.size() == 1)
-      return makeTriplett(idns, 1);
-    if (idns.size() > 1)
-      return makeTriplett(idns, 2);
+    Collection<Integer> idns = trieName2idns.getValue(norm);
+    if (idns != null && !idns.isEmpty())
+      return makeMatch(name, idns, idns.size() == 1 ? 1 : 2, 0);
     // Level 3 und 4:
-    idns = idns2verweisungenNorm.searchKeys(name);
-    if (idns.size() == 1)
-      return makeTriplett(idns, 3);
-    if (idns.size() > 1)
-      return makeTriplett(idns, 4);
+    idns = trieVerweisung2idns.getValue(norm);
+    if (idns != null && !idns.isEmpty())
+      return makeMatch(name, idns, idns.size() == 1 ? 3 : 4, 0);
     // Level 5 und 6:
-    idns = trieName2idns.getValueOfLongestPrefix(name);
-    if (idns != null) {
-      if (idns.size() == 1)
-        return makeTriplett(idns, 5);
-      if (idns.size() > 1)
-        return makeTriplett(idns, 6);
+    String prefix = trieName2idns.longestPrefixOf(norm);
+    if (prefix != null) {
+      idns = trieName2idns.getValue(prefix);
+      if (!idns.isEmpty())
+        return makeMatch(name, idns, idns.size() == 1 ? 5 : 6, norm.length() - prefix.length());
     }
     // Level 7 und 8:
-    idns = trieVerweisung2idns.getValueOfLongestPrefix(name);
-    if (idns != null) {
-      if (idns.size() == 1)
-        return makeTriplett(idns, 7);
-      if (idns.size() > 1)
-        return makeTriplett(idns, 8);
+    prefix = trieVerweisung2idns.longestPrefixOf(norm);
+    if (prefix != null) {
+      idns = trieVerweisung2idns.getValue(prefix);
+      if (!idns.isEmpty())
+        return makeMatch(name, idns, idns.size() == 1 ? 7 : 8, norm.length() - prefix.length());
     }
-    return keinTreffer;
-
+    return NameMatch.keinTreffer(name);
   }
 
   /**
@@ -144,12 +224,20 @@ public class IDNFinder {
     return name;
   }
 
-  private
-    Triplett<Collection<String>, Collection<String>, Integer>
-    makeTriplett(final Collection<Integer> intIdns, final Integer level) {
+  private NameMatch makeMatch(
+    final String name,
+    final Collection<Integer> intIdns,
+    final int level,
+    final int distance) {
     final List<String> idns = IDNUtils.ints2ppns(intIdns);
-    final Collection<String> names = idn2name.searchValues(intIdns);
-    return new Triplett<>(idns, names, level);
+    final Set<String> names = new LinkedHashSet<>();
+    intIdns.stream().distinct().forEach(idn ->
+    {
+      final Collection<String> idnNames = trieIdn2names.getValue(idn.toString());
+      if (idnNames != null)
+        names.addAll(idnNames);
+    });
+    return new NameMatch(name, idns, names, level, distance);
   }
 
   public static void main(final String[] args) {
@@ -165,6 +253,7 @@ public class IDNFinder {
   }
 
   private static BiMultimap<Integer, String> transform(final IBiMap<Integer, String> source) {
+    Objects.requireNonNull(source);
     final BiMultimap<Integer, String> dest = BiMultimap.createSetMap();
     source.getKeySet().forEach(idn -> source.getValueSet(idn).forEach(value ->
     {
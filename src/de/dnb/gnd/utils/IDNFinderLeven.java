@@ -4,7 +4,6 @@
 package de.dnb.gnd.utils;
 
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -20,11 +19,20 @@ import de.dnb.basics.collections.CollectionUtils;
 import de.dnb.basics.collections.IBiMap;
 
 /**
+ * Wie {@link IDNFinder}, findet aber auch Namen mit einer Editdistanz bis
+ * 4. Die ähnlichen Namen werden über den {@link Thesaurus} aller
+ * normierten Namen und Verweisungen gesucht.
+ *
  * @author baumann
  *
  */
 public class IDNFinderLeven {
 
+  /**
+   * Größte Editdistanz, nach der gesucht wird.
+   */
+  private static final int MAX_DISTANCE = 4;
+
   // Normiert
   private final IBiMap<Integer, String> idn2nameNorm;
 
@@ -34,8 +42,6 @@ public class IDNFinderLeven {
   //Normiert
   private final IBiMap<Integer, String> idns2verweisungenNorm;
 
-  private final Triplett<Collection<String>, Collection<String>, Integer> keinTreffer;
-
   private final Thesaurus thesaurus;
 
   /**
@@ -63,8 +69,6 @@ public class IDNFinderLeven {
     final Set<String> alleNormiert = CollectionUtils.union(normNames, normVerweisungen);
     thesaurus = new Thesaurus(alleNormiert);
 
-    keinTreffer = makeTriplett(Collections.emptyList(), 9);
-
   }
 
   /**
@@ -89,35 +93,50 @@ public class IDNFinderLeven {
    *            Unicode-Composition umgewandelt
    * @return Tripel oder NullTripel {@link Triplett#getNullTriplett()}
    */
-  public Triplett<Collection<String>, Collection<String>, Integer> find(String name) {
+  public Triplett<Collection<String>, Collection<String>, Integer> find(final String name) {
     if (StringUtils.isNullOrWhitespace(name))
       return Triplett.getNullTriplett();
-    // normieren:
-    name = normiere(name);
+    return match(name).toTriplett();
+  }
+
+  /**
+   * Wie {@link #find(String)}, liefert aber zusätzlich die Editdistanz
+   * zum gefundenen Namen. Threadsicher.
+   *
+   * @param name  beliebig
+   * @return      nicht null, Level {@link NameMatch#KEIN_TREFFER}, wenn
+   *              name leer ist oder nichts gefunden wurde
+   */
+  public NameMatch match(final String name) {
+    if (StringUtils.isNullOrWhitespace(name))
+      return NameMatch.keinTreffer(name);
+    final String norm = normiere(name);
     // Level 1 und 2:
-    Collection<Integer> idns = idn2nameNorm.searchKeys(name);
-    if (idns.size() == 1)
-      return makeTriplett(idns, 1);
-    if (idns.size() > 1)
-      return makeTriplett(idns, 2);
+    Collection<Integer> idns = idn2nameNorm.searchKeys(norm);
+    if (!idns.isEmpty())
+      return makeMatch(name, idns, idns.size() == 1 ? 1 : 2, 0);
     // Level 3 und 4:
-    idns = idns2verweisungenNorm.searchKeys(name);
-    if (idns.size() == 1)
-      return makeTriplett(idns, 3);
-    if (idns.size() > 1)
-      return makeTriplett(idns, 4);
-
-    final List<StringDistance> dists = StringMetrics.wordsWithinDistance(thesaurus, 4, name, 4);
-    if (!dists.isEmpty()) {
-      final double mindist = dists.get(0).getDistance();
-      final Set<String> candidates = dists.stream().filter(dist -> dist.getDistance() == mindist)
-        .map(StringDistance::getWord).collect(Collectors.toSet());
-      idns = CollectionUtils.union(idn2nameNorm.searchKeys(candidates),
-        idns2verweisungenNorm.searchKeys(candidates));
-      return makeTriplett(idns, (int) (4 + mindist));
+    idns = idns2verweisungenNorm.searchKeys(norm);
+    if (!idns.isEmpty())
+      return makeMatch(name, idns, idns.size() == 1 ? 3 : 4, 0);
+
+    // Level 5 bis 8: Die Suche mit kleinem Abstand ist viel billiger,
+    // daher schrittweise erweitern, bis etwas gefunden wird.
+    for (int distance = 1; distance <= MAX_DISTANCE; distance++) {
+      final List<StringDistance> dists =
+        StringMetrics.wordsWithinDistance(thesaurus, distance, norm, 4);
+      if (!dists.isEmpty()) {
+        final double mindist = dists.get(0).getDistance();
+        final Set<String> candidates = dists.stream()
+          .filter(dist -> dist.getDistance() == mindist).map(StringDistance::getWord)
+          .collect(Collectors.toSet());
+        idns = CollectionUtils.union(idn2nameNorm.searchKeys(candidates),
+          idns2verweisungenNorm.searchKeys(candidates));
+        return makeMatch(name, idns, (int) (4 + mindist), (int) mindist);
+      }
     }
 
-    return keinTreffer;
+    return NameMatch.keinTreffer(name);
   }
 
   /**
@@ -131,12 +150,14 @@ public class IDNFinderLeven {
     return name;
   }
 
-  private
-    Triplett<Collection<String>, Collection<String>, Integer>
-    makeTriplett(final Collection<Integer> intIdns, final Integer level) {
+  private NameMatch makeMatch(
+    final String name,
+    final Collection<Integer> intIdns,
+    final int level,
+    final int distance) {
     final List<String> idns = IDNUtils.ints2ppns(intIdns);
-    final Collection<String> names = idn2name.searchValues(intIdns);
-    return new Triplett<Collection<String>, Collection<String>, Integer>(idns, names, level);
+    final Set<String> names = idn2name.searchValues(intIdns);
+    return new NameMatch(name, idns, names, level, distance);
   }
 
   public static void main(final String[] args) {
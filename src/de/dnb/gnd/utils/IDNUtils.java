@@ -214,9 +214,14 @@ public class IDNUtils {
    */
   public static String extractPPNfromFirstLine(final CharSequence recordStr) {
     RangeCheckUtils.assertReferenceParamNotNull("line", recordStr);
-    final String lineTrimmed = recordStr.toString().trim();
-    final String[] lines = lineTrimmed.split("\n");
-    final String firstLine = lines[0];
+    // Nur die erste Zeile, ohne den ganzen Datensatz zu zerlegen:
+    final String record = recordStr.toString();
+    int start = 0;
+    while (start < record.length() && record.charAt(start) <= ' ')
+      start++;
+    final int end = record.indexOf('\n', start);
+    final String firstLine =
+      end < 0 ? record.substring(start).trim() : record.substring(start, end);
     final Matcher mIDN = PPN_PLUS_1_PAT.matcher(firstLine);
     if (mIDN.find()) {
       String idn = mIDN.group();
@@ -3,8 +3,17 @@
  */
 package de.dnb.gnd.utils;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashSet;
@@ -13,19 +22,28 @@ import java.util.Objects;
 import java.util.Set;
 
 import de.dnb.basics.applicationComponents.strings.StringUtils;
+import de.dnb.basics.collections.CompressedIntSet;
+import de.dnb.basics.collections.MappedIntSet;
 import de.dnb.basics.utils.NumberUtils;
 import de.dnb.basics.utils.TimeUtils;
+import de.dnb.gnd.parser.RecordReader;
 
 /**
  * Eine Datenstruktur, um Integer-Idns -also Idns ohne Prüfziffer-
- * effizient zu speichern. Dazu wird ein {@link BitSet} benutzt.
- * Da der Speicherbedarf für typische Idns recht hoch ist (ca. 16 MB),
- * lohnt es sich aus diesem Grund, IdnSet erst ab etwa 280.000 Idns diese Datenstruktur zu nutzen.
+ * effizient zu speichern. Dazu wird ein {@link CompressedIntSet} benutzt,
+ * das nur die belegten Bereiche der Idns anlegt. Anders als mit einem
+ * {@link BitSet} kostet auch eine einzelne hohe Idn daher nur
+ * wenige Byte, dichte Bereiche ca. 1 Bit je Idn.
  * <br>
- * Für kleinere Mengen kann es sinnvoller sein, ein {@link HashSet} von Integers zu
- * verwenden. Zur sicheren Manipulation verwende die Methoden von {@link IDNUtils},
- * etwa {@link IDNUtils#add(Collection, String)}. Und: diese Datenstruktur
- * etwas weniger Zeit!
+ * Für sehr kleine Mengen kann es trotzdem sinnvoller sein, ein {@link HashSet}
+ * von Integers zu verwenden. Zur sicheren Manipulation verwende die Methoden
+ * von {@link IDNUtils}, etwa {@link IDNUtils#add(Collection, String)}.
+ * <br>
+ * Die Mengenoperationen mit einem anderen IdnSet ({@link #addAll(IdnSet)},
+ * {@link #retainAll(IdnSet)}, {@link #removeAll(IdnSet)}) arbeiten
+ * blockweise, die Größen von Schnitt, Vereinigung und Differenz lassen sich
+ * auch ohne Bilden der Menge berechnen ({@link #intersectionSize(IdnSet)}
+ * ...).
  *
  * @author baumann
  *
@@ -35,22 +53,29 @@ import de.dnb.basics.utils.TimeUtils;
 public class IdnSet implements Set<Integer>, Serializable {
 
   /**
-   *
+   * Unverändert seit der Fassung mit {@link BitSet}, damit alte
+   * serialisierte Mengen lesbar bleiben.
    */
   private static final long serialVersionUID = -5455671371759547063L;
 
-  private BitSet bitSet;
+  /**
+   * Die serialisierte Form: früher nur bitSet, jetzt nur ints. Beim Lesen
+   * wird beides akzeptiert, s. {@link #readObject(ObjectInputStream)}.
+   */
+  private static final ObjectStreamField[] serialPersistentFields =
+    { new ObjectStreamField("bitSet", BitSet.class),
+      new ObjectStreamField("ints", CompressedIntSet.class) };
 
-  private transient BitSet temporary;
+  private transient CompressedIntSet ints;
 
   @Override
   public int size() {
-    return bitSet.cardinality();
+    return (int) Math.min(ints.cardinality(), Integer.MAX_VALUE);
   }
 
   @Override
   public boolean isEmpty() {
-    return bitSet.isEmpty();
+    return ints.isEmpty();
   }
 
   @Override
@@ -67,9 +92,17 @@ public class IdnSet implements Set<Integer>, Serializable {
   }
 
   public boolean contains(final Integer i) {
-    if (i < 0)
-      return false;
-    return bitSet.get(i);
+    return i != null && ints.contains(i);
+  }
+
+  /**
+   * Ohne Boxing.
+   *
+   * @param i beliebig
+   * @return  true, wenn i enthalten ist
+   */
+  public boolean contains(final int i) {
+    return ints.contains(i);
   }
 
   public boolean contains(final String s) {
@@ -79,20 +112,7 @@ public class IdnSet implements Set<Integer>, Serializable {
 
   @Override
   public Iterator<Integer> iterator() {
-    return new Iterator<Integer>() {
-      int next = -1;
-
-      @Override
-      public Integer next() {
-        next = bitSet.nextSetBit(next + 1);
-        return next;
-      }
-
-      @Override
-      public boolean hasNext() {
-        return bitSet.nextSetBit(next + 1) != -1;
-      }
-    };
+    return ints.iterator();
   }
 
   @Override
@@ -120,12 +140,21 @@ public class IdnSet implements Set<Integer>, Serializable {
 
   @Override
   public boolean add(final Integer i) {
-    if (i == null || i < 0)
+    if (i == null)
+      return false;
+    return add(i.intValue());
+  }
+
+  /**
+   * Ohne Boxing.
+   *
+   * @param i beliebig, negative Werte werden ignoriert
+   * @return  true, wenn i neu ist
+   */
+  public boolean add(final int i) {
+    if (i < 0)
       return false;
-    final boolean contains = contains(i);
-    if (!contains)
-      bitSet.set(i);
-    return !contains;
+    return ints.add(i);
   }
 
   /**
@@ -165,12 +194,9 @@ public class IdnSet implements Set<Integer>, Serializable {
   }
 
   public boolean remove(final Integer i) {
-    if (i == null || i < 0)
+    if (i == null)
       return false;
-    final boolean contains = contains(i);
-    if (contains)
-      bitSet.set(i, false);
-    return contains;
+    return ints.remove(i);
   }
 
   /**
@@ -222,17 +248,14 @@ public class IdnSet implements Set<Integer>, Serializable {
    * @return  ob this geändert wurde
    */
   public boolean addAll(final IdnSet other) {
-    temporary = (BitSet) bitSet.clone();
-    final BitSet otherBitset = other.bitSet;
-    bitSet.or(otherBitset);
-    final boolean equals = temporary.equals(otherBitset);
-    temporary = null;
-    return !equals;
+    return ints.or(other.ints);
   }
 
   @Override
   public boolean retainAll(final Collection<?> c) {
     Objects.requireNonNull(c);
+    if (c instanceof IdnSet)
+      return retainAll((IdnSet) c);
     final IdnSet tempSet = new IdnSet();
 
     for (final Object o : c) {
@@ -240,10 +263,10 @@ public class IdnSet implements Set<Integer>, Serializable {
         tempSet.addObject(o);
       }
     }
-    final boolean unmodified = bitSet.equals(tempSet.bitSet);
-    if (!unmodified)
-      bitSet = tempSet.bitSet;
-    return unmodified;
+    final boolean modified = !ints.equals(tempSet.ints);
+    if (modified)
+      ints = tempSet.ints;
+    return modified;
   }
 
   /**
@@ -253,12 +276,7 @@ public class IdnSet implements Set<Integer>, Serializable {
    * @return  ob this geändert wurde
    */
   public boolean retainAll(final IdnSet other) {
-    temporary = (BitSet) bitSet.clone();
-    final BitSet otherBitset = other.bitSet;
-    bitSet.and(otherBitset);
-    final boolean equals = temporary.equals(otherBitset);
-    temporary = null;
-    return !equals;
+    return ints.and(other.ints);
   }
 
   @Override
@@ -281,12 +299,210 @@ public class IdnSet implements Set<Integer>, Serializable {
    * @return  ob this geändert wurde
    */
   public boolean removeAll(final IdnSet other) {
-    temporary = (BitSet) bitSet.clone();
-    final BitSet otherBitset = other.bitSet;
-    bitSet.andNot(otherBitset);
-    final boolean equals = temporary.equals(otherBitset);
-    temporary = null;
-    return !equals;
+    return ints.andNot(other.ints);
+  }
+
+  /**
+   * Größe des Schnitts, ohne diesen zu bilden.
+   *
+   * @param other nicht null
+   * @return      |this ∩ other|
+   */
+  public long intersectionSize(final IdnSet other) {
+    return ints.andCardinality(other.ints);
+  }
+
+  /**
+   * Größe der Vereinigung, ohne diese zu bilden.
+   *
+   * @param other nicht null
+   * @return      |this ∪ other|
+   */
+  public long unionSize(final IdnSet other) {
+    return ints.orCardinality(other.ints);
+  }
+
+  /**
+   * Größe der Mengendifferenz, ohne diese zu bilden.
+   *
+   * @param other nicht null
+   * @return      |this \ other|
+   */
+  public long differenceSize(final IdnSet other) {
+    return ints.andNotCardinality(other.ints);
+  }
+
+  /**
+   *
+   * @param other nicht null
+   * @return      true, wenn this und other gemeinsame Idns haben
+   */
+  public boolean intersects(final IdnSet other) {
+    return ints.intersects(other.ints);
+  }
+
+  /**
+   * Speichert zusammenhängende Bereiche als Läufe. Sinnvoll vor dem
+   * langfristigen Aufheben oder Speichern großer Mengen.
+   */
+  public void optimize() {
+    ints.runOptimize();
+  }
+
+  /**
+   *
+   * @return  ungefährer Speicherbedarf in Byte
+   */
+  public long getSizeInBytes() {
+    return ints.getSizeInBytes();
+  }
+
+  /**
+   * Speichert die Menge kompakt, s. {@link CompressedIntSet#save(Path)}.
+   *
+   * @param path  nicht null, wird überschrieben
+   * @throws IOException  beim Schreiben
+   */
+  public void save(final Path path) throws IOException {
+    ints.save(path);
+  }
+
+  /**
+   * Lädt eine mit {@link #save(Path)} gespeicherte Menge über eine in den
+   * Speicher abgebildete Datei.
+   *
+   * @param path  nicht null
+   * @return      neue Menge
+   * @throws IOException  beim Lesen
+   */
+  public static IdnSet load(final Path path) throws IOException {
+    return new IdnSet(CompressedIntSet.load(path));
+  }
+
+  /**
+   * Bildet eine mit {@link #save(Path)} gespeicherte Menge in den Speicher
+   * ab, ohne sie aufzubauen. Abfragen dann mit
+   * contains({@link IDNUtils#idn2int(String)}).
+   *
+   * @param path  nicht null
+   * @return      unveränderliche Sicht
+   * @throws IOException  beim Lesen
+   */
+  public static MappedIntSet map(final Path path) throws IOException {
+    return MappedIntSet.open(path);
+  }
+
+  /**
+   * Vereinigung beliebig vieler Mengen in einem Durchgang.
+   *
+   * @param sets  nicht null
+   * @return      neue Menge, die Operanden bleiben unverändert
+   */
+  public static IdnSet union(final IdnSet... sets) {
+    return new IdnSet(CompressedIntSet.union(unwrap(sets)));
+  }
+
+  /**
+   * Schnitt beliebig vieler Mengen in einem Durchgang.
+   *
+   * @param sets  nicht null, nicht leer
+   * @return      neue Menge, die Operanden bleiben unverändert
+   */
+  public static IdnSet intersection(final IdnSet... sets) {
+    return new IdnSet(CompressedIntSet.intersection(unwrap(sets)));
+  }
+
+  /**
+   * Alle Idns aus base, die in keiner der anderen Mengen vorkommen ("in A,
+   * aber nicht in B oder C"). Die Vereinigung der anderen wird nicht
+   * gebildet.
+   *
+   * @param base    nicht null
+   * @param others  nicht null
+   * @return        neue Menge, die Operanden bleiben unverändert
+   */
+  public static IdnSet difference(final IdnSet base, final IdnSet... others) {
+    return new IdnSet(CompressedIntSet.difference(base.ints, unwrap(others)));
+  }
+
+  private static CompressedIntSet[] unwrap(final IdnSet[] sets) {
+    final CompressedIntSet[] unwrapped = new CompressedIntSet[sets.length];
+    for (int i = 0; i < sets.length; i++)
+      unwrapped[i] = sets[i].ints;
+    return unwrapped;
+  }
+
+  /**
+   * Liest die Idns aller Datensätze, die der Reader noch liefert. Die
+   * Datensätze werden nicht geparst, die Idn wird der ersten Zeile
+   * entnommen (s. {@link IDNUtils#extractPPNfromFirstLine(CharSequence)}).
+   *
+   * @param reader  nicht null, wird nicht geschlossen
+   * @return        neue Menge
+   */
+  public static IdnSet fromRecords(final RecordReader reader) {
+    Objects.requireNonNull(reader);
+    final IdnSet set = new IdnSet();
+    while (reader.hasNext()) {
+      final String idn = IDNUtils.extractPPNfromFirstLine(reader.nextRecordString());
+      if (idn != null)
+        set.add(IDNUtils.idn2int(idn));
+    }
+    return set;
+  }
+
+  /**
+   * Liest eine Textdatei (UTF-8) mit einer Idn am Anfang jeder Zeile, etwa
+   * eine Liste von Idns oder eine Tabelle mit Idns in der ersten Spalte.
+   * Zeilen, die nicht mit einer Idn beginnen, werden übergangen.
+   *
+   * @param path            nicht null
+   * @param mitPruefziffer  die Idns stehen mit Prüfziffer in der Datei
+   *                        (4093770-7, 118696424), andernfalls als Zahl
+   *                        ohne Prüfziffer
+   * @return                neue Menge
+   * @throws IOException    beim Lesen
+   */
+  public static IdnSet fromIdnFile(final Path path, final boolean mitPruefziffer)
+    throws IOException {
+    Objects.requireNonNull(path);
+    final IdnSet set = new IdnSet();
+    try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        int start = 0;
+        while (start < line.length() && Character.isWhitespace(line.charAt(start)))
+          start++;
+        int end = start;
+        while (end < line.length() && !isSeparator(line.charAt(end)))
+          end++;
+        if (end == start)
+          continue;
+        if (mitPruefziffer) {
+          final String idn = line.substring(start, end);
+          if (IDNUtils.isKorrekteIDN(idn))
+            set.add(IDNUtils.idn2int(idn));
+        } else {
+          // ohne Zwischenstring:
+          long value = 0;
+          int i = start;
+          while (i < end && value <= Integer.MAX_VALUE) {
+            final char c = line.charAt(i);
+            if (c < '0' || c > '9')
+              break;
+            value = 10 * value + c - '0';
+            i++;
+          }
+          if (i == end && value <= Integer.MAX_VALUE)
+            set.add((int) value);
+        }
+      }
+    }
+    return set;
+  }
+
+  private static boolean isSeparator(final char c) {
+    return Character.isWhitespace(c) || c == ';' || c == ',';
   }
 
   @Override
@@ -300,14 +516,14 @@ public class IdnSet implements Set<Integer>, Serializable {
     } else {
       int next = -1;
       for (int i = 0; i < max; i++) {
-        next = bitSet.nextSetBit(next + 1);
+        next = ints.nextValue(next + 1);
         retV += next + ", ";
       }
-      next = size + 1;
+      int previous = ints.last();
       String s = "";
       for (int i = 0; i < max; i++) {
-        next = bitSet.previousSetBit(next - 1);
-        s = ", " + next + s;
+        s = ", " + previous + s;
+        previous = ints.previousValue(previous - 1);
       }
       retV = retV + "..." + s;
     }
@@ -316,7 +532,7 @@ public class IdnSet implements Set<Integer>, Serializable {
 
   @Override
   public void clear() {
-    bitSet.clear();
+    ints.clear();
   }
 
   public static void main(final String[] args) {
@@ -334,6 +550,9 @@ public class IdnSet implements Set<Integer>, Serializable {
     }
     System.out.println(("mem: " + (rt.totalMemory() - rt.freeMemory()) / 1_000_000));
     System.out.println("Einfügen set1: " + TimeUtils.delta_t_millis());
+    System.out.println("Größe set1: " + set.getSizeInBytes() + " Byte");
+    set.optimize();
+    System.out.println("Größe set1 nach optimize(): " + set.getSizeInBytes() + " Byte");
     TimeUtils.startStopWatch();
     final Set<Integer> integers = new HashSet<>();
     for (int i = 0; i < 280_000; i++) {
@@ -369,7 +588,7 @@ public class IdnSet implements Set<Integer>, Serializable {
    *
    */
   public IdnSet() {
-    bitSet = new BitSet();
+    ints = new CompressedIntSet();
   }
 
   /**
@@ -378,7 +597,37 @@ public class IdnSet implements Set<Integer>, Serializable {
    * @param other nicht null
    */
   public IdnSet(final IdnSet other) {
-    bitSet = (BitSet) other.bitSet.clone();
+    ints = new CompressedIntSet(other.ints);
+  }
+
+  private IdnSet(final CompressedIntSet ints) {
+    this.ints = ints;
+  }
+
+  private void writeObject(final ObjectOutputStream out) throws IOException {
+    final ObjectOutputStream.PutField fields = out.putFields();
+    fields.put("ints", ints);
+    out.writeFields();
+  }
+
+  /**
+   * Liest auch die frühere Form, in der die Idns in einem {@link BitSet}
+   * namens bitSet standen.
+   */
+  private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+    final ObjectInputStream.GetField fields = in.readFields();
+    final CompressedIntSet read = (CompressedIntSet) fields.get("ints", null);
+    if (read != null) {
+      ints = read;
+      return;
+    }
+    final BitSet bitSet = (BitSet) fields.get("bitSet", null);
+    if (bitSet == null)
+      throw new InvalidObjectException("IdnSet ohne Inhalt");
+    ints = new CompressedIntSet();
+    for (int i = bitSet.nextSetBit(0); i >= 0; i = bitSet.nextSetBit(i + 1)) {
+      ints.add(i);
+    }
   }
 
   /**
@@ -3,6 +3,7 @@
  */
 package de.dnb.gnd.utils;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.Objects;
@@ -43,22 +44,63 @@ public class Komprimierer extends DownloadWorker {
     void
     komprimiere(final String inputFolder, final String filePrefix, final String gzipFileName)
       throws IOException {
+    komprimiere(inputFolder, filePrefix, gzipFileName, 1);
+  }
+
+  /**
+   *
+   * @param inputFolder
+   *            Ordner der Download-Dateien
+   * @param filePrefix
+   *            gemeinsames Präfix aller Download-Dateien
+   * @param gzipFileName
+   *            Zu beschreibende Datei im selben Ordner
+   * @param threads
+   *            > 0, s. {@link #setThreads(int)}; die Reihenfolge der
+   *            Datensätze bleibt erhalten
+   * @throws IOException
+   *             Wenn die zu lesenden Dateien nicht existieren
+   */
+  public static void komprimiere(
+    final String inputFolder,
+    final String filePrefix,
+    final String gzipFileName,
+    final int threads)
+    throws IOException {
     final Komprimierer komprimierer = new Komprimierer();
     komprimierer.setInputFolder(inputFolder);
     komprimierer.setFilePrefix(filePrefix);
-    komprimierer.out = MyFileUtils.getGZipPrintStream(gzipFileName);
+    komprimierer.setThreads(threads);
+    komprimierer.outputStream = new PrintStream(
+      new BufferedOutputStream(MyFileUtils.getGZipOutputStream(gzipFileName), 1 << 16), false,
+      "UTF-8");
     komprimierer.processAllFiles();
-    MyFileUtils.safeClose(komprimierer.out);
+    MyFileUtils.safeClose(komprimierer.outputStream);
 
   }
 
-  private PrintStream out;
+  /**
+   * Je Thread ein Puffer, in den {@link #writers} schreibt. Der fertige
+   * Datensatz geht über {@link #print(String)} hinaus, damit er bei
+   * mehreren Threads an seinem Platz in der Ausgabe landet.
+   */
+  private final ThreadLocal<StringBuilder> buffers =
+    ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+  /**
+   * Schreibt wie {@link #toGZip(Record)} in den Puffer des Threads.
+   */
+  private final ThreadLocal<PicaWriter> writers = ThreadLocal.withInitial(
+    () -> new PicaWriter(buffers.get()).setFormat(Format.PICA_PLUS)
+      .setLineSeparator(Constants.RS).setSubfieldSeparator(Constants.MARC_SUB_SEP));
 
   @Override
   protected void processRecord(final Record record) {
-    final String recS = toGZip(record);
-    out.println(recS);
-    System.err.println(recS);
+    final StringBuilder buffer = buffers.get();
+    buffer.setLength(0);
+    writers.get().write(record);
+    buffer.append(Constants.LINE_SEPARATOR);
+    print(buffer.toString());
   }
 
   /**
@@ -0,0 +1,136 @@
+package de.dnb.gnd.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import de.dnb.basics.applicationComponents.tuples.Triplett;
+
+/**
+ * Ergebnis der Suche eines Namens mit {@link IDNFinder#match(String)} oder
+ * {@link IDNFinderLeven#match(String)}: gefundene Idns, deren Namen, Level
+ * und Abstand. Unveränderlich.
+ *
+ * @author baumann
+ *
+ */
+public final class NameMatch {
+
+  /**
+   * Level, wenn nichts gefunden wurde.
+   */
+  public static final int KEIN_TREFFER = 9;
+
+  private final String name;
+
+  private final List<String> idns;
+
+  private final Set<String> names;
+
+  private final int level;
+
+  private final int distance;
+
+  /**
+   *
+   * @param name      gesuchter Name in der ursprünglichen Form
+   * @param idns      nicht null
+   * @param names     nicht null
+   * @param level     1 bis {@link #KEIN_TREFFER}
+   * @param distance  Editdistanz oder -1
+   */
+  NameMatch(
+    final String name,
+    final List<String> idns,
+    final Set<String> names,
+    final int level,
+    final int distance) {
+    this.name = name;
+    this.idns = Collections.unmodifiableList(idns);
+    this.names = Collections.unmodifiableSet(names);
+    this.level = level;
+    this.distance = distance;
+  }
+
+  /**
+   *
+   * @param name  gesuchter Name, auch null
+   * @return      Ergebnis ohne Treffer
+   */
+  static NameMatch keinTreffer(final String name) {
+    return new NameMatch(name, Collections.emptyList(), Collections.emptySet(), KEIN_TREFFER,
+      -1);
+  }
+
+  /**
+   *
+   * @return  gesuchter Name in der ursprünglichen Form, auch null
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   *
+   * @return  Idns der Treffer, nicht null, nicht modifizierbar
+   */
+  public List<String> getIdns() {
+    return idns;
+  }
+
+  /**
+   *
+   * @return  1XX der Treffer in der ursprünglichen Form, nicht null, nicht
+   *          modifizierbar
+   */
+  public Set<String> getNames() {
+    return names;
+  }
+
+  /**
+   *
+   * @return  Level, s. {@link IDNFinder#find(String)} und
+   *          {@link IDNFinderLeven#find(String)}
+   */
+  public int getLevel() {
+    return level;
+  }
+
+  /**
+   *
+   * @return  Editdistanz zwischen dem normierten Namen und dem gefundenen
+   *          normierten 1XX oder 4XX (0 bei Gleichheit, bei der Suche nach
+   *          dem längsten Präfix die Zahl der übergangenen Zeichen); -1,
+   *          wenn nichts gefunden wurde
+   */
+  public int getDistance() {
+    return distance;
+  }
+
+  /**
+   *
+   * @return  true, wenn etwas gefunden wurde
+   */
+  public boolean isFound() {
+    return level != KEIN_TREFFER;
+  }
+
+  /**
+   *
+   * @return  Idns, Namen und Level wie von {@link IDNFinder#find(String)}:
+   *          Kopien, also veränderbar; die Idns als Liste, die Namen als
+   *          Set
+   */
+  public Triplett<Collection<String>, Collection<String>, Integer> toTriplett() {
+    return new Triplett<>(new ArrayList<>(idns), new LinkedHashSet<>(names), level);
+  }
+
+  @Override
+  public String toString() {
+    return "<" + name + ", " + idns + ", " + names + ", " + level + ", " + distance + ">";
+  }
+
+}
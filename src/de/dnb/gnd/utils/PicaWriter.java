@@ -0,0 +1,198 @@
+package de.dnb.gnd.utils;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import de.dnb.basics.Constants;
+import de.dnb.basics.filtering.RangeCheckUtils;
+import de.dnb.gnd.parser.Format;
+import de.dnb.gnd.parser.Record;
+
+/**
+ * Schreibt Datensätze in pica3 oder pica+ direkt auf ein {@link Appendable}
+ * (Writer, PrintStream ...) oder einen {@link OutputStream} (UTF-8).
+ * <br><br>
+ * Die Ausgabe eines Datensatzes entspricht
+ * {@link RecordUtils#toPica(Record, Format, boolean, String, char)}, es
+ * werden aber keine Zwischenstrings je Zeile oder Unterfeld erzeugt. Der
+ * Datensatz wird in einem wiederverwendeten Puffer aufgebaut und, wenn das
+ * Ziel ein Writer ist, ohne weitere Kopie als String geschrieben.
+ * <br><br>
+ * Die Unicode-Composition erfolgt nur, wenn der Datensatz Zeichen ab U+0300
+ * enthält und nicht schon in NFC vorliegt. Ist bekannt, dass alle Inhalte
+ * in NFC vorliegen, kann auch diese Prüfung mit
+ * {@link #setInputNormalized(boolean)} abgeschaltet werden.
+ * <br><br>
+ * Nicht threadsicher.
+ *
+ * @author baumann
+ *
+ */
+public class PicaWriter implements Closeable, Flushable {
+
+  private final Appendable out;
+
+  private final Writer writer;
+
+  private final StringBuilder builder = new StringBuilder(4096);
+
+  private char[] chars = new char[4096];
+
+  private Format format = Format.PICA3;
+
+  private boolean expanded = true;
+
+  private String lineSeparator = Constants.LINE_SEPARATOR;
+
+  private char subfieldSeparator = Constants.DOLLAR;
+
+  private boolean inputNormalized = false;
+
+  /**
+   *
+   * @param out nicht null, wird von {@link #close()} geschlossen, wenn
+   *            Closeable
+   */
+  public PicaWriter(final Appendable out) {
+    RangeCheckUtils.assertReferenceParamNotNull("out", out);
+    this.out = out;
+    writer = out instanceof Writer ? (Writer) out : null;
+  }
+
+  /**
+   *
+   * @param out nicht null, wird gepuffert und in UTF-8 beschrieben
+   */
+  public PicaWriter(final OutputStream out) {
+    this(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16));
+  }
+
+  /**
+   *
+   * @param aFormat pica3 oder pica+, Default ist pica3
+   * @return        this
+   */
+  public PicaWriter setFormat(final Format aFormat) {
+    RangeCheckUtils.assertReferenceParamNotNull("aFormat", aFormat);
+    format = aFormat;
+    return this;
+  }
+
+  /**
+   *
+   * @param isExpanded  mit Expansionen ausgeben, Default ist true
+   * @return            this
+   */
+  public PicaWriter setExpanded(final boolean isExpanded) {
+    expanded = isExpanded;
+    return this;
+  }
+
+  /**
+   *
+   * @param aLineSeparator  nicht null, Default ist
+   *                        {@link Constants#LINE_SEPARATOR}
+   * @return                this
+   */
+  public PicaWriter setLineSeparator(final String aLineSeparator) {
+    RangeCheckUtils.assertReferenceParamNotNull("aLineSeparator", aLineSeparator);
+    lineSeparator = aLineSeparator;
+    return this;
+  }
+
+  /**
+   *
+   * @param aSubfieldSeparator  Default ist $
+   * @return                    this
+   */
+  public PicaWriter setSubfieldSeparator(final char aSubfieldSeparator) {
+    subfieldSeparator = aSubfieldSeparator;
+    return this;
+  }
+
+  /**
+   *
+   * @param normalized  true, wenn alle Inhalte schon in NFC vorliegen. Dann
+   *                    entfällt die Unicode-Composition ganz.
+   * @return            this
+   */
+  public PicaWriter setInputNormalized(final boolean normalized) {
+    inputNormalized = normalized;
+    return this;
+  }
+
+  /**
+   * Schreibt den Datensatz (ohne abschließenden Zeilen- oder
+   * Datensatztrenner).
+   *
+   * @param record  nicht null
+   * @throws UncheckedIOException bei Schreibfehlern
+   */
+  public void write(final Record record) {
+    RangeCheckUtils.assertReferenceParamNotNull("record", record);
+    builder.setLength(0);
+    RecordUtils.appendPica(builder, record, format, expanded, lineSeparator, subfieldSeparator);
+    if (!inputNormalized)
+      RecordUtils.composeIfNeeded(builder, 0);
+    // wie String.trim():
+    int start = 0;
+    int end = builder.length();
+    while (start < end && builder.charAt(start) <= ' ')
+      start++;
+    while (end > start && builder.charAt(end - 1) <= ' ')
+      end--;
+    writeBuffer(start, end);
+  }
+
+  /**
+   * Schreibt beliebigen Text, etwa Datensatztrenner.
+   *
+   * @param csq nicht null
+   * @return    this
+   * @throws UncheckedIOException bei Schreibfehlern
+   */
+  public PicaWriter append(final CharSequence csq) {
+    try {
+      out.append(csq);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return this;
+  }
+
+  private void writeBuffer(final int start, final int end) {
+    try {
+      if (writer != null) {
+        final int length = end - start;
+        if (chars.length < length)
+          chars = new char[Math.max(length, 2 * chars.length)];
+        builder.getChars(start, end, chars, 0);
+        writer.write(chars, 0, length);
+      } else {
+        out.append(builder, start, end);
+      }
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (out instanceof Flushable)
+      ((Flushable) out).flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (out instanceof Closeable)
+      ((Closeable) out).close();
+  }
+
+}
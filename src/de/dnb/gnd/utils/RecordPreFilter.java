@@ -0,0 +1,439 @@
+package de.dnb.gnd.utils;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+import de.dnb.basics.Constants;
+import de.dnb.basics.filtering.ByteAhoCorasick;
+import de.dnb.basics.filtering.RangeCheckUtils;
+import de.dnb.gnd.parser.RawRecordFilter;
+import de.dnb.gnd.parser.tag.Tag;
+import de.dnb.gnd.parser.tag.TagDB;
+
+/**
+ * Vorfilter für {@link de.dnb.gnd.parser.RecordReader#setStreamFilter},
+ * der auf den undekodierten Bytes der Datensätze arbeitet: Abgelehnte
+ * Datensätze werden nie zu Strings. Gedacht für selektive Durchläufe über
+ * große Abzüge, etwa alle Titel mit 1131.
+ * <br><br>
+ * Ein Filter ist ein boolescher Ausdruck aus
+ * <ul>
+ * <li>Tests auf vorhandene Felder ({@link #containsTag(String, TagDB)},
+ * {@link #containsAnyTag(TagDB, String...)}, auch mit Indikator und
+ * Anfang des Inhalts) und
+ * <li>Tests auf Teilstrings ({@link #contains(String...)}),
+ * </ul>
+ * verknüpft mit {@link #and(RecordPreFilter...)},
+ * {@link #or(RecordPreFilter...)} und {@link #not(RecordPreFilter)}
+ * (fehlende Felder: not(containsTag(...))). Alle Muster des Ausdrucks
+ * werden in einem Aho-Corasick-Automaten ({@link ByteAhoCorasick})
+ * zusammengefasst, der den Datensatz einmal durchläuft. Der Durchlauf
+ * endet, sobald das Ergebnis feststeht (dreiwertige Auswertung).
+ * <br><br>
+ * Wie bei {@link ContainsTag} wird das Pica+-Format der Abzüge erwartet:
+ * Felder beginnen mit RS, auf den Tag folgen Blank und US; nur 001A steht
+ * ohne RS am Anfang. Höchstens {@value ByteAhoCorasick#MAX_GROUPS}
+ * einzelne Tests je Ausdruck. Unveränderlich und threadsicher.
+ *
+ * @author baumann
+ *
+ */
+public abstract class RecordPreFilter implements Predicate<String>, RawRecordFilter {
+
+  private static final byte TRUE = 1;
+
+  private static final byte FALSE = 0;
+
+  private static final byte UNKNOWN = -1;
+
+  /**
+   * Übersetzter Ausdruck, passend zu {@link Compiled#charset}.
+   */
+  private volatile Compiled compiled;
+
+  RecordPreFilter() {
+  }
+
+  // ------- Erzeugen: ----------------------------------------------------
+
+  /**
+   * Das Feld kommt vor.
+   *
+   * @param pica3 nicht null, Pica3-Tag
+   * @param db    nicht null
+   * @return      neuen Filter
+   */
+  public static RecordPreFilter containsTag(final String pica3, final TagDB db) {
+    return containsAnyTag(db, pica3);
+  }
+
+  /**
+   * Eines der Felder kommt vor.
+   *
+   * @param db    nicht null
+   * @param pica3 nicht leer, Pica3-Tags
+   * @return      neuen Filter
+   */
+  public static RecordPreFilter containsAnyTag(final TagDB db, final String... pica3) {
+    RangeCheckUtils.assertReferenceParamNotNull("db", db);
+    RangeCheckUtils.assertReferenceParamNotNull("pica3", pica3);
+    if (pica3.length == 0)
+      throw new IllegalArgumentException("keine Tags");
+    final String[] patterns = new String[pica3.length];
+    for (int i = 0; i < pica3.length; i++) {
+      patterns[i] = fieldStart(getPicaPlus(pica3[i], db));
+    }
+    return new Leaf(patterns);
+  }
+
+  /**
+   * Das Feld kommt vor und beginnt mit Indikator und prefix.
+   *
+   * @param pica3     nicht null, Pica3-Tag
+   * @param indicator Indikator des ersten Unterfelds
+   * @param prefix    nicht null, Anfang des Unterfelds
+   * @param db        nicht null
+   * @return          neuen Filter
+   */
+  public static RecordPreFilter containsTag(
+    final String pica3,
+    final char indicator,
+    final String prefix,
+    final TagDB db) {
+    RangeCheckUtils.assertReferenceParamNotNull("db", db);
+    RangeCheckUtils.assertReferenceParamNotNull("prefix", prefix);
+    return new Leaf(fieldStart(getPicaPlus(pica3, db)) + indicator + prefix);
+  }
+
+  /**
+   * Einer der Teilstrings kommt vor.
+   *
+   * @param substrings  nicht leer, keiner leer
+   * @return            neuen Filter
+   */
+  public static RecordPreFilter contains(final String... substrings) {
+    RangeCheckUtils.assertReferenceParamNotNull("substrings", substrings);
+    if (substrings.length == 0)
+      throw new IllegalArgumentException("keine Teilstrings");
+    for (final String substring : substrings) {
+      RangeCheckUtils.assertStringParamNotNullOrEmpty("substring", substring);
+    }
+    return new Leaf(substrings.clone());
+  }
+
+  /**
+   * Ein Unterfeld mit Indikator und prefix kommt irgendwo vor (wie
+   * {@link de.dnb.basics.filtering.StringContains#containsSubfield(char, String)}).
+   *
+   * @param indicator Indikator
+   * @param prefix    auch null
+   * @return          neuen Filter
+   */
+  public static RecordPreFilter containsSubfield(final char indicator, final String prefix) {
+    return new Leaf(Constants.US + indicator + (prefix == null ? "" : prefix));
+  }
+
+  /**
+   *
+   * @param filters nicht leer
+   * @return        alle treffen zu
+   */
+  public static RecordPreFilter and(final RecordPreFilter... filters) {
+    return new Junction(true, filters);
+  }
+
+  /**
+   *
+   * @param filters nicht leer
+   * @return        mindestens einer trifft zu
+   */
+  public static RecordPreFilter or(final RecordPreFilter... filters) {
+    return new Junction(false, filters);
+  }
+
+  /**
+   *
+   * @param filter  nicht null
+   * @return        filter trifft nicht zu
+   */
+  public static RecordPreFilter not(final RecordPreFilter filter) {
+    return new Not(filter);
+  }
+
+  /**
+   *
+   * @param other nicht null
+   * @return      this und other
+   */
+  public RecordPreFilter and(final RecordPreFilter other) {
+    return and(this, other);
+  }
+
+  /**
+   *
+   * @param other nicht null
+   * @return      this oder other
+   */
+  public RecordPreFilter or(final RecordPreFilter other) {
+    return or(this, other);
+  }
+
+  @Override
+  public RecordPreFilter negate() {
+    return not(this);
+  }
+
+  private static String getPicaPlus(final String pica3, final TagDB db) {
+    RangeCheckUtils.assertStringParamNotNullOrEmpty("pica3", pica3);
+    final Tag tag = db.getPica3(pica3);
+    if (tag == null)
+      throw new IllegalArgumentException("Tag unbekannt: " + pica3);
+    return tag.picaPlus;
+  }
+
+  /**
+   * Wie in {@link ContainsTag}.
+   */
+  private static String fieldStart(final String picaPlus) {
+    final String tagPlusUS = picaPlus + " " + Constants.US;
+    return picaPlus.equals("001A") ? tagPlusUS : Constants.RS + tagPlusUS;
+  }
+
+  // ------- Auswerten: ---------------------------------------------------
+
+  @Override
+  public final boolean test(final String recordStr) {
+    return evaluate(recordStr);
+  }
+
+  @Override
+  public final boolean test(
+    final byte[] buffer,
+    final int offset,
+    final int length,
+    final Charset charset) {
+    Compiled c = compiled;
+    if (c == null || !c.charset.equals(charset)) {
+      c = new Compiled(this, charset);
+      compiled = c;
+    }
+    final long found = c.automaton.search(buffer, offset, length, c.decided);
+    return c.root.evaluate(found, true) == TRUE;
+  }
+
+  /**
+   * Auswertung auf einem String, Test für Test.
+   */
+  abstract boolean evaluate(String recordStr);
+
+  /**
+   * Sammelt die Tests und baut den Knoten für die Auswertung.
+   *
+   * @param leaves  Test -> Gruppe im Automaten
+   */
+  abstract Node compile(Map<Leaf, Integer> leaves);
+
+  /**
+   * Knoten eines übersetzten Ausdrucks.
+   */
+  private abstract static class Node {
+
+    /**
+     *
+     * @param found     gefundene Tests
+     * @param finished  true: nicht gefundene Tests kommen nicht mehr vor
+     * @return          {@link #TRUE}, {@link #FALSE} oder {@link #UNKNOWN}
+     */
+    abstract byte evaluate(long found, boolean finished);
+
+  }
+
+  /**
+   * Automat und Ausdruck für einen Zeichensatz.
+   */
+  private static final class Compiled {
+
+    private final Charset charset;
+
+    private final ByteAhoCorasick automaton;
+
+    private final Node root;
+
+    /**
+     * Abbruch der Suche, sobald das Ergebnis feststeht.
+     */
+    private final LongPredicate decided;
+
+    Compiled(final RecordPreFilter filter, final Charset charset) {
+      this.charset = charset;
+      final Map<Leaf, Integer> leaves = new IdentityHashMap<>();
+      root = filter.compile(leaves);
+      final List<byte[]> patterns = new ArrayList<>();
+      final List<Integer> groups = new ArrayList<>();
+      leaves.forEach((leaf, group) ->
+      {
+        for (final String pattern : leaf.patterns) {
+          patterns.add(pattern.getBytes(charset));
+          groups.add(group);
+        }
+      });
+      final int[] groupArray = new int[groups.size()];
+      for (int i = 0; i < groupArray.length; i++) {
+        groupArray[i] = groups.get(i);
+      }
+      automaton = new ByteAhoCorasick(patterns.toArray(new byte[0][]), groupArray);
+      decided = found -> root.evaluate(found, false) != UNKNOWN;
+    }
+
+  }
+
+  /**
+   * Ein Test: mindestens eines der Muster kommt vor.
+   */
+  private static final class Leaf extends RecordPreFilter {
+
+    private final String[] patterns;
+
+    Leaf(final String... patterns) {
+      this.patterns = patterns;
+    }
+
+    @Override
+    boolean evaluate(final String recordStr) {
+      for (final String pattern : patterns) {
+        if (recordStr.contains(pattern))
+          return true;
+      }
+      return false;
+    }
+
+    @Override
+    Node compile(final Map<Leaf, Integer> leaves) {
+      Integer group = leaves.get(this);
+      if (group == null) {
+        group = leaves.size();
+        if (group >= ByteAhoCorasick.MAX_GROUPS)
+          throw new IllegalArgumentException(
+            "mehr als " + ByteAhoCorasick.MAX_GROUPS + " Tests in einem Filter");
+        leaves.put(this, group);
+      }
+      final long bit = 1L << group;
+      return new Node() {
+        @Override
+        byte evaluate(final long found, final boolean finished) {
+          if ((found & bit) != 0)
+            return TRUE;
+          return finished ? FALSE : UNKNOWN;
+        }
+      };
+    }
+
+    @Override
+    public String toString() {
+      return "contains" + Arrays.toString(patterns).replace(Constants.RS, "RS")
+        .replace(Constants.US, "US");
+    }
+
+  }
+
+  /**
+   * and (all = true) oder or.
+   */
+  private static final class Junction extends RecordPreFilter {
+
+    private final boolean all;
+
+    private final RecordPreFilter[] filters;
+
+    Junction(final boolean all, final RecordPreFilter... filters) {
+      RangeCheckUtils.assertReferenceParamNotNull("filters", filters);
+      if (filters.length == 0)
+        throw new IllegalArgumentException("keine Filter");
+      for (final RecordPreFilter filter : filters) {
+        RangeCheckUtils.assertReferenceParamNotNull("filter", filter);
+      }
+      this.all = all;
+      this.filters = filters.clone();
+    }
+
+    @Override
+    boolean evaluate(final String recordStr) {
+      for (final RecordPreFilter filter : filters) {
+        if (filter.evaluate(recordStr) != all)
+          return !all;
+      }
+      return all;
+    }
+
+    @Override
+    Node compile(final Map<Leaf, Integer> leaves) {
+      final Node[] nodes = new Node[filters.length];
+      for (int i = 0; i < nodes.length; i++) {
+        nodes[i] = filters[i].compile(leaves);
+      }
+      // and: FALSE entscheidet, or: TRUE entscheidet
+      final byte decisive = all ? FALSE : TRUE;
+      final byte otherwise = all ? TRUE : FALSE;
+      return new Node() {
+        @Override
+        byte evaluate(final long found, final boolean finished) {
+          byte result = otherwise;
+          for (final Node node : nodes) {
+            final byte value = node.evaluate(found, finished);
+            if (value == decisive)
+              return decisive;
+            if (value == UNKNOWN)
+              result = UNKNOWN;
+          }
+          return result;
+        }
+      };
+    }
+
+    @Override
+    public String toString() {
+      return (all ? "and" : "or") + Arrays.toString(filters);
+    }
+
+  }
+
+  private static final class Not extends RecordPreFilter {
+
+    private final RecordPreFilter filter;
+
+    Not(final RecordPreFilter filter) {
+      RangeCheckUtils.assertReferenceParamNotNull("filter", filter);
+      this.filter = filter;
+    }
+
+    @Override
+    boolean evaluate(final String recordStr) {
+      return !filter.evaluate(recordStr);
+    }
+
+    @Override
+    Node compile(final Map<Leaf, Integer> leaves) {
+      final Node node = filter.compile(leaves);
+      return new Node() {
+        @Override
+        byte evaluate(final long found, final boolean finished) {
+          final byte value = node.evaluate(found, finished);
+          return value == UNKNOWN ? UNKNOWN : value == TRUE ? FALSE : TRUE;
+        }
+      };
+    }
+
+    @Override
+    public String toString() {
+      return "not[" + filter + "]";
+    }
+
+  }
+
+}
@@ -5,6 +5,8 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.text.Normalizer;
+import java.text.Normalizer.Form;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -52,6 +54,7 @@ import de.dnb.gnd.parser.tag.GNDTagDB;
 import de.dnb.gnd.parser.tag.SWDTagDB;
 import de.dnb.gnd.parser.tag.Tag;
 import de.dnb.gnd.parser.tag.TagDB;
+import de.dnb.gnd.parser.tag.TagSelector;
 import de.dnb.gnd.utils.formatter.RDAFormatter;
 
 /**
@@ -114,8 +117,7 @@ public final class RecordUtils {
 	public static boolean containsField(final Record record, final Tag tag) {
 		RangeCheckUtils.assertReferenceParamNotNull("tag", tag);
 		RangeCheckUtils.assertReferenceParamNotNull("tag", tag);
-		final Field field = record.getField(tag);
-		return field != null;
+		return record.containsTag(tag);
 	}
 
 	/**
@@ -129,8 +131,19 @@ public final class RecordUtils {
 		RangeCheckUtils.assertReferenceParamNotNull("record", record);
 		RangeCheckUtils.assertReferenceParamNotNull("tag", tag);
 		final Tag tag2 = record.tagDB.findTag(tag);
-		final Field field = record.getField(tag2);
-		return field != null;
+		return record.containsTag(tag2);
+	}
+
+	/**
+	 * Enthält der Record ein Feld, dessen Tag selector erfüllt?
+	 *
+	 * @param record	nicht null.
+	 * @param selector	nicht null.
+	 * @return			true, wenn ein passender Tag im record vorkommt.
+	 */
+	public static boolean containsField(final Record record, final TagSelector selector) {
+		RangeCheckUtils.assertReferenceParamNotNull("selector", selector);
+		return selector.containsAny(record);
 	}
 
 	/**
@@ -168,12 +181,12 @@ public final class RecordUtils {
 		final char indicator) {
 		RangeCheckUtils.assertReferenceParamNotNull("record", record);
 		RangeCheckUtils.assertStringParamNotNullOrEmpty("tag", tag);
-		final Field field = getFieldGivenAsString(record, tag);
-		if (field == null) {
+		final List<Line> lines = getLinesView(record, tag);
+		if (lines.isEmpty()) {
 			return Collections.emptyList();
 		}
 
-		return SubfieldUtils.getContentsOfFirstSubfields(field, indicator);
+		return SubfieldUtils.getContentsOfFirstSubfields(lines, indicator);
 	}
 
 	/**
@@ -344,12 +357,12 @@ public final class RecordUtils {
 	public static Pair<Line, Integer> getFirstLine(final Record record, final Tag tag) {
 		RangeCheckUtils.assertReferenceParamNotNull("record", record);
 		RangeCheckUtils.assertReferenceParamNotNull("tag", tag);
-		final Field field = record.getField(tag);
-		if (field == null) {
+		final List<Line> lines = record.getLinesView(tag);
+		if (lines.isEmpty()) {
 			return new Pair<Line, Integer>(null, 0);
 		}
-		final Integer size = field.size();
-		final Line line = field.iterator().next();
+		final Integer size = lines.size();
+		final Line line = lines.get(0);
 		return new Pair<Line, Integer>(line, size);
 	}
 
@@ -435,10 +448,7 @@ public final class RecordUtils {
 		RangeCheckUtils.assertReferenceParamNotNull("tags", tags);
 		final ArrayList<Line> lines = new ArrayList<Line>();
 		for (final Tag tag : tags) {
-			final Field field = record.getField(tag);
-			if (field != null) {
-				lines.addAll(field.getLines());
-			}
+			lines.addAll(record.getLinesView(tag));
 		}
 		return lines;
 	}
@@ -578,8 +588,21 @@ public final class RecordUtils {
 	public static ArrayList<Line> getLines(final Record record, final String pattern) {
 		RangeCheckUtils.assertReferenceParamNotNull("record", record);
 		RangeCheckUtils.assertStringParamNotNullOrWhitespace("pattern", pattern);
-		final Collection<Tag> collection = record.tagDB.findTagPattern(pattern);
-		return getLines(record, collection);
+		return record.tagDB.getTagSelector(pattern).getLines(record);
+	}
+
+	/**
+	 * Liefert zu den Tags, die selector erfüllen, die zugehörigen Zeilen. Für
+	 * Schleifen über viele Datensätze: der Selektor wird einmal mit
+	 * {@link TagDB#getTagSelector(String)} geholt.
+	 *
+	 * @param record   nicht null
+	 * @param selector nicht null
+	 * @return nicht null, modifizierbar.
+	 */
+	public static ArrayList<Line> getLines(final Record record, final TagSelector selector) {
+		RangeCheckUtils.assertReferenceParamNotNull("selector", selector);
+		return selector.getLines(record);
 	}
 
 	/**
@@ -594,17 +617,26 @@ public final class RecordUtils {
 		RangeCheckUtils.assertReferenceParamNotNull("tags", tags);
 		final ArrayList<Line> lines = new ArrayList<Line>();
 		for (final String string : tags) {
-			final Tag tag = record.tagDB.findTag(string);
-			if (tag != null) {
-				final Field field = record.getField(tag);
-				if (field != null) {
-					lines.addAll(field.getLines());
-				}
-			}
+			lines.addAll(record.getLinesView(record.tagDB.findTag(string)));
 		}
 		return lines;
 	}
 
+	/**
+	 * Liefert die zum Tag gehörigen Zeilen ohne Kopie. Nur zum Lesen, zum
+	 * Verändern {@link #getLines(Record, String...)} verwenden.
+	 *
+	 * @param record nicht null
+	 * @param tag    Pica3 oder Pica+, nicht leer
+	 * @return nicht null, unveränderlich. Leer, wenn tag nicht existiert oder
+	 *         nicht vorkommt.
+	 */
+	public static List<Line> getLinesView(final Record record, final String tag) {
+		RangeCheckUtils.assertReferenceParamNotNull("record", record);
+		RangeCheckUtils.assertStringParamNotNullOrEmpty("tag", tag);
+		return record.getLinesView(record.tagDB.findTag(tag));
+	}
+
 	/**
 	 * Liefert alle Zeilen mit Tag aus tags, für die predicate zutrifft.
 	 *
@@ -889,15 +921,10 @@ public final class RecordUtils {
 			final String lineSeparator, final char subfieldSeparator) {
 		RangeCheckUtils.assertReferenceParamNotNull("", lines);
 		RangeCheckUtils.assertReferenceParamNotNull("", format);
-		String s = "";
-		for (final Iterator<Line> iterator = lines.iterator(); iterator.hasNext();) {
-			final Line line = iterator.next();
-			s += toPica(line, format, expanded, subfieldSeparator);
-			if (iterator.hasNext()) {
-				s += lineSeparator;
-			}
-		}
-		return s;
+		final StringBuilder builder = new StringBuilder();
+		appendPica(builder, lines.iterator(), format, expanded, lineSeparator, subfieldSeparator);
+		composeIfNeeded(builder, 0);
+		return builder.toString();
 	}
 
 	/**
@@ -998,24 +1025,68 @@ public final class RecordUtils {
 		if (subfieldSeparator == '0') {
 			subfieldSeparator = Constants.DOLLAR;
 		}
-		String s = "";
-		Iterator<Line> iterator;
-		if (format == Format.PICA3) {
-			iterator = record.iterator();
-		} else {
-			iterator = record.picaPlusIterator();
-		}
+		final StringBuilder builder = new StringBuilder();
+		appendPica(builder, record, format, expanded, lineSeparator, subfieldSeparator);
+		composeIfNeeded(builder, 0);
+		return builder.toString().trim();
+	}
 
-	//@formatter:off
-		for (; iterator.hasNext();) {
-				//@formatter:on
+	/**
+	 * Hängt eine pica3- oder pica+ Repräsentation an builder an. Anders als bei
+	 * {@link #toPica(Record, Format, boolean, String, char)} wird weder
+	 * getrimmt noch eine Unicode-Composition durchgeführt, dafür entstehen
+	 * keine Zwischenstrings. Für ganze Dateien s. {@link PicaWriter}.
+	 *
+	 * @param builder           nicht null
+	 * @param record            nicht null.
+	 * @param format            pica3 oder pica+
+	 * @param expanded          true, wenn Expansion der relationierten Felder
+	 *                          gewünscht ist.
+	 * @param lineSeparator     nicht null
+	 * @param subfieldSeparator in der Regel $
+	 */
+	public static void appendPica(final StringBuilder builder, final Record record, final Format format,
+			final boolean expanded, final String lineSeparator, final char subfieldSeparator) {
+		RangeCheckUtils.assertReferenceParamNotNull("record", record);
+		RangeCheckUtils.assertReferenceParamNotNull("format", format);
+		// Der Iterator hängt vom Format ab:
+		final Iterator<Line> iterator = format == Format.PICA3 ? record.iterator() : record.picaPlusIterator();
+		appendPica(builder, iterator, format, expanded, lineSeparator, subfieldSeparator);
+	}
+
+	private static void appendPica(final StringBuilder builder, final Iterator<Line> iterator, final Format format,
+			final boolean expanded, final String lineSeparator, final char subfieldSeparator) {
+		while (iterator.hasNext()) {
 			final Line line = iterator.next();
-			s += toPica(line, format, expanded, subfieldSeparator);
+			if (line != null)
+				appendPica(builder, line.getTag(), line.getSubfields(format), format, expanded, subfieldSeparator);
 			if (iterator.hasNext()) {
-				s += lineSeparator;
+				builder.append(lineSeparator);
 			}
 		}
-		return s.trim();
+	}
+
+	/**
+	 * Führt die Unicode-Composition auf builder ab Position from durch, aber
+	 * nur, wenn dort überhaupt Zeichen ab U+0300 vorkommen und der Text nicht
+	 * schon in NFC vorliegt. Die Inhalte der Unterfelder sind in der Regel
+	 * schon komponiert, s. {@link Subfield}.
+	 *
+	 * @param builder nicht null
+	 * @param from    Anfang des zu prüfenden Bereichs
+	 */
+	static void composeIfNeeded(final StringBuilder builder, final int from) {
+		final int length = builder.length();
+		int i = from;
+		while (i < length && builder.charAt(i) < '\u0300')
+			i++;
+		if (i == length)
+			return;
+		final CharSequence tail = builder.subSequence(from, length);
+		if (Normalizer.isNormalized(tail, Form.NFC))
+			return;
+		builder.setLength(from);
+		builder.append(StringUtils.unicodeComposition(tail));
 	}
 
 	/**
@@ -1035,14 +1106,30 @@ public final class RecordUtils {
 		RangeCheckUtils.assertReferenceParamNotNull("tag", tag);
 		RangeCheckUtils.assertCollectionParamNotNullOrEmpty("subfields", subfields);
 		RangeCheckUtils.assertReferenceParamNotNull("format", format);
-		String s;
-		if (format == Format.PICA3) {
-			s = tag.pica3;
-		} else {
-			s = tag.picaPlus;
-		}
-		s += " " + toPicaWithoutTag(tag, subfields, format, expanded, subfieldSeparator);
-		return s;
+		final StringBuilder builder = new StringBuilder();
+		appendPica(builder, tag, subfields, format, expanded, subfieldSeparator);
+		composeIfNeeded(builder, 0);
+		return builder.toString();
+	}
+
+	/**
+	 * Hängt eine pica3- oder pica+ Repräsentation an builder an, ohne
+	 * Unicode-Composition. tag muss nicht zu subfields passen!
+	 *
+	 * @param builder           nicht null
+	 * @param tag               nicht null.
+	 * @param subfields         nicht null.
+	 * @param format            pica3 oder pica+
+	 * @param expanded          true, wenn Expansion der relationierten Felder
+	 *                          gewünscht ist.
+	 * @param subfieldSeparator in der Regel $
+	 */
+	public static void appendPica(final StringBuilder builder, final Tag tag, final Collection<Subfield> subfields,
+			final Format format, final boolean expanded, final char subfieldSeparator) {
+		RangeCheckUtils.assertReferenceParamNotNull("tag", tag);
+		RangeCheckUtils.assertReferenceParamNotNull("format", format);
+		builder.append(format == Format.PICA3 ? tag.pica3 : tag.picaPlus).append(' ');
+		appendPicaWithoutTag(builder, tag, subfields, format, expanded, subfieldSeparator);
 	}
 
 	/**
@@ -1063,7 +1150,30 @@ public final class RecordUtils {
 		RangeCheckUtils.assertCollectionParamNotNullOrEmpty("subfields", subfields);
 		RangeCheckUtils.assertReferenceParamNotNull("format", format);
 
-		final String subfieldSeparatorStr = Character.toString(subfieldSeparator);
+		final StringBuilder builder = new StringBuilder();
+		appendPicaWithoutTag(builder, tag, subfields, format, expanded, subfieldSeparator);
+		composeIfNeeded(builder, 0);
+		return builder.toString();
+	}
+
+	/**
+	 * Hängt den Inhalt einer Zeile in pica3 oder pica+ an builder an, ohne
+	 * Unicode-Composition. tag muss nicht zu subfields passen!
+	 *
+	 * @param builder           nicht null
+	 * @param tag               nicht null.
+	 * @param subfields         nicht null oder leer.
+	 * @param format            pica3 oder pica+
+	 * @param expanded          true, wenn Expansion der relationierten Felder
+	 *                          gewünscht ist.
+	 * @param subfieldSeparator Unterfeldtrenner, in der Regel '$' bei Pica3
+	 */
+	public static void appendPicaWithoutTag(final StringBuilder builder, final Tag tag,
+			final Collection<Subfield> subfields, final Format format, final boolean expanded,
+			final char subfieldSeparator) {
+		RangeCheckUtils.assertReferenceParamNotNull("tag", tag);
+		RangeCheckUtils.assertCollectionParamNotNullOrEmpty("subfields", subfields);
+		RangeCheckUtils.assertReferenceParamNotNull("format", format);
 
 		Collection<Subfield> adjusted;
 		if (expanded) {
@@ -1074,24 +1184,30 @@ public final class RecordUtils {
 		if (format == Format.PICA3) {
 			adjusted = getRelevantSubfields(tag, adjusted);
 		}
+		// für "k p" wieder Dollars maskieren:
+		final boolean maskDollars = format == Format.PICA_PLUS && subfieldSeparator == Constants.DOLLAR;
 		boolean isFirst = true;
 		boolean isFirstAttaching = true;
-		String s = "";
 		for (final Subfield subfield : adjusted) {
 			final Indicator indicator = subfield.getIndicator();
 			final char indChar = indicator.indicatorChar;
-			String content = subfield.getContent();
-
-			// für "k p" wieder Dollars maskieren:
-			if (format == Format.PICA_PLUS && subfieldSeparator == Constants.DOLLAR) {
-				content = content.replace("$", "$$");
-			}
+			final String content = subfield.getContent();
 
 			if (format == Format.PICA_PLUS) {
-				s += subfieldSeparatorStr + indChar + content;
+				builder.append(subfieldSeparator).append(indChar);
+				if (maskDollars && content.indexOf(Constants.DOLLAR) >= 0) {
+					for (int i = 0; i < content.length(); i++) {
+						final char c = content.charAt(i);
+						if (c == Constants.DOLLAR)
+							builder.append(c);
+						builder.append(c);
+					}
+				} else {
+					builder.append(content);
+				}
 			} else { // pica3
 				if (isFirst && indicator == tag.getDefaultFirst()) {
-					s += content;
+					builder.append(content);
 				} else if (indicator.prefix != null) {
 					String prefix;
 					// Alternatives Präfix wird benutzt,
@@ -1108,16 +1224,14 @@ public final class RecordUtils {
 						prefix = indicator.prefix;
 					}
 					// postfix != null
-					s += prefix + content + indicator.postfix;
+					builder.append(prefix).append(content).append(indicator.postfix);
 				} else {
 					// Standardverhalten für GND:
-					s += subfieldSeparatorStr + indChar + content;
+					builder.append(subfieldSeparator).append(indChar).append(content);
 				}
 				isFirst = false;
 			}
 		}
-		return StringUtils.unicodeComposition(s);
-
 	}
 
 	/**
@@ -1362,7 +1476,7 @@ public final class RecordUtils {
 	 * @return true, wenn null oder ohne Felder
 	 */
 	public static boolean isNullOrEmpty(final Record record) {
-		return (record == null || record.getFields().isEmpty());
+		return (record == null || record.isEmpty());
 	}
 
 	public static boolean isAuthority(final Record record) {
@@ -1868,6 +1982,21 @@ public final class RecordUtils {
 		return SubfieldUtils.getContents(lines, indicators);
 	}
 
+	/**
+	 * Liefert zu den Tags des Selektors und zu Indikatoren alle Inhalte der
+	 * Unterfelder zu diesem Indikator.
+	 *
+	 * @param record     nicht null
+	 * @param selector   nicht null
+	 * @param indicators nicht null
+	 * @return Inhalt aller Unterfelder, nicht null, modifizierbar
+	 */
+	public static List<String> getContents(final Record record, final TagSelector selector,
+			final Character... indicators) {
+		final List<Line> lines = getLines(record, selector);
+		return SubfieldUtils.getContents(lines, indicators);
+	}
+
 	/**
 	 * @param lines beliebig
 	 * @return Die Idns, eventuell mehrfach, da kein Set!
@@ -1,5 +1,6 @@
 package de.dnb.gnd.utils.mx;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -118,6 +119,14 @@ public class Library implements Comparable<Library> {
 
 	private final Map<RedaktionsTyp, String> redaktion2verbundISIL = new HashMap<>();
 
+	/**
+	 *
+	 * @return Redaktionstypen und zuständige Verbünde, nicht modifizierbar
+	 */
+	Map<RedaktionsTyp, String> getRedaktionen() {
+		return Collections.unmodifiableMap(redaktion2verbundISIL);
+	}
+
 	/**
 	 *
 	 * @param typ     auch null
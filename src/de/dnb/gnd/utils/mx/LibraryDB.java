@@ -4,7 +4,9 @@
 
 package de.dnb.gnd.utils.mx;
 
+import java.io.DataOutput;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -20,12 +22,16 @@ import java.util.TreeMap;
 import org.json.JSONObject;
 
 import de.dnb.basics.Misc;
-import de.dnb.basics.applicationComponents.LFUCachedFunction;
+import de.dnb.basics.applicationComponents.ConcurrentCache.Policy;
+import de.dnb.basics.applicationComponents.ConcurrentCachedFunction;
 import de.dnb.basics.applicationComponents.strings.StringUtils;
 import de.dnb.basics.applicationComponents.tuples.Pair;
 import de.dnb.basics.filtering.RangeCheckUtils;
+import de.dnb.basics.tries.CompactTrie;
+import de.dnb.basics.tries.MappedTrie;
 import de.dnb.basics.tries.TST;
 import de.dnb.basics.tries.Trie;
+import de.dnb.basics.tries.TrieValueCodec;
 import de.dnb.gnd.parser.Record;
 
 /**
@@ -51,11 +57,103 @@ public class LibraryDB {
 	 */
 	private static Trie<Library> ISIL_2_LIBRARY_TRIE = new TST<>();
 
+	/**
+	 * Systemeigenschaft mit dem Pfad einer mit {@link #saveSnapshot(Path)}
+	 * geschriebenen Datei. Ist sie gesetzt und lesbar, werden die Bibliotheken
+	 * beim Start aus der in den Speicher abgebildeten Datei gelesen, statt den
+	 * generierten Code in {@link #loadLibraries()} auszuführen. Die Datei wird
+	 * dabei einmal gelesen ({@link MappedTrie}); die Suche nach dem längsten
+	 * ISIL-Präfix liefert dieselben Objekte wie die Maps.
+	 */
+	public static final String SNAPSHOT_PROPERTY = "de.dnb.gnd.utils.mx.LibraryDB.snapshot";
+
+	/**
+	 * Schreibt und liest eine {@link Library} mit ihren Redaktionen.
+	 */
+	static final TrieValueCodec<Library> LIBRARY_CODEC = new TrieValueCodec<Library>() {
+
+		@Override
+		public void write(final Library library, final DataOutput out) throws IOException {
+			TrieValueCodec.writeString(library.urheberkennung, out);
+			TrieValueCodec.writeString(library.nameKurz, out);
+			TrieValueCodec.writeString(library.isil, out);
+			TrieValueCodec.writeString(library.nameLang, out);
+			final Map<RedaktionsTyp, String> redaktionen = library.getRedaktionen();
+			out.writeInt(redaktionen.size());
+			for (final Map.Entry<RedaktionsTyp, String> entry : redaktionen.entrySet()) {
+				TrieValueCodec.writeString(entry.getKey().name(), out);
+				TrieValueCodec.writeString(entry.getValue(), out);
+			}
+		}
+
+		@Override
+		public Library read(final ByteBuffer buffer) {
+			final String urheberkennung = TrieValueCodec.readString(buffer);
+			final String nameKurz = TrieValueCodec.readString(buffer);
+			final String isil = TrieValueCodec.readString(buffer);
+			final String nameLang = TrieValueCodec.readString(buffer);
+			final Library library = new Library(urheberkennung, nameKurz, isil, nameLang);
+			final int count = buffer.getInt();
+			for (int i = 0; i < count; i++) {
+				final RedaktionsTyp typ = RedaktionsTyp.valueOf(TrieValueCodec.readString(buffer));
+				library.addRedaktion(typ, TrieValueCodec.readString(buffer));
+			}
+			return library;
+		}
+	};
+
 	static {
 		NULL_PAIR = new Pair<>(Library.NULL_LIBRARY, "");
 		ISIL_2_LIB = new TreeMap<>();
 		KURZ_2_LIB = new HashMap<>();
-		loadLibraries();
+		if (!loadSnapshot(System.getProperty(SNAPSHOT_PROPERTY))) {
+			loadLibraries();
+		}
+	}
+
+	/**
+	 * Lädt die Bibliotheken aus der Datei, s. {@link #SNAPSHOT_PROPERTY}.
+	 *
+	 * @param snapshot auch null
+	 * @return true, wenn die Datei gelesen werden konnte
+	 */
+	private static boolean loadSnapshot(final String snapshot) {
+		if (StringUtils.isNullOrWhitespace(snapshot)) {
+			return false;
+		}
+		final Path path = Paths.get(snapshot);
+		if (!Files.isReadable(path)) {
+			return false;
+		}
+		final MappedTrie<Library> trie;
+		try {
+			trie = MappedTrie.open(path, LIBRARY_CODEC);
+		} catch (final IOException e) {
+			System.err.println("LibraryDB: " + e.getMessage());
+			return false;
+		}
+		// Jede Library nur einmal dekodieren und überall dasselbe Objekt
+		// verwenden:
+		final Map<String, Library> key2lib = new HashMap<>();
+		trie.forEach((key, library) -> {
+			key2lib.put(key, library);
+			ISIL_2_LIB.put(library.isil, library);
+			KURZ_2_LIB.put(library.nameKurz, library);
+		});
+		ISIL_2_LIBRARY_TRIE = new CompactTrie<>(key2lib);
+		return true;
+	}
+
+	/**
+	 * Schreibt alle Bibliotheken als kompakten Trie, der beim nächsten Start
+	 * über {@link #SNAPSHOT_PROPERTY} geladen werden kann.
+	 *
+	 * @param path nicht null, wird überschrieben
+	 * @throws IOException beim Schreiben
+	 */
+	public static void saveSnapshot(final Path path) throws IOException {
+		RangeCheckUtils.assertReferenceParamNotNull("path", path);
+		new CompactTrie<>(ISIL_2_LIBRARY_TRIE).save(path, LIBRARY_CODEC);
 	}
 
 	/**
@@ -84,7 +182,8 @@ public class LibraryDB {
 		return NULL_PAIR;
 	}
 
-	static LFUCachedFunction<String, Library> queryAgencyLFU = new LFUCachedFunction<String, Library>(50) {
+	static ConcurrentCachedFunction<String, Library> queryAgencyLFU = new ConcurrentCachedFunction<String, Library>(50,
+		Policy.LFU) {
 
 		@Override
 		protected Library calculate(final String isil) {
@@ -4494,7 +4593,8 @@ public class LibraryDB {
 
 		ISIL_2_LIB.clear();
 		KURZ_2_LIB.clear();
-		ISIL_2_LIBRARY_TRIE.clear();
+		// auch nach loadSnapshot() veränderbar:
+		ISIL_2_LIBRARY_TRIE = new TST<>();
 
 		final Path path = Paths.get("src/de/dnb/gnd/utils/mx/liste.txt");
 		final List<String> lines = Files.readAllLines(path);
@@ -61,6 +61,14 @@ public class Mailbox implements Comparable<Mailbox> {
 
 	public final static Indicator IND_TEXT = TAG901.getIndicator('a');
 
+	/**
+	 * Von allen Threads geteilt und zustandsbehaftet, daher nicht
+	 * threadsicher.
+	 *
+	 * @deprecated {@link LineParser#parse(Tag, Collection)} mit
+	 *             {@link #TAG901} verwenden
+	 */
+	@Deprecated
 	public final static LineFactory FACTORY = TAG901.getLineFactory();
 
 	/**
@@ -350,11 +358,11 @@ public class Mailbox implements Comparable<Mailbox> {
 			subText = null;
 		}
 		try {
+			// Nicht FACTORY, die ist zustandsbehaftet und nicht threadsicher:
 			if (subText != null)
-				FACTORY.load(getSubDatum(), getSubAdressen(), subText);
+				return LineParser.parse(TAG901, Arrays.asList(getSubDatum(), getSubAdressen(), subText));
 			else
-				FACTORY.load(getSubDatum(), getSubAdressen());
-			return FACTORY.createLine();
+				return LineParser.parse(TAG901, Arrays.asList(getSubDatum(), getSubAdressen()));
 		} catch (final IllFormattedLineException e) {
 			return null;
 		}
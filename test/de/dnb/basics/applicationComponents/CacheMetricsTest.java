@@ -0,0 +1,129 @@
+package de.dnb.basics.applicationComponents;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import de.dnb.basics.applicationComponents.ConcurrentCache.Policy;
+
+public class CacheMetricsTest {
+
+  @Test
+  public void testLfuCacheDisabled() {
+    final LFUCache<Integer, String> cache = new LFUCache<>(4, 0.5f);
+    cache.put(1, "1");
+    cache.get(1);
+    assertNull(cache.stats());
+  }
+
+  @Test
+  public void testLfuCache() {
+    final LFUCache<Integer, String> cache = new LFUCache<>(4, 0.5f);
+    final CacheMetrics metrics = cache.enableMetrics();
+    assertSame(metrics, cache.enableMetrics());
+    for (int i = 0; i < 4; i++) {
+      cache.put(i, Integer.toString(i));
+    }
+    cache.get(0);
+    cache.get(1);
+    cache.get(9);
+    // verdrängt 2 Einträge:
+    cache.put(4, "4");
+    final CacheStats stats = cache.stats();
+    assertEquals(2, stats.getHitCount());
+    assertEquals(1, stats.getMissCount());
+    assertEquals(2, stats.getEvictionCount());
+    assertEquals(3, stats.getSize());
+    assertEquals(4, stats.getPeakSize());
+    metrics.reset();
+    assertEquals(0, cache.stats().getHitCount());
+    assertEquals(3, cache.stats().getPeakSize());
+  }
+
+  @Test
+  public void testLruCachedFunction() {
+    final LRUCachedFunction<Integer, Integer> function = new LRUCachedFunction<Integer, Integer>(2) {
+      @Override
+      protected Integer calculate(final Integer x) {
+        return x * x;
+      }
+    };
+    assertNull(function.stats());
+    function.enableMetrics();
+    function.apply(1);
+    function.apply(2);
+    function.apply(1);
+    function.apply(3);
+    final CacheStats stats = function.stats();
+    assertEquals(1, stats.getHitCount());
+    assertEquals(3, stats.getMissCount());
+    assertEquals(3, stats.getLoadCount());
+    assertEquals(1, stats.getEvictionCount());
+    assertEquals(2, stats.getSize());
+    assertEquals(2, stats.getPeakSize());
+    assertTrue(stats.getTotalLoadNanos() >= 0);
+  }
+
+  @Test
+  public void testLfuCachedFunction() {
+    final LFUCachedFunction<Integer, Integer> function = new LFUCachedFunction<Integer, Integer>() {
+      @Override
+      protected Integer calculate(final Integer x) {
+        return x + 1;
+      }
+    };
+    assertNull(function.stats());
+    function.enableMetrics();
+    function.apply(1);
+    function.apply(1);
+    final CacheStats stats = function.stats();
+    assertEquals(1, stats.getHitCount());
+    assertEquals(1, stats.getMissCount());
+    assertEquals(1, stats.getLoadCount());
+    assertEquals(1, stats.getSize());
+  }
+
+  @Test
+  public void testConcurrentCachedFunction() {
+    final ConcurrentCachedFunction<Integer, Integer> function =
+      ConcurrentCachedFunction.create(x -> x + 1, 10, Policy.LRU);
+    function.apply(1);
+    function.apply(2);
+    function.apply(1);
+    final CacheStats stats = function.stats();
+    assertEquals(2, stats.getLoadCount());
+    assertEquals(2, stats.getSize());
+    assertTrue(stats.getPeakSize() >= 2);
+  }
+
+  @Test
+  public void testJmx() throws Exception {
+    final LFUCache<Integer, String> cache = new LFUCache<>(4, 0.5f);
+    final ObjectName name = cache.registerMBean("CacheMetricsTest.testJmx");
+    try {
+      cache.put(1, "1");
+      cache.get(1);
+      final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      assertTrue(server.isRegistered(name));
+      assertEquals(1L, server.getAttribute(name, "HitCount"));
+      assertEquals(1, server.getAttribute(name, "Size"));
+      server.invoke(name, "resetStatistics", null, null);
+      assertEquals(0L, server.getAttribute(name, "HitCount"));
+      assertNotNull(cache.stats());
+    } finally {
+      CacheMetrics.unregisterMBean(name);
+    }
+    assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+  }
+
+}
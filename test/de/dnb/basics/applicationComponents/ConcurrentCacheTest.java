@@ -0,0 +1,124 @@
+package de.dnb.basics.applicationComponents;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import de.dnb.basics.applicationComponents.ConcurrentCache.Policy;
+
+public class ConcurrentCacheTest {
+
+  @Test
+  public void testLru() {
+    final ConcurrentCache<Integer, String> cache = new ConcurrentCache<>(3, Policy.LRU, 1);
+    cache.put(1, "1");
+    cache.put(2, "2");
+    cache.put(3, "3");
+    assertEquals("1", cache.get(1));
+    cache.put(4, "4");
+    assertEquals(3, cache.size());
+    assertFalse(cache.containsKey(2));
+    assertTrue(cache.containsKey(1));
+    assertNull(cache.get(2));
+    final CacheStats stats = cache.stats();
+    assertEquals(1, stats.getHitCount());
+    assertEquals(1, stats.getMissCount());
+    assertEquals(1, stats.getEvictionCount());
+    assertEquals(3, stats.getSize());
+    assertEquals("4", cache.remove(4));
+    assertEquals(2, cache.keySet().size());
+  }
+
+  @Test
+  public void testLfuKeepsFrequentKeys() {
+    final ConcurrentCache<Integer, Integer> cache = new ConcurrentCache<>(100, Policy.LFU, 4);
+    for (int round = 0; round < 20; round++) {
+      for (int hot = 0; hot < 50; hot++) {
+        if (cache.get(hot) == null)
+          cache.put(hot, hot);
+      }
+      // Einmalige Schlüssel dürfen die häufigen nicht verdrängen:
+      for (int i = 0; i < 200; i++) {
+        final int once = 1000 + round * 200 + i;
+        if (cache.get(once) == null)
+          cache.put(once, once);
+      }
+    }
+    assertTrue(cache.size() <= 100);
+    int kept = 0;
+    for (int hot = 0; hot < 50; hot++) {
+      if (cache.containsKey(hot))
+        kept++;
+    }
+    assertTrue("nur " + kept + " häufige Schlüssel behalten", kept >= 45);
+    assertTrue(cache.stats().getEvictionCount() > 0);
+  }
+
+  @Test
+  public void testComputeOnce() throws InterruptedException {
+    final AtomicInteger calculations = new AtomicInteger();
+    final CountDownLatch start = new CountDownLatch(1);
+    final ConcurrentCachedFunction<String, String> function =
+      ConcurrentCachedFunction.create(x ->
+      {
+        calculations.incrementAndGet();
+        try {
+          Thread.sleep(50);
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return x + "!";
+      });
+    final List<Thread> threads = new ArrayList<>();
+    final List<String> results = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      threads.add(new Thread(() ->
+      {
+        try {
+          start.await();
+        } catch (final InterruptedException e) {
+          return;
+        }
+        final String result = function.apply("x");
+        synchronized (results) {
+          results.add(result);
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+    start.countDown();
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(1, calculations.get());
+    assertEquals(8, results.size());
+    results.forEach(r -> assertEquals("x!", r));
+    assertEquals(null + "!", function.apply(null));
+  }
+
+  @Test
+  public void testRecursion() {
+    final ConcurrentCachedFunction<BigInteger, BigInteger> factorial =
+      new ConcurrentCachedFunction<BigInteger, BigInteger>(10, Policy.LRU) {
+        @Override
+        protected BigInteger calculate(final BigInteger x) {
+          if (x.compareTo(BigInteger.ONE) < 0)
+            return BigInteger.ONE;
+          return apply(x.subtract(BigInteger.ONE)).multiply(x);
+        }
+      };
+    assertEquals(new BigInteger("3628800"), factorial.apply(BigInteger.TEN));
+    assertEquals(new BigInteger("39916800"), factorial.apply(BigInteger.valueOf(11)));
+    assertTrue(factorial.stats().getHitCount() >= 1);
+  }
+
+}
@@ -0,0 +1,179 @@
+package de.dnb.basics.applicationComponents;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import de.dnb.basics.applicationComponents.strings.StringMetrics;
+import de.dnb.basics.applicationComponents.strings.StringMetrics.StringDistance;
+import de.dnb.basics.applicationComponents.strings.StringMetrics.Thesaurus;
+
+public class StringMetricsTest {
+
+  private static final String ALPHABET = "abcdä, ";
+
+  private static String randomWord(final Random random, final int maxLength) {
+    final int length = random.nextInt(maxLength + 1);
+    final StringBuilder builder = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+    }
+    return builder.toString();
+  }
+
+  @Test
+  public void testThesaurusSameAsLinearSearch() {
+    final Random random = new Random(3);
+    final Set<String> words = new LinkedHashSet<>();
+    for (int i = 0; i < 3000; i++) {
+      words.add(randomWord(random, 9));
+    }
+    final Thesaurus thesaurus = new Thesaurus(words);
+    assertEquals(words.size(), thesaurus.size());
+    for (int i = 0; i < 300; i++) {
+      final String query = randomWord(random, 11);
+      final int maxDistance = i % 5;
+      final List<StringDistance> expected =
+        StringMetrics.wordsWithinDistance(words, maxDistance, query, 10_000, true);
+      final List<StringDistance> actual =
+        StringMetrics.wordsWithinDistance(thesaurus, maxDistance, query, 10_000);
+      assertEquals(query, new HashSet<>(expected), new HashSet<>(actual));
+    }
+  }
+
+  @Test
+  public void testThesaurus() {
+    final Thesaurus thesaurus =
+      new Thesaurus(Arrays.asList("müller", "mueller", "miller", "meier", "", "m"));
+    final List<StringDistance> dists =
+      StringMetrics.wordsWithinDistance(thesaurus, 1, "müller", 10);
+    assertEquals(2, dists.size());
+    assertEquals("müller", dists.get(0).getWord());
+    assertEquals(0.0, dists.get(0).getDistance(), 0.0);
+    assertEquals("miller", dists.get(1).getWord());
+    assertEquals(1.0, dists.get(1).getDistance(), 0.0);
+
+    assertEquals(2, StringMetrics.wordsWithinDistance(thesaurus, 1, "", 10).size());
+    assertTrue(StringMetrics.wordsWithinDistance(thesaurus, -1, "m", 10).isEmpty());
+    assertEquals(new HashSet<>(Arrays.asList("müller", "miller")),
+      new HashSet<>(thesaurus.getKeywords(6)));
+    assertEquals(3, thesaurus.getKeywords(5, 6).size());
+  }
+
+  private static final String LETTERS = "abcdäłś, ";
+
+  private static String randomString(final Random random, final int maxLength) {
+    final int length = random.nextInt(maxLength + 1);
+    final StringBuilder builder = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      builder.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+    }
+    return builder.toString();
+  }
+
+  private static int levenshteinDP(final String a, final String b) {
+    final int[][] d = new int[a.length() + 1][b.length() + 1];
+    for (int i = 0; i <= a.length(); i++) {
+      for (int j = 0; j <= b.length(); j++) {
+        if (i == 0 || j == 0)
+          d[i][j] = i + j;
+        else
+          d[i][j] = Math.min(d[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1),
+            Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+      }
+    }
+    return d[a.length()][b.length()];
+  }
+
+  @Test
+  public void testLevenshtein() {
+    final Random random = new Random(17);
+    for (int i = 0; i < 3000; i++) {
+      // bis 200 Zeichen, also auch mehrere Blöcke:
+      final String a = randomString(random, i % 3 == 0 ? 200 : 70);
+      final String b =
+        random.nextBoolean() ? randomString(random, 70) : a.substring(random.nextInt(a.length() + 1));
+      final int expected = levenshteinDP(a, b);
+      assertEquals(a + "/" + b, expected, StringMetrics.levenshtein(a, b));
+      assertEquals(a + "/" + b, expected, StringMetrics.levenshtein(new StringBuilder(b), a));
+      final int max = random.nextInt(10);
+      assertEquals(a + "/" + b, Math.min(expected, max + 1), StringMetrics.levenshtein(a, b, max));
+      assertEquals(a + "/" + b, expected > max ? max + 1.0 : expected,
+        StringMetrics.levenshteinOrMax(a, b, max), 0.0);
+    }
+    assertEquals(3, StringMetrics.levenshtein("kitten", "sitting"));
+    assertEquals(0.0, StringMetrics.levenshteinOrMax(null, "", 0), 0.0);
+    assertEquals(4.0, StringMetrics.levenshteinDistance("", "abcd"), 0.0);
+  }
+
+  /**
+   * Die frühere Fassung von
+   * {@link StringMetrics#jaroWinklerDistance(CharSequence, CharSequence)}.
+   */
+  private static double jaroWinklerReference(String string1, String string2) {
+    if (string1.length() < string2.length()) {
+      final String s = string1;
+      string1 = string2;
+      string2 = s;
+    }
+    final int len1 = string1.length();
+    final int len2 = string2.length();
+    if (len2 == 0)
+      return len1 == 0 ? 0.0 : 1.0;
+    final int delta = Math.max(1, len1 / 2) - 1;
+    final boolean[] flag = new boolean[len2];
+    final char[] ch1Match = new char[len1];
+    int matches = 0;
+    for (int i = 0; i < len1; ++i) {
+      for (int j = 0; j < len2; ++j) {
+        if (j <= i + delta && j + delta >= i && string1.charAt(i) == string2.charAt(j)
+          && !flag[j]) {
+          flag[j] = true;
+          ch1Match[matches++] = string1.charAt(i);
+          break;
+        }
+      }
+    }
+    if (matches == 0)
+      return 1.0;
+    int transpositions = 0;
+    for (int i = 0, j = 0; j < len2; ++j) {
+      if (flag[j]) {
+        if (string2.charAt(j) != ch1Match[i])
+          ++transpositions;
+        ++i;
+      }
+    }
+    final double m = matches;
+    final double jaro = (m / len1 + m / len2 + (m - transpositions / 2.0) / m) / 3.0;
+    int commonPrefix = 0;
+    for (int i = 0; i < Math.min(4, len2); ++i) {
+      if (string1.charAt(i) == string2.charAt(i))
+        ++commonPrefix;
+    }
+    return 1.0 - (jaro + commonPrefix * 0.1 * (1.0 - jaro));
+  }
+
+  @Test
+  public void testJaroWinkler() {
+    final Random random = new Random(19);
+    for (int i = 0; i < 3000; i++) {
+      final String a = randomString(random, i % 3 == 0 ? 150 : 40);
+      final String b = randomString(random, i % 5 == 0 ? 150 : 40);
+      assertEquals(a + "/" + b, jaroWinklerReference(a, b), StringMetrics.jaroWinklerDistance(a, b),
+        0.0);
+    }
+    assertEquals(0.0389, StringMetrics.jaroWinklerDistance("MARTHA", "MARHTA"), 0.0001);
+    assertEquals(0.0, StringMetrics.jaroWinklerDistance(null, ""), 0.0);
+    assertEquals(1.0, StringMetrics.jaroWinklerDistance("abc", "xyz"), 0.0);
+  }
+
+}
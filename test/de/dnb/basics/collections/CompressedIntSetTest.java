@@ -0,0 +1,237 @@
+package de.dnb.basics.collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CompressedIntSetTest {
+
+  private static final int HIGH = 1_300_000_000;
+
+  /**
+   * Zufällige Menge mit dünnen, dichten und zusammenhängenden Bereichen.
+   */
+  private static BitSet randomBits(final Random random) {
+    final BitSet bits = new BitSet();
+    for (int i = 0; i < 2000; i++)
+      bits.set(random.nextInt(1 << 20));
+    for (int i = 0; i < 20_000; i++)
+      bits.set(3 << 16 | random.nextInt(1 << 16));
+    final int start = (5 << 16) + random.nextInt(1000);
+    bits.set(start, start + 70_000 + random.nextInt(1000));
+    return bits;
+  }
+
+  private static CompressedIntSet of(final BitSet bits) {
+    final CompressedIntSet set = new CompressedIntSet();
+    bits.stream().forEach(set::add);
+    return set;
+  }
+
+  private static void assertSame(final BitSet expected, final CompressedIntSet actual) {
+    assertEquals(expected.cardinality(), actual.cardinality());
+    assertArrayEquals(expected.stream().toArray(), actual.toArray());
+    assertEquals(expected.isEmpty() ? -1 : expected.length() - 1, actual.last());
+  }
+
+  @Test
+  public void testSingleValues() {
+    final CompressedIntSet set = new CompressedIntSet();
+    assertTrue(set.isEmpty());
+    assertEquals(-1, set.first());
+    assertTrue(set.add(HIGH));
+    assertFalse(set.add(HIGH));
+    assertTrue(set.add(7));
+    assertTrue(set.contains(HIGH));
+    assertFalse(set.contains(HIGH + 1));
+    assertFalse(set.contains(-1));
+    assertEquals(7, set.first());
+    assertEquals(HIGH, set.last());
+    assertEquals(HIGH, set.nextValue(8));
+    assertEquals(7, set.previousValue(HIGH - 1));
+    assertTrue(set.getSizeInBytes() < 200);
+    assertTrue(set.remove(HIGH));
+    assertFalse(set.remove(HIGH));
+    assertArrayEquals(new int[] { 7 }, set.toArray());
+  }
+
+  @Test
+  public void testAgainstBitSet() {
+    final Random random = new Random(42);
+    for (int round = 0; round < 5; round++) {
+      final BitSet a = randomBits(random);
+      final BitSet b = randomBits(random);
+      final CompressedIntSet setA = of(a);
+      final CompressedIntSet setB = of(b);
+      assertSame(a, setA);
+      if (round % 2 == 1) {
+        setA.runOptimize();
+        setB.runOptimize();
+        assertSame(a, setA);
+      }
+
+      final BitSet and = (BitSet) a.clone();
+      and.and(b);
+      final BitSet or = (BitSet) a.clone();
+      or.or(b);
+      final BitSet andNot = (BitSet) a.clone();
+      andNot.andNot(b);
+      assertEquals(and.cardinality(), setA.andCardinality(setB));
+      assertEquals(or.cardinality(), setA.orCardinality(setB));
+      assertEquals(andNot.cardinality(), setA.andNotCardinality(setB));
+      assertEquals(!and.isEmpty(), setA.intersects(setB));
+
+      CompressedIntSet result = new CompressedIntSet(setA);
+      assertTrue(result.and(setB));
+      assertFalse(result.and(setB));
+      assertSame(and, result);
+      result = new CompressedIntSet(setA);
+      assertTrue(result.or(setB));
+      assertFalse(result.or(setB));
+      assertSame(or, result);
+      result = new CompressedIntSet(setA);
+      assertTrue(result.andNot(setB));
+      assertFalse(result.andNot(setB));
+      assertSame(andNot, result);
+      // Operanden bleiben unverändert:
+      assertSame(a, setA);
+      assertSame(b, setB);
+
+      for (int i = 0; i < 1000; i++) {
+        final int x = random.nextInt(1 << 19);
+        assertEquals(a.nextSetBit(x), setA.nextValue(x));
+        assertEquals(a.previousSetBit(x), setA.previousValue(x));
+        assertEquals(a.get(x), setA.contains(x));
+      }
+    }
+  }
+
+  @Test
+  public void testRangesAndRemove() {
+    final CompressedIntSet set = new CompressedIntSet();
+    set.addRange(100_000, 300_000);
+    final BitSet bits = new BitSet();
+    bits.set(100_000, 300_000);
+    assertSame(bits, set);
+    assertTrue(set.getSizeInBytes() < 500);
+    for (int x = 100_000; x < 300_000; x += 3) {
+      assertTrue(set.remove(x));
+      bits.clear(x);
+    }
+    assertSame(bits, set);
+    final PrimitiveIterator.OfInt iterator = set.iterator();
+    while (iterator.hasNext()) {
+      if (iterator.nextInt() % 2 == 0)
+        iterator.remove();
+    }
+    for (int x = bits.nextSetBit(0); x >= 0; x = bits.nextSetBit(x + 1)) {
+      if (x % 2 == 0)
+        bits.clear(x);
+    }
+    assertSame(bits, set);
+  }
+
+  @Test
+  public void testSerialization() throws Exception {
+    final BitSet bits = randomBits(new Random(7));
+    bits.set(HIGH);
+    final CompressedIntSet set = of(bits);
+    set.runOptimize();
+
+    final ByteBuffer buffer = ByteBuffer.allocate((int) set.serializedSizeInBytes());
+    set.serialize(buffer);
+    assertFalse(buffer.hasRemaining());
+    buffer.flip();
+    assertEquals(set, CompressedIntSet.deserialize(buffer));
+
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(set);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      assertEquals(set, in.readObject());
+    }
+
+    final Path path = Files.createTempFile("CompressedIntSetTest", ".bin");
+    try {
+      set.save(path);
+      assertEquals(set.serializedSizeInBytes(), Files.size(path));
+      final CompressedIntSet loaded = CompressedIntSet.load(path);
+      assertSame(bits, loaded);
+      assertEquals(set.hashCode(), loaded.hashCode());
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void testNWay() {
+    final Random random = new Random(11);
+    final CompressedIntSet[] sets = new CompressedIntSet[4];
+    for (int i = 0; i < sets.length; i++) {
+      sets[i] = of(randomBits(random));
+      if (i % 2 == 0)
+        sets[i].runOptimize();
+    }
+    final CompressedIntSet union = new CompressedIntSet(sets[0]);
+    final CompressedIntSet intersection = new CompressedIntSet(sets[0]);
+    final CompressedIntSet difference = new CompressedIntSet(sets[0]);
+    for (int i = 1; i < sets.length; i++) {
+      union.or(sets[i]);
+      intersection.and(sets[i]);
+      difference.andNot(sets[i]);
+    }
+    assertTrue(intersection.cardinality() > 0);
+    assertEquals(union, CompressedIntSet.union(sets));
+    assertEquals(intersection, CompressedIntSet.intersection(sets));
+    assertEquals(difference,
+      CompressedIntSet.difference(sets[0], Arrays.copyOfRange(sets, 1, sets.length)));
+    assertEquals(sets[0], CompressedIntSet.difference(sets[0]));
+    assertTrue(CompressedIntSet.union().isEmpty());
+  }
+
+  @Test
+  public void testMapped() throws Exception {
+    final BitSet bits = randomBits(new Random(3));
+    bits.set(HIGH);
+    final CompressedIntSet set = of(bits);
+    set.addRange(HIGH + 10, HIGH + 100);
+    bits.set(HIGH + 10, HIGH + 100);
+
+    final Path path = Files.createTempFile("CompressedIntSetTest", ".bin");
+    try {
+      set.save(path);
+      final MappedIntSet mapped = MappedIntSet.open(path);
+      assertEquals(set.cardinality(), mapped.cardinality());
+      final Random random = new Random(5);
+      for (int i = 0; i < 10_000; i++) {
+        final int x = random.nextInt(1 << 19);
+        assertEquals(bits.get(x), mapped.contains(x));
+      }
+      for (int x = HIGH - 5; x < HIGH + 105; x++)
+        assertEquals(bits.get(x), mapped.contains(x));
+      final CompressedIntSet collected = new CompressedIntSet();
+      mapped.forEachInt(collected::add);
+      assertEquals(set, collected);
+      assertEquals(set, mapped.toCompressedIntSet());
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+}
@@ -0,0 +1,76 @@
+package de.dnb.basics.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import de.dnb.basics.applicationComponents.tuples.Pair;
+
+public class ConcurrentFrequencyTest {
+
+  private static final int N = 100_000;
+
+  private static String value(final int i) {
+    return i % 7 == 0 ? null : Integer.toString(i % 13);
+  }
+
+  private static Frequency<String> expected() {
+    final Frequency<String> frequency = new Frequency<>();
+    for (int i = 0; i < N; i++) {
+      frequency.add(value(i));
+    }
+    return frequency;
+  }
+
+  @Test
+  public void testThreads() throws InterruptedException {
+    final ConcurrentFrequency<String> frequency = new ConcurrentFrequency<>();
+    final List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      final int offset = t;
+      threads.add(new Thread(() ->
+      {
+        for (int i = offset; i < N; i += 4) {
+          frequency.add(value(i));
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+    final Frequency<String> expected = expected();
+    assertEquals(expected, frequency.toFrequency());
+    assertEquals(N, frequency.getSum());
+    assertEquals((long) expected.get(null), frequency.get(null));
+    final List<Pair<String, Long>> records = frequency.getRecords(1);
+    assertEquals(null, records.get(0).getFirst());
+  }
+
+  @Test
+  public void testCollectors() {
+    final Frequency<String> expected = expected();
+    assertEquals(expected,
+      IntStream.range(0, N).parallel().mapToObj(ConcurrentFrequencyTest::value)
+        .collect(Frequency.collector(Function.identity())));
+    assertEquals(expected,
+      IntStream.range(0, N).parallel().mapToObj(ConcurrentFrequencyTest::value)
+        .collect(ConcurrentFrequency.collector(Function.identity())).toFrequency());
+
+    final CrossProductFrequency cross = IntStream.range(0, N).parallel().boxed()
+      .collect(CrossProductFrequency.crossProductCollector(i -> new Object[] { i % 2, i % 3 }));
+    assertEquals(6, cross.size());
+    assertEquals(N, cross.getSum());
+    assertEquals(IntStream.range(0, N).filter(i -> i % 2 == 1 && i % 3 == 2).count(),
+      cross.getCount(1, 2));
+    assertTrue(IntStream.range(0, N).boxed().collect(LongFrequency.collector(i -> i % 5))
+      .getEquals(N / 5).size() == 5);
+  }
+
+}
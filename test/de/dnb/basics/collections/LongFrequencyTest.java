@@ -0,0 +1,143 @@
+package de.dnb.basics.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.dnb.basics.applicationComponents.tuples.Pair;
+import de.dnb.basics.applicationComponents.tuples.Tuple;
+
+public class LongFrequencyTest {
+
+  @SuppressWarnings("unchecked")
+  private static <T> T copy(final T object) throws Exception {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(object);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      return (T) in.readObject();
+    }
+  }
+
+  @Test
+  public void testMapAgainstHashMap() throws Exception {
+    final Random random = new Random(42);
+    final ObjectLongMap<Integer> map = new ObjectLongMap<>();
+    final Map<Integer, Long> expected = new HashMap<>();
+    for (int i = 0; i < 200_000; i++) {
+      // Vielfache von 64 provozieren Kollisionen, null ist erlaubt:
+      final Integer key = random.nextInt(50) == 0 ? null : random.nextInt(3000) * 64;
+      final long delta = random.nextInt(10) - 2;
+      switch (random.nextInt(4)) {
+      case 0:
+        assertEquals((long) expected.getOrDefault(key, 0L), map.remove(key));
+        expected.remove(key);
+        break;
+      case 1:
+        assertEquals((long) expected.getOrDefault(key, 0L), map.put(key, delta));
+        expected.put(key, delta);
+        break;
+      default:
+        expected.merge(key, delta, Long::sum);
+        assertEquals((long) expected.get(key), map.addTo(key, delta));
+      }
+      assertEquals(expected.size(), map.size());
+    }
+    final Map<Integer, Long> actual = new HashMap<>();
+    map.forEach(actual::put);
+    assertEquals(expected, actual);
+    for (final Integer key : map) {
+      assertTrue(map.containsKey(key));
+      assertEquals((long) expected.get(key), map.get(key));
+    }
+    assertEquals(map, copy(map));
+    assertEquals(map, new ObjectLongMap<>(map));
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertFalse(map.containsKey(null));
+  }
+
+  @Test
+  public void testFrequency() throws Exception {
+    final LongFrequency<String> frequency = new LongFrequency<>();
+    final Frequency<String> expected = new Frequency<>();
+    final Random random = new Random(7);
+    for (int i = 0; i < 10_000; i++) {
+      final String value = Integer.toString((int) Math.sqrt(random.nextInt(10_000)));
+      frequency.add(value);
+      expected.add(value);
+    }
+    frequency.addKey("x");
+    expected.addKey("x");
+    frequency.add(null);
+    expected.add(null);
+    assertEquals(expected, frequency.toFrequency());
+    assertEquals(expected.getSum(), frequency.getSum());
+    assertEquals(expected.size(), frequency.size());
+    assertEquals(0L, frequency.get("x"));
+    assertTrue(frequency.containsKey("x"));
+    assertFalse(frequency.contains("x"));
+    assertEquals(new HashSet<>(expected.getGreater(150)), new HashSet<>(frequency.getGreater(150)));
+
+    final List<Pair<String, Long>> ordered =
+      (List<Pair<String, Long>>) frequency.getOrderedDistribution();
+    assertEquals(frequency.size(), ordered.size());
+    for (int i = 1; i < ordered.size(); i++) {
+      assertTrue(ordered.get(i - 1).getSecond() >= ordered.get(i).getSecond());
+    }
+    final List<Pair<String, Long>> records = frequency.getRecords(5);
+    assertEquals(5, records.size());
+    for (int i = 0; i < records.size(); i++) {
+      assertEquals(ordered.get(i).getSecond(), records.get(i).getSecond());
+    }
+    assertTrue(frequency.getRecords(0).isEmpty());
+    assertEquals(frequency, copy(frequency));
+  }
+
+  @Test
+  public void testCrossProduct() throws Exception {
+    final LongCrossProductFrequency frequency = new LongCrossProductFrequency();
+    frequency.incrementValues(1, "1", "a");
+    frequency.incrementValues(2, "2", "a");
+    frequency.incrementValues(3, "1", "b");
+    frequency.addValues("2", "b");
+    frequency.incrementValues(3, "2", "b");
+    frequency.addValues("kurz");
+
+    assertEquals(4L, frequency.getCount("2", "b"));
+    assertEquals(4L, (long) frequency.get("2", "b"));
+    assertEquals(4L, (long) frequency.get(Arrays.asList("2", "b")));
+    assertEquals(4L, frequency.get(Tuple.of("2", "b")));
+    assertEquals(1L, frequency.get("kurz"));
+    assertEquals(0L, frequency.getCount("1", "x"));
+    assertEquals(11L, frequency.getSum());
+
+    final LongCrossProductFrequency partial = frequency.getPartialSum(1);
+    assertEquals(2, partial.size());
+    assertEquals(3L, partial.getCount("a"));
+    assertEquals(7L, partial.getCount("b"));
+    final LongCrossProductFrequency swapped = frequency.getPartialSum(1, 0);
+    assertEquals(2L, swapped.getCount("a", "2"));
+    assertEquals(Arrays.asList(new Pair<>(Tuple.of("b"), 7L), new Pair<>(Tuple.of("a"), 3L)),
+      partial.getRecords(2));
+
+    final CrossProductFrequency old = frequency.toCrossProductFrequency();
+    assertEquals(4L, old.getCount("2", "b"));
+    assertEquals(frequency, copy(frequency));
+  }
+
+}
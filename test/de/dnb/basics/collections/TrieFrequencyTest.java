@@ -0,0 +1,43 @@
+package de.dnb.basics.collections;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+public class TrieFrequencyTest {
+
+  private static final int N = 100_000;
+
+  private static final List<String> KEYS = Arrays.asList("1", "12", "3", "45");
+
+  @Test
+  public void testCollector() {
+    final TrieFrequency expected = new TrieFrequency();
+    expected.addKeys(KEYS);
+    final AtomicInteger errors = new AtomicInteger();
+    expected.setErrorFN(s -> errors.incrementAndGet());
+    for (int i = 0; i < N; i++) {
+      expected.add(Integer.toString(i));
+    }
+    final int expectedErrors = errors.getAndSet(0);
+    assertEquals(N, expected.getSum() + expectedErrors);
+    // "1", aber nicht "12" als längstes Präfix:
+    assertEquals(1 + 9 + 90 + 900 + 9000, expected.get("1").longValue());
+
+    final TrieFrequency collected = IntStream.range(0, N).parallel().boxed()
+      .collect(TrieFrequency.collector(KEYS, i -> Integer.toString(i),
+        s -> errors.incrementAndGet()));
+    assertEquals(expected, collected);
+    assertEquals(expectedErrors, errors.get());
+
+    // Weitere Werte werden wie gewohnt nach dem längsten Präfix gezählt:
+    collected.add("123");
+    assertEquals(expected.get("12") + 1, collected.get("12").longValue());
+  }
+
+}
@@ -0,0 +1,46 @@
+package de.dnb.basics.filtering;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class ByteAhoCorasickTest {
+
+  private static byte[] bytes(final String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testSearch() {
+    // klassisches Beispiel mit überlappenden Mustern:
+    final ByteAhoCorasick automaton = new ByteAhoCorasick(
+      new byte[][] { bytes("he"), bytes("she"), bytes("his"), bytes("hers") },
+      new int[] { 0, 1, 2, 3 });
+    assertEquals(0b1011, automaton.getAllGroups() & 0b1011);
+    final byte[] text = bytes("xushersx");
+    assertEquals(0b1011, automaton.search(text, 0, text.length));
+    // nur "ush":
+    assertEquals(0, automaton.search(text, 1, 3));
+    // "she" endet bei Index 4, "he" auch:
+    assertEquals(0b0011, automaton.search(text, 2, 3));
+    assertEquals(0b0100, automaton.search(bytes("ahisa"), 0, 5));
+  }
+
+  @Test
+  public void testGroupsAndStop() {
+    final ByteAhoCorasick automaton = new ByteAhoCorasick(
+      new byte[][] { bytes("ab"), bytes("cd"), bytes("äö") }, new int[] { 5, 5, 63 });
+    final byte[] text = bytes("xxcdxxäöab");
+    assertEquals(1L << 5 | 1L << 63, automaton.search(text, 0, text.length));
+    // Abbruch nach der ersten Gruppe:
+    assertEquals(1L << 5, automaton.search(text, 0, text.length, found -> true));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEmptyPattern() {
+    new ByteAhoCorasick(new byte[][] { new byte[0] }, new int[] { 0 });
+  }
+
+}
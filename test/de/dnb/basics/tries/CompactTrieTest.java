@@ -0,0 +1,132 @@
+package de.dnb.basics.tries;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+public class CompactTrieTest {
+
+  private static final String ALPHABET = "abcä, ";
+
+  private static String randomKey(final Random random, final int maxLength) {
+    final int length = 1 + random.nextInt(maxLength);
+    final StringBuilder builder = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+    }
+    return builder.toString();
+  }
+
+  private static Map<String, Integer> randomMap(final Random random, final int size) {
+    final Map<String, Integer> map = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      map.put(randomKey(random, 8), i);
+    }
+    return map;
+  }
+
+  @Test
+  public final void testSameAsTST() {
+    final Random random = new Random(7);
+    final Map<String, Integer> map = randomMap(random, 2000);
+    final TST<Integer> tst = new TST<>();
+    tst.putAll(map);
+    final CompactTrie<Integer> trie = new CompactTrie<>(map);
+    assertEquals(tst.size(), trie.size());
+    assertEquals(map, trie);
+
+    for (int i = 0; i < 2000; i++) {
+      final String query = randomKey(random, 10);
+      assertEquals(query, tst.getValue(query), trie.getValue(query));
+      assertEquals(query, tst.longestPrefixOf(query), trie.longestPrefixOf(query));
+      assertEquals(query, tst.getValueOfLongestPrefix(query), trie.getValueOfLongestPrefix(query));
+      final String prefix = query.substring(0, Math.min(3, query.length()));
+      assertEquals(prefix, new ArrayList<>(tst.keysWithPrefix(prefix)),
+        new ArrayList<>(trie.keysWithPrefix(prefix)));
+      assertEquals(prefix, new ArrayList<>(tst.valuesWithPrefix(prefix)),
+        new ArrayList<>(trie.valuesWithPrefix(prefix)));
+    }
+    for (final String pattern : new String[] { "a.", "..c", ".", "ä.a.", "......" }) {
+      assertEquals(pattern, new HashSet<>(tst.keysThatMatch(pattern)),
+        new HashSet<>(trie.keysThatMatch(pattern)));
+    }
+  }
+
+  @Test
+  public final void testSorted() {
+    final Map<String, Integer> map = randomMap(new Random(11), 500);
+    final CompactTrie<Integer> trie = new CompactTrie<>(map);
+    assertEquals(new ArrayList<>(new TreeMap<>(map).keySet()), new ArrayList<>(trie.keySet()));
+  }
+
+  @Test
+  public final void testLongestPrefix() {
+    final Map<String, String> map = new HashMap<>();
+    map.put("goethe", "1");
+    map.put("goethe, johann wolfgang von", "2");
+    map.put("goethe-institut", "3");
+    final CompactTrie<String> trie = new CompactTrie<>(map);
+    assertEquals("goethe", trie.longestPrefixOf("goethe, johann"));
+    assertEquals("1", trie.getValueOfLongestPrefix("goethe, johann"));
+    assertEquals("2", trie.getValueOfLongestPrefix("goethe, johann wolfgang von und zu"));
+    assertNull(trie.longestPrefixOf("goeth"));
+    assertNull(trie.getValue("goeth"));
+    assertEquals(2, trie.keysWithPrefix("goethe,").size() + trie.keysWithPrefix("goethe-").size());
+    assertEquals(3, trie.keysWithPrefix("go").size());
+    assertTrue(trie.keysWithPrefix("x").isEmpty());
+  }
+
+  @Test
+  public final void testEmptyAndNullValues() {
+    final Map<String, Integer> map = new HashMap<>();
+    map.put("", 0);
+    map.put("a", null);
+    final CompactTrie<Integer> trie = new CompactTrie<>(map);
+    assertEquals(1, trie.size());
+    assertEquals(Integer.valueOf(0), trie.getValue(""));
+    assertEquals("", trie.longestPrefixOf("abc"));
+    assertFalse(trie.contains("a"));
+
+    final CompactTrie<Integer> empty = new CompactTrie<>(new HashMap<>());
+    assertTrue(empty.isEmpty());
+    assertNull(empty.getValue("a"));
+    assertNull(empty.longestPrefixOf("a"));
+    assertTrue(empty.keySet().isEmpty());
+  }
+
+  @Test
+  public final void testLongKeys() {
+    final StringBuilder builder = new StringBuilder();
+    final Map<String, Integer> map = new HashMap<>();
+    for (int i = 0; i < 100_000; i++) {
+      builder.append((char) ('a' + i % 26));
+      if (i % 10_000 == 9_999)
+        map.put(builder.toString(), i);
+    }
+    final CompactTrie<Integer> trie = new CompactTrie<>(map);
+    final String longest = builder.toString();
+    assertEquals(Integer.valueOf(99_999), trie.getValue(longest));
+    assertEquals(longest, trie.longestPrefixOf(longest + "x"));
+    assertEquals(10, trie.keysWithPrefix("abc").size());
+    // Pfadkompression: ein Knoten je Schlüssel plus Wurzel
+    assertEquals(11, trie.getNodeCount());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public final void testImmutable() {
+    final Map<String, Integer> map = new HashMap<>();
+    map.put("a", 1);
+    new CompactTrie<>(map).put("b", 2);
+  }
+
+}
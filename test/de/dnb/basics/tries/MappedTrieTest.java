@@ -0,0 +1,110 @@
+package de.dnb.basics.tries;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedTrieTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static final String ALPHABET = "abcä, ";
+
+  private static String randomKey(final Random random, final int maxLength) {
+    final int length = 1 + random.nextInt(maxLength);
+    final StringBuilder builder = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+    }
+    return builder.toString();
+  }
+
+  @Test
+  public final void testSameAsCompactTrie() throws IOException {
+    final Random random = new Random(5);
+    final Map<String, String> map = new HashMap<>();
+    for (int i = 0; i < 2000; i++) {
+      map.put(randomKey(random, 8), "wert " + i);
+    }
+    final CompactTrie<String> trie = new CompactTrie<>(map);
+    final Path path = folder.getRoot().toPath().resolve("test.trie");
+    trie.save(path, TrieValueCodec.strings());
+    final MappedTrie<String> mapped = MappedTrie.open(path, TrieValueCodec.strings());
+
+    assertEquals(trie.size(), mapped.size());
+    assertEquals(trie.getNodeCount(), mapped.getNodeCount());
+    assertEquals(Files.size(path), mapped.getSizeInBytes());
+    assertEquals(map, mapped);
+    for (int i = 0; i < 2000; i++) {
+      final String query = randomKey(random, 10);
+      assertEquals(query, trie.getValue(query), mapped.getValue(query));
+      assertEquals(query, trie.longestPrefixOf(query), mapped.longestPrefixOf(query));
+      final String prefix = query.substring(0, Math.min(3, query.length()));
+      assertEquals(prefix, new ArrayList<>(trie.keysWithPrefix(prefix)),
+        new ArrayList<>(mapped.keysWithPrefix(prefix)));
+    }
+    for (final String pattern : new String[] { "a.", "..c", ".", "ä.a." }) {
+      assertEquals(pattern, new HashSet<>(trie.keysThatMatch(pattern)),
+        new HashSet<>(mapped.keysThatMatch(pattern)));
+    }
+  }
+
+  @Test
+  public final void testWrapCollections() throws IOException {
+    final Map<String, Collection<Integer>> map = new HashMap<>();
+    map.put("goethe", Arrays.asList(1, 2));
+    map.put("goethe-institut", Arrays.asList(3));
+    map.put("", Arrays.asList());
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    new CompactTrie<>(map).writeTo(new DataOutputStream(bytes), TrieValueCodec.integerCollections());
+    final MappedTrie<Collection<Integer>> mapped =
+      MappedTrie.wrap(ByteBuffer.wrap(bytes.toByteArray()), TrieValueCodec.integerCollections());
+
+    assertEquals(3, mapped.size());
+    assertEquals(Arrays.asList(1, 2), mapped.getValueOfLongestPrefix("goethe, johann"));
+    assertEquals(Arrays.asList(3), mapped.getValue("goethe-institut"));
+    assertTrue(mapped.getValue("").isEmpty());
+    assertNull(mapped.getValue("goeth"));
+    assertFalse(mapped.contains("goeth"));
+  }
+
+  @Test(expected = IOException.class)
+  public final void testNoTrie() throws IOException {
+    final Path path = folder.newFile("leer.trie").toPath();
+    Files.write(path, new byte[] { 1, 2, 3 });
+    MappedTrie.open(path, TrieValueCodec.strings());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public final void testImmutable() {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try {
+      new CompactTrie<>(new HashMap<String, String>()).writeTo(new DataOutputStream(bytes),
+        TrieValueCodec.strings());
+    } catch (final IOException e) {
+      throw new IllegalStateException(e);
+    }
+    MappedTrie.wrap(ByteBuffer.wrap(bytes.toByteArray()), TrieValueCodec.strings()).put("a", "b");
+  }
+
+}
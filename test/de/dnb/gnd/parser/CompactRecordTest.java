@@ -0,0 +1,62 @@
+package de.dnb.gnd.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.dnb.gnd.parser.line.Line;
+import de.dnb.gnd.parser.tag.Tag;
+import de.dnb.gnd.utils.RecordUtils;
+
+public class CompactRecordTest {
+
+  private static List<Record> read(final String fileName) throws Exception {
+    final List<Record> records = new ArrayList<>();
+    try (RecordReader reader = new RecordReader(new File(fileName), "UTF-8")) {
+      reader.forEachRemaining(records::add);
+    }
+    return records;
+  }
+
+  private static void assertSame(final Record record, final CompactRecord compact) {
+    assertEquals(record.getId(), compact.getId());
+    assertEquals(record.getTags(), compact.getTags());
+    assertEquals(record.getLines().toString(), compact.getLines().toString());
+    assertTrue(record.contentEquals(compact.toRecord()));
+    for (final Tag tag : record.getTags()) {
+      for (final char ind : new char[] { 'a', '0', '9', 'x' }) {
+        assertEquals(RecordUtils.getContentOfSubfield(record, tag.pica3, ind),
+          compact.getContentOfSubfield(tag.pica3, ind));
+        assertEquals(RecordUtils.getContentsOfFirstSubfields(record, tag.pica3, ind),
+          compact.getContentsOfFirstSubfields(tag.pica3, ind));
+      }
+    }
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    final List<Record> records = read("documents/GNDBeispiel.txt");
+    records.addAll(read("documents/GNDBeispiel_P.txt"));
+    assertTrue(records.size() > 100);
+    for (final Record record : records) {
+      assertSame(record, CompactRecord.of(record));
+    }
+  }
+
+  @Test
+  public void testParseCompact() throws Exception {
+    final Record record = read("documents/GNDBeispiel.txt").get(0);
+    final RecordParser parser = new RecordParser();
+    final CompactRecord compact = parser.parseCompact(record.getRawData());
+    assertSame(record, compact);
+    final List<Line> lines = new ArrayList<>();
+    compact.forEach(lines::add);
+    assertEquals(compact.size(), lines.size());
+  }
+
+}
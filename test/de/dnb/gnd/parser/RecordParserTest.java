@@ -6,6 +6,7 @@ import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.NoSuchElementException;
 
 import org.junit.Test;
@@ -78,4 +79,21 @@ public class RecordParserTest {
 		}
 
 	}
+
+	@Test
+	public void testRawData() {
+		final String s = "005 Ts1" + "\n" + "008 saz" + '\n' + "011 s";
+		final RecordParser parser = new RecordParser();
+		final Record lazy = parser.parse(s);
+		final Record eager =
+			parser.parse(null, Arrays.asList("005 Ts1", "008 saz", "011 s"));
+		assertEquals(eager.getRawData(), lazy.getRawData());
+		assertTrue(lazy.getRawData().contains("008 saz"));
+		assertEquals(lazy.getRawData(), lazy.clone().getRawData());
+
+		parser.setKeepRawData(false);
+		final Record withoutRaw = parser.parse(s);
+		assertEquals("", withoutRaw.getRawData());
+		assertEquals(lazy, withoutRaw);
+	}
 }
@@ -5,11 +5,24 @@ package de.dnb.gnd.parser;
 
 import static org.junit.Assert.*;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.Scanner;
+import java.util.regex.Pattern;
+
 import org.junit.Test;
 
 import de.dnb.basics.Constants;
 import de.dnb.basics.applicationComponents.MyFileUtils;
 import de.dnb.basics.applicationComponents.strings.StringInputStream;
+import de.dnb.gnd.utils.ContainsTag;
 import de.dnb.gnd.utils.RecordUtils;
 
 /**
@@ -43,4 +56,113 @@ public class RecordReaderTest {
     MyFileUtils.safeClose(recordReader);
   }
 
+  /**
+   * Byte-Splitter und Scanner müssen dieselben Datensätze liefern.
+   *
+   * @throws IOException  wenn Beispieldatei fehlt
+   */
+  @Test
+  public void testSplitterEqualsScanner() throws IOException {
+    final File file = new File("documents/GNDBeispiel.txt");
+    final RecordReader byteReader = new RecordReader(file, "UTF-8");
+    final RecordReader charReader = new RecordReader(
+      new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+    int count = 0;
+    while (charReader.hasNext()) {
+      assertTrue(byteReader.hasNext());
+      assertEquals(charReader.next(), byteReader.next());
+      count++;
+    }
+    assertFalse(byteReader.hasNext());
+    assertTrue(count > 1);
+    MyFileUtils.safeClose(byteReader);
+    MyFileUtils.safeClose(charReader);
+  }
+
+  /**
+   * Auch bei winzigem Puffer (Trenner über Puffergrenze, Wachsen des
+   * Puffers) müssen die Chunks denen des Scanners entsprechen.
+   *
+   * @throws IOException  wenn Beispieldatei fehlt
+   */
+  @Test
+  public void testSplitterSmallBuffer() throws IOException {
+    final File file = new File("documents/GNDBeispiel.txt");
+    final Charset charset = StandardCharsets.UTF_8;
+    final List<String> expected = new ArrayList<>();
+    final Scanner scanner = new Scanner(file, charset.name());
+    scanner.useDelimiter(Pattern.compile("(?=(SET: ))"));
+    scanner.forEachRemaining(expected::add);
+    scanner.close();
+
+    final List<String> actual = new ArrayList<>();
+    final RecordSplitter splitter =
+      new RecordSplitter(new FileInputStream(file), "SET: ", charset, 3);
+    while (splitter.advance()) {
+      actual.add(splitter.decode());
+    }
+    splitter.close();
+    assertEquals(expected, actual);
+  }
+
+  /**
+   * Der Puffer wird erst beim Lesen angelegt.
+   *
+   * @throws IOException  nicht erwartet
+   */
+  @Test
+  public void testSplitterLazyBuffer() throws IOException {
+    final StringInputStream in = new StringInputStream("SET: a\nSET: b");
+    RecordSplitter splitter = new RecordSplitter(in, "SET: ", StandardCharsets.UTF_8);
+    assertNull(splitter.buffer());
+    assertSame(in, splitter.remainder());
+
+    splitter = new RecordSplitter(new StringInputStream("SET: a\nSET: b"), "SET: ",
+      StandardCharsets.UTF_8);
+    assertTrue(splitter.advance());
+    assertEquals(RecordSplitter.DEFAULT_BUFFER_SIZE, splitter.buffer().length);
+    assertEquals("SET: a\n", splitter.decode());
+    splitter.close();
+  }
+
+  @Test
+  public void testRawFilter() {
+    //@formatter:off
+        final String rec1 =         "001A " +
+                        Constants.US + "01250:01-07-88" +
+                    Constants.RS +  "021A " +
+                        Constants.US + "aTitel";
+        final String rec2 =         "001A " +
+                        Constants.US + "01250:01-07-88" +
+                    Constants.RS +  "036E " +
+                        Constants.US + "aReihe";
+        //@formatter:on
+    final String s = rec1 + "\n" + rec2 + "\n" + rec1 + "\n";
+    final RecordReader reader =
+      new RecordReader(new StringInputStream(s.getBytes(StandardCharsets.UTF_8)), "UTF-8");
+    reader.gzipSettings();
+    reader.setStreamFilter(new ContainsTag("4000", reader.BIB_TAG_DB));
+    assertEquals(2, reader.stream().count());
+    MyFileUtils.safeClose(reader);
+  }
+
+  /**
+   * Geordneter paralleler Stream liefert dieselben Datensätze in derselben
+   * Reihenfolge wie der sequentielle.
+   *
+   * @throws IOException  wenn Beispieldatei fehlt
+   */
+  @Test
+  public void testParallelStream() throws IOException {
+    final File file = new File("documents/GNDBeispiel.txt");
+    final RecordReader reader = new RecordReader(file, "UTF-8");
+    final List<Record> expected = reader.stream().collect(Collectors.toList());
+    MyFileUtils.safeClose(reader);
+
+    final RecordReader parallelReader = new RecordReader(file, "UTF-8");
+    final List<Record> actual = parallelReader.parallelStream(true).collect(Collectors.toList());
+    MyFileUtils.safeClose(parallelReader);
+    assertEquals(expected, actual);
+  }
+
 }
@@ -125,4 +125,29 @@ public class SubfieldTest {
 		assertNotSame(subfield1, subfield2);
 	}
 
+	@Test
+	public final void testComposition() throws IllFormattedLineException {
+		final GNDTag gNDTag = (GNDTag) GNDTagDB.getDB().findTag("150");
+		final Indicator indicator = gNDTag.getIndicator('a', false);
+		final String decomposed = "Cafe\u0301";
+		final String composed = "Caf\u00e9";
+
+		Subfield.resetComposedCount();
+		assertEquals("a$b", new Subfield(indicator, "a$$b\r\n").getContent());
+		assertEquals(composed, new Subfield(indicator, composed).getContent());
+		assertEquals(0, Subfield.getComposedCount());
+		assertEquals(composed, new Subfield(indicator, decomposed).getContent());
+		assertEquals(composed, new Subfield(indicator, "Cafe\n\u0301").getContent());
+		assertEquals(2, Subfield.getComposedCount());
+
+		final boolean previous = Subfield.setAssumeNormalized(true);
+		try {
+			assertEquals(decomposed, new Subfield(indicator, decomposed).getContent());
+			assertEquals("a$b", new Subfield(indicator, "a$$b").getContent());
+		} finally {
+			Subfield.setAssumeNormalized(previous);
+		}
+		assertEquals(2, Subfield.getComposedCount());
+	}
+
 }
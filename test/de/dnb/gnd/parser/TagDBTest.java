@@ -6,9 +6,12 @@ import org.junit.Before;
 import org.junit.Test;
 
 import de.dnb.basics.applicationComponents.tuples.Triplett;
+import de.dnb.gnd.parser.tag.BibTagDB;
 import de.dnb.gnd.parser.tag.GNDTag;
 import de.dnb.gnd.parser.tag.GNDTagDB;
+import de.dnb.gnd.parser.tag.HoldingsTag;
 import de.dnb.gnd.parser.tag.Tag;
+import de.dnb.gnd.parser.tag.TagDB;
 
 public class TagDBTest {
 
@@ -129,4 +132,27 @@ public class TagDBTest {
 
 	}
 
+	@Test
+	public final void testContains() {
+		final TagDB gnd = GNDTagDB.getDB();
+		final TagDB bib = BibTagDB.getDB();
+		for (final Tag tag : bib.getAllTags()) {
+			assertTrue(bib.contains(tag));
+		}
+		for (final Tag tag : gnd.getAllTags()) {
+			assertTrue(gnd.contains(tag));
+			// gleiche Pica3-Bezeichnung reicht nicht:
+			assertFalse(bib.contains(tag));
+		}
+		assertTrue(bib.contains(bib.findTag("021A")));
+		// Exemplar-Tags sind nur unter Pica+ eingetragen:
+		for (final String picaPlus : new String[] { "209A/01", "231L/01", "209M/01", "209B/01" }) {
+			final Tag tag = bib.findTag(picaPlus);
+			assertTrue(picaPlus, tag instanceof HoldingsTag);
+			assertTrue(picaPlus, bib.contains(tag));
+			assertFalse(picaPlus, gnd.contains(tag));
+		}
+		assertFalse(gnd.contains(null));
+	}
+
 }
@@ -2,12 +2,25 @@ package de.dnb.gnd.parser.line;
 
 import static org.junit.Assert.*;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.junit.Test;
 
 import de.dnb.gnd.exceptions.IllFormattedLineException;
 import de.dnb.gnd.parser.Format;
+import de.dnb.gnd.parser.tag.BibTagDB;
 import de.dnb.gnd.parser.tag.GNDTagDB;
 import de.dnb.gnd.parser.tag.Tag;
+import de.dnb.gnd.parser.tag.TagDB;
 
 public class LineParserTest {
 
@@ -68,4 +81,71 @@ public class LineParserTest {
 
   }
 
+  @Test
+  public void testFactoryReuse() throws IllFormattedLineException {
+    final Tag gNDTag = GNDTagDB.getDB().findTag("500");
+    Line line = LineParser.parse(gNDTag, Format.PICA3, "!119601699!Aesculapius$4beza", false);
+    assertEquals("500  |$9|:119601699 |$8|:Aesculapius |$4|:beza", line.toString());
+    // Dieselbe Fabrik, jetzt ohne Relation. Es müssen wieder die
+    // Unterfelder aus 100 erlaubt sein:
+    line = LineParser.parse(gNDTag, Format.PICA3, "$PHildegard$lHeilige$4beza", false);
+    assertEquals("500  |$P|:Hildegard |$l|:Heilige |$4|:beza", line.toString());
+  }
+
+  private static final int THREADS = 8;
+
+  private static final int ROUNDS = 5;
+
+  /**
+   * Parst alle Zeilen der Beispieldateien gegen GND- und Titel-Datenbank,
+   * sequentiell und von mehreren Threads gleichzeitig. Die Ergebnisse
+   * (auch die Fehlermeldungen) müssen übereinstimmen.
+   */
+  @Test
+  public void testConcurrentParsing() throws Exception {
+    final List<String> lines = new ArrayList<>();
+    lines.addAll(Files.readAllLines(Paths.get("documents/GNDBeispiel.txt"), StandardCharsets.UTF_8));
+    lines.addAll(Files.readAllLines(Paths.get("documents/GNDBeispiel_P.txt"), StandardCharsets.UTF_8));
+    lines.removeIf(String::isEmpty);
+    final TagDB[] dbs = { GNDTagDB.getDB(), BibTagDB.getDB() };
+    final List<String> expected = parseAll(lines, dbs);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    final CountDownLatch start = new CountDownLatch(1);
+    try {
+      final List<Future<List<String>>> futures = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        final Callable<List<String>> task = () -> {
+          start.await();
+          List<String> actual = null;
+          for (int round = 0; round < ROUNDS; round++) {
+            actual = parseAll(lines, dbs);
+          }
+          return actual;
+        };
+        futures.add(executor.submit(task));
+      }
+      start.countDown();
+      for (final Future<List<String>> future : futures) {
+        assertEquals(expected, future.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static List<String> parseAll(final List<String> lines, final TagDB[] dbs) {
+    final List<String> results = new ArrayList<>();
+    for (final String lineStr : lines) {
+      for (final TagDB db : dbs) {
+        try {
+          results.add(String.valueOf(LineParser.parse(lineStr, db, false)));
+        } catch (final IllFormattedLineException | IllegalArgumentException e) {
+          results.add(e.getMessage());
+        }
+      }
+    }
+    return results;
+  }
+
 }
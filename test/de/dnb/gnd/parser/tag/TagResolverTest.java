@@ -0,0 +1,69 @@
+package de.dnb.gnd.parser.tag;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.regex.Matcher;
+
+import org.junit.Test;
+
+import de.dnb.basics.applicationComponents.tuples.Triplett;
+import de.dnb.gnd.parser.Format;
+
+public class TagResolverTest {
+
+	@Test
+	public final void testFind() {
+		final TagDB db = BibTagDB.getDB();
+		final TagResolver resolver = db.getTagResolver();
+		assertSame(resolver, db.getTagResolver());
+
+		int entry = resolver.find("4000 Titel");
+		assertTrue(entry >= 0);
+		assertSame(db.findTag("4000"), resolver.getTag(entry));
+		assertEquals(Format.PICA3, resolver.getFormat(entry));
+		assertEquals(5, resolver.getContentOffset(entry));
+
+		entry = resolver.find("021A ƒaTitel");
+		assertSame(db.findTag("4000"), resolver.getTag(entry));
+		assertEquals(Format.PICA_PLUS, resolver.getFormat(entry));
+		assertEquals("021A", resolver.getKey(entry));
+
+		entry = resolver.find("208@/17 ƒa12");
+		assertTrue(entry >= 0);
+		assertEquals(Format.PICA_PLUS, resolver.getFormat(entry));
+		assertEquals(8, resolver.getContentOffset(entry));
+
+		assertEquals(-1, resolver.find("4000"));
+		assertEquals(-1, resolver.find("4000\tTitel"));
+		assertEquals(-1, resolver.find(" 4000 Titel"));
+		assertEquals(-1, resolver.find("400 Titel"));
+		assertEquals(-1, resolver.find("40000 Titel"));
+		assertEquals(-1, resolver.find(""));
+	}
+
+	/**
+	 * Jede Bezeichnung der Datenbank wird wie mit {@link TagDB#TAG_PATTERN}
+	 * erkannt.
+	 */
+	@Test
+	public final void testSameAsPattern() {
+		for (final TagDB db : new TagDB[] { BibTagDB.getDB(), GNDTagDB.getDB(), SWDTagDB.getDB() }) {
+			for (final String key : db.database.keySet()) {
+				final String line = key + " x";
+				final Matcher m = TagDB.TAG_PATTERN.matcher(line);
+				final Triplett<Tag, String, String> triplett = db.parseTag(line);
+				if (m.find() && db.findTag(m.group()) != null) {
+					assertSame(db.findTag(m.group()), triplett.first);
+					assertEquals(m.group().trim(), triplett.second);
+					assertEquals(line.substring(m.end()), triplett.third);
+				} else {
+					assertNull(triplett);
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,122 @@
+package de.dnb.gnd.parser.tag;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import de.dnb.gnd.parser.Record;
+import de.dnb.gnd.parser.RecordParser;
+import de.dnb.gnd.parser.line.Line;
+import de.dnb.gnd.utils.RecordUtils;
+
+public class TagSelectorTest {
+
+	//@formatter:off
+	private static final String TITLE =
+		"SET: S1 [14] TTL: 1 PPN: 972620788 SEITE1 .\n\n"
+		+ "0500 Aau\n0600 ru\n1100 2010\n1500 /1ger\n2000 978-3-16-148410-0\n"
+		+ "4000 Ein Titel : Untertitel / Verfasser\n4060 300 S.\n"
+		+ "5050 |32|$Ea$Da$Hb\n5050 |300|$Ea$Da$Hk\n"
+		+ "5100 !040459144!Physik\n5320 !040459144!Physik\n5400 530$Eb\n";
+	//@formatter:on
+
+	/**
+	 * Die frühere Implementierung von {@link TagDB#findTagPattern(String)}.
+	 */
+	private static Set<Tag> oldFindTagPattern(final TagDB db, final String regExp) {
+		final Pattern pattern = Pattern.compile(regExp.trim());
+		final Set<Tag> tags = new LinkedHashSet<>();
+		for (final String key : new TreeSet<>(db.database.keySet())) {
+			if (pattern.matcher(key).matches())
+				tags.add(db.database.get(key));
+		}
+		return tags;
+	}
+
+	private static final String HOLDINGS = "7100 Ab 1234 @ g\n";
+
+	private static Record parse() {
+		return parse(TITLE);
+	}
+
+	private static Record parse(final String text) {
+		final RecordParser parser = new RecordParser();
+		parser.setDefaultTagDB(RecordParser.BIB_TAG_DB);
+		parser.useDefaultDB(true);
+		return parser.parse(text);
+	}
+
+	@Test
+	public final void testSameAsFindTagPattern() {
+		final TagDB db = BibTagDB.getDB();
+		for (final String regExp : new String[] { "5.*", "04[0-9].", "001.|042@|003@", " 4000 ", "xyz" }) {
+			final Set<Tag> expected = oldFindTagPattern(db, regExp);
+			assertEquals(new ArrayList<>(expected), new ArrayList<>(db.findTagPattern(regExp)));
+			assertEquals(expected.size(), db.getTagSelector(regExp).size());
+		}
+	}
+
+	@Test
+	public final void testCached() {
+		final TagDB db = BibTagDB.getDB();
+		assertSame(db.getTagSelector("5.*"), db.getTagSelector("5.*"));
+	}
+
+	@Test
+	public final void testGetLines() {
+		final Record record = parse();
+		final TagDB db = record.tagDB;
+		for (final String regExp : new String[] { "5.*", "50.0", "4000", "[0-9]{4}", "0.*|5.*", "7.*" }) {
+			final TagSelector selector = db.getTagSelector(regExp);
+			final Collection<Tag> tags = oldFindTagPattern(db, regExp);
+			final List<Line> expected = RecordUtils.getLines(record, tags);
+			assertEquals(regExp, expected, selector.getLines(record));
+			assertEquals(regExp, expected, RecordUtils.getLines(record, regExp));
+			assertEquals(regExp, !expected.isEmpty(), RecordUtils.containsField(record, selector));
+		}
+		final TagSelector selector = db.getTagSelector("5.*");
+		assertTrue(selector.test(db.findTag("5050")));
+		assertFalse(selector.test(db.findTag("4000")));
+		assertFalse(selector.test(null));
+	}
+
+	/**
+	 * 7100 gibt es als {@link HoldingsTag} (209A/01) und als
+	 * {@link BibliographicTag} (209A/XX). Beide passen auf "209A.*" und
+	 * finden im Datensatz dasselbe Feld, egal ob der Datensatz wenige oder
+	 * viele Felder hat.
+	 */
+	@Test
+	public final void testSamePica3() {
+		final TagDB db = BibTagDB.getDB();
+		final String regExp = "209A.*";
+		final TagSelector selector = db.getTagSelector(regExp);
+		final Collection<Tag> tags = oldFindTagPattern(db, regExp);
+		for (final Tag tag : tags) {
+			assertTrue(selector.test(tag));
+		}
+		final Record small = parse("SET: S1 [14] TTL: 1 PPN: 972620788 SEITE1 .\n\n" + HOLDINGS);
+		final Record large = parse(TITLE + HOLDINGS);
+		assertTrue(small.getTagsView().size() < selector.size());
+		assertTrue(large.getTagsView().size() > selector.size());
+		for (final Record record : new Record[] { small, large }) {
+			final List<Line> expected = RecordUtils.getLines(record, tags);
+			assertEquals(2, expected.size());
+			assertEquals(expected, selector.getLines(record));
+			assertEquals(expected, RecordUtils.getLines(record, regExp));
+			assertTrue(RecordUtils.containsField(record, selector));
+		}
+	}
+
+}
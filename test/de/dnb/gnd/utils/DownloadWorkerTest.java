@@ -0,0 +1,166 @@
+package de.dnb.gnd.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.dnb.gnd.parser.Record;
+
+public class DownloadWorkerTest {
+
+  private static byte[] input;
+
+  private static int recordCount;
+
+  private static String firstId;
+
+  /**
+   * {@link DownloadWorker#finalize()} schließt den outputStream, der
+   * Standard System.out darf es daher nicht sein.
+   */
+  private static <W extends DownloadWorker> W silent(final W worker) {
+    worker.outputStream = new PrintStream(new ByteArrayOutputStream());
+    return worker;
+  }
+
+  @BeforeClass
+  public static void readInput() throws IOException {
+    final byte[] sample = Files.readAllBytes(Paths.get("documents/GNDBeispiel.txt"));
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    for (int i = 0; i < 4; i++) {
+      bytes.write(sample);
+      bytes.write('\n');
+    }
+    input = bytes.toByteArray();
+    final DownloadWorker counter = silent(new DownloadWorker() {
+      @Override
+      protected void processRecord(final Record record) {
+        if (recordCount++ == 0)
+          firstId = record.getId();
+      }
+    });
+    counter.processInputStream(new ByteArrayInputStream(input));
+    assertTrue(recordCount > 500);
+  }
+
+  /**
+   * Gibt je Datensatz die Idn und die Tags in mehreren Aufrufen aus.
+   */
+  private static final class Printer extends DownloadWorker {
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    Printer(final int threads) throws IOException {
+      setThreads(threads);
+      outputStream = new PrintStream(bytes, false, "UTF-8");
+    }
+
+    @Override
+    protected void processRecord(final Record record) {
+      print(record.getId());
+      tab(Integer.toString(record.getLines().size()));
+      println();
+      printIterable(record.getTags());
+      println("--");
+    }
+
+    byte[] run() throws IOException {
+      processInputStream(new ByteArrayInputStream(input));
+      outputStream.flush();
+      return bytes.toByteArray();
+    }
+  }
+
+  @Test
+  public void testThreadsSameAsSequential() throws IOException {
+    final byte[] expected = new Printer(1).run();
+    assertTrue(expected.length > 10_000);
+    for (final int threads : new int[] { 2, 3, 8 }) {
+      assertEquals("threads: " + threads, new String(expected, "UTF-8"),
+        new String(new Printer(threads).run(), "UTF-8"));
+    }
+  }
+
+  @Test(timeout = 20_000)
+  public void testExceptionPropagates() throws IOException {
+    final AtomicInteger processed = new AtomicInteger();
+    final DownloadWorker worker = silent(new DownloadWorker() {
+      @Override
+      protected void processRecord(final Record record) {
+        if (processed.incrementAndGet() == 100)
+          throw new IllegalStateException("kaputt");
+      }
+    });
+    worker.setThreads(4);
+    try {
+      worker.processInputStream(new ByteArrayInputStream(input));
+      fail();
+    } catch (final RuntimeException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+      assertEquals("kaputt", e.getCause().getMessage());
+    }
+    // Nach dem Fehler werden keine weiteren Datensätze gelesen:
+    assertTrue(processed.get() < recordCount);
+  }
+
+  /**
+   * Solange der erste Datensatz hängt, darf der Leser nur so viele
+   * Datensätze ausgeben, wie Plätze im Semaphor sind (64 je Thread). Der
+   * erste Datensatz muss es sein, denn die Plätze werden in der Reihenfolge
+   * der Datensätze frei.
+   */
+  @Test(timeout = 20_000)
+  public void testInFlightBound() throws Exception {
+    final int threads = 2;
+    final int bound = threads * 64;
+    assertTrue(recordCount > bound);
+    final AtomicInteger started = new AtomicInteger();
+    final AtomicBoolean blocked = new AtomicBoolean();
+    final CountDownLatch release = new CountDownLatch(1);
+    final DownloadWorker worker = silent(new DownloadWorker() {
+      @Override
+      protected void processRecord(final Record record) {
+        started.incrementAndGet();
+        if (record.getId().equals(firstId) && blocked.compareAndSet(false, true)) {
+          try {
+            release.await();
+          } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      }
+    });
+    worker.setThreads(threads);
+    final Thread runner = new Thread(() ->
+    {
+      try {
+        worker.processInputStream(new ByteArrayInputStream(input));
+      } catch (final IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    runner.start();
+    while (started.get() < bound) {
+      Thread.sleep(10);
+    }
+    Thread.sleep(200);
+    assertEquals(bound, started.get());
+    release.countDown();
+    runner.join();
+    assertEquals(recordCount, started.get());
+  }
+
+}
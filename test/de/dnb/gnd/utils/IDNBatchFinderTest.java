@@ -0,0 +1,156 @@
+package de.dnb.gnd.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.dnb.basics.applicationComponents.tuples.Triplett;
+import de.dnb.basics.collections.BiMultimap;
+
+public class IDNBatchFinderTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static List<String> queries() {
+    final List<String> queries = new ArrayList<>();
+    for (int i = 0; i < 3000; i++) {
+      switch (i % 4) {
+      case 0:
+        queries.add("Name " + i);
+        break;
+      case 1:
+        queries.add("Verweisung " + i);
+        break;
+      case 2:
+        queries.add("Nme " + (i - 2));
+        break;
+      default:
+        queries.add("");
+        break;
+      }
+    }
+    return queries;
+  }
+
+  private static IDNFinderLeven makeFinder() {
+    final BiMultimap<Integer, String> names = BiMultimap.createSetMap();
+    final BiMultimap<Integer, String> verweisungen = BiMultimap.createSetMap();
+    for (int i = 0; i < 3000; i++) {
+      names.add(i, "Name " + i);
+      verweisungen.add(i, "Verweisung " + i);
+    }
+    return new IDNFinderLeven(names, verweisungen);
+  }
+
+  @Test
+  public void testSameAsSequential() throws IOException {
+    final IDNFinderLeven finder = makeFinder();
+    final List<String> queries = queries();
+    final List<NameMatch> matches = new ArrayList<>();
+    new IDNBatchFinder(finder::match, 4).findAll(queries.stream(), matches::add);
+
+    assertEquals(queries.size(), matches.size());
+    for (int i = 0; i < queries.size(); i++) {
+      final NameMatch match = matches.get(i);
+      assertEquals(queries.get(i), match.getName());
+      assertEquals(finder.match(queries.get(i)).toString(), match.toString());
+    }
+    assertEquals(1, matches.get(0).getLevel());
+    assertEquals(0, matches.get(0).getDistance());
+    assertEquals(3, matches.get(1).getLevel());
+    assertEquals(5, matches.get(2).getLevel());
+    assertEquals(1, matches.get(2).getDistance());
+    assertFalse(matches.get(3).isFound());
+    assertEquals(-1, matches.get(3).getDistance());
+  }
+
+  @Test
+  public void testFiles() throws IOException {
+    final BiMultimap<Integer, String> names = BiMultimap.createSetMap();
+    names.add(1, "Goethe, Johann Wolfgang von");
+    names.add(2, "Schiller, Friedrich");
+    final IDNFinder finder = new IDNFinder(names, BiMultimap.createSetMap());
+    final Path source = folder.newFile("namen.txt").toPath();
+    final Path target = folder.getRoot().toPath().resolve("ergebnis.txt");
+    Files.write(source, Arrays.asList("Schiller, Friedrich", "goethe, johann wolfgang von 1749",
+      "Lessing"), StandardCharsets.UTF_8);
+
+    new IDNBatchFinder(finder::match, 2).findAll(source, target);
+
+    final List<String> lines = Files.readAllLines(target, StandardCharsets.UTF_8);
+    assertEquals(3, lines.size());
+    assertTrue(lines.get(0), lines.get(0).startsWith("Schiller, Friedrich\t1\t0\t"));
+    assertTrue(lines.get(1), lines.get(1).startsWith("goethe, johann wolfgang von 1749\t5\t5\t"));
+    assertTrue(lines.get(1), lines.get(1).endsWith("\tGoethe, Johann Wolfgang von"));
+    assertEquals("Lessing\t9\t-1\t\t", lines.get(2));
+  }
+
+  /**
+   * find() liefert wie früher eine veränderbare Liste der Idns und ein Set
+   * der Namen.
+   */
+  @Test
+  public void testFindCollections() {
+    final BiMultimap<Integer, String> names = BiMultimap.createSetMap();
+    names.add(1, "Schiller, Friedrich");
+    final IDNFinder finder = new IDNFinder(names, BiMultimap.createSetMap());
+    final IDNFinderLeven leven = new IDNFinderLeven(names, BiMultimap.createSetMap());
+    for (final String query : Arrays.asList("Schiller, Friedrich", "Lessing")) {
+      final Triplett<Collection<String>, Collection<String>, Integer> found = finder.find(query);
+      final Triplett<Collection<String>, Collection<String>, Integer> foundLeven =
+        leven.find(query);
+      assertTrue(found.second instanceof Set);
+      assertEquals(found.first, foundLeven.first);
+      assertEquals(found.second, foundLeven.second);
+      assertEquals(found.third, foundLeven.third);
+      found.first.add("123");
+      found.second.add("Lessing");
+      // Änderungen wirken nicht auf spätere Ergebnisse:
+      assertFalse(finder.find(query).first.contains("123"));
+      assertFalse(finder.find(query).second.contains("Lessing"));
+    }
+    assertEquals(Collections.singleton("Schiller, Friedrich"),
+      finder.find("Schiller, Friedrich").second);
+    assertEquals(Integer.valueOf(NameMatch.KEIN_TREFFER), finder.find("Lessing").third);
+  }
+
+  /**
+   * "?" ist ohne Satzzeichen leer und darf nicht als Präfix jeder Anfrage
+   * gefunden werden.
+   */
+  @Test
+  public void testEmptyNormalizedName() throws IOException {
+    final BiMultimap<Integer, String> names = BiMultimap.createSetMap();
+    names.add(1, "Goethe, Johann");
+    names.add(2, "?");
+    final BiMultimap<Integer, String> verweisungen = BiMultimap.createSetMap();
+    verweisungen.add(3, "!");
+    final IDNFinder finder = new IDNFinder(names, verweisungen);
+    final Path directory = folder.newFolder().toPath();
+    finder.save(directory);
+    for (final IDNFinder current : Arrays.asList(finder, IDNFinder.open(directory))) {
+      assertEquals(Integer.valueOf(NameMatch.KEIN_TREFFER), current.find("Xyz unbekannt").third);
+      assertFalse(current.match("Xyz unbekannt").isFound());
+      assertEquals(Integer.valueOf(1), current.find("?").third);
+      assertEquals(Integer.valueOf(3), current.find("!").third);
+      assertEquals(Integer.valueOf(5), current.find("Goethe, Johann Wolfgang").third);
+    }
+  }
+
+}
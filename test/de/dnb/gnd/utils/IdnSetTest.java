@@ -0,0 +1,140 @@
+package de.dnb.gnd.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.dnb.basics.collections.MappedIntSet;
+import de.dnb.gnd.parser.RecordReader;
+
+public class IdnSetTest {
+
+  @Test
+  public void testSetOperations() {
+    final IdnSet set1 = new IdnSet();
+    assertTrue(set1.add("1136084800"));
+    assertTrue(set1.add("4019294-5"));
+    assertTrue(set1.contains(113608480));
+    assertTrue(set1.contains("4019294-5"));
+    assertTrue(set1.getSizeInBytes() < 200);
+
+    final IdnSet set2 = new IdnSet();
+    set2.add(113608480);
+    set2.add(42);
+    assertEquals(1, set1.intersectionSize(set2));
+    assertEquals(3, set1.unionSize(set2));
+    assertEquals(1, set1.differenceSize(set2));
+    assertTrue(set1.intersects(set2));
+
+    final IdnSet union = new IdnSet(set1);
+    assertTrue(union.addAll(set2));
+    assertFalse(union.addAll(set2));
+    assertEquals(3, union.size());
+    assertTrue(union.removeAll(set2));
+    assertFalse(union.removeAll(set2));
+    assertEquals(1, union.size());
+
+    final IdnSet intersection = new IdnSet(set1);
+    assertTrue(intersection.retainAll(set2));
+    assertFalse(intersection.retainAll(set2));
+    assertEquals(Arrays.asList(113608480), Arrays.asList(intersection.toArray()));
+    assertFalse(intersection.retainAll(Arrays.asList(113608480, 5)));
+    assertTrue(intersection.retainAll(Arrays.asList(5)));
+    assertTrue(intersection.isEmpty());
+    assertEquals(2, set1.size());
+  }
+
+  @Test
+  public void testStreaming() throws Exception {
+    final IdnSet expected = new IdnSet();
+    try (RecordReader reader = new RecordReader(new File("documents/GNDBeispiel.txt"), "UTF-8")) {
+      reader.forEachRemaining(record -> expected.add(record.getId()));
+    }
+    assertTrue(expected.size() > 50);
+    try (RecordReader reader = new RecordReader(new File("documents/GNDBeispiel.txt"), "UTF-8")) {
+      assertEquals(Arrays.asList(expected.toArray()),
+        Arrays.asList(IdnSet.fromRecords(reader).toArray()));
+    }
+
+    final Path path = Files.createTempFile("IdnSetTest", ".txt");
+    try {
+      Files.write(path, Arrays.asList("4019294-5", "  1136084800;x", "kein Treffer", "", "12"),
+        StandardCharsets.UTF_8);
+      final IdnSet withCheck = IdnSet.fromIdnFile(path, true);
+      assertEquals(Arrays.asList(4019294, 113608480), Arrays.asList(withCheck.toArray()));
+      final IdnSet plain = IdnSet.fromIdnFile(path, false);
+      assertEquals(Arrays.asList(12, 1136084800), Arrays.asList(plain.toArray()));
+
+      withCheck.save(path);
+      final MappedIntSet mapped = IdnSet.map(path);
+      assertTrue(mapped.contains(IDNUtils.idn2int("4019294-5")));
+      assertFalse(mapped.contains(12));
+    } finally {
+      Files.delete(path);
+    }
+
+    final IdnSet a = IdnSet.fromIdnFile(Paths.get("documents/GNDBeispiel.txt"), false);
+    assertTrue(IdnSet.difference(expected, a, expected).isEmpty());
+    assertEquals(expected.size(), IdnSet.union(expected, new IdnSet()).size());
+    assertTrue(IdnSet.intersection(expected, new IdnSet()).isEmpty());
+  }
+
+  /**
+   * Eine IdnSet mit 0, 1, 63, 64, 1000, 1001, 1002 und 4099, serialisiert
+   * mit der früheren Fassung (Feld bitSet vom Typ BitSet).
+   */
+  private static final String LEGACY_BLOB =
+    "rO0ABXNyABdkZS5kbmIuZ25kLnV0aWxzLklkblNldLRJj8rzAQ1JAgABTAAGYml0U2V0dAAS"
+    + "TGphdmEvdXRpbC9CaXRTZXQ7eHBzcgAQamF2YS51dGlsLkJpdFNldG79iH45NKshAwABWwAE"
+    + "Yml0c3QAAltKeHB1cgACW0p4IAS1ErF1kwIAAHhwAAAAQYAAAAAAAAADAAAAAAAAAAEAAAAA"
+    + "AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA"
+    + "AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAABwAAAAAA"
+    + "AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA"
+    + "AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA"
+    + "AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA"
+    + "AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA"
+    + "AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA"
+    + "AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA"
+    + "AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA"
+    + "AAAAAAAAAAAAAAAAAAh4";
+
+  private static Object deserialize(final byte[] bytes) throws Exception {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return in.readObject();
+    }
+  }
+
+  @Test
+  public void testSerialization() throws Exception {
+    final IdnSet legacy = (IdnSet) deserialize(Base64.getDecoder().decode(LEGACY_BLOB));
+    final List<Integer> expected = Arrays.asList(0, 1, 63, 64, 1000, 1001, 1002, 4099);
+    assertEquals(expected, new ArrayList<>(legacy));
+    assertTrue(legacy.add(113608480));
+
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(legacy);
+    }
+    final IdnSet copy = (IdnSet) deserialize(bytes.toByteArray());
+    assertEquals(new ArrayList<>(legacy), new ArrayList<>(copy));
+    assertEquals(legacy.size(), copy.size());
+    assertTrue(copy.contains(113608480));
+  }
+
+}
@@ -0,0 +1,73 @@
+package de.dnb.gnd.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.dnb.basics.Constants;
+import de.dnb.gnd.parser.Record;
+import de.dnb.gnd.parser.RecordReader;
+
+public class KomprimiererTest {
+
+  private static final String SOURCE = "documents/GNDBeispiel.txt";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static String gunzip(final File file) throws IOException {
+    try (InputStream in = new GZIPInputStream(Files.newInputStream(file.toPath()))) {
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      final byte[] buffer = new byte[8192];
+      int n;
+      while ((n = in.read(buffer)) > 0) {
+        bytes.write(buffer, 0, n);
+      }
+      return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+  }
+
+  @Test
+  public void testThreadsSameAsSequential() throws IOException {
+    final File input = folder.newFolder("input");
+    Files.copy(Paths.get(SOURCE), input.toPath().resolve("dl_1.txt"));
+    Files.copy(Paths.get(SOURCE), input.toPath().resolve("dl_2.txt"));
+
+    final List<Record> records = new ArrayList<>();
+    try (RecordReader reader = new RecordReader(new File(SOURCE), "UTF-8")) {
+      reader.forEachRemaining(records::add);
+    }
+    assertTrue(records.size() > 50);
+    final StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 2; i++) {
+      for (final Record record : records) {
+        expected.append(Komprimierer.toGZip(record)).append(Constants.LINE_SEPARATOR);
+      }
+    }
+
+    final File sequential = new File(folder.getRoot(), "seq.gzip");
+    Komprimierer.komprimiere(input.getPath(), "dl_", sequential.getPath());
+    assertEquals(expected.toString(), gunzip(sequential));
+
+    for (final int threads : new int[] { 2, 4, 8 }) {
+      final File concurrent = new File(folder.getRoot(), "conc" + threads + ".gzip");
+      Komprimierer.komprimiere(input.getPath(), "dl_", concurrent.getPath(), threads);
+      assertEquals("threads: " + threads, expected.toString(), gunzip(concurrent));
+    }
+  }
+
+}
@@ -0,0 +1,79 @@
+package de.dnb.gnd.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.dnb.basics.Constants;
+import de.dnb.gnd.parser.Format;
+import de.dnb.gnd.parser.Record;
+import de.dnb.gnd.parser.RecordParser;
+import de.dnb.gnd.parser.RecordReader;
+
+public class PicaWriterTest {
+
+  private static List<Record> read(final String fileName) throws Exception {
+    final List<Record> records = new ArrayList<>();
+    try (RecordReader reader = new RecordReader(new File(fileName), "UTF-8")) {
+      reader.forEachRemaining(records::add);
+    }
+    return records;
+  }
+
+  private static String expected(final List<Record> records, final Format format) {
+    final StringBuilder builder = new StringBuilder();
+    for (final Record record : records) {
+      builder.append(
+        RecordUtils.toPica(record, format, false, Constants.RS, Constants.MARC_SUB_SEP));
+      builder.append('\n');
+    }
+    return builder.toString();
+  }
+
+  @Test
+  public void testSameAsToPica() throws Exception {
+    final List<Record> records = read("documents/GNDBeispiel.txt");
+    assertTrue(records.size() > 50);
+    for (final Format format : Format.values()) {
+      final StringWriter stringWriter = new StringWriter();
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      final PrintStream printStream = new PrintStream(bytes, false, "UTF-8");
+      for (final Appendable out : new Appendable[] { stringWriter, printStream }) {
+        try (PicaWriter writer = new PicaWriter(out)) {
+          writer.setFormat(format).setExpanded(false).setLineSeparator(Constants.RS)
+            .setSubfieldSeparator(Constants.MARC_SUB_SEP);
+          for (final Record record : records) {
+            writer.write(record);
+            writer.append("\n");
+          }
+        }
+      }
+      assertEquals(expected(records, format), stringWriter.toString());
+      assertEquals(expected(records, format), new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  public void testComposition() throws Exception {
+    final RecordParser parser = new RecordParser();
+    parser.setInputNormalized(true);
+    final Record record = parser.parse("005 Tp1\n150 Cafe\u0301");
+    assertEquals("Cafe\u0301", RecordUtils.getContentOfSubfield(record, "150", 'a'));
+    final StringWriter out = new StringWriter();
+    try (PicaWriter writer = new PicaWriter(out)) {
+      writer.write(record);
+    }
+    assertTrue(out.toString().endsWith("150 Caf\u00e9"));
+    assertEquals(RecordUtils.toPica(record), out.toString());
+  }
+
+}
@@ -0,0 +1,93 @@
+package de.dnb.gnd.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import de.dnb.basics.Constants;
+import de.dnb.basics.applicationComponents.MyFileUtils;
+import de.dnb.basics.applicationComponents.strings.StringInputStream;
+import de.dnb.gnd.parser.RecordReader;
+import de.dnb.gnd.parser.tag.BibTagDB;
+import de.dnb.gnd.parser.tag.TagDB;
+
+public class RecordPreFilterTest {
+
+  private static final TagDB DB = BibTagDB.getDB();
+
+  //@formatter:off
+  private static final String TITLE =
+                  "001A " + Constants.US + "01250:01-07-88"
+    + Constants.RS + "021A " + Constants.US + "aTitel über Physik"
+    + Constants.RS + "034D " + Constants.US + "a300 S.";
+  private static final String SERIES =
+                  "001A " + Constants.US + "01250:01-07-88"
+    + Constants.RS + "036E " + Constants.US + "aReihe";
+  //@formatter:on
+
+  private static void assertFilter(final boolean expected, final RecordPreFilter filter,
+      final String record) {
+    assertEquals(filter.toString(), expected, filter.test(record));
+    for (final Charset charset : new Charset[] { StandardCharsets.UTF_8,
+      StandardCharsets.ISO_8859_1 }) {
+      // mit Rand, damit offset und length geprüft werden:
+      final byte[] bytes = ("xx" + record + "yy").getBytes(charset);
+      final int length = bytes.length - 4;
+      assertEquals(filter.toString(), expected, filter.test(bytes, 2, length, charset));
+    }
+  }
+
+  @Test
+  public void testLeaves() {
+    final RecordPreFilter has4000 = RecordPreFilter.containsTag("4000", DB);
+    assertFilter(true, has4000, TITLE);
+    assertFilter(false, has4000, SERIES);
+    assertFilter(true, RecordPreFilter.containsTag("0200", DB), TITLE);
+    assertFilter(true, RecordPreFilter.containsAnyTag(DB, "4180", "4060"), TITLE);
+    assertFilter(false, RecordPreFilter.containsAnyTag(DB, "4180", "4061"), TITLE);
+    assertFilter(true, RecordPreFilter.containsTag("4000", 'a', "Titel", DB), TITLE);
+    assertFilter(false, RecordPreFilter.containsTag("4000", 'a', "Reihe", DB), TITLE);
+    assertFilter(true, RecordPreFilter.contains("über"), TITLE);
+    assertFilter(false, RecordPreFilter.contains("uber", "Chemie"), TITLE);
+    assertFilter(true, RecordPreFilter.containsSubfield('a', "Rei"), SERIES);
+  }
+
+  @Test
+  public void testCombinations() {
+    final RecordPreFilter has4000 = RecordPreFilter.containsTag("4000", DB);
+    final RecordPreFilter has4170 = RecordPreFilter.containsTag("4170", DB);
+    final RecordPreFilter physik = RecordPreFilter.contains("Physik");
+    assertFilter(true, has4000.and(physik), TITLE);
+    assertFilter(false, has4000.and(physik.negate()), TITLE);
+    assertFilter(true, has4000.and(RecordPreFilter.not(has4170)), TITLE);
+    assertFilter(true, has4000.or(has4170), SERIES);
+    assertFilter(false, RecordPreFilter.and(has4000, has4170), SERIES);
+    assertFilter(true, RecordPreFilter.not(has4000), SERIES);
+    // XOR, derselbe Test zweimal im Ausdruck:
+    final RecordPreFilter xor = RecordPreFilter.or(has4000.and(has4170.negate()),
+      has4170.and(has4000.negate()));
+    assertFilter(true, xor, TITLE);
+    assertFilter(true, xor, SERIES);
+    assertFilter(false, xor, TITLE + Constants.RS + "036E " + Constants.US + "aReihe");
+  }
+
+  @Test
+  public void testReader() {
+    final String s = TITLE + "\n" + SERIES + "\n" + TITLE + "\n";
+    final RecordReader reader =
+      new RecordReader(new StringInputStream(s.getBytes(StandardCharsets.UTF_8)), "UTF-8");
+    reader.gzipSettings();
+    reader.setStreamFilter(RecordPreFilter.containsTag("4000", reader.BIB_TAG_DB)
+      .and(RecordPreFilter.contains("Physik")));
+    assertEquals(2, reader.stream().count());
+    MyFileUtils.safeClose(reader);
+    assertFalse(RecordPreFilter.contains("a").test(""));
+    assertTrue(RecordPreFilter.not(RecordPreFilter.contains("a")).test(""));
+  }
+
+}